@@ -0,0 +1,163 @@
+package com.hes.collector.archive;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Block load archive against raw Postgres rows: compression ratio is printed once during setup,
+ * decode speed is reported in rows per millisecond. Multiply by the printed decoded bytes per
+ * row to get MB/s. One month of 15-minute profiles per meter, with registers that hold their
+ * value across a few intervals the way real block load data does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockLoadCompressionBenchmark {
+    private static final int METERS = 100;
+    private static final int ROWS = 2976;
+    private static final long PERIOD = 15 * 60 * 1000L;
+    private static final long BASE = 1704067200000L;
+
+    /**
+     * Estimated heap footprint of one {@code block_load_profiles} row: 24 byte tuple header,
+     * 4 byte item pointer, int id, short varchar serial, timestamptz, 14 float8, int, smallint.
+     */
+    private static final int POSTGRES_ROW_BYTES = 24 + 4 + 4 + 12 + 8 + 14 * 8 + 4 + 2;
+    private static final int DECODED_ROW_BYTES = 8 + BlockLoadColumn.values().length * 8;
+
+    private Path file;
+    private BlockLoadArchiveReader reader;
+    private ArchiveEntry entry;
+    private byte[] timestamps;
+    private byte[] voltage;
+    private long[] timestampOut;
+    private double[] valueOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("block-load-benchmark", ".hla");
+        SplittableRandom random = new SplittableRandom(42);
+        BlockLoadSeries first = null;
+        try (BlockLoadArchiveWriter writer = new BlockLoadArchiveWriter(file)) {
+            for (int m = 0; m < METERS; m++) {
+                BlockLoadSeries series = generate(String.format("MTR%06d", m), random);
+                writer.write(series);
+                if (first == null) {
+                    first = series;
+                }
+            }
+            long rows = (long) METERS * ROWS;
+            System.out.printf("%nbytes/row: postgres~%d raw=%.1f archive=%.2f ratio: postgres=%.1fx raw=%.1fx%n",
+                POSTGRES_ROW_BYTES, (double) writer.getRawBytes() / rows, (double) writer.getCompressedBytes() / rows,
+                (double) POSTGRES_ROW_BYTES * rows / writer.getCompressedBytes(),
+                (double) writer.getRawBytes() / writer.getCompressedBytes());
+            System.out.printf("decoded bytes/row: %d (MB/s = rows/ms * %d / 1000)%n",
+                DECODED_ROW_BYTES, DECODED_ROW_BYTES);
+            writer.commit();
+        }
+        reader = new BlockLoadArchiveReader(file);
+        entry = reader.getEntries().get(0);
+        timestamps = GorillaCodec.encodeTimestamps(first.getCaptureTimes(), ROWS);
+        voltage = GorillaCodec.encodeValues(first.getValues(BlockLoadColumn.VOLTAGE_VRN), ROWS);
+        timestampOut = new long[ROWS];
+        valueOut = new double[ROWS];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reader.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long[] decodeTimestamps() {
+        GorillaCodec.decodeTimestamps(timestamps, 0, timestamps.length, ROWS, timestampOut);
+        return timestampOut;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double[] decodeColumn() {
+        GorillaCodec.decodeValues(voltage, 0, voltage.length, ROWS, valueOut);
+        return valueOut;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BlockLoadSeries readMeter() throws IOException {
+        return reader.read(entry);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BlockLoadSeries readBillingColumns() throws IOException {
+        return reader.read(entry, EnumSet.of(BlockLoadColumn.BLOCK_ENERGY_WH_IMPORT,
+            BlockLoadColumn.BLOCK_ENERGY_WH_EXPORT, BlockLoadColumn.BLOCK_ENERGY_VAH_IMPORT));
+    }
+
+    private static BlockLoadSeries generate(String serial, SplittableRandom random) {
+        BlockLoadSeries series = new BlockLoadSeries(serial, ROWS);
+        double[] row = new double[BlockLoadColumn.values().length];
+        row[BlockLoadColumn.METER_HEALTH_INDICATOR.ordinal()] = 0;
+        for (int i = 0; i < ROWS; i++) {
+            for (BlockLoadColumn column : BlockLoadColumn.values()) {
+                if (i > 0 && random.nextInt(4) != 0) {
+                    continue;
+                }
+                row[column.ordinal()] = sample(column, random);
+            }
+            series.add(BASE + i * PERIOD, row);
+        }
+        return series;
+    }
+
+    private static double sample(BlockLoadColumn column, SplittableRandom random) {
+        switch (column) {
+            case CURRENT_IR:
+            case CURRENT_IY:
+            case CURRENT_IB:
+                return random.nextInt(0, 600) / 10.0;
+            case VOLTAGE_VRN:
+            case VOLTAGE_VYN:
+            case VOLTAGE_VBN:
+                return 230.0 + random.nextInt(-20, 21) / 4.0;
+            case METER_HEALTH_INDICATOR:
+                return 0;
+            case SIGNAL_STRENGTH:
+                return random.nextInt(-90, -60);
+            default:
+                return random.nextInt(0, 2500);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(BlockLoadCompressionBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
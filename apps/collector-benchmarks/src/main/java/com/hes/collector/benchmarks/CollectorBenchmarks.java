@@ -0,0 +1,30 @@
+package com.hes.collector.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Runs every benchmark, or those matching the regex in the
+ * first argument, and writes the results as JMH JSON to the second argument (default
+ * {@code jmh-result.json}) so runs from different releases can be compared.
+ *
+ * <pre>java -jar target/benchmarks.jar 'dlms\..*' results/1.0.0.json</pre>
+ */
+public final class CollectorBenchmarks {
+    private static final String DEFAULT_RESULT = "jmh-result.json";
+
+    private CollectorBenchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*";
+        String result = args.length > 1 ? args[1] : DEFAULT_RESULT;
+        new Runner(new OptionsBuilder()
+            .include(include)
+            .resultFormat(ResultFormatType.JSON)
+            .result(result)
+            .build()).run();
+    }
+}
@@ -0,0 +1,109 @@
+package com.hes.collector.dlms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a block load profile buffer of 1000 rows x 20 columns: the {@link DataObject} tree
+ * from {@link AxdrCodec#decode} against {@link AxdrStructureCursor}. Both sum every numeric
+ * column so neither can skip work. Time is per row; run {@code main}, which adds the GC
+ * profiler, and compare {@code gc.alloc.rate.norm} to see bytes allocated per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataObjectAllocationBenchmark {
+    private static final int ROWS = 1000;
+    private static final int COLUMNS = 20;
+
+    private byte[] buffer;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        ByteBuffer out = ByteBuffer.allocate(ROWS * (COLUMNS * 9 + 20));
+        out.put((byte) AxdrCodec.ARRAY);
+        AxdrCodec.putLength(out, ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            AxdrCodec.putStructureHeader(out, COLUMNS);
+            AxdrCodec.putOctetString(out, AxdrCodec.encodeDateTime(start.plusMinutes(15L * i)));
+            for (int c = 1; c < COLUMNS; c++) {
+                switch (c % 4) {
+                    case 0:
+                        out.put((byte) AxdrCodec.LONG_UNSIGNED).putShort((short) random.nextInt(22000, 25000));
+                        break;
+                    case 1:
+                        out.put((byte) AxdrCodec.LONG).putShort((short) random.nextInt(-600, 600));
+                        break;
+                    case 2:
+                        out.put((byte) AxdrCodec.DOUBLE_LONG_UNSIGNED).putInt(random.nextInt(0, Integer.MAX_VALUE));
+                        break;
+                    default:
+                        out.put((byte) AxdrCodec.FLOAT32).putFloat((float) random.nextDouble(0, 10));
+                        break;
+                }
+            }
+        }
+        buffer = Arrays.copyOf(out.array(), out.position());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double decodeTree() {
+        double sum = 0;
+        List<DataObject> rows = AxdrCodec.decode(buffer).asArray();
+        for (DataObject row : rows) {
+            List<DataObject> columns = row.asStructure();
+            sum += columns.get(0).asByteView().get(11);
+            for (int c = 1; c < COLUMNS; c++) {
+                sum += columns.get(c).doubleValue();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double cursor() {
+        double sum = 0;
+        AxdrStructureCursor cursor = AxdrStructureCursor.over(buffer);
+        while (cursor.next()) {
+            sum += cursor.getBytes(0).get(11);
+            for (int c = 1; c < COLUMNS; c++) {
+                sum += cursor.getDouble(c);
+            }
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(DataObjectAllocationBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
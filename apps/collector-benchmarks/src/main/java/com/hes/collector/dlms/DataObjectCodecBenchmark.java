@@ -0,0 +1,76 @@
+package com.hes.collector.dlms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AxdrCodec} round trip of an instantaneous profile entry: a structure with a capture
+ * time, voltages, currents, energy registers and a status word. {@code decodeView} shares the
+ * octet strings with the input instead of copying them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataObjectCodecBenchmark {
+    private DataObject value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        value = DataObject.newStructure(Arrays.asList(
+            DataObject.newOctetString(AxdrCodec.encodeDateTime(LocalDateTime.of(2024, 1, 1, 12, 30))),
+            DataObject.newUnsigned(23_012),
+            DataObject.newUnsigned(22_987),
+            DataObject.newUnsigned(23_105),
+            DataObject.newInteger(-1_250),
+            DataObject.newInteger(1_310),
+            DataObject.newInteger(1_198),
+            DataObject.newUnsigned(12_345_678),
+            DataObject.newUnsigned(2_345_678),
+            DataObject.newFloat(0.98f),
+            DataObject.newDouble(49.97),
+            DataObject.newBitString(new byte[] {0x01, 0x00}),
+            DataObject.newBoolean(true)));
+        encoded = AxdrCodec.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return AxdrCodec.encode(value);
+    }
+
+    @Benchmark
+    public DataObject decode() {
+        return AxdrCodec.decode(encoded);
+    }
+
+    @Benchmark
+    public DataObject decodeView() {
+        return AxdrCodec.decodeView(ByteBuffer.wrap(encoded));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(DataObjectCodecBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
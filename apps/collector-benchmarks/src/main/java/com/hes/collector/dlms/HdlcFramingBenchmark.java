@@ -0,0 +1,77 @@
+package com.hes.collector.dlms;
+
+import com.hes.collector.config.DlmsConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HDLC framing of a register read: encoding and decoding one I-frame, and a full
+ * {@link HdlcConnection#send} round trip against a socket that replays the meter's response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HdlcFramingBenchmark {
+    private byte[] request;
+    private byte[] serverAddress;
+    private byte[] clientAddress;
+    private byte[] responseFrame;
+    private HdlcConnection connection;
+
+    @Setup
+    public void setUp() throws IOException {
+        DlmsConfig config = new DlmsConfig();
+        serverAddress = HdlcFrame.serverAddress(config.getServerUpperMacAddress(), config.getServerLowerMacAddress());
+        clientAddress = HdlcFrame.clientAddress(config.getClientId());
+        request = CosemApdu.getRequest(1, CosemObject.StandardObjects.ACTIVE_POWER_IMPORT);
+        byte[] data = AxdrCodec.encode(DataObject.newStructure(Arrays.asList(
+            DataObject.newDateTime(LocalDateTime.of(2024, 1, 1, 0, 15)),
+            DataObject.newUnsigned(1_234_567),
+            DataObject.newInteger(-2))));
+        responseFrame = HdlcFrame.encode(clientAddress, serverAddress, HdlcFrame.informationControl(1, 0),
+            HdlcFrame.withLlc(true, CosemApdu.getResponse(1, data)));
+        connection = new HdlcConnection(new ReplayingSocket(responseFrame), config);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return HdlcFrame.encode(serverAddress, clientAddress, HdlcFrame.informationControl(0, 0),
+            HdlcFrame.withLlc(false, request));
+    }
+
+    @Benchmark
+    public HdlcFrame decode() {
+        // Between the flags
+        return HdlcFrame.decode(responseFrame, 1, responseFrame.length - 2);
+    }
+
+    @Benchmark
+    public byte[] send() throws IOException {
+        return connection.send(request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(HdlcFramingBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
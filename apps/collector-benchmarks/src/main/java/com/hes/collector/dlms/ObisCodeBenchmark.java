@@ -0,0 +1,139 @@
+package com.hes.collector.dlms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * OBIS parsing and hash map lookup: the packed, interned {@link ObisCode} against the previous
+ * regex, split and byte[] implementation, kept here as {@link LegacyObisCode}. Time is reported
+ * per code. Run with {@code main} or through {@link com.hes.collector.benchmarks.CollectorBenchmarks}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObisCodeBenchmark {
+    private static final String[] CODES = {
+        "0.0.1.0.0.255", "0.0.96.1.0.255", "0.0.96.3.10.255", "1.0.1.7.0.255", "1.0.2.7.0.255",
+        "1.0.1.8.0.255", "1.0.2.8.0.255", "1.0.9.7.0.255", "1.0.13.7.0.255", "1.0.14.7.0.255",
+        "1.0.31.7.0.255", "1.0.51.7.0.255", "1.0.71.7.0.255", "1.0.32.7.0.255", "1.0.52.7.0.255",
+        "1.0.72.7.0.255", "1.0.99.1.0.255", "1.0.99.2.0.255", "1.0.98.1.0.255", "0.0.94.91.0.255"
+    };
+
+    private Map<ObisCode, Integer> packedMap;
+    private Map<LegacyObisCode, Integer> legacyMap;
+    private ObisCode[] packedKeys;
+    private LegacyObisCode[] legacyKeys;
+
+    @Setup
+    public void setUp() {
+        packedMap = new HashMap<>();
+        legacyMap = new HashMap<>();
+        packedKeys = new ObisCode[CODES.length];
+        legacyKeys = new LegacyObisCode[CODES.length];
+        for (int i = 0; i < CODES.length; i++) {
+            packedMap.put(ObisCode.parse(CODES[i]), i);
+            legacyMap.put(LegacyObisCode.parse(CODES[i]), i);
+            // Lookup keys are separate instances, as when decoded off the wire
+            packedKeys[i] = ObisCode.fromLong(ObisCode.parse(CODES[i]).toLong());
+            legacyKeys[i] = LegacyObisCode.parse(CODES[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(20)
+    public int parsePacked() {
+        int sum = 0;
+        for (String code : CODES) {
+            sum += ObisCode.parse(code).hashCode();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(20)
+    public int parseLegacy() {
+        int sum = 0;
+        for (String code : CODES) {
+            sum += LegacyObisCode.parse(code).hashCode();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(20)
+    public int lookupPacked() {
+        int sum = 0;
+        for (ObisCode key : packedKeys) {
+            sum += packedMap.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(20)
+    public int lookupLegacy() {
+        int sum = 0;
+        for (LegacyObisCode key : legacyKeys) {
+            sum += legacyMap.get(key);
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ObisCodeBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+
+    static final class LegacyObisCode {
+        private static final Pattern OBIS_PATTERN = Pattern.compile("^\\d+\\.\\d+\\.\\d+\\.\\d+\\.\\d+\\.\\d+$");
+        private final byte[] code;
+
+        private LegacyObisCode(byte[] code) {
+            this.code = Arrays.copyOf(code, 6);
+        }
+
+        static LegacyObisCode parse(String obisString) {
+            if (!OBIS_PATTERN.matcher(obisString).matches()) {
+                throw new IllegalArgumentException("Invalid OBIS code format");
+            }
+            String[] parts = obisString.split("\\.");
+            byte[] code = new byte[6];
+            for (int i = 0; i < 6; i++) {
+                code[i] = (byte) Integer.parseInt(parts[i]);
+            }
+            return new LegacyObisCode(code);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof LegacyObisCode && Arrays.equals(code, ((LegacyObisCode) obj).code);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(code);
+        }
+    }
+}
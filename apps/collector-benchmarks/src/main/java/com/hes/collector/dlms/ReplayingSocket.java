@@ -0,0 +1,50 @@
+package com.hes.collector.dlms;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+/**
+ * Unconnected socket that discards everything written and answers every read from the same
+ * response, repeated forever, so connection benchmarks measure framing without network I/O.
+ */
+final class ReplayingSocket extends Socket {
+    private final InputStream in;
+    private final OutputStream out = OutputStream.nullOutputStream();
+
+    ReplayingSocket(byte[] response) {
+        this.in = new InputStream() {
+            private int position;
+
+            @Override
+            public int read() {
+                int b = response[position] & 0xFF;
+                position = (position + 1) % response.length;
+                return b;
+            }
+
+            @Override
+            public int read(byte[] target, int offset, int length) {
+                int n = Math.min(length, response.length - position);
+                System.arraycopy(response, position, target, offset, n);
+                position = (position + n) % response.length;
+                return n;
+            }
+
+            @Override
+            public int available() {
+                return response.length - position;
+            }
+        };
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return in;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return out;
+    }
+}
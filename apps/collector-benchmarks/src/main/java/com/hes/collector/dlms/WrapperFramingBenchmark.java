@@ -0,0 +1,60 @@
+package com.hes.collector.dlms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TcpConnection#send} over the IEC 62056-47 wrapper: building the 8-byte header for a
+ * GET request and reading back a response of {@code responseLength} bytes from a replaying socket.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WrapperFramingBenchmark {
+    @Param({"16", "512", "2000"})
+    private int responseLength;
+
+    private byte[] request;
+    private TcpConnection connection;
+
+    @Setup
+    public void setUp() throws IOException {
+        request = CosemApdu.getRequest(1, CosemObject.StandardObjects.ACTIVE_POWER_IMPORT);
+        ByteBuffer response = ByteBuffer.allocate(8 + responseLength);
+        response.putShort((short) 1).putShort((short) 1).putShort((short) 1).putShort((short) responseLength);
+        for (int i = 0; i < responseLength; i++) {
+            response.put((byte) i);
+        }
+        connection = new TcpConnection(new ReplayingSocket(response.array()));
+    }
+
+    @Benchmark
+    public byte[] send() throws IOException {
+        return connection.send(request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(WrapperFramingBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,75 @@
+package com.hes.collector.dlms.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * High level security (AES-GCM with a 128-bit key) on APDUs of {@code apduLength} bytes:
+ * encryption, decryption of the same ciphertext, and the authentication tag.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecuritySuiteBenchmark {
+    @Param({"32", "256", "1024"})
+    private int apduLength;
+
+    private SecuritySuite suite;
+    private byte[] apdu;
+    private byte[] ciphertext;
+
+    @Setup
+    public void setUp() throws Exception {
+        SplittableRandom random = new SplittableRandom(7);
+        suite = SecuritySuite.highLevelSecurity(bytes(random, 16), bytes(random, 16), bytes(random, 8));
+        apdu = bytes(random, apduLength);
+        ciphertext = suite.encrypt(apdu);
+    }
+
+    @Benchmark
+    public byte[] encrypt() throws Exception {
+        return suite.encrypt(apdu);
+    }
+
+    @Benchmark
+    public byte[] decrypt() throws Exception {
+        return suite.decrypt(ciphertext);
+    }
+
+    @Benchmark
+    public byte[] authenticate() throws Exception {
+        return suite.authenticate(apdu);
+    }
+
+    private static byte[] bytes(SplittableRandom random, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) random.nextInt(256);
+        }
+        return bytes;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(SecuritySuiteBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
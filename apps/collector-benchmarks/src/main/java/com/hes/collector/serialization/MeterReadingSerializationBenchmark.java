@@ -0,0 +1,131 @@
+package com.hes.collector.serialization;
+
+import com.hes.collector.model.MeterReading;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of a simulator-shaped reading: Spring's JSON serde against the binary
+ * record codec and the columnar batch envelope. Time is reported per reading; sizes are
+ * printed once during setup. Run with {@code main} or through {@link com.hes.collector.benchmarks.CollectorBenchmarks}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeterReadingSerializationBenchmark {
+    private static final String TOPIC = "meter-readings";
+    private static final int BATCH = 500;
+
+    private final JsonSerializer<MeterReading> jsonSerializer = new JsonSerializer<>();
+    private final JsonDeserializer<MeterReading> jsonDeserializer = new JsonDeserializer<>(MeterReading.class, false);
+    private final MeterReadingSerializer binarySerializer = new MeterReadingSerializer();
+    private final MeterReadingDeserializer binaryDeserializer = new MeterReadingDeserializer();
+
+    private MeterReading reading;
+    private byte[] json;
+    private byte[] binary;
+    private List<MeterReading> batch;
+    private byte[] batchBytes;
+
+    @Setup
+    public void setUp() {
+        batch = new ArrayList<>(BATCH);
+        SplittableRandom random = new SplittableRandom(42);
+        Instant base = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(MeterReading.builder()
+                .meterSerialNumber(String.format("MTR%06d", i % 100))
+                .timestamp(base.plusSeconds(30L * (i / 100)))
+                .captureTime(base.plusSeconds(30L * (i / 100)))
+                .collectionTime(base.plusSeconds(30L * (i / 100) + 1))
+                .rtcTime("240101000000")
+                .l1CurrentIr(random.nextDouble(0, 60))
+                .l2CurrentIy(random.nextDouble(0, 60))
+                .l3CurrentIb(random.nextDouble(0, 60))
+                .l1VoltageVrn(random.nextDouble(220, 240))
+                .l2VoltageVyn(random.nextDouble(220, 240))
+                .l3VoltageVbn(random.nextDouble(220, 240))
+                .l1PowerFactor(random.nextDouble(0.8, 1))
+                .l2PowerFactor(random.nextDouble(0.8, 1))
+                .l3PowerFactor(random.nextDouble(0.8, 1))
+                .threePhasePf(random.nextDouble(0.8, 1))
+                .frequencyDouble(50.0)
+                .apparentPowerDouble(random.nextDouble(0, 10000))
+                .activePower(random.nextDouble(0, 10000))
+                .reactivePower(random.nextDouble(0, 3000))
+                .cumEnergyWhImport(random.nextDouble(0, 1_000_000))
+                .cumEnergyWhExport(random.nextDouble(0, 100_000))
+                .readingType("INSTANTANEOUS")
+                .source("SIMULATOR")
+                .isValid(true)
+                .build());
+        }
+        reading = batch.get(0);
+        json = jsonSerializer.serialize(TOPIC, reading);
+        binary = binarySerializer.serialize(TOPIC, reading);
+        batchBytes = MeterReadingBatchCodec.encode(batch);
+        System.out.printf("%nbytes/record: json=%d binary=%d batch=%.1f%n",
+            json.length, binary.length, (double) batchBytes.length / BATCH);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return jsonSerializer.serialize(TOPIC, reading);
+    }
+
+    @Benchmark
+    public MeterReading jsonDeserialize() {
+        return jsonDeserializer.deserialize(TOPIC, json);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binarySerializer.serialize(TOPIC, reading);
+    }
+
+    @Benchmark
+    public MeterReading binaryDeserialize() {
+        return binaryDeserializer.deserialize(TOPIC, binary);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public byte[] batchSerialize() {
+        return MeterReadingBatchCodec.encode(batch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<MeterReading> batchDeserialize() {
+        return MeterReadingBatchCodec.decode(batchBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(MeterReadingSerializationBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,75 @@
+package com.hes.collector.service;
+
+import com.hes.collector.dlms.DataObject;
+import com.hes.collector.model.MeterTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction throughput of {@link MeterTransactionManager} with four threads sharing one
+ * manager: each operation creates a read transaction and completes it with a result, the
+ * lifecycle of every on-demand read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class MeterTransactionManagerBenchmark {
+    private static final int METERS = 10_000;
+
+    private MeterTransactionManager manager;
+    private String[] serials;
+    private MeterTransaction.Result result;
+
+    @Setup
+    public void setUp() {
+        manager = new MeterTransactionManager();
+        serials = new String[METERS];
+        for (int i = 0; i < METERS; i++) {
+            serials[i] = String.format("MTR%06d", i);
+        }
+        result = new MeterTransaction.Result();
+        result.setSuccess(true);
+        result.setValue(DataObject.newUnsigned(1_234_567));
+        result.setTimestamp(Instant.now());
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    @Benchmark
+    public MeterTransaction readCycle() {
+        String serial = serials[ThreadLocalRandom.current().nextInt(METERS)];
+        MeterTransaction transaction = manager.createTransaction(serial, MeterTransaction.TransactionType.READ);
+        manager.setTransactionResult(transaction.getTransactionId(), result);
+        return transaction;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(MeterTransactionManagerBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,4 @@
+package com.hes.collector.archive.jmh_generated;
+public class BlockLoadCompressionBenchmark_jmhType extends BlockLoadCompressionBenchmark_jmhType_B3 {
+}
+
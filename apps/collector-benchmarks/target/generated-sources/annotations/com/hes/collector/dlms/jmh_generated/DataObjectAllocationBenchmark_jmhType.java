@@ -0,0 +1,4 @@
+package com.hes.collector.dlms.jmh_generated;
+public class DataObjectAllocationBenchmark_jmhType extends DataObjectAllocationBenchmark_jmhType_B3 {
+}
+
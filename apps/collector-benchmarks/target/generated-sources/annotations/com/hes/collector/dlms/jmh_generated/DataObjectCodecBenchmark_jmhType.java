@@ -0,0 +1,4 @@
+package com.hes.collector.dlms.jmh_generated;
+public class DataObjectCodecBenchmark_jmhType extends DataObjectCodecBenchmark_jmhType_B3 {
+}
+
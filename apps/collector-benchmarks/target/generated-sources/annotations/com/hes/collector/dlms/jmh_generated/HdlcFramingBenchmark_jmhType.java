@@ -0,0 +1,4 @@
+package com.hes.collector.dlms.jmh_generated;
+public class HdlcFramingBenchmark_jmhType extends HdlcFramingBenchmark_jmhType_B3 {
+}
+
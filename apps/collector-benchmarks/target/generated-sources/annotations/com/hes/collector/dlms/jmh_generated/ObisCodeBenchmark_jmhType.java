@@ -0,0 +1,4 @@
+package com.hes.collector.dlms.jmh_generated;
+public class ObisCodeBenchmark_jmhType extends ObisCodeBenchmark_jmhType_B3 {
+}
+
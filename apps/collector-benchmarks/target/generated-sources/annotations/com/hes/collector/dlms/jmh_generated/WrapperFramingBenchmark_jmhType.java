@@ -0,0 +1,4 @@
+package com.hes.collector.dlms.jmh_generated;
+public class WrapperFramingBenchmark_jmhType extends WrapperFramingBenchmark_jmhType_B3 {
+}
+
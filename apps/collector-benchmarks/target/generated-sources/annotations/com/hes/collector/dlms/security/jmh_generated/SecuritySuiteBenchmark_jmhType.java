@@ -0,0 +1,4 @@
+package com.hes.collector.dlms.security.jmh_generated;
+public class SecuritySuiteBenchmark_jmhType extends SecuritySuiteBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.hes.collector.serialization.jmh_generated;
+public class MeterReadingSerializationBenchmark_jmhType extends MeterReadingSerializationBenchmark_jmhType_B3 {
+}
+
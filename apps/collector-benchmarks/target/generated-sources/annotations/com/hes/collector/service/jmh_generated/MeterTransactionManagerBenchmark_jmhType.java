@@ -0,0 +1,4 @@
+package com.hes.collector.service.jmh_generated;
+public class MeterTransactionManagerBenchmark_jmhType extends MeterTransactionManagerBenchmark_jmhType_B3 {
+}
+
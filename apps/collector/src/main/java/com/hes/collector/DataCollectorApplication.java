@@ -1,8 +1,12 @@
 package com.hes.collector;
 
+import com.hes.common.cache.LatestReadingStore;
+import com.hes.common.config.VeeConfig;
+import com.hes.common.vee.VeeEngine;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -10,6 +14,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableScheduling
 @EntityScan(basePackages = {"com.hes.data.entities", "com.hes.common.entity", "com.hes.collector.model"})
 @EnableJpaRepositories(basePackages = {"com.hes.common.repository", "com.hes.collector.repository"})
+@Import({LatestReadingStore.class, VeeEngine.class, VeeConfig.class})
 public class DataCollectorApplication {
     public static void main(String[] args) {
         SpringApplication.run(DataCollectorApplication.class, args);
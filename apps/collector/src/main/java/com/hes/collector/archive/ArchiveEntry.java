@@ -0,0 +1,20 @@
+package com.hes.collector.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Index entry of one compressed block in a block load archive.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveEntry {
+    private String meterSerialNumber;
+    private int rowCount;
+    private long firstCaptureTime;
+    private long lastCaptureTime;
+    private long offset;
+    private int length;
+}
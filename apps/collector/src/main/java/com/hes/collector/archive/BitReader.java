@@ -0,0 +1,66 @@
+package com.hes.collector.archive;
+
+/**
+ * Reads a stream written by {@link BitWriter}, refilling a 64-bit window eight bytes at a time.
+ */
+final class BitReader {
+    private final byte[] data;
+    private int position;
+    private final int limit;
+    private long window;
+    private int available;
+
+    BitReader(byte[] data, int offset, int length) {
+        this.data = data;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    boolean readBit() {
+        if (available == 0) {
+            refill();
+        }
+        boolean bit = window < 0;
+        window <<= 1;
+        available--;
+        return bit;
+    }
+
+    /**
+     * Read {@code bits} bits, 0 to 64, as an unsigned value.
+     */
+    long readBits(int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+        if (bits <= available) {
+            long value = window >>> (64 - bits);
+            window = bits == 64 ? 0 : window << bits;
+            available -= bits;
+            return value;
+        }
+        int need = bits - available;
+        long high = available == 0 ? 0 : window >>> (64 - available);
+        refill();
+        if (available < need) {
+            throw new IllegalArgumentException("Compressed stream is truncated");
+        }
+        long low = window >>> (64 - need);
+        window = need == 64 ? 0 : window << need;
+        available -= need;
+        return need == 64 ? low : (high << need) | low;
+    }
+
+    private void refill() {
+        int bytes = Math.min(8, limit - position);
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Compressed stream is truncated");
+        }
+        long word = 0;
+        for (int i = 0; i < bytes; i++) {
+            word |= (data[position++] & 0xFFL) << (56 - 8 * i);
+        }
+        window = word;
+        available = bytes * 8;
+    }
+}
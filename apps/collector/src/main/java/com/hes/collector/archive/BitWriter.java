@@ -0,0 +1,66 @@
+package com.hes.collector.archive;
+
+import java.util.Arrays;
+
+/**
+ * Append-only bit stream, most significant bit first.
+ */
+final class BitWriter {
+    private byte[] buffer;
+    private int length;
+    private long accumulator;
+    private int filled;
+
+    BitWriter(int expectedBytes) {
+        this.buffer = new byte[Math.max(16, expectedBytes)];
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Write the low {@code bits} bits of {@code value}, 0 to 64.
+     */
+    void writeBits(long value, int bits) {
+        if (bits == 0) {
+            return;
+        }
+        if (bits < 64) {
+            value &= (1L << bits) - 1;
+        }
+        int free = 64 - filled;
+        if (bits < free) {
+            accumulator |= value << (free - bits);
+            filled += bits;
+            return;
+        }
+        int spill = bits - free;
+        accumulator |= value >>> spill;
+        flush(accumulator);
+        accumulator = spill == 0 ? 0 : value << (64 - spill);
+        filled = spill;
+    }
+
+    byte[] toByteArray() {
+        int tail = (filled + 7) >>> 3;
+        ensure(tail);
+        for (int i = 0; i < tail; i++) {
+            buffer[length + i] = (byte) (accumulator >>> (56 - 8 * i));
+        }
+        return Arrays.copyOf(buffer, length + tail);
+    }
+
+    private void flush(long word) {
+        ensure(8);
+        for (int i = 0; i < 8; i++) {
+            buffer[length++] = (byte) (word >>> (56 - 8 * i));
+        }
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.hes.collector.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads archives written by {@link BlockLoadArchiveWriter}. Only the requested columns are
+ * decompressed, so billing re-computation over energy registers skips currents and voltages.
+ * Safe for concurrent reads.
+ */
+public class BlockLoadArchiveReader implements Closeable {
+    private final Path path;
+    private final FileChannel channel;
+    private final List<ArchiveEntry> entries;
+    private final Map<String, List<ArchiveEntry>> bySerial = new LinkedHashMap<>();
+
+    public BlockLoadArchiveReader(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.entries = readIndex();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        for (ArchiveEntry entry : entries) {
+            bySerial.computeIfAbsent(entry.getMeterSerialNumber(), k -> new ArrayList<>()).add(entry);
+        }
+    }
+
+    public List<ArchiveEntry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public Set<String> getMeterSerialNumbers() {
+        return Collections.unmodifiableSet(bySerial.keySet());
+    }
+
+    /**
+     * All archived rows of one meter, or null when the archive has none.
+     */
+    public BlockLoadSeries read(String meterSerialNumber, Set<BlockLoadColumn> columns) throws IOException {
+        List<ArchiveEntry> meterEntries = bySerial.get(meterSerialNumber);
+        if (meterEntries == null) {
+            return null;
+        }
+        int rows = 0;
+        for (ArchiveEntry entry : meterEntries) {
+            rows += entry.getRowCount();
+        }
+        BlockLoadSeries series = new BlockLoadSeries(meterSerialNumber, rows, columns);
+        for (ArchiveEntry entry : meterEntries) {
+            readInto(entry, series);
+        }
+        return series;
+    }
+
+    public BlockLoadSeries read(ArchiveEntry entry, Set<BlockLoadColumn> columns) throws IOException {
+        BlockLoadSeries series = new BlockLoadSeries(entry.getMeterSerialNumber(), entry.getRowCount(), columns);
+        readInto(entry, series);
+        return series;
+    }
+
+    public BlockLoadSeries read(ArchiveEntry entry) throws IOException {
+        return read(entry, EnumSet.allOf(BlockLoadColumn.class));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readInto(ArchiveEntry entry, BlockLoadSeries series) throws IOException {
+        byte[] block = new byte[entry.getLength()];
+        readFully(ByteBuffer.wrap(block), entry.getOffset());
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+
+        int rows = buffer.getInt();
+        if (rows != entry.getRowCount()) {
+            throw new IOException("Corrupt block for " + entry.getMeterSerialNumber() + " in " + path);
+        }
+        int start = series.size();
+        series.ensureCapacity(start + rows);
+
+        int length = streamLength(buffer, entry);
+        if (start == 0) {
+            GorillaCodec.decodeTimestamps(block, buffer.position(), length, rows, series.getCaptureTimes());
+        } else {
+            long[] times = new long[rows];
+            GorillaCodec.decodeTimestamps(block, buffer.position(), length, rows, times);
+            System.arraycopy(times, 0, series.getCaptureTimes(), start, rows);
+        }
+        buffer.position(buffer.position() + length);
+
+        double[] scratch = start == 0 ? null : new double[rows];
+        for (BlockLoadColumn column : BlockLoadColumn.values()) {
+            length = streamLength(buffer, entry);
+            if (series.hasColumn(column)) {
+                if (start == 0) {
+                    GorillaCodec.decodeValues(block, buffer.position(), length, rows, series.getValues(column));
+                } else {
+                    GorillaCodec.decodeValues(block, buffer.position(), length, rows, scratch);
+                    System.arraycopy(scratch, 0, series.getValues(column), start, rows);
+                }
+            }
+            buffer.position(buffer.position() + length);
+        }
+        series.setSize(start + rows);
+    }
+
+    private int streamLength(ByteBuffer buffer, ArchiveEntry entry) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Corrupt block for " + entry.getMeterSerialNumber() + " in " + path);
+        }
+        return length;
+    }
+
+    private List<ArchiveEntry> readIndex() throws IOException {
+        long size = channel.size();
+        if (size < BlockLoadArchiveWriter.HEADER_BYTES + BlockLoadArchiveWriter.TRAILER_BYTES) {
+            throw new IOException("Not a block load archive: " + path);
+        }
+        ByteBuffer header = ByteBuffer.allocate(BlockLoadArchiveWriter.HEADER_BYTES);
+        readFully(header, 0);
+        header.flip();
+        ByteBuffer trailer = ByteBuffer.allocate(BlockLoadArchiveWriter.TRAILER_BYTES);
+        readFully(trailer, size - BlockLoadArchiveWriter.TRAILER_BYTES);
+        trailer.flip();
+        long indexOffset = trailer.getLong();
+        if (header.getLong() != BlockLoadArchiveWriter.MAGIC || trailer.getLong() != BlockLoadArchiveWriter.MAGIC) {
+            throw new IOException("Not a block load archive: " + path);
+        }
+        int version = header.getInt();
+        int columns = header.getInt();
+        if (version != BlockLoadArchiveWriter.VERSION || columns != BlockLoadColumn.values().length) {
+            throw new IOException("Unsupported archive version " + version + " with " + columns + " columns: " + path);
+        }
+
+        long indexLength = size - BlockLoadArchiveWriter.TRAILER_BYTES - indexOffset;
+        if (indexOffset < BlockLoadArchiveWriter.HEADER_BYTES || indexLength < Integer.BYTES || indexLength > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt archive index: " + path);
+        }
+        byte[] index = new byte[(int) indexLength];
+        readFully(ByteBuffer.wrap(index), indexOffset);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(index));
+        int count = in.readInt();
+        List<ArchiveEntry> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new ArchiveEntry(in.readUTF(), in.readInt(), in.readLong(), in.readLong(),
+                in.readLong(), in.readInt()));
+        }
+        return result;
+    }
+
+    private void readFully(ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of archive " + path);
+            }
+            position += read;
+        }
+    }
+}
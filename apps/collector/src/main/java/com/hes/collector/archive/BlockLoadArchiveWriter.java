@@ -0,0 +1,147 @@
+package com.hes.collector.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes a cold-tier block load archive.
+ * <p>
+ * Layout: a 16-byte header (magic, version, column count), then one block per series (row count,
+ * then the timestamp stream and one stream per {@link BlockLoadColumn}, each prefixed with its
+ * byte length so readers can skip columns they do not need), then an index of all blocks and a
+ * trailer pointing at it. The file is written under a temporary name and only moved into place
+ * by {@link #commit()}; closing a writer that was not committed deletes the temporary file, so a
+ * half-written archive is never visible.
+ */
+public class BlockLoadArchiveWriter implements Closeable {
+    static final long MAGIC = 0x484553424C413031L; // "HESBLA01"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int TRAILER_BYTES = 16;
+
+    private final Path target;
+    private final Path temporary;
+    private final DataOutputStream out;
+    private final List<ArchiveEntry> entries = new ArrayList<>();
+    private long position;
+    private long rawBytes;
+    private boolean closed;
+    private boolean committed;
+
+    public BlockLoadArchiveWriter(Path target) throws IOException {
+        this.target = target;
+        this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        OutputStream file = Files.newOutputStream(temporary);
+        this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+        out.writeLong(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(BlockLoadColumn.values().length);
+        position = HEADER_BYTES;
+    }
+
+    /**
+     * Compress and append one series. Capture times must be ascending.
+     */
+    public ArchiveEntry write(BlockLoadSeries series) throws IOException {
+        int rows = series.size();
+        if (rows == 0) {
+            return null;
+        }
+        long offset = position;
+        out.writeInt(rows);
+        position += Integer.BYTES;
+        writeStream(GorillaCodec.encodeTimestamps(series.getCaptureTimes(), rows));
+        double[] missing = null;
+        for (BlockLoadColumn column : BlockLoadColumn.values()) {
+            double[] values = series.getValues(column);
+            if (values == null) {
+                if (missing == null) {
+                    missing = new double[rows];
+                    Arrays.fill(missing, Double.NaN);
+                }
+                values = missing;
+            }
+            writeStream(GorillaCodec.encodeValues(values, rows));
+        }
+        rawBytes += (long) rows * (Long.BYTES + BlockLoadColumn.values().length * Double.BYTES);
+
+        long[] times = series.getCaptureTimes();
+        ArchiveEntry entry = new ArchiveEntry(series.getMeterSerialNumber(), rows, times[0], times[rows - 1],
+            offset, (int) (position - offset));
+        entries.add(entry);
+        return entry;
+    }
+
+    public List<ArchiveEntry> getEntries() {
+        return entries;
+    }
+
+    /** Bytes written so far, excluding the index */
+    public long getCompressedBytes() {
+        return position;
+    }
+
+    /** Size of the written rows as uncompressed timestamp and double columns */
+    public long getRawBytes() {
+        return rawBytes;
+    }
+
+    /**
+     * Write the index and trailer and move the archive into place.
+     */
+    public void commit() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Archive writer for " + target + " is already closed");
+        }
+        closed = true;
+        long indexOffset = position;
+        out.writeInt(entries.size());
+        for (ArchiveEntry entry : entries) {
+            out.writeUTF(entry.getMeterSerialNumber());
+            out.writeInt(entry.getRowCount());
+            out.writeLong(entry.getFirstCaptureTime());
+            out.writeLong(entry.getLastCaptureTime());
+            out.writeLong(entry.getOffset());
+            out.writeInt(entry.getLength());
+        }
+        out.writeLong(indexOffset);
+        out.writeLong(MAGIC);
+        out.close();
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    /**
+     * Discard the archive unless it was committed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (committed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.close();
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void writeStream(byte[] stream) throws IOException {
+        out.writeInt(stream.length);
+        out.write(stream);
+        position += Integer.BYTES + stream.length;
+    }
+}
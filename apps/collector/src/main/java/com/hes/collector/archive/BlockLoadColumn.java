@@ -0,0 +1,33 @@
+package com.hes.collector.archive;
+
+/**
+ * Value columns of {@code block_load_profiles}, in archive order.
+ */
+public enum BlockLoadColumn {
+    CURRENT_IR("current_ir"),
+    CURRENT_IY("current_iy"),
+    CURRENT_IB("current_ib"),
+    VOLTAGE_VRN("voltage_vrn"),
+    VOLTAGE_VYN("voltage_vyn"),
+    VOLTAGE_VBN("voltage_vbn"),
+    BLOCK_ENERGY_WH_IMPORT("block_energy_wh_import"),
+    BLOCK_ENERGY_WH_EXPORT("block_energy_wh_export"),
+    BLOCK_ENERGY_VARH_Q1("block_energy_varh_q1"),
+    BLOCK_ENERGY_VARH_Q2("block_energy_varh_q2"),
+    BLOCK_ENERGY_VARH_Q3("block_energy_varh_q3"),
+    BLOCK_ENERGY_VARH_Q4("block_energy_varh_q4"),
+    BLOCK_ENERGY_VAH_IMPORT("block_energy_vah_import"),
+    BLOCK_ENERGY_VAH_EXPORT("block_energy_vah_export"),
+    METER_HEALTH_INDICATOR("meter_health_indicator"),
+    SIGNAL_STRENGTH("signal_strength");
+
+    private final String columnName;
+
+    BlockLoadColumn(String columnName) {
+        this.columnName = columnName;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+}
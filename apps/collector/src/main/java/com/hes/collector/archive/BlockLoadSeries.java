@@ -0,0 +1,87 @@
+package com.hes.collector.archive;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Block load rows of one meter in column form. SQL NULLs are held as NaN; columns that were
+ * not requested from an archive are null.
+ */
+public class BlockLoadSeries {
+    private static final int COLUMNS = BlockLoadColumn.values().length;
+
+    private final String meterSerialNumber;
+    private long[] captureTimes;
+    private final double[][] values = new double[COLUMNS][];
+    private int size;
+
+    public BlockLoadSeries(String meterSerialNumber, int expectedRows) {
+        this(meterSerialNumber, expectedRows, EnumSet.allOf(BlockLoadColumn.class));
+    }
+
+    BlockLoadSeries(String meterSerialNumber, int expectedRows, Set<BlockLoadColumn> columns) {
+        this.meterSerialNumber = meterSerialNumber;
+        this.captureTimes = new long[Math.max(1, expectedRows)];
+        for (BlockLoadColumn column : columns) {
+            values[column.ordinal()] = new double[captureTimes.length];
+        }
+    }
+
+    /**
+     * Append a row; {@code row} is indexed by {@link BlockLoadColumn#ordinal()}.
+     */
+    public void add(long captureTimeMillis, double[] row) {
+        if (size == captureTimes.length) {
+            grow(size * 2);
+        }
+        captureTimes[size] = captureTimeMillis;
+        for (int c = 0; c < COLUMNS; c++) {
+            if (values[c] != null) {
+                values[c][size] = row[c];
+            }
+        }
+        size++;
+    }
+
+    public String getMeterSerialNumber() {
+        return meterSerialNumber;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Capture times in epoch milliseconds; only the first {@link #size()} entries are valid */
+    public long[] getCaptureTimes() {
+        return captureTimes;
+    }
+
+    /** Values of one column; only the first {@link #size()} entries are valid */
+    public double[] getValues(BlockLoadColumn column) {
+        return values[column.ordinal()];
+    }
+
+    public boolean hasColumn(BlockLoadColumn column) {
+        return values[column.ordinal()] != null;
+    }
+
+    void ensureCapacity(int rows) {
+        if (rows > captureTimes.length) {
+            grow(rows);
+        }
+    }
+
+    void setSize(int size) {
+        this.size = size;
+    }
+
+    private void grow(int capacity) {
+        captureTimes = Arrays.copyOf(captureTimes, capacity);
+        for (int c = 0; c < COLUMNS; c++) {
+            if (values[c] != null) {
+                values[c] = Arrays.copyOf(values[c], capacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.hes.collector.archive;
+
+/**
+ * Gorilla-style compression of one time series column (Pelkonen et al., VLDB 2015).
+ * <p>
+ * Timestamps store delta-of-delta in variable-width buckets, so a regular 15-minute capture
+ * period costs one bit per row. Values are XORed with the previous value: a repeat costs one bit,
+ * and a change costs its meaningful bits, reusing the previous leading/trailing zero window when it fits.
+ * Timestamps are epoch milliseconds, so the widest bucket is a full 64-bit value rather than the
+ * paper's 32 bits. All doubles, including NaN payloads and -0.0, round-trip bit for bit.
+ */
+public final class GorillaCodec {
+
+    private GorillaCodec() {
+    }
+
+    public static byte[] encodeTimestamps(long[] timestamps, int count) {
+        BitWriter writer = new BitWriter(count / 8 + 16);
+        if (count == 0) {
+            return writer.toByteArray();
+        }
+        writer.writeBits(timestamps[0], 64);
+        long previous = timestamps[0];
+        long previousDelta = 0;
+        for (int i = 1; i < count; i++) {
+            long delta = timestamps[i] - previous;
+            long dod = delta - previousDelta;
+            long zigzag = (dod << 1) ^ (dod >> 63);
+            if (dod == 0) {
+                writer.writeBit(false);
+            } else if (zigzag < 0 || zigzag >= (1L << 32)) {
+                // zigzag is unsigned: negative here means a delta-of-delta beyond 63 bits
+                writer.writeBits(0b11111, 5);
+                writer.writeBits(zigzag, 64);
+            } else if (zigzag < (1L << 7)) {
+                writer.writeBits(0b10, 2);
+                writer.writeBits(zigzag, 7);
+            } else if (zigzag < (1L << 9)) {
+                writer.writeBits(0b110, 3);
+                writer.writeBits(zigzag, 9);
+            } else if (zigzag < (1L << 12)) {
+                writer.writeBits(0b1110, 4);
+                writer.writeBits(zigzag, 12);
+            } else {
+                writer.writeBits(0b11110, 5);
+                writer.writeBits(zigzag, 32);
+            }
+            previous = timestamps[i];
+            previousDelta = delta;
+        }
+        return writer.toByteArray();
+    }
+
+    public static void decodeTimestamps(byte[] data, int offset, int length, int count, long[] out) {
+        if (count == 0) {
+            return;
+        }
+        BitReader reader = new BitReader(data, offset, length);
+        long previous = reader.readBits(64);
+        out[0] = previous;
+        long previousDelta = 0;
+        for (int i = 1; i < count; i++) {
+            long dod;
+            if (!reader.readBit()) {
+                dod = 0;
+            } else if (!reader.readBit()) {
+                dod = unzigzag(reader.readBits(7));
+            } else if (!reader.readBit()) {
+                dod = unzigzag(reader.readBits(9));
+            } else if (!reader.readBit()) {
+                dod = unzigzag(reader.readBits(12));
+            } else if (!reader.readBit()) {
+                dod = unzigzag(reader.readBits(32));
+            } else {
+                dod = unzigzag(reader.readBits(64));
+            }
+            previousDelta += dod;
+            previous += previousDelta;
+            out[i] = previous;
+        }
+    }
+
+    public static byte[] encodeValues(double[] values, int count) {
+        BitWriter writer = new BitWriter(count + 16);
+        if (count == 0) {
+            return writer.toByteArray();
+        }
+        long previous = Double.doubleToRawLongBits(values[0]);
+        writer.writeBits(previous, 64);
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            long bits = Double.doubleToRawLongBits(values[i]);
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                writer.writeBit(false);
+                continue;
+            }
+            writer.writeBit(true);
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                writer.writeBit(false);
+                writer.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                writer.writeBit(true);
+                writer.writeBits(leading, 5);
+                writer.writeBits(meaningful - 1, 6);
+                writer.writeBits(xor >>> trailing, meaningful);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    public static void decodeValues(byte[] data, int offset, int length, int count, double[] out) {
+        if (count == 0) {
+            return;
+        }
+        BitReader reader = new BitReader(data, offset, length);
+        long previous = reader.readBits(64);
+        out[0] = Double.longBitsToDouble(previous);
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (reader.readBit()) {
+                if (reader.readBit()) {
+                    leading = (int) reader.readBits(5);
+                    int meaningful = (int) reader.readBits(6) + 1;
+                    trailing = 64 - leading - meaningful;
+                }
+                long xor = reader.readBits(64 - leading - trailing) << trailing;
+                previous ^= xor;
+            }
+            out[i] = Double.longBitsToDouble(previous);
+        }
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,23 @@
+package com.hes.collector.buffer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Statistics of one column for one meter over a time range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnSummary {
+    private String meterSerialNumber;
+    private int count;
+    private double min;
+    private double max;
+    private double avg;
+    private double last;
+    private Instant lastCaptureTime;
+}
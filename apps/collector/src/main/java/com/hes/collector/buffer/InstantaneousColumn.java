@@ -0,0 +1,55 @@
+package com.hes.collector.buffer;
+
+import com.hes.collector.model.MeterReading;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Numeric columns of an instantaneous profile row, in storage order.
+ */
+public enum InstantaneousColumn {
+    L1_CURRENT_IR("l1CurrentIr", MeterReading::getL1CurrentIr),
+    L2_CURRENT_IY("l2CurrentIy", MeterReading::getL2CurrentIy),
+    L3_CURRENT_IB("l3CurrentIb", MeterReading::getL3CurrentIb),
+    L1_VOLTAGE_VRN("l1VoltageVrn", MeterReading::getL1VoltageVrn),
+    L2_VOLTAGE_VYN("l2VoltageVyn", MeterReading::getL2VoltageVyn),
+    L3_VOLTAGE_VBN("l3VoltageVbn", MeterReading::getL3VoltageVbn),
+    L1_POWER_FACTOR("l1PowerFactor", MeterReading::getL1PowerFactor),
+    L2_POWER_FACTOR("l2PowerFactor", MeterReading::getL2PowerFactor),
+    L3_POWER_FACTOR("l3PowerFactor", MeterReading::getL3PowerFactor),
+    THREE_PHASE_PF("threePhasePf", MeterReading::getThreePhasePf),
+    FREQUENCY("frequency", MeterReading::getFrequencyDouble),
+    APPARENT_POWER("apparentPower", MeterReading::getApparentPowerDouble),
+    ACTIVE_POWER("activePower", MeterReading::getActivePower),
+    REACTIVE_POWER("reactivePower", MeterReading::getReactivePower),
+    CUM_ENERGY_WH_IMPORT("cumEnergyWhImport", MeterReading::getCumEnergyWhImport),
+    CUM_ENERGY_WH_EXPORT("cumEnergyWhExport", MeterReading::getCumEnergyWhExport);
+
+    private final String fieldName;
+    private final ToDoubleFunction<MeterReading> extractor;
+
+    InstantaneousColumn(String fieldName, ToDoubleFunction<MeterReading> extractor) {
+        this.fieldName = fieldName;
+        this.extractor = extractor;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    double extract(MeterReading reading) {
+        return extractor.applyAsDouble(reading);
+    }
+
+    /**
+     * Accepts either the enum name or the camel-case field name used in responses.
+     */
+    public static InstantaneousColumn parse(String name) {
+        for (InstantaneousColumn column : values()) {
+            if (column.name().equalsIgnoreCase(name) || column.fieldName.equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("Unknown instantaneous column: " + name);
+    }
+}
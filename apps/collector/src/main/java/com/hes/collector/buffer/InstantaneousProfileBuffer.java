@@ -0,0 +1,423 @@
+package com.hes.collector.buffer;
+
+import com.hes.collector.config.InstantaneousBufferConfig;
+import com.hes.collector.model.MeterReading;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Recent instantaneous profile rows per meter, held off-heap in a memory-mapped file.
+ * <p>
+ * Every meter owns a fixed region laid out column by column: a header with the serial number,
+ * a base timestamp and the ring head/count, then one int column of millisecond offsets from
+ * the base and one double column per {@link InstantaneousColumn}. A ring holds
+ * {@code retentionHours} of rows at the configured capture interval and overwrites the oldest
+ * row when full. Rows are kept in capture order, so range reads are two binary searches and a
+ * contiguous copy per column. The file is reopened on restart, so the buffer survives collector
+ * restarts (not host crashes before the OS has written the pages back).
+ */
+@Slf4j
+@Component
+public class InstantaneousProfileBuffer {
+    private static final long FILE_MAGIC = 0x48455352494E4731L; // "HESRING1"
+    private static final int FILE_VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 64;
+
+    private static final int REGION_USED = 0x52494E47;
+    private static final int OFF_FLAG = 0;
+    private static final int OFF_SERIAL_LENGTH = 4;
+    private static final int OFF_SERIAL = 6;
+    static final int MAX_SERIAL_BYTES = 42;
+    private static final int OFF_BASE = 48;
+    private static final int OFF_HEAD = 56;
+    private static final int OFF_COUNT = 60;
+    private static final int OFF_DELTAS = 64;
+
+    private static final int COLUMN_COUNT = InstantaneousColumn.values().length;
+
+    private final Path path;
+    private final int capacity;
+    private final int maxMeters;
+    private final int columnsOffset;
+    private final int regionBytes;
+    private final int metersPerMapping;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] mappings;
+    private final StampedLock[] locks;
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private int meterCount;
+
+    public InstantaneousProfileBuffer(InstantaneousBufferConfig config) {
+        this(Paths.get(config.getPath()), config.getRowsPerMeter(), config.getMaxMeters());
+    }
+
+    InstantaneousProfileBuffer(Path path, int capacity, int maxMeters) {
+        this.path = path;
+        this.capacity = capacity;
+        this.maxMeters = maxMeters;
+        this.columnsOffset = align8(OFF_DELTAS + capacity * Integer.BYTES);
+        long region = (long) columnsOffset + (long) COLUMN_COUNT * capacity * Double.BYTES;
+        if (region > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ring of " + capacity + " rows does not fit one mapping");
+        }
+        this.regionBytes = (int) region;
+        this.metersPerMapping = (Integer.MAX_VALUE - FILE_HEADER_BYTES) / regionBytes;
+        this.locks = new StampedLock[maxMeters];
+        for (int i = 0; i < maxMeters; i++) {
+            locks[i] = new StampedLock();
+        }
+
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean reuse = headerMatches();
+            if (!reuse) {
+                channel.truncate(0);
+            }
+            this.mappings = map();
+            if (reuse) {
+                recover();
+            } else {
+                writeHeader();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open instantaneous buffer " + path, e);
+        }
+        log.info("Instantaneous buffer {}: {} rows per meter, {} meters, {} KB per meter, {} meters recovered",
+            path, capacity, maxMeters, regionBytes / 1024, meterCount);
+    }
+
+    /**
+     * Append a persisted instantaneous reading. Rows not newer than the meter's last row are ignored.
+     */
+    public boolean append(MeterReading reading) {
+        Instant captureTime = reading.getCaptureTime() != null ? reading.getCaptureTime() : reading.getTimestamp();
+        if (reading.getMeterSerialNumber() == null || captureTime == null) {
+            return false;
+        }
+        double[] values = new double[COLUMN_COUNT];
+        for (InstantaneousColumn column : InstantaneousColumn.values()) {
+            values[column.ordinal()] = column.extract(reading);
+        }
+        return append(reading.getMeterSerialNumber(), captureTime.toEpochMilli(), values);
+    }
+
+    boolean append(String serial, long timestamp, double[] values) {
+        int slot = slotFor(serial, true);
+        if (slot < 0) {
+            return false;
+        }
+        MappedByteBuffer buffer = mapping(slot);
+        int region = regionOffset(slot);
+
+        long stamp = locks[slot].writeLock();
+        try {
+            long base = buffer.getLong(region + OFF_BASE);
+            int head = buffer.getInt(region + OFF_HEAD);
+            int count = buffer.getInt(region + OFF_COUNT);
+
+            if (count == 0) {
+                base = timestamp;
+                buffer.putLong(region + OFF_BASE, base);
+            } else {
+                long last = base + buffer.getInt(region + OFF_DELTAS + physical(head, count, count - 1) * Integer.BYTES);
+                if (timestamp <= last) {
+                    return false;
+                }
+                if (timestamp - base > Integer.MAX_VALUE) {
+                    count = rebase(buffer, region, base, timestamp, head, count);
+                    base = timestamp;
+                }
+            }
+
+            buffer.putInt(region + OFF_DELTAS + head * Integer.BYTES, (int) (timestamp - base));
+            for (int c = 0; c < COLUMN_COUNT; c++) {
+                buffer.putDouble(columnOffset(region, c) + head * Double.BYTES, values[c]);
+            }
+            buffer.putInt(region + OFF_HEAD, (head + 1) % capacity);
+            buffer.putInt(region + OFF_COUNT, Math.min(count + 1, capacity));
+            return true;
+        } finally {
+            locks[slot].unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Rows of one meter captured in [from, to), or null when the meter has never been buffered.
+     */
+    public InstantaneousSeries read(String serial, Instant from, Instant to, Set<InstantaneousColumn> columns) {
+        int slot = slotFor(serial, false);
+        if (slot < 0) {
+            return null;
+        }
+        MappedByteBuffer buffer = mapping(slot);
+        int region = regionOffset(slot);
+
+        long stamp = locks[slot].readLock();
+        try {
+            long base = buffer.getLong(region + OFF_BASE);
+            int head = buffer.getInt(region + OFF_HEAD);
+            int count = buffer.getInt(region + OFF_COUNT);
+            int start = lowerBound(buffer, region, base, head, count, from.toEpochMilli());
+            int end = lowerBound(buffer, region, base, head, count, to.toEpochMilli());
+            int rows = Math.max(0, end - start);
+
+            long[] timestamps = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                timestamps[i] = base + buffer.getInt(region + OFF_DELTAS + physical(head, count, start + i) * Integer.BYTES);
+            }
+            Map<String, double[]> values = new LinkedHashMap<>();
+            for (InstantaneousColumn column : columns) {
+                double[] data = new double[rows];
+                int offset = columnOffset(region, column.ordinal());
+                for (int i = 0; i < rows; i++) {
+                    data[i] = buffer.getDouble(offset + physical(head, count, start + i) * Double.BYTES);
+                }
+                values.put(column.getFieldName(), data);
+            }
+            return new InstantaneousSeries(serial, timestamps, values);
+        } finally {
+            locks[slot].unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Summaries of one column over [from, to) for every buffered meter with rows in the range.
+     */
+    public List<ColumnSummary> scan(InstantaneousColumn column, Instant from, Instant to) {
+        List<ColumnSummary> result = new ArrayList<>();
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        for (Map.Entry<String, Integer> entry : slots.entrySet()) {
+            int slot = entry.getValue();
+            MappedByteBuffer buffer = mapping(slot);
+            int region = regionOffset(slot);
+            int offset = columnOffset(region, column.ordinal());
+
+            long stamp = locks[slot].readLock();
+            try {
+                long base = buffer.getLong(region + OFF_BASE);
+                int head = buffer.getInt(region + OFF_HEAD);
+                int count = buffer.getInt(region + OFF_COUNT);
+                int start = lowerBound(buffer, region, base, head, count, fromMillis);
+                int end = lowerBound(buffer, region, base, head, count, toMillis);
+                if (end <= start) {
+                    continue;
+                }
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                double sum = 0;
+                double last = 0;
+                for (int i = start; i < end; i++) {
+                    last = buffer.getDouble(offset + physical(head, count, i) * Double.BYTES);
+                    min = Math.min(min, last);
+                    max = Math.max(max, last);
+                    sum += last;
+                }
+                long lastTimestamp = base + buffer.getInt(region + OFF_DELTAS + physical(head, count, end - 1) * Integer.BYTES);
+                result.add(new ColumnSummary(entry.getKey(), end - start, min, max, sum / (end - start),
+                    last, Instant.ofEpochMilli(lastTimestamp)));
+            } finally {
+                locks[slot].unlockRead(stamp);
+            }
+        }
+        result.sort(Comparator.comparing(ColumnSummary::getMeterSerialNumber));
+        return result;
+    }
+
+    public int getMeterCount() {
+        return slots.size();
+    }
+
+    public int getRowsPerMeter() {
+        return capacity;
+    }
+
+    @PreDestroy
+    public void close() {
+        for (MappedByteBuffer mapping : mappings) {
+            mapping.force();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close instantaneous buffer {}: {}", path, e.getMessage());
+        }
+    }
+
+    private int slotFor(String serial, boolean create) {
+        Integer slot = slots.get(serial);
+        if (slot != null || !create) {
+            return slot != null ? slot : -1;
+        }
+        byte[] serialBytes = serial.getBytes(StandardCharsets.UTF_8);
+        if (serialBytes.length > MAX_SERIAL_BYTES) {
+            log.warn("Serial number {} is too long for the instantaneous buffer", serial);
+            return -1;
+        }
+        synchronized (this) {
+            slot = slots.get(serial);
+            if (slot != null) {
+                return slot;
+            }
+            if (meterCount >= maxMeters) {
+                log.warn("Instantaneous buffer is full at {} meters, not buffering {}", maxMeters, serial);
+                return -1;
+            }
+            int assigned = meterCount++;
+            MappedByteBuffer buffer = mapping(assigned);
+            int region = regionOffset(assigned);
+            buffer.putShort(region + OFF_SERIAL_LENGTH, (short) serialBytes.length);
+            for (int i = 0; i < serialBytes.length; i++) {
+                buffer.put(region + OFF_SERIAL + i, serialBytes[i]);
+            }
+            buffer.putInt(region + OFF_COUNT, 0);
+            buffer.putInt(region + OFF_HEAD, 0);
+            buffer.putInt(region + OFF_FLAG, REGION_USED);
+            slots.put(serial, assigned);
+            return assigned;
+        }
+    }
+
+    /**
+     * Move the base to {@code newBase}, dropping rows whose offset would no longer fit an int.
+     * Returns the new row count.
+     */
+    private int rebase(MappedByteBuffer buffer, int region, long oldBase, long newBase, int head, int count) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int index = region + OFF_DELTAS + physical(head, count, i) * Integer.BYTES;
+            long delta = oldBase + buffer.getInt(index) - newBase;
+            if (delta >= Integer.MIN_VALUE) {
+                buffer.putInt(index, (int) delta);
+                kept++;
+            }
+        }
+        buffer.putLong(region + OFF_BASE, newBase);
+        buffer.putInt(region + OFF_COUNT, kept);
+        return kept;
+    }
+
+    /**
+     * Logical index of the first row captured at or after {@code timestamp}.
+     */
+    private int lowerBound(MappedByteBuffer buffer, int region, long base, int head, int count, long timestamp) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long value = base + buffer.getInt(region + OFF_DELTAS + physical(head, count, mid) * Integer.BYTES);
+            if (value < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int physical(int head, int count, int logical) {
+        return Math.floorMod(head - count + logical, capacity);
+    }
+
+    private int columnOffset(int region, int column) {
+        return region + columnsOffset + column * capacity * Double.BYTES;
+    }
+
+    private MappedByteBuffer mapping(int slot) {
+        return mappings[slot / metersPerMapping];
+    }
+
+    private int regionOffset(int slot) {
+        return (slot % metersPerMapping) * regionBytes + (slot < metersPerMapping ? FILE_HEADER_BYTES : 0);
+    }
+
+    private MappedByteBuffer[] map() throws IOException {
+        // Mapped in pieces below 2 GB; the first piece also carries the file header
+        List<MappedByteBuffer> result = new ArrayList<>();
+        long position = 0;
+        int slot = 0;
+        while (slot < maxMeters) {
+            int meters = Math.min(metersPerMapping, maxMeters - slot);
+            long size = (long) meters * regionBytes + (position == 0 ? FILE_HEADER_BYTES : 0);
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+            mapping.order(ByteOrder.nativeOrder());
+            result.add(mapping);
+            position += size;
+            slot += meters;
+        }
+        return result.toArray(new MappedByteBuffer[0]);
+    }
+
+    private boolean headerMatches() throws IOException {
+        if (channel.size() < FILE_HEADER_BYTES) {
+            return false;
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_HEADER_BYTES);
+        header.order(ByteOrder.nativeOrder());
+        boolean matches = header.getLong(0) == FILE_MAGIC
+            && header.getInt(8) == FILE_VERSION
+            && header.getInt(12) == capacity
+            && header.getInt(16) == COLUMN_COUNT
+            && header.getInt(20) == maxMeters
+            && header.getInt(24) == regionBytes;
+        if (!matches) {
+            log.warn("Instantaneous buffer {} was written with a different layout, starting empty", path);
+        }
+        return matches;
+    }
+
+    private void writeHeader() {
+        MappedByteBuffer header = mappings[0];
+        header.putInt(8, FILE_VERSION);
+        header.putInt(12, capacity);
+        header.putInt(16, COLUMN_COUNT);
+        header.putInt(20, maxMeters);
+        header.putInt(24, regionBytes);
+        header.putLong(0, FILE_MAGIC);
+    }
+
+    private void recover() {
+        for (int slot = 0; slot < maxMeters; slot++) {
+            MappedByteBuffer buffer = mapping(slot);
+            int region = regionOffset(slot);
+            if (buffer.getInt(region + OFF_FLAG) != REGION_USED) {
+                break;
+            }
+            byte[] serial = new byte[buffer.getShort(region + OFF_SERIAL_LENGTH)];
+            for (int i = 0; i < serial.length; i++) {
+                serial[i] = buffer.get(region + OFF_SERIAL + i);
+            }
+            slots.put(new String(serial, StandardCharsets.UTF_8), slot);
+            meterCount = slot + 1;
+        }
+    }
+
+    private static int align8(int value) {
+        return (value + 7) & ~7;
+    }
+}
@@ -0,0 +1,19 @@
+package com.hes.collector.buffer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Rows of one meter in column form: {@code timestamps[i]} (epoch millis) belongs to {@code columns.get(name)[i]}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstantaneousSeries {
+    private String meterSerialNumber;
+    private long[] timestamps;
+    private Map<String, double[]> columns;
+}
@@ -0,0 +1,34 @@
+package com.hes.collector.clock;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Progress and outcome of a clock synchronization sweep.
+ */
+@Data
+public class ClockSyncReport {
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private Status status = Status.RUNNING;
+    private Instant startedAt = Instant.now();
+    private int meters;
+    private int gateways;
+    private int waves;
+    /** Meters whose clock was read */
+    private long read;
+    /** Meters that could not be reached or read */
+    private long failed;
+    /** Sessions still running when their wave timed out */
+    private long timedOut;
+    private long inSync;
+    private long shifted;
+    private long set;
+    private long correctionFailed;
+    /** Meters flagged with the ESWF clock error bit */
+    private long outliers;
+    private long maxAbsDriftMs;
+    private long elapsedMs;
+    private String error;
+}
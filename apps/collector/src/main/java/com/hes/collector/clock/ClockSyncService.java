@@ -0,0 +1,338 @@
+package com.hes.collector.clock;
+
+import com.hes.collector.config.ClockSyncConfig;
+import com.hes.collector.dlms.AxdrCodec;
+import com.hes.collector.dlms.CosemObject;
+import com.hes.collector.dlms.DataObject;
+import com.hes.collector.dlms.DlmsProtocol;
+import com.hes.collector.enums.EswfBit;
+import com.hes.collector.model.Meter;
+import com.hes.collector.model.MeterTransaction;
+import com.hes.collector.resilience.MeterAccessGuard;
+import com.hes.collector.scheduling.CommandLane;
+import com.hes.collector.scheduling.MeterWaves;
+import com.hes.collector.service.MeterCommunicationService;
+import com.hes.collector.service.MeterService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps meter clocks in line with the HES. A sweep reads the CLOCK of every meter and takes the
+ * drift against the midpoint of the read's round trip, which cancels the network delay when it is
+ * symmetric. Meters off by more than the threshold are corrected in the same session: with
+ * shift_time for small drifts, so interval captures stay aligned, or a SET of the time otherwise.
+ * <p>
+ * Meters are visited in waves on the bulk lane. A wave takes at most {@code gatewayConcurrency}
+ * meters per gateway, never more than the gateway's current AIMD limit, so a sweep does not trip
+ * the access guard. Each meter keeps a short drift history; a meter far off or drifting faster
+ * than {@code outlierDriftPpm} since the last sample gets the ESWF clock error bit.
+ */
+@Slf4j
+@Service
+public class ClockSyncService {
+    /** shift_time(long integer seconds) of the Clock class */
+    static final int SHIFT_TIME = 6;
+    /** Largest shift the Clock class accepts */
+    private static final int MAX_SHIFT_SECONDS = 900;
+    private static final String ESWF_SQL = "INSERT INTO eswf_alarms (meter_serial_number, alarm_datetime, bits, " +
+        "rtc_timestamp) VALUES (?, ?, CAST(? AS BIT VARYING), ?)";
+    private static final String CLOCK_ERROR_BITS = clockErrorBits();
+
+    private final ClockSyncConfig config;
+    private final MeterCommunicationService communicationService;
+    private final MeterService meterService;
+    private final MeterAccessGuard accessGuard;
+    private final JdbcTemplate jdbcTemplate;
+    private final DistributionSummary driftSummary;
+    /** Zone of meter clocks that do not report a deviation */
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Map<String, DriftHistory> histories = new ConcurrentHashMap<>();
+    private final AtomicReference<ClockSyncReport> running = new AtomicReference<>();
+    private volatile ClockSyncReport lastReport;
+
+    public ClockSyncService(ClockSyncConfig config, MeterCommunicationService communicationService,
+                            MeterService meterService, MeterAccessGuard accessGuard, JdbcTemplate jdbcTemplate,
+                            MeterRegistry registry) {
+        this.config = config;
+        this.communicationService = communicationService;
+        this.meterService = meterService;
+        this.accessGuard = accessGuard;
+        this.jdbcTemplate = jdbcTemplate;
+        this.driftSummary = DistributionSummary.builder("collector.clock.drift")
+            .description("Absolute meter clock drift found by clock synchronization")
+            .baseUnit("milliseconds")
+            .register(registry);
+    }
+
+    @Scheduled(cron = "${collector.clock-sync.cron:0 15 3 * * *}")
+    public void scheduledSweep() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            start().join();
+        } catch (IllegalStateException e) {
+            log.info("Skipping scheduled clock sweep: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Start a sweep over all meters with an address in the background.
+     *
+     * @throws IllegalStateException when a sweep is already running
+     */
+    public CompletableFuture<ClockSyncReport> start() {
+        ClockSyncReport report = new ClockSyncReport();
+        if (!running.compareAndSet(null, report)) {
+            throw new IllegalStateException("A clock sweep is already running");
+        }
+        lastReport = report;
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                List<Meter> meters = meterService.getAllMeters().stream()
+                    .filter(m -> m.getIpAddress() != null && m.getPort() != null)
+                    .collect(Collectors.toList());
+                return sweep(meters, report);
+            } catch (RuntimeException e) {
+                log.error("Clock sweep failed: {}", e.getMessage(), e);
+                report.setError(e.getMessage());
+                report.setStatus(ClockSyncReport.Status.FAILED);
+                return report;
+            } finally {
+                running.set(null);
+            }
+        });
+    }
+
+    /** Report of the running sweep, or of the last one */
+    public ClockSyncReport getLastReport() {
+        return lastReport;
+    }
+
+    /** Drift samples of a meter, oldest first */
+    public List<DriftSample> getHistory(String meterSerialNumber) {
+        DriftHistory history = histories.get(meterSerialNumber);
+        return history == null ? Collections.emptyList() : history.samples();
+    }
+
+    /**
+     * Read and correct the clocks of the given meters, wave by wave.
+     */
+    ClockSyncReport sweep(List<Meter> meters, ClockSyncReport report) {
+        long started = System.nanoTime();
+        report.setMeters(meters.size());
+        report.setGateways((int) meters.stream().map(Meter::getIpAddress).distinct().count());
+        List<List<Meter>> waves = MeterWaves.split(meters,
+            ip -> Math.min(config.getGatewayConcurrency(), accessGuard.getGatewayLimit(ip)), config.getWaveSize());
+        for (List<Meter> wave : waves) {
+            runWave(wave, report);
+            report.setWaves(report.getWaves() + 1);
+        }
+        report.setElapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        report.setStatus(ClockSyncReport.Status.COMPLETED);
+        log.info("Clock sweep of {} meters in {} waves: {} read, {} in sync, {} shifted, {} set, {} outliers, " +
+                "{} failed in {} ms", report.getMeters(), report.getWaves(), report.getRead(), report.getInSync(),
+            report.getShifted(), report.getSet(), report.getOutliers(), report.getFailed(), report.getElapsedMs());
+        return report;
+    }
+
+    private void runWave(List<Meter> wave, ClockSyncReport report) {
+        List<Outcome> outcomes = new ArrayList<>(wave.size());
+        List<CompletableFuture<MeterTransaction.Result>> futures = new ArrayList<>(wave.size());
+        for (Meter meter : wave) {
+            Outcome outcome = new Outcome(meter);
+            outcomes.add(outcome);
+            futures.add(communicationService.communicate(CommandLane.BULK, meter.getSerialNumber(), meter.getIpAddress(),
+                meter.getPort(), protocol -> sync(protocol, outcome)));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .get(config.getWaveTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Counted per meter below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Object[]> flagged = new ArrayList<>();
+        for (int i = 0; i < outcomes.size(); i++) {
+            Outcome outcome = outcomes.get(i);
+            if (!futures.get(i).isDone()) {
+                report.setTimedOut(report.getTimedOut() + 1);
+                continue;
+            }
+            if (!outcome.read) {
+                report.setFailed(report.getFailed() + 1);
+                continue;
+            }
+            report.setRead(report.getRead() + 1);
+            report.setMaxAbsDriftMs(Math.max(report.getMaxAbsDriftMs(), Math.abs(outcome.driftMs)));
+            switch (outcome.correction) {
+                case NONE:
+                    report.setInSync(report.getInSync() + 1);
+                    break;
+                case SHIFT_TIME:
+                    report.setShifted(report.getShifted() + 1);
+                    break;
+                case SET:
+                    report.setSet(report.getSet() + 1);
+                    break;
+                default:
+                    report.setCorrectionFailed(report.getCorrectionFailed() + 1);
+            }
+            if (record(outcome)) {
+                Timestamp now = Timestamp.from(Instant.ofEpochMilli(outcome.readAtMs));
+                flagged.add(new Object[] {outcome.meter.getSerialNumber(), now, CLOCK_ERROR_BITS, now});
+            }
+        }
+        if (!flagged.isEmpty()) {
+            report.setOutliers(report.getOutliers() + flagged.size());
+            try {
+                jdbcTemplate.batchUpdate(ESWF_SQL, flagged);
+            } catch (RuntimeException e) {
+                log.error("Failed to flag {} clock outliers: {}", flagged.size(), e.getMessage());
+            }
+        }
+    }
+
+    /** Add the sample to the meter's history; true when the meter is a drift outlier */
+    private boolean record(Outcome outcome) {
+        driftSummary.record(Math.abs(outcome.driftMs));
+        DriftHistory history = histories.computeIfAbsent(outcome.meter.getSerialNumber(),
+            serial -> new DriftHistory(config.getHistorySize()));
+        double ppm = history.rateSincePrevious(outcome.readAtMs, outcome.driftMs,
+            TimeUnit.MINUTES.toMillis(config.getRateWindowMinutes()));
+        history.add(outcome.readAtMs, outcome.driftMs, outcome.rttMs, outcome.correction);
+        boolean outlier = Math.abs(outcome.driftMs) > config.getOutlierDriftMs()
+            || (!Double.isNaN(ppm) && ppm > config.getOutlierDriftPpm());
+        if (outlier) {
+            log.warn("Clock of meter {} is an outlier: drift {} ms, rate {} ppm", outcome.meter.getSerialNumber(),
+                outcome.driftMs, Double.isNaN(ppm) ? "unknown" : String.format("%.1f", ppm));
+        }
+        return outlier;
+    }
+
+    /**
+     * Session run on one meter: read the clock, then correct it when it is off by more than the
+     * threshold.
+     */
+    private MeterTransaction.Result sync(DlmsProtocol protocol, Outcome outcome) {
+        MeterTransaction.Result result = new MeterTransaction.Result();
+        CosemObject clock = CosemObject.StandardObjects.CLOCK;
+        long sent = System.currentTimeMillis();
+        DlmsProtocol.GetResult read = protocol.get(clock);
+        long received = System.currentTimeMillis();
+        if (!read.isSuccess()) {
+            result.setSuccess(false);
+            result.setError(read.getError());
+            return result;
+        }
+        long meterMs;
+        try {
+            meterMs = clockMillis(read.getValue(), outcome);
+        } catch (RuntimeException e) {
+            result.setSuccess(false);
+            result.setError("Unreadable clock value: " + e.getMessage());
+            return result;
+        }
+        outcome.read = true;
+        outcome.readAtMs = received;
+        outcome.rttMs = received - sent;
+        outcome.driftMs = meterMs - (sent + received) / 2;
+        result.setValue(read.getValue());
+        result.setSuccess(true);
+        if (Math.abs(outcome.driftMs) <= config.getThresholdMs()) {
+            outcome.correction = DriftSample.Correction.NONE;
+            return result;
+        }
+
+        long seconds = Math.round(outcome.driftMs / 1000.0);
+        if (config.isUseShiftTime() && Math.abs(seconds) <= Math.min(config.getShiftTimeLimitSeconds(), MAX_SHIFT_SECONDS)) {
+            DlmsProtocol.ActionResult shift = protocol.action(clock, SHIFT_TIME, DataObject.newInt16((int) -seconds));
+            if (shift.isSuccess()) {
+                outcome.correction = DriftSample.Correction.SHIFT_TIME;
+                return result;
+            }
+            log.debug("shift_time refused by meter {}, setting the time instead: {}",
+                outcome.meter.getSerialNumber(), shift.getError());
+        }
+        // The meter applies the SET about half a round trip after it is sent
+        long target = System.currentTimeMillis() + outcome.rttMs / 2;
+        Instant instant = Instant.ofEpochMilli(target);
+        byte[] time = outcome.offset == null
+            ? AxdrCodec.encodeDateTime(LocalDateTime.ofInstant(instant, zone))
+            : AxdrCodec.encodeDateTime(LocalDateTime.ofInstant(instant, outcome.offset), outcome.offset);
+        DlmsProtocol.SetResult set = protocol.set(clock, DataObject.newOctetString(time));
+        outcome.correction = set.isSuccess() ? DriftSample.Correction.SET : DriftSample.Correction.FAILED;
+        if (!set.isSuccess()) {
+            result.setSuccess(false);
+            result.setError("Clock correction failed: " + set.getError());
+        }
+        return result;
+    }
+
+    /**
+     * Meter time of a CLOCK value, at the offset given by its deviation; the outcome keeps that
+     * offset so a SET writes the time the same way. A clock without a deviation is taken to run in
+     * the HES zone. A time without fraction of a second is taken to come from a clock with one
+     * second resolution and moved to the middle of its second.
+     */
+    private long clockMillis(DataObject value, Outcome outcome) {
+        LocalDateTime time;
+        if (value.getType() == DataObject.DataType.DATETIME) {
+            time = value.asDateTime();
+        } else {
+            byte[] bytes = value.asOctetString();
+            time = AxdrCodec.decodeDateTime(bytes);
+            outcome.offset = AxdrCodec.decodeDeviation(bytes);
+        }
+        long millis = (outcome.offset == null ? time.atZone(zone).toInstant() : time.toInstant(outcome.offset))
+            .toEpochMilli();
+        return time.getNano() == 0 ? millis + 500 : millis;
+    }
+
+    private static String clockErrorBits() {
+        StringBuilder bits = new StringBuilder(128);
+        for (int i = 0; i < 128; i++) {
+            bits.append(i == EswfBit.CLOCK_ERROR.getBitNumber() ? '1' : '0');
+        }
+        return bits.toString();
+    }
+
+    /** Result of one meter's session, written by the lane worker and read after the wave */
+    private static final class Outcome {
+        final Meter meter;
+        volatile boolean read;
+        volatile long readAtMs;
+        volatile long rttMs;
+        volatile long driftMs;
+        /** Offset from the deviation of the meter's clock, null when it reports none */
+        volatile ZoneOffset offset;
+        volatile DriftSample.Correction correction = DriftSample.Correction.NONE;
+
+        Outcome(Meter meter) {
+            this.meter = meter;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.hes.collector.clock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Last clock drift samples of one meter in a ring of flat arrays, about 20 bytes per sample.
+ * Guarded by its own monitor; samples of one meter are only recorded by one session at a time.
+ */
+final class DriftHistory {
+    /** The meter clock resolution is one second, so two readings may differ by that much without any drift */
+    private static final long QUANTIZATION_MS = 1000;
+
+    private final long[] times;
+    private final long[] drifts;
+    private final int[] rtts;
+    private final byte[] corrections;
+    private int next;
+    private int size;
+
+    DriftHistory(int capacity) {
+        int n = Math.max(1, capacity);
+        this.times = new long[n];
+        this.drifts = new long[n];
+        this.rtts = new int[n];
+        this.corrections = new byte[n];
+    }
+
+    /**
+     * Drift rate since the previous sample in parts per million, or NaN when there is no sample
+     * at least {@code minWindowMs} older. A corrected sample counts as a clock set right.
+     */
+    synchronized double rateSincePrevious(long timeMs, long driftMs, long minWindowMs) {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        int last = (next - 1 + times.length) % times.length;
+        long elapsed = timeMs - times[last];
+        if (elapsed < Math.max(1, minWindowMs)) {
+            return Double.NaN;
+        }
+        DriftSample.Correction correction = DriftSample.Correction.values()[corrections[last]];
+        long baseline = correction.isApplied() ? 0 : drifts[last];
+        long change = Math.max(0, Math.abs(driftMs - baseline) - QUANTIZATION_MS);
+        return change * 1e6 / elapsed;
+    }
+
+    synchronized void add(long timeMs, long driftMs, long rttMs, DriftSample.Correction correction) {
+        times[next] = timeMs;
+        drifts[next] = driftMs;
+        rtts[next] = (int) Math.min(Integer.MAX_VALUE, rttMs);
+        corrections[next] = (byte) correction.ordinal();
+        next = (next + 1) % times.length;
+        size = Math.min(size + 1, times.length);
+    }
+
+    /** Samples, oldest first */
+    synchronized List<DriftSample> samples() {
+        List<DriftSample> samples = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int index = (next - size + i + times.length) % times.length;
+            samples.add(new DriftSample(times[index], drifts[index], rtts[index],
+                DriftSample.Correction.values()[corrections[index]]));
+        }
+        return samples;
+    }
+}
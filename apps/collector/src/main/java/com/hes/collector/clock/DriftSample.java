@@ -0,0 +1,43 @@
+package com.hes.collector.clock;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * One clock reading of a meter: how far its clock was off and what was done about it.
+ */
+@Getter
+public class DriftSample {
+    public enum Correction {
+        NONE(false),
+        SHIFT_TIME(true),
+        SET(true),
+        FAILED(false);
+
+        private final boolean applied;
+
+        Correction(boolean applied) {
+            this.applied = applied;
+        }
+
+        /** Whether the clock was set right */
+        public boolean isApplied() {
+            return applied;
+        }
+    }
+
+    private final Instant time;
+    /** Meter clock minus HES time at the midpoint of the CLOCK read; positive when the meter is ahead */
+    private final long driftMs;
+    /** Round trip time of the CLOCK read */
+    private final long rttMs;
+    private final Correction correction;
+
+    DriftSample(long timeMs, long driftMs, long rttMs, Correction correction) {
+        this.time = Instant.ofEpochMilli(timeMs);
+        this.driftMs = driftMs;
+        this.rttMs = rttMs;
+        this.correction = correction;
+    }
+}
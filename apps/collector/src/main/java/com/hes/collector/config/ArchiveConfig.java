@@ -0,0 +1,24 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cold-tier archival of block load profiles into compressed monthly files.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.archive")
+public class ArchiveConfig {
+    private boolean enabled = false;
+    private String directory = "data/archive";
+    /** When the scheduled archival runs; read by the scheduler through the property placeholder */
+    private String cron = "0 30 2 1 * *";
+    /** Months kept in Postgres; the month before that is archived by the scheduled run */
+    private int monthsInPostgres = 3;
+    /** Delete archived rows from Postgres once the archive has been written and verified */
+    private boolean deleteAfterArchive = false;
+}
@@ -0,0 +1,40 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Fleet clock synchronization, see {@link com.hes.collector.clock.ClockSyncService}.
+ * A sweep reads every meter's clock once; how fast it runs is bounded by the bulk lane's
+ * concurrency in {@code collector.lanes}.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.clock-sync")
+public class ClockSyncConfig {
+    /** Run the scheduled sweep; manual sweeps through the API always work */
+    private boolean enabled = false;
+    private String cron = "0 15 3 * * *";
+    /** Meters whose clock is off by more than this are corrected */
+    private long thresholdMs = 5000;
+    /** Drifts up to this, and at most 900 s, are corrected with shift_time, larger ones with a SET of the time */
+    private int shiftTimeLimitSeconds = 900;
+    private boolean useShiftTime = true;
+    /** Drift beyond this raises the ESWF clock error bit */
+    private long outlierDriftMs = 300000;
+    /** Drift rate beyond this, in parts per million, raises the ESWF clock error bit */
+    private double outlierDriftPpm = 50;
+    /** Shortest time between two samples for a drift rate to be computed */
+    private long rateWindowMinutes = 360;
+    /** Sessions per gateway in one wave, further capped by the gateway's current AIMD limit */
+    private int gatewayConcurrency = 4;
+    /** Sessions in one wave across all gateways */
+    private int waveSize = 2000;
+    /** Longest wait for a wave; sessions still running are counted as timed out */
+    private long waveTimeoutMs = 60000;
+    /** Drift samples kept per meter */
+    private int historySize = 16;
+}
@@ -0,0 +1,22 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * COSEM object catalog loaded from the obis_codes table.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.catalog")
+public class CosemCatalogConfig {
+    /** How often obis_codes is checked for changes; the index is only rebuilt when it changed */
+    private long refreshIntervalMs = 60000;
+    /** Objects read on each simulator DLMS read cycle, by object name or OBIS code */
+    private List<String> readPlan = List.of("ACTIVE_POWER_IMPORT", "VOLTAGE_L1", "CURRENT_L1", "CLOCK");
+}
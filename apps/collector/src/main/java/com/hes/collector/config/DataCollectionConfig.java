@@ -1,6 +1,8 @@
 package com.hes.collector.config;
 
 import com.hes.collector.model.MeterReading;
+import com.hes.collector.serialization.MeterReadingSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,7 +11,6 @@ import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.ProducerFactory;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -19,15 +20,19 @@ public class DataCollectionConfig {
 
     @Bean
     @ConditionalOnMissingBean(KafkaTemplate.class)
-    public KafkaTemplate<String, MeterReading> kafkaTemplate() {
+    public KafkaTemplate<String, MeterReading> kafkaTemplate(
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers) {
         // Create a minimal Kafka configuration that won't actually connect to Kafka
         // This allows the application to start without Kafka running
         Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, MeterReadingSerializer.class);
         configProps.put(ProducerConfig.RETRIES_CONFIG, 0);
         configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 1000);
+        configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 1000);
+        // Fail fast instead of blocking the caller for a minute waiting on broker metadata
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 1000);
         
         ProducerFactory<String, MeterReading> factory = new DefaultKafkaProducerFactory<>(configProps);
         return new KafkaTemplate<>(factory);
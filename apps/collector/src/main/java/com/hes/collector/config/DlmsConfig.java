@@ -17,6 +17,8 @@ public class DlmsConfig {
     private int clientId = 1;
     private int serverLowerMacAddress = 17;
     private int serverUpperMacAddress = 0;
+    /** Destination wPort of the logical device when the wrapper is used instead of HDLC */
+    private int serverWPort = 1;
     private String authenticationKey;
     private String encryptionKey;
     private String systemTitle;
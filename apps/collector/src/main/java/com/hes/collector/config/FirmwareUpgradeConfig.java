@@ -0,0 +1,42 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Firmware image transfers, see {@link com.hes.collector.firmware.FirmwareUpgradeService}.
+ * Sessions run on the firmware lane, so how many meters receive blocks at once is also bounded by
+ * firmwareMaxConcurrency in {@code collector.lanes}.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.firmware")
+public class FirmwareUpgradeConfig {
+    /** Directory holding the image files; jobs can only use images inside it */
+    private String imageDirectory = "data/firmware";
+    /** Transfers of one job in progress at the same time */
+    private int maxParallelTransfers = 200;
+    /** Blocks sent in one association before the meter goes back to the end of the lane queue */
+    private int blocksPerSession = 64;
+    /** Failed sessions in a row, none confirming a block, after which a meter's transfer is given up */
+    private int maxSessionFailures = 5;
+    /**
+     * Wait before the next session after a failed one. Sessions refused by an open circuit
+     * breaker count as failed, so keep retryDelayMs times maxSessionFailures above
+     * collector.access.meterOpenStateMs to give a meter a trial session before giving up on it.
+     */
+    private long retryDelayMs = 15000;
+    /** Passes resending the blocks the meter's bitmap reports missing */
+    private int missingBlockRounds = 3;
+    /** Longest wait for a meter to verify or activate the image */
+    private long verifyTimeoutMs = 60000;
+    /** Interval between image_transfer_status reads while the meter verifies or activates */
+    private long verifyPollMs = 2000;
+    /** Activate the image after verification when the request does not say */
+    private boolean activate = false;
+    /** Finished jobs kept for the API */
+    private int jobHistory = 20;
+}
@@ -0,0 +1,40 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Relay connect/disconnect of whole meter groups, see {@link com.hes.collector.relay.GroupRelayService}.
+ * Commands run on the urgent lane, so the actual rate is also bounded by its concurrency and
+ * queue capacity in {@code collector.lanes}; keep waveSize below urgentQueueCapacity.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.group-relay")
+public class GroupRelayConfig {
+    /** Relay commands started per second across the whole job */
+    private double commandsPerSecond = 50;
+    /** Commands per gateway in one wave, further capped by the gateway's current AIMD limit */
+    private int gatewayConcurrency = 4;
+    /** Commands in one wave across all gateways */
+    private int waveSize = 200;
+    /** Longest wait for the commands or read-backs of a wave */
+    private long waveTimeoutMs = 30000;
+    /** Read the relay state back after each wave; without it an acknowledged SET counts as confirmed */
+    private boolean verify = true;
+    /** Time given to the relays to switch before the read-back */
+    private long verifyDelayMs = 1000;
+    /** Extra passes over meters that failed or did not confirm, while the SLO allows */
+    private int retries = 1;
+    /** A wave with a larger share of failed meters stops the job */
+    private double abortFailureRatio = 0.5;
+    /** Waves smaller than this never stop the job */
+    private int abortMinWaveSize = 20;
+    /** Target time from start to the last confirmed meter */
+    private long sloSeconds = 300;
+    /** Finished jobs kept for the API */
+    private int jobHistory = 20;
+}
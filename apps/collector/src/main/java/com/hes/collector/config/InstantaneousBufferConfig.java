@@ -0,0 +1,26 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Memory-mapped ring buffer of recent instantaneous profile rows.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.instantaneous-buffer")
+public class InstantaneousBufferConfig {
+    /** Backing file; reopened on restart when its layout matches the settings below */
+    private String path = "data/instantaneous-profiles.ring";
+    private int retentionHours = 6;
+    /** Expected capture interval, used with retentionHours to size each meter's ring */
+    private int captureIntervalSeconds = 30;
+    private int maxMeters = 10000;
+
+    public int getRowsPerMeter() {
+        return Math.max(1, retentionHours * 3600 / captureIntervalSeconds);
+    }
+}
@@ -1,6 +1,7 @@
 package com.hes.collector.config;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -10,6 +11,7 @@ import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 import com.hes.collector.model.MeterReading;
+import com.hes.collector.serialization.MeterReadingSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -19,16 +21,45 @@ import java.util.Map;
 public class KafkaConfig {
 
     @Bean
-    public ProducerFactory<String, MeterReading> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+    public ProducerFactory<String, MeterReading> producerFactory(KafkaProperties kafkaProperties,
+                                                                 ReadingPublisherConfig publisherConfig) {
+        return new DefaultKafkaProducerFactory<>(producerProperties(kafkaProperties, publisherConfig));
     }
 
     @Bean
-    public KafkaTemplate<String, MeterReading> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, MeterReading> kafkaTemplate(ProducerFactory<String, MeterReading> producerFactory,
+                                                             ReadingPublisherConfig publisherConfig) {
+        KafkaTemplate<String, MeterReading> template = new KafkaTemplate<>(producerFactory);
+        template.setDefaultTopic(publisherConfig.getTopic());
+        return template;
+    }
+
+    /**
+     * Producer settings for high-volume reading traffic: records keyed by meter serial are
+     * batched per partition for up to linger.ms, compressed as a batch and sent idempotently
+     * so retries cannot reorder or duplicate a meter's readings
+     */
+    static Map<String, Object> producerProperties(KafkaProperties kafkaProperties,
+                                                  ReadingPublisherConfig publisherConfig) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaProperties.getBootstrapServers());
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        if ("json".equalsIgnoreCase(publisherConfig.getValueFormat())) {
+            configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+            configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        } else {
+            configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, MeterReadingSerializer.class);
+        }
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, publisherConfig.getLingerMs());
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, publisherConfig.getBatchSizeBytes());
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, publisherConfig.getCompressionType());
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, publisherConfig.getBufferMemoryBytes());
+        configProps.put(ProducerConfig.ACKS_CONFIG, publisherConfig.getAcks());
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, publisherConfig.isIdempotence());
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, publisherConfig.getMaxInFlightRequests());
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, publisherConfig.getMaxBlockMs());
+        configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, publisherConfig.getDeliveryTimeoutMs());
+        configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, publisherConfig.getRequestTimeoutMs());
+        return configProps;
     }
-} 
\ No newline at end of file
+}
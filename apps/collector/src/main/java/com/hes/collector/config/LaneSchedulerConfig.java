@@ -0,0 +1,63 @@
+package com.hes.collector.config;
+
+import com.hes.collector.scheduling.CommandLane;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Worker pool and per-lane settings for the meter command scheduler.
+ * Keep bulkMaxConcurrency plus firmwareMaxConcurrency below workerThreads so commands always
+ * find a free worker.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.lanes")
+public class LaneSchedulerConfig {
+    private int workerThreads = 32;
+
+    private int urgentWeight = 8;
+    private int urgentMaxConcurrency = 8;
+    private int urgentQueueCapacity = 1000;
+
+    private int odrWeight = 4;
+    private int odrMaxConcurrency = 8;
+    private int odrQueueCapacity = 5000;
+
+    private int bulkWeight = 1;
+    private int bulkMaxConcurrency = 24;
+    private int bulkQueueCapacity = 100000;
+
+    private int firmwareWeight = 1;
+    private int firmwareMaxConcurrency = 4;
+    private int firmwareQueueCapacity = 10000;
+
+    public int getWeight(CommandLane lane) {
+        switch (lane) {
+            case URGENT: return urgentWeight;
+            case ODR: return odrWeight;
+            case BULK: return bulkWeight;
+            default: return firmwareWeight;
+        }
+    }
+
+    public int getMaxConcurrency(CommandLane lane) {
+        switch (lane) {
+            case URGENT: return urgentMaxConcurrency;
+            case ODR: return odrMaxConcurrency;
+            case BULK: return bulkMaxConcurrency;
+            default: return firmwareMaxConcurrency;
+        }
+    }
+
+    public int getQueueCapacity(CommandLane lane) {
+        switch (lane) {
+            case URGENT: return urgentQueueCapacity;
+            case ODR: return odrQueueCapacity;
+            case BULK: return bulkQueueCapacity;
+            default: return firmwareQueueCapacity;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Per-meter and per-gateway session limits and circuit breaker settings.
+ * A gateway is the IP address shared by all meters behind one modem or DCU.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.access")
+public class MeterAccessConfig {
+    private int meterMaxSessions = 1;
+    /** Longest time a session is requeued on its lane while its meter or gateway is busy */
+    private long permitTimeoutMs = 5000;
+    /** Wait before a session refused for a busy meter or gateway goes back to its lane */
+    private long permitRetryMs = 50;
+    /** Permits, limiter and breaker of a meter or gateway not asked for a session this long are dropped */
+    private long idleEvictionMs = 600000;
+
+    private float meterFailureRateThreshold = 50;
+    private int meterSlidingWindowSize = 10;
+    private int meterMinimumNumberOfCalls = 5;
+    private long meterOpenStateMs = 60000;
+
+    private float gatewayFailureRateThreshold = 80;
+    private int gatewaySlidingWindowSize = 50;
+    private int gatewayMinimumNumberOfCalls = 20;
+    private long gatewayOpenStateMs = 30000;
+
+    private int gatewayInitialLimit = 4;
+    private int gatewayMinLimit = 1;
+    private int gatewayMaxLimit = 32;
+    private long gatewayLatencyThresholdMs = 3000;
+    private double gatewayBackoffRatio = 0.7;
+}
@@ -0,0 +1,42 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * In-process DLMS meter emulator for end to end load tests. Each listening port acts as a
+ * gateway for {@code metersPerPort} meters, addressed by HDLC physical address or wrapper
+ * destination wPort 1..metersPerPort.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.emulator")
+public class MeterEmulatorConfig {
+    private boolean enabled = false;
+    private String host = "0.0.0.0";
+    /** First listening port; 0 binds ephemeral ports */
+    private int basePort = 4059;
+    private int ports = 8;
+    /** At most 16383, the largest HDLC physical address */
+    private int metersPerPort = 12500;
+    private int ioThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    /** LLS password as hex; empty accepts any password */
+    private String password = "";
+    private int latencyMs = 0;
+    private int latencyJitterMs = 0;
+    /** Share of responses that are never sent */
+    private double lossRate = 0.0;
+    /** Share of GET/SET requests answered with a hardware fault or temporary failure */
+    private double errorRate = 0.0;
+    private int inactivityTimeoutMs = 120000;
+    /** image_block_size of every meter's Image Transfer object */
+    private int imageBlockSize = 192;
+    /** Largest firmware image a meter accepts; received images are held in memory */
+    private int maxImageSize = 4 * 1024 * 1024;
+    private long seed = 42;
+    /** Zone the meter clocks run in and report as their deviation; empty for the host's zone */
+    private String zone = "";
+}
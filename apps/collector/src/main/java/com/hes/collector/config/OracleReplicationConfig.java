@@ -0,0 +1,33 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replication of persisted meter readings from TimescaleDB to Oracle.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.replication")
+public class OracleReplicationConfig {
+    private boolean enabled = false;
+    /** Checkpoint row in replication_checkpoints that tracks this stream */
+    private String checkpointName = "oracle-meter-readings";
+
+    private String oracleJdbcUrl;
+    private String oracleUsername;
+    private String oraclePassword;
+    private int oracleMaxPoolSize = 4;
+
+    /** Rows fetched and shipped per round while keeping up */
+    private int batchSize = 2000;
+    /** Rows per round while working through a backlog */
+    private int catchUpBatchSize = 20000;
+    /** Rows per JDBC executeBatch call inside one round */
+    private int jdbcBatchSize = 1000;
+    private long pollIntervalMs = 1000;
+    private long maxBackoffMs = 60000;
+}
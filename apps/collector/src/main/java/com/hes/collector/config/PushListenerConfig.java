@@ -0,0 +1,47 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listener for DataNotification pushes from meters, over the wrapper or HDLC, see
+ * {@link com.hes.collector.push.PushListener}.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.push")
+public class PushListenerConfig {
+    private boolean enabled = false;
+    /** Loopback by default; bind the meter network explicitly and restrict it with allowedSources */
+    private String host = "127.0.0.1";
+    /** Listening port, outside the emulator's 4059-4066; 0 binds an ephemeral port */
+    private int port = 4090;
+    /** Addresses or CIDR ranges meters may push from, on top of the registered meters */
+    private List<String> allowedSources = new ArrayList<>(List.of("127.0.0.1", "::1"));
+    /** Also accept connections from the ip_address of any meter in the meters table */
+    private boolean allowRegisteredMeters = true;
+    /** How often the registered meter addresses are read again */
+    private long registeredMetersRefreshMs = 60000;
+    private int ioThreads = 2;
+    /** Connections idle for longer are closed; meters reconnect for the next push */
+    private int inactivityTimeoutMs = 600000;
+    /** Pushes waiting to be written at most; further pushes are dropped and counted */
+    private int queueCapacity = 100000;
+    /** Rows per JDBC batch */
+    private int batchSize = 500;
+    /**
+     * Longest time a profile push waits for its batch to fill. ESWF and event pushes are written
+     * as soon as the writer is free.
+     */
+    private long flushIntervalMs = 1000;
+    /** Retries of a batch that failed on a lost connection or another transient error */
+    private int writeRetries = 3;
+    /** Wait before the first retry, doubled for each further one */
+    private long writeRetryDelayMs = 500;
+}
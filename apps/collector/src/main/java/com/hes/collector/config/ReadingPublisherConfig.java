@@ -0,0 +1,36 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Topic and producer tuning for publishing meter readings to Kafka.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.kafka")
+public class ReadingPublisherConfig {
+    /** Publish persisted readings; off when Kafka is not available */
+    private boolean enabled = true;
+    private String topic = "meter-readings";
+    /** Readings waiting for the sender thread; further readings are dropped and counted */
+    private int queueCapacity = 100000;
+    /** binary (compact schema-versioned codec) or json for consumers that still expect JSON */
+    private String valueFormat = "binary";
+    /** Time a batch may wait for more records before it is sent */
+    private int lingerMs = 20;
+    private int batchSizeBytes = 131072;
+    /** lz4, zstd, snappy, gzip or none */
+    private String compressionType = "lz4";
+    private long bufferMemoryBytes = 67108864L;
+    private String acks = "all";
+    private boolean idempotence = true;
+    private int maxInFlightRequests = 5;
+    /** Upper bound on how long send() may block when the buffer is full or metadata is missing */
+    private int maxBlockMs = 5000;
+    private int deliveryTimeoutMs = 120000;
+    private int requestTimeoutMs = 30000;
+}
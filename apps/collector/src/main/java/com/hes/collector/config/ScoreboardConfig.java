@@ -0,0 +1,24 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * In-memory per-meter communication health, see {@link com.hes.collector.metrics.MeterHealthScoreboard}.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.scoreboard")
+public class ScoreboardConfig {
+    /** Age at which a call counts half as much as a call made now */
+    private long halfLifeMinutes = 60;
+    /** Lock stripes; meters in different stripes update concurrently */
+    private int stripes = 64;
+    /** Meters tracked at most; calls to further meters are not scored */
+    private int maxMeters = 100000;
+    /** Worst meters returned when the request does not give a limit */
+    private int topK = 20;
+}
@@ -0,0 +1,30 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Load model of the built-in meter simulator. The same seed and meter list reproduce the same
+ * readings, which keeps benchmark runs comparable.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.simulator")
+public class SimulatorConfig {
+    private long seed = 42;
+    /** Share of meters with rooftop PV that export at midday */
+    private double solarShare = 0.15;
+
+    /** Parallel writers for backfill; each holds one pooled connection for the whole run */
+    private int backfillThreads = 4;
+    /** Instantaneous profile interval in backfilled history; block load is always 15 minutes */
+    private int backfillInstantaneousIntervalMinutes = 15;
+    private double backfillEventsPerMeterDay = 0.5;
+    private double backfillAlarmsPerMeterDay = 0.1;
+    /** Rows buffered per table before a COPY */
+    private int backfillFlushRows = 20000;
+    private String backfillSerialPrefix = "BF";
+}
@@ -0,0 +1,28 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Latency histograms of the collection stages, see {@link com.hes.collector.metrics.CollectionStage}.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.stage-metrics")
+public class StageMetricsConfig {
+    /** Percentiles computed in the collector and published as gauges */
+    private List<Double> percentiles = List.of(0.5, 0.9, 0.99, 0.999);
+    /** Publish histogram buckets so percentiles can be aggregated across collectors */
+    private boolean percentileHistogram = true;
+    /** Significant decimal digits kept by the percentile histogram */
+    private int percentilePrecision = 2;
+    private long minimumExpectedMs = 1;
+    private long maximumExpectedMs = 60000;
+    /** Distinct model and firmware pairs with their own series; further pairs are tagged "other" */
+    private int maxTagCombinations = 200;
+}
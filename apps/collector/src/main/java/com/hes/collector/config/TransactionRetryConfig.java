@@ -0,0 +1,24 @@
+package com.hes.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Backoff and batching settings for re-dispatching failed meter transactions.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "collector.retry")
+public class TransactionRetryConfig {
+    private long baseDelayMs = 2000;
+    private long maxDelayMs = 60000;
+    private double multiplier = 2.0;
+    /** Fraction of each delay that is randomised, 0 = none, 1 = full jitter */
+    private double jitter = 0.5;
+    /** Length of a bulk collection cycle; ODR and bulk retries are aligned to its boundaries */
+    private long collectionWindowMs = 30000;
+    private int deadLetterCapacity = 1000;
+}
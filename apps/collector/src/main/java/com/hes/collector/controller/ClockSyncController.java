@@ -0,0 +1,77 @@
+package com.hes.collector.controller;
+
+import com.hes.collector.clock.ClockSyncReport;
+import com.hes.collector.clock.ClockSyncService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts and reports fleet clock synchronization sweeps, and shows per-meter drift history.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/clock-sync")
+public class ClockSyncController {
+    private final ClockSyncService clockSyncService;
+
+    public ClockSyncController(ClockSyncService clockSyncService) {
+        this.clockSyncService = clockSyncService;
+    }
+
+    /**
+     * POST /api/clock-sync
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> start() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            clockSyncService.start();
+            log.info("Started clock sweep");
+            response.put("success", true);
+            response.put("report", clockSyncService.getLastReport());
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    /**
+     * GET /api/clock-sync
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> status() {
+        Map<String, Object> response = new HashMap<>();
+        ClockSyncReport report = clockSyncService.getLastReport();
+        if (report == null) {
+            response.put("success", false);
+            response.put("error", "No clock sweep has run");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("success", true);
+        response.put("report", report);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/clock-sync/meters/{serialNumber}
+     */
+    @GetMapping("/meters/{serialNumber}")
+    public ResponseEntity<Map<String, Object>> history(@PathVariable String serialNumber) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("meter", serialNumber);
+        response.put("samples", clockSyncService.getHistory(serialNumber));
+        return ResponseEntity.ok(response);
+    }
+}
@@ -3,10 +3,12 @@ package com.hes.collector.controller;
 import com.hes.collector.model.MeterTransaction;
 import com.hes.collector.dlms.CosemObject;
 import com.hes.collector.dlms.DataObject;
+import com.hes.collector.service.CosemObjectCatalog;
 import com.hes.collector.service.EnhancedSimulatorService;
 import com.hes.collector.service.MeterCommunicationService;
 import com.hes.collector.service.MeterService;
 import com.hes.collector.model.Meter;
+import com.hes.collector.scheduling.CommandLane;
 import com.hes.collector.service.OdrTransactionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +48,9 @@ public class DlmsCommandController {
     @Autowired
     private OdrTransactionService odrTransactionService;
 
+    @Autowired
+    private CosemObjectCatalog cosemObjectCatalog;
+
     /**
      * Ping a specific meter
      * POST /api/dlms/ping
@@ -82,6 +87,7 @@ public class DlmsCommandController {
             }
 
             CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                CommandLane.ODR,
                 meter.getIpAddress(),
                 meter.getPort(),
                 CosemObject.StandardObjects.CLOCK,
@@ -154,6 +160,7 @@ public class DlmsCommandController {
             DataObject relayValue = DataObject.newBoolean(request.isConnect());
             
             CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                CommandLane.URGENT,
                 meter.getIpAddress(),
                 meter.getPort(),
                 CosemObject.StandardObjects.RELAY_CONTROL,
@@ -221,6 +228,7 @@ public class DlmsCommandController {
             }
 
             CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                CommandLane.ODR,
                 meter.getIpAddress(),
                 meter.getPort(),
                 cosemObject,
@@ -290,6 +298,7 @@ public class DlmsCommandController {
             }
 
             CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                CommandLane.URGENT,
                 meter.getIpAddress(),
                 meter.getPort(),
                 cosemObject,
@@ -412,6 +421,7 @@ public class DlmsCommandController {
             }
 
             CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                    CommandLane.ODR,
                     meter.getIpAddress(),
                     meter.getPort(),
                     CosemObject.StandardObjects.RELAY_CONTROL, // Use the same object for reading
@@ -911,11 +921,7 @@ public class DlmsCommandController {
 
     // Helper methods
     private CosemObject getCosemObjectFromString(String objectName) {
-        try {
-            return CosemObject.StandardObjects.valueOf(objectName.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            return null;
-        }
+        return cosemObjectCatalog.resolve(objectName);
     }
 
     private DataObject createDataObject(Object value, String dataType) {
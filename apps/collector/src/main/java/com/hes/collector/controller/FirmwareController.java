@@ -0,0 +1,164 @@
+package com.hes.collector.controller;
+
+import com.hes.collector.firmware.FirmwareJob;
+import com.hes.collector.firmware.FirmwareUpgradeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Starts firmware upgrades of meters or meter groups and reports their progress per meter.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/firmware/jobs")
+public class FirmwareController {
+    private final FirmwareUpgradeService firmwareUpgradeService;
+
+    public FirmwareController(FirmwareUpgradeService firmwareUpgradeService) {
+        this.firmwareUpgradeService = firmwareUpgradeService;
+    }
+
+    /**
+     * POST /api/firmware/jobs
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> start(@RequestBody FirmwareRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        if (request.getImageFile() == null || request.getImageFile().trim().isEmpty()) {
+            response.put("success", false);
+            response.put("error", "imageFile is required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            FirmwareJob job = firmwareUpgradeService.start(request.getImageFile().trim(), request.getImageIdentifier(),
+                request.getMeters(), request.getGroup(), request.getActivate());
+            log.info("Started firmware job {}: image {} to {}", job.getJobId(), job.getImageIdentifier(),
+                request.getMeters() != null && !request.getMeters().isEmpty()
+                    ? request.getMeters().size() + " meters" : "group " + request.getGroup());
+            response.put("success", true);
+            response.put("jobId", job.getJobId());
+            response.put("job", job);
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (IOException e) {
+            log.error("Failed to read firmware image {}: {}", request.getImageFile(), e.getMessage());
+            response.put("success", false);
+            response.put("error", "Failed to read image: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * GET /api/firmware/jobs
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> jobs() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("jobs", firmwareUpgradeService.getJobs());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/firmware/jobs/{jobId}
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<Map<String, Object>> job(@PathVariable UUID jobId) {
+        Map<String, Object> response = new HashMap<>();
+        FirmwareJob job = firmwareUpgradeService.getJob(jobId);
+        if (job == null) {
+            return notFound(jobId, response);
+        }
+        response.put("success", true);
+        response.put("job", job);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/firmware/jobs/{jobId}/meters
+     */
+    @GetMapping("/{jobId}/meters")
+    public ResponseEntity<Map<String, Object>> transfers(@PathVariable UUID jobId) {
+        Map<String, Object> response = new HashMap<>();
+        FirmwareJob job = firmwareUpgradeService.getJob(jobId);
+        if (job == null) {
+            return notFound(jobId, response);
+        }
+        response.put("success", true);
+        response.put("jobId", jobId);
+        response.put("transfers", job.transfers());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * DELETE /api/firmware/jobs/{jobId}
+     */
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Map<String, Object>> cancel(@PathVariable UUID jobId) {
+        Map<String, Object> response = new HashMap<>();
+        if (!firmwareUpgradeService.cancel(jobId)) {
+            response.put("success", false);
+            response.put("error", "No running firmware job " + jobId);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        log.info("Cancelling firmware job {}", jobId);
+        response.put("success", true);
+        response.put("jobId", jobId);
+        return ResponseEntity.ok(response);
+    }
+
+    private static ResponseEntity<Map<String, Object>> notFound(UUID jobId, Map<String, Object> response) {
+        response.put("success", false);
+        response.put("error", "Firmware job not found: " + jobId);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    public static class FirmwareRequest {
+        /** Image file name inside the image directory */
+        private String imageFile;
+        /** image_identifier sent to the meters, the file name when absent */
+        private String imageIdentifier;
+        /** Meter serial numbers; when absent the group's meters are upgraded */
+        private List<String> meters;
+        /** Group id or name */
+        private String group;
+        /** Activate after verification; the configured default when absent */
+        private Boolean activate;
+
+        public String getImageFile() { return imageFile; }
+        public void setImageFile(String imageFile) { this.imageFile = imageFile; }
+
+        public String getImageIdentifier() { return imageIdentifier; }
+        public void setImageIdentifier(String imageIdentifier) { this.imageIdentifier = imageIdentifier; }
+
+        public List<String> getMeters() { return meters; }
+        public void setMeters(List<String> meters) { this.meters = meters; }
+
+        public String getGroup() { return group; }
+        public void setGroup(String group) { this.group = group; }
+
+        public Boolean getActivate() { return activate; }
+        public void setActivate(Boolean activate) { this.activate = activate; }
+    }
+}
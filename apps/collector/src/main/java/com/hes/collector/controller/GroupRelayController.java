@@ -0,0 +1,120 @@
+package com.hes.collector.controller;
+
+import com.hes.collector.relay.GroupRelayJob;
+import com.hes.collector.relay.GroupRelayService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Connects or disconnects whole meter groups and reports the progress of each group relay job.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/group-relay")
+public class GroupRelayController {
+    private final GroupRelayService groupRelayService;
+
+    public GroupRelayController(GroupRelayService groupRelayService) {
+        this.groupRelayService = groupRelayService;
+    }
+
+    /**
+     * POST /api/group-relay
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> start(@RequestBody GroupRelayRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        if (request.getGroup() == null || request.getGroup().trim().isEmpty()) {
+            response.put("success", false);
+            response.put("error", "group is required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        GroupRelayJob.Operation operation = request.isConnect()
+            ? GroupRelayJob.Operation.CONNECT : GroupRelayJob.Operation.DISCONNECT;
+        try {
+            GroupRelayJob job = groupRelayService.start(request.getGroup().trim(), operation);
+            log.info("Started group relay job {}: {} group {}", job.getTransactionId(), operation, job.getGroupName());
+            response.put("success", true);
+            response.put("transactionId", job.getTransactionId());
+            response.put("job", job);
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    /**
+     * GET /api/group-relay
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> jobs() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("jobs", groupRelayService.getJobs());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/group-relay/{transactionId}
+     */
+    @GetMapping("/{transactionId}")
+    public ResponseEntity<Map<String, Object>> job(@PathVariable UUID transactionId) {
+        Map<String, Object> response = new HashMap<>();
+        GroupRelayJob job = groupRelayService.getJob(transactionId);
+        if (job == null) {
+            response.put("success", false);
+            response.put("error", "Group relay job not found: " + transactionId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("success", true);
+        response.put("job", job);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * DELETE /api/group-relay/{transactionId}
+     */
+    @DeleteMapping("/{transactionId}")
+    public ResponseEntity<Map<String, Object>> cancel(@PathVariable UUID transactionId) {
+        Map<String, Object> response = new HashMap<>();
+        if (!groupRelayService.cancel(transactionId)) {
+            response.put("success", false);
+            response.put("error", "No running group relay job " + transactionId);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        log.info("Cancelling group relay job {}", transactionId);
+        response.put("success", true);
+        response.put("transactionId", transactionId);
+        return ResponseEntity.ok(response);
+    }
+
+    public static class GroupRelayRequest {
+        /** Group id or name */
+        private String group;
+        private boolean connect;
+
+        public String getGroup() { return group; }
+        public void setGroup(String group) { this.group = group; }
+
+        public boolean isConnect() { return connect; }
+        public void setConnect(boolean connect) { this.connect = connect; }
+    }
+}
@@ -0,0 +1,113 @@
+package com.hes.collector.controller;
+
+import com.hes.collector.buffer.ColumnSummary;
+import com.hes.collector.buffer.InstantaneousColumn;
+import com.hes.collector.buffer.InstantaneousProfileBuffer;
+import com.hes.collector.buffer.InstantaneousSeries;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recent instantaneous profiles served from the in-memory ring buffer, without touching Postgres.
+ * Ranges are half-open, ISO-8601, and default to the last hour.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/profiles/instantaneous")
+public class InstantaneousProfileController {
+    private static final Duration DEFAULT_RANGE = Duration.ofHours(1);
+
+    private final InstantaneousProfileBuffer buffer;
+
+    public InstantaneousProfileController(InstantaneousProfileBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * GET /api/profiles/instantaneous/{meterSerialNumber}?from=&to=&columns=l1VoltageVrn,activePower
+     */
+    @GetMapping("/{meterSerialNumber}")
+    public ResponseEntity<Map<String, Object>> getSeries(
+            @PathVariable String meterSerialNumber,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) List<String> columns) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Instant end = to != null ? Instant.parse(to) : Instant.now();
+            Instant start = from != null ? Instant.parse(from) : end.minus(DEFAULT_RANGE);
+            Set<InstantaneousColumn> selected = EnumSet.allOf(InstantaneousColumn.class);
+            if (columns != null && !columns.isEmpty()) {
+                selected = EnumSet.noneOf(InstantaneousColumn.class);
+                for (String column : columns) {
+                    selected.add(InstantaneousColumn.parse(column.trim()));
+                }
+            }
+
+            InstantaneousSeries series = buffer.read(meterSerialNumber, start, end, selected);
+            if (series == null) {
+                response.put("success", false);
+                response.put("error", "No buffered profiles for meter " + meterSerialNumber);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+            response.put("success", true);
+            response.put("from", start);
+            response.put("to", end);
+            response.put("rows", series.getTimestamps().length);
+            response.put("series", series);
+            return ResponseEntity.ok(response);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * GET /api/profiles/instantaneous/scan?column=l1VoltageVrn&from=&to=
+     * Per-meter min, max, average and last value of one column across all buffered meters.
+     */
+    @GetMapping("/scan")
+    public ResponseEntity<Map<String, Object>> scan(
+            @RequestParam String column,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Instant end = to != null ? Instant.parse(to) : Instant.now();
+            Instant start = from != null ? Instant.parse(from) : end.minus(DEFAULT_RANGE);
+            InstantaneousColumn selected = InstantaneousColumn.parse(column);
+
+            long startNanos = System.nanoTime();
+            List<ColumnSummary> summaries = buffer.scan(selected, start, end);
+            log.debug("Scanned {} over {} meters in {} us", selected, buffer.getMeterCount(),
+                (System.nanoTime() - startNanos) / 1000);
+
+            response.put("success", true);
+            response.put("column", selected.getFieldName());
+            response.put("from", start);
+            response.put("to", end);
+            response.put("meters", summaries);
+            return ResponseEntity.ok(response);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.hes.collector.controller;
 
 import com.hes.collector.model.MeterTransaction;
+import com.hes.collector.scheduling.TransactionRetryScheduler;
 import com.hes.collector.service.RealTimeMeterCommunicationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -12,9 +14,12 @@ import java.util.concurrent.CompletableFuture;
 @RequestMapping("/api/meters")
 public class MeterCommandController {
     private final RealTimeMeterCommunicationService communicationService;
+    private final TransactionRetryScheduler retryScheduler;
 
-    public MeterCommandController(RealTimeMeterCommunicationService communicationService) {
+    public MeterCommandController(RealTimeMeterCommunicationService communicationService,
+                                  TransactionRetryScheduler retryScheduler) {
         this.communicationService = communicationService;
+        this.retryScheduler = retryScheduler;
     }
 
     @GetMapping("/{meterSerialNumber}/ping")
@@ -48,4 +53,9 @@ public class MeterCommandController {
         return communicationService.disconnectMeter(meterSerialNumber)
             .thenApply(transaction -> ResponseEntity.ok(transaction));
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/transactions/dead-letters")
+    public ResponseEntity<List<TransactionRetryScheduler.DeadLetter>> getDeadLetters() {
+        return ResponseEntity.ok(retryScheduler.getDeadLetters());
+    }
+}
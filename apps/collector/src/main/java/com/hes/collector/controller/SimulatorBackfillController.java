@@ -0,0 +1,71 @@
+package com.hes.collector.controller;
+
+import com.hes.collector.simulator.BackfillReport;
+import com.hes.collector.simulator.HistoricalBackfill;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts and reports historical backfill runs of the simulator tables.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/simulator/backfill")
+public class SimulatorBackfillController {
+    private final HistoricalBackfill backfill;
+
+    public SimulatorBackfillController(HistoricalBackfill backfill) {
+        this.backfill = backfill;
+    }
+
+    /**
+     * POST /api/simulator/backfill?meters=1000&days=30
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> start(
+            @RequestParam(defaultValue = "1000") int meters,
+            @RequestParam(defaultValue = "7") int days) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            BackfillReport report = backfill.start(meters, days);
+            log.info("Started backfill of {} meters x {} days", meters, days);
+            response.put("success", true);
+            response.put("report", report);
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    /**
+     * GET /api/simulator/backfill
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> status() {
+        Map<String, Object> response = new HashMap<>();
+        BackfillReport report = backfill.getLastReport();
+        if (report == null) {
+            response.put("success", false);
+            response.put("error", "No backfill has run");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("success", true);
+        response.put("report", report);
+        return ResponseEntity.ok(response);
+    }
+}
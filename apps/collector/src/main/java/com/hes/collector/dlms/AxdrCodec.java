@@ -0,0 +1,378 @@
+package com.hes.collector.dlms;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A-XDR encoding of COSEM data (IEC 62056-6-2).
+ * <p>
+ * {@link DataObject} does not carry the width of an integer, so signed values are written as
+ * double-long or long64 and unsigned values as double-long-unsigned or long64-unsigned,
+ * whichever fits; only {@link DataObject#newInt16} values are written as long. Decoding maps every
+ * integer width to {@link DataObject.DataType#INTEGER} or {@link DataObject.DataType#UNSIGNED}, and
+ * enum to unsigned, keeping the width of long only. The {@code put*} helpers write
+ * exact A-XDR types straight into a buffer for callers that know the width.
+ */
+public final class AxdrCodec {
+    public static final int NULL_DATA = 0;
+    public static final int ARRAY = 1;
+    public static final int STRUCTURE = 2;
+    public static final int BOOLEAN = 3;
+    public static final int BIT_STRING = 4;
+    public static final int DOUBLE_LONG = 5;
+    public static final int DOUBLE_LONG_UNSIGNED = 6;
+    public static final int OCTET_STRING = 9;
+    public static final int VISIBLE_STRING = 10;
+    public static final int UTF8_STRING = 12;
+    public static final int INTEGER = 15;
+    public static final int LONG = 16;
+    public static final int UNSIGNED = 17;
+    public static final int LONG_UNSIGNED = 18;
+    public static final int LONG64 = 20;
+    public static final int LONG64_UNSIGNED = 21;
+    public static final int ENUM = 22;
+    public static final int FLOAT32 = 23;
+    public static final int FLOAT64 = 24;
+    public static final int DATE_TIME = 25;
+
+    /** Length of a COSEM date-time */
+    public static final int DATE_TIME_LENGTH = 12;
+    private static final int DEVIATION_NOT_SPECIFIED = 0x8000;
+
+    private AxdrCodec() {
+    }
+
+    public static byte[] encode(DataObject value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16);
+        encode(value, out);
+        return out.toByteArray();
+    }
+
+    public static DataObject decode(byte[] data) {
+        return decode(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Decode one value starting at the buffer position, leaving the position after it.
+     */
+    public static DataObject decode(ByteBuffer in) {
+        return decode(in, false);
+    }
+
+    /**
+     * Like {@link #decode(ByteBuffer)}, but octet and bit strings are views of the buffer's
+     * backing array rather than copies. Only for buffers that are not reused afterwards.
+     */
+    public static DataObject decodeView(ByteBuffer in) {
+        return decode(in, in.hasArray());
+    }
+
+    private static DataObject decode(ByteBuffer in, boolean share) {
+        try {
+            return read(in, share);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated A-XDR data");
+        }
+    }
+
+    private static void encode(DataObject value, ByteArrayOutputStream out) {
+        switch (value.getType()) {
+            case NULL:
+                out.write(NULL_DATA);
+                break;
+            case BOOLEAN:
+                out.write(BOOLEAN);
+                out.write(value.asBoolean() ? 1 : 0);
+                break;
+            case INTEGER: {
+                long v = value.asInteger();
+                if (value.getEncodedWidth() == 2) {
+                    out.write(LONG);
+                    writeBigEndian(out, v, 2);
+                } else if (v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+                    out.write(DOUBLE_LONG);
+                    writeBigEndian(out, v, 4);
+                } else {
+                    out.write(LONG64);
+                    writeBigEndian(out, v, 8);
+                }
+                break;
+            }
+            case UNSIGNED: {
+                long v = value.asUnsigned();
+                if (v <= 0xFFFFFFFFL) {
+                    out.write(DOUBLE_LONG_UNSIGNED);
+                    writeBigEndian(out, v, 4);
+                } else {
+                    out.write(LONG64_UNSIGNED);
+                    writeBigEndian(out, v, 8);
+                }
+                break;
+            }
+            case FLOAT:
+                out.write(FLOAT32);
+                writeBigEndian(out, Float.floatToIntBits(value.asFloat()), 4);
+                break;
+            case DOUBLE:
+                out.write(FLOAT64);
+                writeBigEndian(out, Double.doubleToLongBits(value.asDouble()), 8);
+                break;
+            case OCTET_STRING:
+                writeBytes(out, OCTET_STRING, value.asOctetString());
+                break;
+            case STRING:
+                writeBytes(out, VISIBLE_STRING, value.asString().getBytes(StandardCharsets.US_ASCII));
+                break;
+            case BIT_STRING: {
+                byte[] bits = value.asBitString();
+                out.write(BIT_STRING);
+                writeLength(out, bits.length * 8);
+                out.write(bits, 0, bits.length);
+                break;
+            }
+            case DATETIME:
+                out.write(DATE_TIME);
+                byte[] dateTime = encodeDateTime(value.asDateTime());
+                out.write(dateTime, 0, dateTime.length);
+                break;
+            case ARRAY:
+            case STRUCTURE: {
+                List<DataObject> items = value.getType() == DataObject.DataType.ARRAY
+                    ? value.asArray() : value.asStructure();
+                out.write(value.getType() == DataObject.DataType.ARRAY ? ARRAY : STRUCTURE);
+                writeLength(out, items.size());
+                for (DataObject item : items) {
+                    encode(item, out);
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("A-XDR encoding of " + value.getType() + " is not supported");
+        }
+    }
+
+    private static DataObject read(ByteBuffer in, boolean share) {
+        int tag = in.get() & 0xFF;
+        switch (tag) {
+            case NULL_DATA:
+                return DataObject.newNull();
+            case ARRAY:
+            case STRUCTURE: {
+                int count = readLength(in);
+                List<DataObject> items = new ArrayList<>(Math.min(count, 256));
+                for (int i = 0; i < count; i++) {
+                    items.add(read(in, share));
+                }
+                return tag == ARRAY ? DataObject.newArray(items) : DataObject.newStructure(items);
+            }
+            case BOOLEAN:
+                return DataObject.newBoolean(in.get() != 0);
+            case BIT_STRING: {
+                int bits = readLength(in);
+                int length = (bits + 7) / 8;
+                if (share) {
+                    int start = skip(in, length);
+                    return DataObject.wrapBitString(in.array(), in.arrayOffset() + start, length);
+                }
+                return DataObject.newBitString(readBytes(in, length));
+            }
+            case DOUBLE_LONG:
+                return DataObject.newInteger(in.getInt());
+            case DOUBLE_LONG_UNSIGNED:
+                return DataObject.newUnsigned(in.getInt() & 0xFFFFFFFFL);
+            case OCTET_STRING: {
+                int length = readLength(in);
+                if (share) {
+                    int start = skip(in, length);
+                    return DataObject.wrapOctetString(in.array(), in.arrayOffset() + start, length);
+                }
+                return DataObject.newOctetString(readBytes(in, length));
+            }
+            case VISIBLE_STRING:
+                return DataObject.newString(new String(readBytes(in, readLength(in)), StandardCharsets.US_ASCII));
+            case UTF8_STRING:
+                return DataObject.newString(new String(readBytes(in, readLength(in)), StandardCharsets.UTF_8));
+            case INTEGER:
+                return DataObject.newInteger(in.get());
+            case LONG:
+                return DataObject.newInt16(in.getShort());
+            case UNSIGNED:
+            case ENUM:
+                return DataObject.newUnsigned(in.get() & 0xFF);
+            case LONG_UNSIGNED:
+                return DataObject.newUnsigned(in.getShort() & 0xFFFF);
+            case LONG64:
+                return DataObject.newInteger(in.getLong());
+            case LONG64_UNSIGNED: {
+                long v = in.getLong();
+                if (v < 0) {
+                    throw new IllegalArgumentException("long64-unsigned value beyond 2^63");
+                }
+                return DataObject.newUnsigned(v);
+            }
+            case FLOAT32:
+                return DataObject.newFloat(in.getFloat());
+            case FLOAT64:
+                return DataObject.newDouble(in.getDouble());
+            case DATE_TIME:
+                if (in.hasArray()) {
+                    int start = skip(in, DATE_TIME_LENGTH);
+                    return DataObject.newDateTime(decodeDateTime(in.array(), in.arrayOffset() + start));
+                }
+                return DataObject.newDateTime(decodeDateTime(readBytes(in, DATE_TIME_LENGTH)));
+            default:
+                throw new IllegalArgumentException("Unsupported A-XDR tag " + tag);
+        }
+    }
+
+    /**
+     * COSEM date-time with deviation and clock status left unspecified.
+     */
+    public static byte[] encodeDateTime(LocalDateTime value) {
+        return encodeDateTime(value, null);
+    }
+
+    /**
+     * COSEM date-time of a local time at the given offset from UTC, which is written as the
+     * deviation; null leaves the deviation unspecified.
+     */
+    public static byte[] encodeDateTime(LocalDateTime value, ZoneOffset offset) {
+        byte[] out = new byte[DATE_TIME_LENGTH];
+        putDateTime(ByteBuffer.wrap(out), value, offset);
+        return out;
+    }
+
+    /**
+     * Offset from UTC given by the deviation of a COSEM date-time, or null when the deviation is not
+     * specified. The deviation counts minutes from local time to UTC, so UTC+01:00 is -60.
+     */
+    public static ZoneOffset decodeDeviation(byte[] value) {
+        if (value.length != DATE_TIME_LENGTH) {
+            throw new IllegalArgumentException("COSEM date-time must be 12 bytes");
+        }
+        int deviation = ((value[9] & 0xFF) << 8) | (value[10] & 0xFF);
+        if (deviation == DEVIATION_NOT_SPECIFIED) {
+            return null;
+        }
+        return ZoneOffset.ofTotalSeconds(-(short) deviation * 60);
+    }
+
+    public static LocalDateTime decodeDateTime(byte[] value) {
+        if (value.length != DATE_TIME_LENGTH) {
+            throw new IllegalArgumentException("COSEM date-time must be 12 bytes");
+        }
+        return decodeDateTime(value, 0);
+    }
+
+    /** Date-time in {@code value[offset..offset+12)} */
+    static LocalDateTime decodeDateTime(byte[] value, int offset) {
+        int year = ((value[offset] & 0xFF) << 8) | (value[offset + 1] & 0xFF);
+        int hundredths = value[offset + 8] & 0xFF;
+        return LocalDateTime.of(year, value[offset + 2], value[offset + 3], value[offset + 5],
+            value[offset + 6], value[offset + 7], hundredths == 0xFF ? 0 : hundredths * 10_000_000);
+    }
+
+    public static void putDateTime(ByteBuffer out, LocalDateTime value) {
+        putDateTime(out, value, null);
+    }
+
+    /** Date-time with the deviation of {@code offset}, or unspecified when it is null */
+    public static void putDateTime(ByteBuffer out, LocalDateTime value, ZoneOffset offset) {
+        out.putShort((short) value.getYear());
+        out.put((byte) value.getMonthValue());
+        out.put((byte) value.getDayOfMonth());
+        out.put((byte) value.getDayOfWeek().getValue());
+        out.put((byte) value.getHour());
+        out.put((byte) value.getMinute());
+        out.put((byte) value.getSecond());
+        out.put((byte) (value.getNano() / 10_000_000));
+        out.putShort((short) (offset == null ? DEVIATION_NOT_SPECIFIED : -offset.getTotalSeconds() / 60));
+        out.put((byte) 0);
+    }
+
+    public static void putLength(ByteBuffer out, int length) {
+        if (length < 0x80) {
+            out.put((byte) length);
+        } else if (length <= 0xFF) {
+            out.put((byte) 0x81).put((byte) length);
+        } else {
+            out.put((byte) 0x82).putShort((short) length);
+        }
+    }
+
+    public static void putOctetString(ByteBuffer out, byte[] value) {
+        out.put((byte) OCTET_STRING);
+        putLength(out, value.length);
+        out.put(value);
+    }
+
+    public static void putStructureHeader(ByteBuffer out, int count) {
+        out.put((byte) STRUCTURE);
+        putLength(out, count);
+    }
+
+    public static int readLength(ByteBuffer in) {
+        int first = in.get() & 0xFF;
+        if (first < 0x80) {
+            return first;
+        }
+        int bytes = first & 0x7F;
+        if (bytes > 3) {
+            throw new IllegalArgumentException("A-XDR length field too long");
+        }
+        int length = 0;
+        for (int i = 0; i < bytes; i++) {
+            length = (length << 8) | (in.get() & 0xFF);
+        }
+        return length;
+    }
+
+    private static void writeLength(ByteArrayOutputStream out, int length) {
+        if (length < 0x80) {
+            out.write(length);
+        } else if (length <= 0xFF) {
+            out.write(0x81);
+            out.write(length);
+        } else {
+            out.write(0x82);
+            writeBigEndian(out, length, 2);
+        }
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, int tag, byte[] value) {
+        out.write(tag);
+        writeLength(out, value.length);
+        out.write(value, 0, value.length);
+    }
+
+    private static void writeBigEndian(ByteArrayOutputStream out, long value, int bytes) {
+        for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift) & 0xFF);
+        }
+    }
+
+    /** Advance past {@code length} bytes and return the position they started at */
+    private static int skip(ByteBuffer in, int length) {
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("Truncated A-XDR data");
+        }
+        int start = in.position();
+        in.position(start + length);
+        return start;
+    }
+
+    private static byte[] readBytes(ByteBuffer in, int length) {
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("Truncated A-XDR data");
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,282 @@
+package com.hes.collector.dlms;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+/**
+ * Flyweight reader over an A-XDR array of structures, such as a profile generic buffer.
+ * {@link #next()} indexes the columns of one row in place and the getters decode single
+ * columns straight from the encoded bytes, so walking a buffer allocates nothing per row.
+ * The array is not copied and must not change while the cursor is in use.
+ */
+public final class AxdrStructureCursor {
+    private final byte[] data;
+    private final int end;
+    private final int rowCount;
+    private int position;
+    private int row = -1;
+    private int columnCount;
+    /** Offset of each column's tag in the current row */
+    private int[] columns = new int[32];
+    /** Position after the last length field read */
+    private int lengthEnd;
+
+    private AxdrStructureCursor(byte[] data, int offset, int length) {
+        this.data = data;
+        this.end = offset + length;
+        if (length < 1 || (data[offset] & 0xFF) != AxdrCodec.ARRAY) {
+            throw new IllegalArgumentException("Not an A-XDR array");
+        }
+        this.rowCount = readLength(offset + 1);
+        this.position = lengthEnd;
+    }
+
+    public static AxdrStructureCursor over(byte[] data) {
+        return over(data, 0, data.length);
+    }
+
+    public static AxdrStructureCursor over(byte[] data, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IndexOutOfBoundsException("Range " + offset + "+" + length + " outside " + data.length);
+        }
+        return new AxdrStructureCursor(data, offset, length);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /** Index of the current row, -1 before the first {@link #next()} */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Move to the next row. A row that is not a structure is read as a single column.
+     */
+    public boolean next() {
+        if (row + 1 >= rowCount) {
+            return false;
+        }
+        row++;
+        int p = position;
+        checkAvailable(p, 1);
+        if ((data[p] & 0xFF) == AxdrCodec.STRUCTURE) {
+            columnCount = readLength(p + 1);
+            if (columns.length < columnCount) {
+                columns = new int[Math.max(columnCount, columns.length * 2)];
+            }
+            p = lengthEnd;
+            for (int c = 0; c < columnCount; c++) {
+                columns[c] = p;
+                p = skip(p);
+            }
+        } else {
+            columnCount = 1;
+            columns[0] = p;
+            p = skip(p);
+        }
+        position = p;
+        return true;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /** A-XDR tag of a column, e.g. {@link AxdrCodec#DOUBLE_LONG_UNSIGNED} */
+    public int getTag(int column) {
+        return data[column(column)] & 0xFF;
+    }
+
+    public boolean isNull(int column) {
+        return getTag(column) == AxdrCodec.NULL_DATA;
+    }
+
+    /**
+     * Integer, unsigned, enum or boolean column; floating point columns are truncated.
+     */
+    public long getLong(int column) {
+        int p = column(column);
+        int tag = data[p] & 0xFF;
+        switch (tag) {
+            case AxdrCodec.BOOLEAN:
+            case AxdrCodec.UNSIGNED:
+            case AxdrCodec.ENUM:
+                return data[p + 1] & 0xFF;
+            case AxdrCodec.INTEGER:
+                return data[p + 1];
+            case AxdrCodec.LONG:
+                return (short) readBigEndian(p + 1, 2);
+            case AxdrCodec.LONG_UNSIGNED:
+                return readBigEndian(p + 1, 2);
+            case AxdrCodec.DOUBLE_LONG:
+                return (int) readBigEndian(p + 1, 4);
+            case AxdrCodec.DOUBLE_LONG_UNSIGNED:
+                return readBigEndian(p + 1, 4);
+            case AxdrCodec.LONG64:
+            case AxdrCodec.LONG64_UNSIGNED:
+                return readBigEndian(p + 1, 8);
+            case AxdrCodec.FLOAT32:
+            case AxdrCodec.FLOAT64:
+                return (long) getDouble(column);
+            default:
+                throw new IllegalStateException("Column " + column + " with tag " + tag + " is not numeric");
+        }
+    }
+
+    /**
+     * Any numeric column widened to double.
+     */
+    public double getDouble(int column) {
+        int p = column(column);
+        int tag = data[p] & 0xFF;
+        switch (tag) {
+            case AxdrCodec.FLOAT32:
+                return Float.intBitsToFloat((int) readBigEndian(p + 1, 4));
+            case AxdrCodec.FLOAT64:
+                return Double.longBitsToDouble(readBigEndian(p + 1, 8));
+            default:
+                return getLong(column);
+        }
+    }
+
+    /**
+     * Read-only view of an octet string, visible string or date-time column, without copying.
+     */
+    public ByteBuffer getBytes(int column) {
+        int p = column(column);
+        int tag = data[p] & 0xFF;
+        switch (tag) {
+            case AxdrCodec.OCTET_STRING:
+            case AxdrCodec.VISIBLE_STRING:
+            case AxdrCodec.UTF8_STRING: {
+                int length = readLength(p + 1);
+                return ByteBuffer.wrap(data, lengthEnd, length).slice().asReadOnlyBuffer();
+            }
+            case AxdrCodec.DATE_TIME:
+                return ByteBuffer.wrap(data, p + 1, AxdrCodec.DATE_TIME_LENGTH).slice().asReadOnlyBuffer();
+            default:
+                throw new IllegalStateException("Column " + column + " with tag " + tag + " is not a byte string");
+        }
+    }
+
+    /**
+     * Date-time column, either tagged date-time or a 12-byte octet string as in capture objects.
+     */
+    public LocalDateTime getDateTime(int column) {
+        int p = column(column);
+        int tag = data[p] & 0xFF;
+        if (tag == AxdrCodec.DATE_TIME) {
+            return AxdrCodec.decodeDateTime(data, p + 1);
+        }
+        if (tag == AxdrCodec.OCTET_STRING && readLength(p + 1) == AxdrCodec.DATE_TIME_LENGTH) {
+            return AxdrCodec.decodeDateTime(data, lengthEnd);
+        }
+        throw new IllegalStateException("Column " + column + " with tag " + tag + " is not a date-time");
+    }
+
+    /**
+     * Decode a column into a {@link DataObject}; strings share the cursor's array.
+     */
+    public DataObject get(int column) {
+        int p = column(column);
+        int next = skip(p);
+        return AxdrCodec.decodeView(ByteBuffer.wrap(data, p, next - p));
+    }
+
+    private int column(int column) {
+        if (row < 0) {
+            throw new IllegalStateException("next() has not been called");
+        }
+        if (column < 0 || column >= columnCount) {
+            throw new IndexOutOfBoundsException("Column " + column + " of " + columnCount);
+        }
+        return columns[column];
+    }
+
+    /** Position after the element whose tag is at {@code p} */
+    private int skip(int p) {
+        checkAvailable(p, 1);
+        int tag = data[p] & 0xFF;
+        int q = p + 1;
+        switch (tag) {
+            case AxdrCodec.NULL_DATA:
+                return q;
+            case AxdrCodec.BOOLEAN:
+            case AxdrCodec.INTEGER:
+            case AxdrCodec.UNSIGNED:
+            case AxdrCodec.ENUM:
+                return advance(q, 1);
+            case AxdrCodec.LONG:
+            case AxdrCodec.LONG_UNSIGNED:
+                return advance(q, 2);
+            case AxdrCodec.DOUBLE_LONG:
+            case AxdrCodec.DOUBLE_LONG_UNSIGNED:
+            case AxdrCodec.FLOAT32:
+                return advance(q, 4);
+            case AxdrCodec.LONG64:
+            case AxdrCodec.LONG64_UNSIGNED:
+            case AxdrCodec.FLOAT64:
+                return advance(q, 8);
+            case AxdrCodec.DATE_TIME:
+                return advance(q, AxdrCodec.DATE_TIME_LENGTH);
+            case AxdrCodec.OCTET_STRING:
+            case AxdrCodec.VISIBLE_STRING:
+            case AxdrCodec.UTF8_STRING: {
+                int length = readLength(q);
+                return advance(lengthEnd, length);
+            }
+            case AxdrCodec.BIT_STRING: {
+                int bits = readLength(q);
+                return advance(lengthEnd, (bits + 7) / 8);
+            }
+            case AxdrCodec.ARRAY:
+            case AxdrCodec.STRUCTURE: {
+                int count = readLength(q);
+                q = lengthEnd;
+                for (int i = 0; i < count; i++) {
+                    q = skip(q);
+                }
+                return q;
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported A-XDR tag " + tag);
+        }
+    }
+
+    private int advance(int p, int length) {
+        checkAvailable(p, length);
+        return p + length;
+    }
+
+    private int readLength(int p) {
+        checkAvailable(p, 1);
+        int first = data[p] & 0xFF;
+        if (first < 0x80) {
+            lengthEnd = p + 1;
+            return first;
+        }
+        int bytes = first & 0x7F;
+        if (bytes > 3) {
+            throw new IllegalArgumentException("A-XDR length field too long");
+        }
+        checkAvailable(p + 1, bytes);
+        lengthEnd = p + 1 + bytes;
+        return (int) readBigEndian(p + 1, bytes);
+    }
+
+    private long readBigEndian(int p, int bytes) {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (data[p + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private void checkAvailable(int p, int length) {
+        if (length < 0 || p + length > end) {
+            throw new IllegalArgumentException("Truncated A-XDR data");
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.hes.collector.dlms;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * xDLMS APDUs for logical name referencing without ciphering: association (AARQ/AARE), release
+ * (RLRQ/RLRE), the normal forms of GET, SET and ACTION, and the unconfirmed DataNotification pushed by
+ * meters. Block transfer and ciphered APDUs are not supported. Builders for both sides are here so the client and the meter emulator agree on the
+ * encoding.
+ */
+public final class CosemApdu {
+    public static final int AARQ = 0x60;
+    public static final int AARE = 0x61;
+    public static final int RLRQ = 0x62;
+    public static final int RLRE = 0x63;
+    public static final int DATA_NOTIFICATION = 0x0F;
+    public static final int GET_REQUEST = 0xC0;
+    public static final int SET_REQUEST = 0xC1;
+    public static final int ACTION_REQUEST = 0xC3;
+    public static final int GET_RESPONSE = 0xC4;
+    public static final int SET_RESPONSE = 0xC5;
+    public static final int ACTION_RESPONSE = 0xC7;
+    public static final int EXCEPTION_RESPONSE = 0xD8;
+    public static final int NORMAL = 0x01;
+
+    /** AARE result values */
+    public static final int ACCEPTED = 0;
+    public static final int REJECTED_PERMANENT = 1;
+    /** ACSE service-user diagnostic for a wrong password */
+    public static final int AUTHENTICATION_FAILURE = 13;
+
+    private static final byte[] LN_NO_CIPHERING = {0x06, 0x07, 0x60, (byte) 0x85, 0x74, 0x05, 0x08, 0x01, 0x01};
+    private static final byte[] LLS_MECHANISM = {0x60, (byte) 0x85, 0x74, 0x05, 0x08, 0x02, 0x01};
+    /** get, set, action, selective access and block transfer with get */
+    private static final byte[] CONFORMANCE = {0x5F, 0x1F, 0x04, 0x00, 0x00, 0x1E, 0x1D};
+
+    private CosemApdu() {
+    }
+
+    /**
+     * AARQ proposing the LN context, with low level security when a password is given.
+     */
+    public static byte[] aarq(byte[] password, int maxReceivePduSize) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(64);
+        writeTagged(body, 0xA1, LN_NO_CIPHERING);
+        if (password != null && password.length > 0) {
+            writeTagged(body, 0x8A, new byte[] {0x07, (byte) 0x80});
+            writeTagged(body, 0x8B, LLS_MECHANISM);
+            byte[] value = new byte[2 + password.length];
+            value[0] = (byte) 0x80;
+            value[1] = (byte) password.length;
+            System.arraycopy(password, 0, value, 2, password.length);
+            writeTagged(body, 0xAC, value);
+        }
+        ByteBuffer initiate = ByteBuffer.allocate(16);
+        initiate.put((byte) 0x04).put((byte) 14)
+            .put((byte) 0x01).put((byte) 0x00).put((byte) 0x00).put((byte) 0x00).put((byte) 0x06)
+            .put(CONFORMANCE).putShort((short) maxReceivePduSize);
+        writeTagged(body, 0xBE, initiate.array());
+        return wrap(AARQ, body.toByteArray());
+    }
+
+    /**
+     * AARE with the given result; an accepted association carries the InitiateResponse.
+     */
+    public static byte[] aare(int result, int diagnostic, int maxReceivePduSize) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(48);
+        writeTagged(body, 0xA1, LN_NO_CIPHERING);
+        writeTagged(body, 0xA2, new byte[] {0x02, 0x01, (byte) result});
+        writeTagged(body, 0xA3, new byte[] {(byte) 0xA1, 0x03, 0x02, 0x01, (byte) diagnostic});
+        if (result == ACCEPTED) {
+            ByteBuffer initiate = ByteBuffer.allocate(16);
+            initiate.put((byte) 0x04).put((byte) 14)
+                .put((byte) 0x08).put((byte) 0x00).put((byte) 0x06)
+                .put(CONFORMANCE).putShort((short) maxReceivePduSize).put((byte) 0x00).put((byte) 0x07);
+            writeTagged(body, 0xBE, initiate.array());
+        }
+        return wrap(AARE, body.toByteArray());
+    }
+
+    /**
+     * Result field of an AARE, {@link #ACCEPTED} when the association was accepted.
+     */
+    public static int aareResult(byte[] apdu) {
+        byte[] result = findTagged(apdu, AARE, 0xA2);
+        if (result == null || result.length != 3 || result[0] != 0x02) {
+            throw new IllegalArgumentException("AARE without a result");
+        }
+        return result[2] & 0xFF;
+    }
+
+    /**
+     * Server max receive PDU size from the InitiateResponse of an accepted AARE, or -1 when the
+     * AARE carries none.
+     */
+    public static int aareMaxPduSize(byte[] apdu) {
+        byte[] info = findTagged(apdu, AARE, 0xBE);
+        if (info == null || info.length < 4 || info[0] != 0x04 || info[2] != 0x08) {
+            return -1;
+        }
+        // InitiateResponse: optional negotiated quality of service, DLMS version, conformance block
+        int i = info[3] == 0x01 ? 5 : 4;
+        i += 1 + CONFORMANCE.length;
+        if (i + 2 > info.length) {
+            return -1;
+        }
+        return ((info[i] & 0xFF) << 8) | (info[i + 1] & 0xFF);
+    }
+
+    /**
+     * LLS password of an AARQ, or null when it proposes no authentication.
+     */
+    public static byte[] aarqPassword(byte[] apdu) {
+        byte[] value = findTagged(apdu, AARQ, 0xAC);
+        if (value == null || value.length < 2 || value[0] != (byte) 0x80) {
+            return null;
+        }
+        return Arrays.copyOfRange(value, 2, 2 + Math.min(value[1] & 0xFF, value.length - 2));
+    }
+
+    public static byte[] rlrq() {
+        return new byte[] {(byte) RLRQ, 0x03, (byte) 0x80, 0x01, 0x00};
+    }
+
+    public static byte[] rlre() {
+        return new byte[] {(byte) RLRE, 0x03, (byte) 0x80, 0x01, 0x00};
+    }
+
+    public static byte[] getRequest(int invokeId, CosemObject object) {
+        ByteBuffer out = ByteBuffer.allocate(13);
+        putDescriptor(out, GET_REQUEST, invokeId, object);
+        out.put((byte) 0x00);
+        return out.array();
+    }
+
+    public static byte[] setRequest(int invokeId, CosemObject object, DataObject value) {
+        byte[] data = AxdrCodec.encode(value);
+        ByteBuffer out = ByteBuffer.allocate(13 + data.length);
+        putDescriptor(out, SET_REQUEST, invokeId, object);
+        out.put((byte) 0x00).put(data);
+        return out.array();
+    }
+
+    /**
+     * ACTION request invoking a method of the object; the object's attribute id is not used.
+     *
+     * @param parameter method parameter, or null to invoke the method without one
+     */
+    public static byte[] actionRequest(int invokeId, CosemObject object, int methodId, DataObject parameter) {
+        byte[] data = parameter == null ? new byte[0] : AxdrCodec.encode(parameter);
+        ByteBuffer out = ByteBuffer.allocate(13 + data.length);
+        out.put((byte) ACTION_REQUEST).put((byte) NORMAL).put((byte) invokeId)
+            .putShort((short) object.getClassId());
+        object.getObisCode().writeTo(out);
+        out.put((byte) methodId).put((byte) (parameter == null ? 0x00 : 0x01)).put(data);
+        return out.array();
+    }
+
+    /**
+     * GET response carrying data already encoded in A-XDR.
+     */
+    public static byte[] getResponse(int invokeId, byte[] data) {
+        byte[] out = new byte[4 + data.length];
+        out[0] = (byte) GET_RESPONSE;
+        out[1] = NORMAL;
+        out[2] = (byte) invokeId;
+        out[3] = 0x00;
+        System.arraycopy(data, 0, out, 4, data.length);
+        return out;
+    }
+
+    public static byte[] getResponse(int invokeId, DataAccessResult error) {
+        return new byte[] {(byte) GET_RESPONSE, NORMAL, (byte) invokeId, 0x01, (byte) error.getCode()};
+    }
+
+    public static byte[] setResponse(int invokeId, DataAccessResult result) {
+        return new byte[] {(byte) SET_RESPONSE, NORMAL, (byte) invokeId, (byte) result.getCode()};
+    }
+
+    /** ACTION response without return parameters */
+    public static byte[] actionResponse(int invokeId, DataAccessResult result) {
+        return new byte[] {(byte) ACTION_RESPONSE, NORMAL, (byte) invokeId, (byte) result.getCode(), 0x00};
+    }
+
+    /** Exception-response: state-error service-not-allowed, service-error operation-not-possible */
+    public static byte[] exceptionResponse() {
+        return new byte[] {(byte) EXCEPTION_RESPONSE, 0x01, 0x02};
+    }
+
+    /**
+     * DataNotification with a long-invoke-id-and-priority, an optional date-time and the
+     * notification body already encoded in A-XDR.
+     */
+    public static byte[] dataNotification(long invokeId, LocalDateTime dateTime, byte[] body) {
+        int timeLength = dateTime == null ? 0 : AxdrCodec.DATE_TIME_LENGTH;
+        ByteBuffer out = ByteBuffer.allocate(6 + timeLength + body.length);
+        out.put((byte) DATA_NOTIFICATION).putInt((int) invokeId).put((byte) timeLength);
+        if (dateTime != null) {
+            AxdrCodec.putDateTime(out, dateTime);
+        }
+        out.put(body);
+        return out.array();
+    }
+
+    /**
+     * Parse a DataNotification. The body is decoded as a view of {@code apdu}, which must not be
+     * reused afterwards.
+     */
+    public static DataNotification parseDataNotification(byte[] apdu) {
+        if (apdu.length < 7 || (apdu[0] & 0xFF) != DATA_NOTIFICATION) {
+            throw new IllegalArgumentException("Not a DataNotification");
+        }
+        ByteBuffer in = ByteBuffer.wrap(apdu);
+        in.position(1);
+        long invokeId = in.getInt() & 0xFFFFFFFFL;
+        int timeLength = in.get() & 0xFF;
+        LocalDateTime dateTime = null;
+        if (timeLength == AxdrCodec.DATE_TIME_LENGTH) {
+            if (in.remaining() < timeLength + 1) {
+                throw new IllegalArgumentException("Truncated DataNotification");
+            }
+            dateTime = AxdrCodec.decodeDateTime(apdu, in.position());
+            in.position(in.position() + timeLength);
+        } else if (timeLength != 0) {
+            throw new IllegalArgumentException("Invalid DataNotification date-time length " + timeLength);
+        }
+        return new DataNotification(invokeId, dateTime, AxdrCodec.decodeView(in));
+    }
+
+    /**
+     * Value of a GET response; a data-access-result is thrown as an {@link IllegalStateException}.
+     */
+    public static DataObject parseGetResponse(byte[] apdu, int invokeId) {
+        checkResponse(apdu, GET_RESPONSE, invokeId, 4);
+        if (apdu[3] == 0x00) {
+            // The APDU is a fresh array per response, so decoded strings can share it
+            return AxdrCodec.decodeView(ByteBuffer.wrap(apdu, 4, apdu.length - 4));
+        }
+        if (apdu.length < 5) {
+            throw new IllegalArgumentException("Truncated GET response");
+        }
+        throw new IllegalStateException("Data access result: " + DataAccessResult.fromCode(apdu[4] & 0xFF));
+    }
+
+    public static DataAccessResult parseSetResponse(byte[] apdu, int invokeId) {
+        checkResponse(apdu, SET_RESPONSE, invokeId, 4);
+        return DataAccessResult.fromCode(apdu[3] & 0xFF);
+    }
+
+    /**
+     * Result of an ACTION response. Return parameters are not supported and ignored.
+     */
+    public static DataAccessResult parseActionResponse(byte[] apdu, int invokeId) {
+        checkResponse(apdu, ACTION_RESPONSE, invokeId, 4);
+        return DataAccessResult.fromCode(apdu[3] & 0xFF);
+    }
+
+    /**
+     * Attribute descriptor of a normal GET or SET request, or method descriptor of a normal ACTION
+     * request, as seen by a server.
+     */
+    public static AttributeRequest parseAttributeRequest(byte[] apdu) {
+        if (apdu.length < 13 || apdu[1] != NORMAL) {
+            throw new IllegalArgumentException("Not a normal GET/SET/ACTION request");
+        }
+        int service = apdu[0] & 0xFF;
+        if (service != GET_REQUEST && service != SET_REQUEST && service != ACTION_REQUEST) {
+            throw new IllegalArgumentException("Not a GET/SET/ACTION request: " + service);
+        }
+        int classId = ((apdu[3] & 0xFF) << 8) | (apdu[4] & 0xFF);
+        ObisCode obis = ObisCode.fromBytes(apdu, 5);
+        if (service == ACTION_REQUEST) {
+            // Byte 12 flags the optional method parameter instead of selective access
+            return new AttributeRequest(service, apdu[2] & 0xFF, classId, obis, apdu[11] & 0xFF,
+                false, apdu[12] != 0 ? 13 : -1);
+        }
+        int dataOffset = service == SET_REQUEST ? 13 : -1;
+        return new AttributeRequest(service, apdu[2] & 0xFF, classId, obis, apdu[11] & 0xFF,
+            apdu[12] != 0, dataOffset);
+    }
+
+    /** Attribute descriptor of a GET or SET request, or method descriptor of an ACTION request */
+    public static final class AttributeRequest {
+        private final int service;
+        private final int invokeId;
+        private final int classId;
+        private final ObisCode obisCode;
+        private final int attributeId;
+        private final boolean selectiveAccess;
+        private final int dataOffset;
+
+        AttributeRequest(int service, int invokeId, int classId, ObisCode obisCode, int attributeId,
+                         boolean selectiveAccess, int dataOffset) {
+            this.service = service;
+            this.invokeId = invokeId;
+            this.classId = classId;
+            this.obisCode = obisCode;
+            this.attributeId = attributeId;
+            this.selectiveAccess = selectiveAccess;
+            this.dataOffset = dataOffset;
+        }
+
+        public boolean isSet() {
+            return service == SET_REQUEST;
+        }
+
+        public boolean isAction() {
+            return service == ACTION_REQUEST;
+        }
+
+        public int getInvokeId() {
+            return invokeId;
+        }
+
+        public int getClassId() {
+            return classId;
+        }
+
+        public ObisCode getObisCode() {
+            return obisCode;
+        }
+
+        /** Attribute id, or the method id of an ACTION request */
+        public int getAttributeId() {
+            return attributeId;
+        }
+
+        public boolean isSelectiveAccess() {
+            return selectiveAccess;
+        }
+
+        /** Offset of the A-XDR value of a SET or the parameter of an ACTION, -1 when there is none */
+        public int getDataOffset() {
+            return dataOffset;
+        }
+    }
+
+    /** Content of a DataNotification */
+    public static final class DataNotification {
+        private final long invokeId;
+        private final LocalDateTime dateTime;
+        private final DataObject body;
+
+        DataNotification(long invokeId, LocalDateTime dateTime, DataObject body) {
+            this.invokeId = invokeId;
+            this.dateTime = dateTime;
+            this.body = body;
+        }
+
+        /** Long-invoke-id-and-priority, unsigned */
+        public long getInvokeId() {
+            return invokeId;
+        }
+
+        /** Time stamp set by the meter, or null when the notification carries none */
+        public LocalDateTime getDateTime() {
+            return dateTime;
+        }
+
+        public DataObject getBody() {
+            return body;
+        }
+    }
+
+    private static void putDescriptor(ByteBuffer out, int service, int invokeId, CosemObject object) {
+        out.put((byte) service).put((byte) NORMAL).put((byte) invokeId)
+            .putShort((short) object.getClassId());
+        object.getObisCode().writeTo(out);
+        out.put((byte) object.getAttributeId());
+    }
+
+    private static void checkResponse(byte[] apdu, int service, int invokeId, int minLength) {
+        if (apdu.length > 0 && (apdu[0] & 0xFF) == EXCEPTION_RESPONSE) {
+            throw new IllegalStateException("Exception response from meter");
+        }
+        if (apdu.length < minLength || (apdu[0] & 0xFF) != service || apdu[1] != NORMAL) {
+            throw new IllegalArgumentException("Unexpected response APDU");
+        }
+        if ((apdu[2] & 0x0F) != (invokeId & 0x0F)) {
+            throw new IllegalArgumentException("Invoke id mismatch");
+        }
+    }
+
+    private static void writeTagged(ByteArrayOutputStream out, int tag, byte[] value) {
+        out.write(tag);
+        out.write(value.length);
+        out.write(value, 0, value.length);
+    }
+
+    private static byte[] wrap(int tag, byte[] body) {
+        byte[] out = new byte[2 + body.length];
+        out[0] = (byte) tag;
+        out[1] = (byte) body.length;
+        System.arraycopy(body, 0, out, 2, body.length);
+        return out;
+    }
+
+    /** Value of a context tag directly inside an ACSE APDU; all lengths are short form */
+    private static byte[] findTagged(byte[] apdu, int apduTag, int tag) {
+        if (apdu.length < 2 || (apdu[0] & 0xFF) != apduTag) {
+            throw new IllegalArgumentException("Expected APDU " + Integer.toHexString(apduTag));
+        }
+        int end = Math.min(apdu.length, 2 + (apdu[1] & 0xFF));
+        int p = 2;
+        while (p + 2 <= end) {
+            int t = apdu[p] & 0xFF;
+            int length = apdu[p + 1] & 0xFF;
+            if (p + 2 + length > end) {
+                break;
+            }
+            if (t == tag) {
+                return Arrays.copyOfRange(apdu, p + 2, p + 2 + length);
+            }
+            p += 2 + length;
+        }
+        return null;
+    }
+}
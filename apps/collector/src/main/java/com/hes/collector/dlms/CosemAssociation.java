@@ -2,26 +2,35 @@ package com.hes.collector.dlms;
 
 import com.hes.collector.config.DlmsConfig;
 import com.hes.collector.dlms.security.SecuritySuite;
+import com.hes.collector.metrics.CollectionStage;
+import com.hes.collector.metrics.StageRecorder;
 import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
 import java.time.Instant;
 
 @Slf4j
 public class CosemAssociation {
-    private static final byte[] AARQ_TAG = {0x60, (byte) 0x80};
-    private static final byte[] AARE_TAG = {0x61, (byte) 0x80};
-    private static final byte[] GET_REQUEST = {(byte) 0xC0, 0x01};
-    private static final byte[] SET_REQUEST = {(byte) 0xC1, 0x01};
-
     private final DlmsConnection connection;
     private final SecuritySuite security;
     private final DlmsConfig config;
+    private final StageRecorder stages;
     private boolean isAssociated;
+    private int invokeId;
+    private int negotiatedPduSize;
 
     public CosemAssociation(DlmsConnection connection, SecuritySuite security, DlmsConfig config) {
+        this(connection, security, config, StageRecorder.NONE);
+    }
+
+    /**
+     * @param stages receives the duration of GET, SET, ACTION and decoding
+     */
+    public CosemAssociation(DlmsConnection connection, SecuritySuite security, DlmsConfig config,
+                            StageRecorder stages) {
         this.connection = connection;
         this.security = security;
         this.config = config;
+        this.stages = stages;
         this.isAssociated = false;
     }
 
@@ -48,6 +57,14 @@ public class CosemAssociation {
         }
     }
 
+    /**
+     * Largest APDU both sides accept: the smaller of our proposed and the meter's max receive PDU
+     * size. Only valid once associated.
+     */
+    public int getNegotiatedPduSize() {
+        return negotiatedPduSize;
+    }
+
     public void release() {
         if (!isAssociated) {
             return;
@@ -72,15 +89,21 @@ public class CosemAssociation {
                 .build();
         }
 
+        CollectionStage stage = CollectionStage.GET;
+        long start = System.nanoTime();
         try {
             // Build Get request
             byte[] request = buildGetRequest(object);
             
             // Send request and get response
             byte[] response = connection.send(request);
+            stages.recordSince(stage, start, true);
             
             // Parse response
+            stage = CollectionStage.DECODE;
+            start = System.nanoTime();
             DataObject value = parseGetResponse(response);
+            stages.recordSince(stage, start, true);
             
             return DlmsProtocol.GetResult.builder()
                 .success(true)
@@ -88,6 +111,7 @@ public class CosemAssociation {
                 .timestamp(Instant.now())
                 .build();
         } catch (Exception e) {
+            stages.recordSince(stage, start, false);
             return DlmsProtocol.GetResult.builder()
                 .success(false)
                 .error(e.getMessage())
@@ -105,6 +129,7 @@ public class CosemAssociation {
                 .build();
         }
 
+        long start = System.nanoTime();
         try {
             // Build Set request
             byte[] request = buildSetRequest(object, value);
@@ -114,12 +139,14 @@ public class CosemAssociation {
             
             // Parse response
             boolean success = parseSetResponse(response);
+            stages.recordSince(CollectionStage.SET, start, success);
             
             return DlmsProtocol.SetResult.builder()
                 .success(success)
                 .timestamp(Instant.now())
                 .build();
         } catch (Exception e) {
+            stages.recordSince(CollectionStage.SET, start, false);
             return DlmsProtocol.SetResult.builder()
                 .success(false)
                 .error(e.getMessage())
@@ -128,45 +155,94 @@ public class CosemAssociation {
         }
     }
 
+    /**
+     * Invoke a method of an object, with an optional parameter.
+     */
+    public DlmsProtocol.ActionResult action(CosemObject object, int methodId, DataObject parameter) throws IOException {
+        if (!isAssociated) {
+            return DlmsProtocol.ActionResult.builder()
+                .success(false)
+                .error("Not associated")
+                .timestamp(Instant.now())
+                .build();
+        }
+
+        long start = System.nanoTime();
+        try {
+            byte[] response = connection.send(CosemApdu.actionRequest(nextInvokeId(), object, methodId, parameter));
+            DataAccessResult result = CosemApdu.parseActionResponse(response, invokeId);
+            boolean success = result == DataAccessResult.SUCCESS;
+            stages.recordSince(CollectionStage.ACTION, start, success);
+
+            return DlmsProtocol.ActionResult.builder()
+                .success(success)
+                .error(success ? null : "Action result: " + result)
+                .timestamp(Instant.now())
+                .build();
+        } catch (Exception e) {
+            stages.recordSince(CollectionStage.ACTION, start, false);
+            return DlmsProtocol.ActionResult.builder()
+                .success(false)
+                .error(e.getMessage())
+                .timestamp(Instant.now())
+                .build();
+        }
+    }
+
+    /**
+     * AARQ for logical name referencing. Low level security sends the authentication key as
+     * password; ciphered contexts are not implemented yet, so high level security falls back to it.
+     */
     private byte[] buildAarq() {
-        // Build AARQ APDU according to DLMS Green Book
-        // Implementation details omitted for brevity
-        return new byte[0]; // Placeholder
+        byte[] password = security != null && security.getSecurityPolicy() != SecuritySuite.SecurityPolicy.NONE
+            ? security.getAuthenticationKey() : null;
+        return CosemApdu.aarq(password, config.getMaxPduSize());
     }
 
     private boolean verifyAare(byte[] response) {
-        // Verify AARE APDU according to DLMS Green Book
-        // Implementation details omitted for brevity
-        return true; // Placeholder
+        try {
+            int result = CosemApdu.aareResult(response);
+            if (result != CosemApdu.ACCEPTED) {
+                log.warn("Association rejected by meter, result {}", result);
+                return false;
+            }
+            int serverPduSize = CosemApdu.aareMaxPduSize(response);
+            negotiatedPduSize = serverPduSize > 0
+                ? Math.min(config.getMaxPduSize(), serverPduSize) : config.getMaxPduSize();
+            return true;
+        } catch (IllegalArgumentException e) {
+            log.error("Malformed AARE: {}", e.getMessage());
+            return false;
+        }
     }
 
     private byte[] buildRlrq() {
-        // Build RLRQ APDU according to DLMS Green Book
-        // Implementation details omitted for brevity
-        return new byte[0]; // Placeholder
+        return CosemApdu.rlrq();
     }
 
     private byte[] buildGetRequest(CosemObject object) {
-        // Build Get-Request APDU according to DLMS Green Book
-        // Implementation details omitted for brevity
-        return new byte[0]; // Placeholder
+        return CosemApdu.getRequest(nextInvokeId(), object);
     }
 
     private byte[] buildSetRequest(CosemObject object, DataObject value) {
-        // Build Set-Request APDU according to DLMS Green Book
-        // Implementation details omitted for brevity
-        return new byte[0]; // Placeholder
+        return CosemApdu.setRequest(nextInvokeId(), object, value);
     }
 
     private DataObject parseGetResponse(byte[] response) {
-        // Parse Get-Response APDU according to DLMS Green Book
-        // Implementation details omitted for brevity
-        return null; // Placeholder
+        return CosemApdu.parseGetResponse(response, invokeId);
     }
 
     private boolean parseSetResponse(byte[] response) {
-        // Parse Set-Response APDU according to DLMS Green Book
-        // Implementation details omitted for brevity
-        return true; // Placeholder
+        DataAccessResult result = CosemApdu.parseSetResponse(response, invokeId);
+        if (result != DataAccessResult.SUCCESS) {
+            throw new IllegalStateException("Data access result: " + result);
+        }
+        return true;
+    }
+
+    /** Invoke-id-and-priority: confirmed, high priority, id cycling through 0..15 */
+    private int nextInvokeId() {
+        invokeId = 0xC0 | ((invokeId + 1) & 0x0F);
+        return invokeId;
     }
-} 
\ No newline at end of file
+}
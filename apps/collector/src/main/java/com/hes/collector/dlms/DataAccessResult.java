@@ -0,0 +1,36 @@
+package com.hes.collector.dlms;
+
+/**
+ * Result codes of GET and SET services (IEC 62056-5-3, Data-Access-Result).
+ */
+public enum DataAccessResult {
+    SUCCESS(0),
+    HARDWARE_FAULT(1),
+    TEMPORARY_FAILURE(2),
+    READ_WRITE_DENIED(3),
+    OBJECT_UNDEFINED(4),
+    OBJECT_CLASS_INCONSISTENT(9),
+    OBJECT_UNAVAILABLE(11),
+    TYPE_UNMATCHED(12),
+    SCOPE_OF_ACCESS_VIOLATED(13),
+    OTHER_REASON(250);
+
+    private final int code;
+
+    DataAccessResult(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static DataAccessResult fromCode(int code) {
+        for (DataAccessResult result : values()) {
+            if (result.code == code) {
+                return result;
+            }
+        }
+        return OTHER_REASON;
+    }
+}
@@ -1,15 +1,43 @@
 package com.hes.collector.dlms;
 
-import lombok.Getter;
-import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
-@Getter
+/**
+ * An immutable COSEM data value. Booleans, integers and floating point values are held in a
+ * primitive slot and never boxed unless {@link #getValue()} is called; null, booleans and
+ * integers from -128 to 255 are shared instances. Integers made by {@link #newInt16} also keep
+ * their A-XDR width, for method parameters the meter only accepts as long (int16). Octet and bit strings may be views of a
+ * larger array (see {@link #wrapOctetString}); {@link #asByteView()} reads them without copying.
+ */
 public class DataObject {
+    private static final int SMALL_MIN = -128;
+    private static final int SMALL_MAX = 255;
+    private static final DataObject NULL = new DataObject(DataType.NULL, 0, null, 0, 0);
+    private static final DataObject TRUE = new DataObject(DataType.BOOLEAN, 1, null, 0, 0);
+    private static final DataObject FALSE = new DataObject(DataType.BOOLEAN, 0, null, 0, 0);
+    private static final DataObject[] SMALL_INTEGERS = new DataObject[SMALL_MAX - SMALL_MIN + 1];
+    private static final DataObject[] SMALL_UNSIGNED = new DataObject[SMALL_MAX + 1];
+
+    static {
+        for (int i = SMALL_MIN; i <= SMALL_MAX; i++) {
+            SMALL_INTEGERS[i - SMALL_MIN] = new DataObject(DataType.INTEGER, i, null, 0, 0);
+        }
+        for (int i = 0; i <= SMALL_MAX; i++) {
+            SMALL_UNSIGNED[i] = new DataObject(DataType.UNSIGNED, i, null, 0, 0);
+        }
+    }
+
     private final DataType type;
-    private final Object value;
+    /** Boolean (0/1), integer and unsigned values, or the raw bits of a float or double */
+    private final long bits;
+    /** byte[], String, LocalDateTime or List of DataObject; null for primitive types */
+    private final Object ref;
+    /** Range of {@link #ref} for octet and bit strings; the A-XDR width of int16 integers in {@code length} */
+    private final int offset;
+    private final int length;
 
     public enum DataType {
         NULL,
@@ -29,49 +57,82 @@ public class DataObject {
         COMPACT_ARRAY
     }
 
-    private DataObject(DataType type, Object value) {
+    private DataObject(DataType type, long bits, Object ref, int offset, int length) {
         this.type = type;
-        this.value = value;
+        this.bits = bits;
+        this.ref = ref;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    private DataObject(DataType type, Object ref) {
+        this(type, 0, ref, 0, 0);
     }
 
     // Factory methods for different data types
     public static DataObject newNull() {
-        return new DataObject(DataType.NULL, null);
+        return NULL;
     }
 
     public static DataObject newBoolean(boolean value) {
-        return new DataObject(DataType.BOOLEAN, value);
+        return value ? TRUE : FALSE;
     }
 
     public static DataObject newInteger(long value) {
-        return new DataObject(DataType.INTEGER, value);
+        if (value >= SMALL_MIN && value <= SMALL_MAX) {
+            return SMALL_INTEGERS[(int) value - SMALL_MIN];
+        }
+        return new DataObject(DataType.INTEGER, value, null, 0, 0);
+    }
+
+    /**
+     * Integer encoded as A-XDR long (int16) rather than the smallest of double-long and long64.
+     */
+    public static DataObject newInt16(int value) {
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Value " + value + " does not fit in a long (int16)");
+        }
+        return new DataObject(DataType.INTEGER, value, null, 0, 2);
     }
 
     public static DataObject newLong(Long value) {
-        return new DataObject(DataType.INTEGER, value);
+        return value == null ? NULL : newInteger(value);
     }
 
     public static DataObject newUnsigned(long value) {
         if (value < 0) {
             throw new IllegalArgumentException("Unsigned value cannot be negative");
         }
-        return new DataObject(DataType.UNSIGNED, value);
+        if (value <= SMALL_MAX) {
+            return SMALL_UNSIGNED[(int) value];
+        }
+        return new DataObject(DataType.UNSIGNED, value, null, 0, 0);
     }
 
     public static DataObject newFloat(float value) {
-        return new DataObject(DataType.FLOAT, value);
+        return new DataObject(DataType.FLOAT, Float.floatToIntBits(value), null, 0, 0);
     }
 
     public static DataObject newDouble(double value) {
-        return new DataObject(DataType.DOUBLE, value);
+        return new DataObject(DataType.DOUBLE, Double.doubleToLongBits(value), null, 0, 0);
     }
 
     public static DataObject newOctetString(byte[] value) {
-        return new DataObject(DataType.OCTET_STRING, Arrays.copyOf(value, value.length));
+        return new DataObject(DataType.OCTET_STRING, 0, Arrays.copyOf(value, value.length), 0, value.length);
     }
 
     public static DataObject newOctetString(String value) {
-        return new DataObject(DataType.OCTET_STRING, value.getBytes());
+        byte[] bytes = value.getBytes();
+        return new DataObject(DataType.OCTET_STRING, 0, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Octet string backed by {@code bytes[offset..offset+length)} without copying. The caller
+     * must not modify that range afterwards.
+     */
+    public static DataObject wrapOctetString(byte[] bytes, int offset, int length) {
+        checkRange(bytes, offset, length);
+        return new DataObject(DataType.OCTET_STRING, 0, bytes, offset, length);
     }
 
     public static DataObject newString(String value) {
@@ -79,7 +140,16 @@ public class DataObject {
     }
 
     public static DataObject newBitString(byte[] value) {
-        return new DataObject(DataType.BIT_STRING, Arrays.copyOf(value, value.length));
+        return new DataObject(DataType.BIT_STRING, 0, Arrays.copyOf(value, value.length), 0, value.length);
+    }
+
+    /**
+     * Bit string backed by {@code bytes[offset..offset+length)} without copying; see
+     * {@link #wrapOctetString}.
+     */
+    public static DataObject wrapBitString(byte[] bytes, int offset, int length) {
+        checkRange(bytes, offset, length);
+        return new DataObject(DataType.BIT_STRING, 0, bytes, offset, length);
     }
 
     public static DataObject newDateTime(LocalDateTime value) {
@@ -94,66 +164,159 @@ public class DataObject {
         return new DataObject(DataType.STRUCTURE, value);
     }
 
+    private static void checkRange(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException("Range " + offset + "+" + length + " outside " + bytes.length);
+        }
+    }
+
+    public DataType getType() {
+        return type;
+    }
+
+    /**
+     * The value as an object: boxed for primitive types, a copy for octet and bit strings.
+     * Prefer the typed accessors on hot paths.
+     */
+    public Object getValue() {
+        switch (type) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return bits != 0;
+            case INTEGER:
+            case UNSIGNED:
+                return bits;
+            case FLOAT:
+                return Float.intBitsToFloat((int) bits);
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+            case OCTET_STRING:
+            case BIT_STRING:
+                return copyBytes();
+            default:
+                return ref;
+        }
+    }
+
     public boolean isBoolean() {
         return this.type == DataType.BOOLEAN;
     }
 
     // Type-safe getters
-    public Boolean asBoolean() {
+    public boolean asBoolean() {
         checkType(DataType.BOOLEAN);
-        return (Boolean) value;
+        return bits != 0;
     }
 
-    public Long asInteger() {
+    public long asInteger() {
         checkType(DataType.INTEGER);
-        return (Long) value;
+        return bits;
+    }
+
+    /** Bytes an integer must be encoded in, or 0 when any width that holds the value will do */
+    public int getEncodedWidth() {
+        return type == DataType.INTEGER ? length : 0;
     }
 
-    public Long asUnsigned() {
+    public long asUnsigned() {
         checkType(DataType.UNSIGNED);
-        return (Long) value;
+        return bits;
     }
 
-    public Float asFloat() {
+    public float asFloat() {
         checkType(DataType.FLOAT);
-        return (Float) value;
+        return Float.intBitsToFloat((int) bits);
     }
 
-    public Double asDouble() {
+    public double asDouble() {
         checkType(DataType.DOUBLE);
-        return (Double) value;
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Any integer, unsigned or boolean value; floating point values are truncated.
+     */
+    public long longValue() {
+        switch (type) {
+            case BOOLEAN:
+            case INTEGER:
+            case UNSIGNED:
+                return bits;
+            case FLOAT:
+            case DOUBLE:
+                return (long) doubleValue();
+            default:
+                throw new IllegalStateException(String.format("Cannot convert %s to a number", type));
+        }
+    }
+
+    /**
+     * Any numeric value widened to double.
+     */
+    public double doubleValue() {
+        switch (type) {
+            case BOOLEAN:
+            case INTEGER:
+            case UNSIGNED:
+                return bits;
+            case FLOAT:
+                return Float.intBitsToFloat((int) bits);
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+            default:
+                throw new IllegalStateException(String.format("Cannot convert %s to a number", type));
+        }
     }
 
     public byte[] asOctetString() {
         checkType(DataType.OCTET_STRING);
-        return Arrays.copyOf((byte[]) value, ((byte[]) value).length);
+        return copyBytes();
     }
 
     public String asString() {
         checkType(DataType.STRING);
-        return (String) value;
+        return (String) ref;
     }
 
     public byte[] asBitString() {
         checkType(DataType.BIT_STRING);
-        return Arrays.copyOf((byte[]) value, ((byte[]) value).length);
+        return copyBytes();
+    }
+
+    /**
+     * Read-only view of an octet or bit string, without copying the bytes.
+     */
+    public ByteBuffer asByteView() {
+        if (type != DataType.OCTET_STRING && type != DataType.BIT_STRING) {
+            throw new IllegalStateException(String.format("Cannot convert %s to bytes", type));
+        }
+        return ByteBuffer.wrap((byte[]) ref, offset, length).slice().asReadOnlyBuffer();
     }
 
     public LocalDateTime asDateTime() {
         checkType(DataType.DATETIME);
-        return (LocalDateTime) value;
+        return (LocalDateTime) ref;
     }
 
     @SuppressWarnings("unchecked")
     public List<DataObject> asArray() {
         checkType(DataType.ARRAY);
-        return (List<DataObject>) value;
+        return (List<DataObject>) ref;
     }
 
     @SuppressWarnings("unchecked")
     public List<DataObject> asStructure() {
         checkType(DataType.STRUCTURE);
-        return (List<DataObject>) value;
+        return (List<DataObject>) ref;
+    }
+
+    private byte[] copyBytes() {
+        return Arrays.copyOfRange((byte[]) ref, offset, offset + length);
+    }
+
+    private boolean isBytes() {
+        return type == DataType.OCTET_STRING || type == DataType.BIT_STRING;
     }
 
     private void checkType(DataType expectedType) {
@@ -165,18 +328,15 @@ public class DataObject {
 
     @Override
     public String toString() {
-        if (value == null) {
-            return "null";
-        }
         switch (type) {
+            case NULL:
+                return "null";
             case OCTET_STRING:
             case BIT_STRING:
-                return Arrays.toString((byte[]) value);
-            case ARRAY:
-            case STRUCTURE:
-                return value.toString();
+                return Arrays.toString(copyBytes());
             default:
-                return value.toString();
+                Object value = getValue();
+                return value == null ? "null" : value.toString();
         }
     }
 
@@ -185,15 +345,26 @@ public class DataObject {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         DataObject other = (DataObject) obj;
-        if (type != other.type) return false;
-        if (value == null) return other.value == null;
-        return value.equals(other.value);
+        if (type != other.type || bits != other.bits) return false;
+        if (isBytes()) {
+            return Arrays.equals((byte[]) ref, offset, offset + length,
+                (byte[]) other.ref, other.offset, other.offset + other.length);
+        }
+        return ref == null ? other.ref == null : ref.equals(other.ref);
     }
 
     @Override
     public int hashCode() {
         int result = type.hashCode();
-        result = 31 * result + (value != null ? value.hashCode() : 0);
+        result = 31 * result + Long.hashCode(bits);
+        if (isBytes()) {
+            byte[] bytes = (byte[]) ref;
+            for (int i = offset; i < offset + length; i++) {
+                result = 31 * result + bytes[i];
+            }
+        } else if (ref != null) {
+            result = 31 * result + ref.hashCode();
+        }
         return result;
     }
-} 
\ No newline at end of file
+}
@@ -2,9 +2,12 @@ package com.hes.collector.dlms;
 
 import com.hes.collector.config.DlmsConfig;
 import com.hes.collector.dlms.security.SecuritySuite;
+import com.hes.collector.metrics.CollectionStage;
+import com.hes.collector.metrics.StageRecorder;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.time.Instant;
 
@@ -15,6 +18,8 @@ public class DlmsProtocol implements AutoCloseable {
     private final int port;
     private final DlmsConfig config;
     private final SecuritySuite security;
+    /** Receives stage durations; optional */
+    private final StageRecorder stages;
     private Socket socket;
     private HdlcConnection hdlcConnection;
     private CosemAssociation association;
@@ -23,13 +28,17 @@ public class DlmsProtocol implements AutoCloseable {
     public boolean connect() {
         try {
             // Establish TCP connection
-            socket = new Socket(ipAddress, port);
+            socket = new Socket();
+            timed(CollectionStage.TCP_CONNECT, () -> {
+                socket.connect(new InetSocketAddress(ipAddress, port), config.getConnectTimeoutMs());
+                return true;
+            });
             socket.setSoTimeout(config.getReadTimeoutMs());
 
             if (config.isUseHdlc()) {
                 // Initialize HDLC connection
                 hdlcConnection = new HdlcConnection(socket, config);
-                if (!hdlcConnection.establish()) {
+                if (!timed(CollectionStage.HDLC_SNRM, hdlcConnection::establish)) {
                     log.error("Failed to establish HDLC connection");
                     return false;
                 }
@@ -37,13 +46,15 @@ public class DlmsProtocol implements AutoCloseable {
 
             // Create COSEM association
             association = new CosemAssociation(
-                hdlcConnection != null ? hdlcConnection : new TcpConnection(socket),
+                hdlcConnection != null ? hdlcConnection
+                    : new TcpConnection(socket, config.getClientId(), config.getServerWPort()),
                 security,
-                config
+                config,
+                stages()
             );
 
             // Perform association
-            isConnected = association.associate();
+            isConnected = timed(CollectionStage.AARQ, association::associate);
             if (!isConnected) {
                 log.error("Failed to establish COSEM association");
                 return false;
@@ -117,11 +128,55 @@ public class DlmsProtocol implements AutoCloseable {
         }
     }
 
+    public ActionResult action(CosemObject object, int methodId, DataObject parameter) {
+        try {
+            if (!isConnected) {
+                log.error("Not connected to meter");
+                return ActionResult.builder()
+                    .success(false)
+                    .error("Not connected to meter")
+                    .build();
+            }
+
+            return association.action(object, methodId, parameter);
+        } catch (Exception e) {
+            log.error("Error during DLMS action: {}", e.getMessage());
+            return ActionResult.builder()
+                .success(false)
+                .error(e.getMessage())
+                .build();
+        }
+    }
+
+    /** Max APDU size negotiated with the meter, or the configured size before association */
+    public int getNegotiatedPduSize() {
+        return association != null && isConnected ? association.getNegotiatedPduSize() : config.getMaxPduSize();
+    }
+
     @Override
     public void close() {
         disconnect();
     }
 
+    private StageRecorder stages() {
+        return stages != null ? stages : StageRecorder.NONE;
+    }
+
+    private boolean timed(CollectionStage stage, Step step) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            success = step.run();
+            return success;
+        } finally {
+            stages().recordSince(stage, start, success);
+        }
+    }
+
+    private interface Step {
+        boolean run() throws IOException;
+    }
+
     @Builder
     public static class GetResult {
         private final boolean success;
@@ -164,4 +219,23 @@ public class DlmsProtocol implements AutoCloseable {
             return timestamp;
         }
     }
+
+    @Builder
+    public static class ActionResult {
+        private final boolean success;
+        private final String error;
+        private final Instant timestamp;
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public Instant getTimestamp() {
+            return timestamp;
+        }
+    }
 } 
\ No newline at end of file
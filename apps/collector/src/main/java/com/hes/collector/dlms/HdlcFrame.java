@@ -0,0 +1,247 @@
+package com.hes.collector.dlms;
+
+import java.util.Arrays;
+
+/**
+ * HDLC frame format type 3 as used by DLMS (IEC 62056-46): format field with an 11-bit length,
+ * destination and source addresses, control field, header check sequence when an information
+ * field follows, and a frame check sequence. Segmentation is not supported, so an information
+ * field has to fit one frame.
+ */
+public final class HdlcFrame {
+    public static final byte FLAG = (byte) 0x7E;
+    public static final int SNRM = 0x93;
+    public static final int DISC = 0x53;
+    public static final int UA = 0x73;
+    public static final int DM = 0x1F;
+    /** Largest frame length the 11-bit format field can express */
+    public static final int MAX_LENGTH = 0x7FF;
+
+    private static final int[] FCS_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0x8408 : crc >>> 1;
+            }
+            FCS_TABLE[i] = crc;
+        }
+    }
+
+    private final int destinationUpper;
+    private final int destinationLower;
+    private final int source;
+    private final int control;
+    private final byte[] info;
+
+    private HdlcFrame(int destinationUpper, int destinationLower, int source, int control, byte[] info) {
+        this.destinationUpper = destinationUpper;
+        this.destinationLower = destinationLower;
+        this.source = source;
+        this.control = control;
+        this.info = info;
+    }
+
+    /** Upper (logical device) part of the destination address; 0 with one-byte addressing */
+    public int getDestinationUpper() {
+        return destinationUpper;
+    }
+
+    /** Lower (physical device) part of the destination address */
+    public int getDestinationLower() {
+        return destinationLower;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getControl() {
+        return control;
+    }
+
+    /** Information field, empty for frames that carry none */
+    public byte[] getInfo() {
+        return info;
+    }
+
+    public boolean isInformation() {
+        return (control & 0x01) == 0;
+    }
+
+    /** N(S) of an I-frame */
+    public int getSendSequence() {
+        return (control >> 1) & 0x07;
+    }
+
+    /** N(R) of an I-frame or RR frame */
+    public int getReceiveSequence() {
+        return (control >> 5) & 0x07;
+    }
+
+    public static int informationControl(int receiveSequence, int sendSequence) {
+        return ((receiveSequence & 0x07) << 5) | 0x10 | ((sendSequence & 0x07) << 1);
+    }
+
+    /**
+     * Address field of a server: one byte when only a physical address below 128 is given,
+     * two bytes when both parts are below 128, four bytes otherwise (14 bits per part).
+     */
+    public static byte[] serverAddress(int upper, int lower) {
+        if (upper == 0 && lower < 0x80) {
+            return new byte[] {(byte) ((lower << 1) | 1)};
+        }
+        if (upper < 0x80 && lower < 0x80) {
+            return new byte[] {(byte) (upper << 1), (byte) ((lower << 1) | 1)};
+        }
+        if (upper > 0x3FFF || lower > 0x3FFF) {
+            throw new IllegalArgumentException("HDLC address out of range: " + upper + "/" + lower);
+        }
+        return new byte[] {
+            (byte) ((upper >> 7) << 1), (byte) ((upper & 0x7F) << 1),
+            (byte) ((lower >> 7) << 1), (byte) (((lower & 0x7F) << 1) | 1)
+        };
+    }
+
+    public static byte[] clientAddress(int clientId) {
+        return new byte[] {(byte) ((clientId << 1) | 1)};
+    }
+
+    /**
+     * Encode a complete frame including both flags.
+     */
+    public static byte[] encode(byte[] destination, byte[] source, int control, byte[] info) {
+        int header = 2 + destination.length + source.length + 1;
+        int length = header + (info.length > 0 ? 2 + info.length : 0) + 2;
+        if (length > MAX_LENGTH) {
+            throw new IllegalArgumentException("HDLC frame too long: " + length);
+        }
+        byte[] frame = new byte[length + 2];
+        frame[0] = FLAG;
+        frame[1] = (byte) (0xA0 | (length >> 8));
+        frame[2] = (byte) length;
+        int p = 3;
+        System.arraycopy(destination, 0, frame, p, destination.length);
+        p += destination.length;
+        System.arraycopy(source, 0, frame, p, source.length);
+        p += source.length;
+        frame[p++] = (byte) control;
+        if (info.length > 0) {
+            p = putCheck(frame, p, fcs16(frame, 1, p - 1));
+            System.arraycopy(info, 0, frame, p, info.length);
+            p += info.length;
+        }
+        p = putCheck(frame, p, fcs16(frame, 1, p - 1));
+        frame[p] = FLAG;
+        return frame;
+    }
+
+    /**
+     * Decode the bytes between the flags, i.e. from the format field to the FCS.
+     */
+    public static HdlcFrame decode(byte[] data, int offset, int length) {
+        if (length < 7 || (data[offset] & 0xF0) != 0xA0) {
+            throw new IllegalArgumentException("Not an HDLC type 3 frame");
+        }
+        int declared = ((data[offset] & 0x07) << 8) | (data[offset + 1] & 0xFF);
+        if (declared != length) {
+            throw new IllegalArgumentException("HDLC length mismatch: " + declared + " != " + length);
+        }
+        if (fcs16(data, offset, length - 2) != readCheck(data, offset + length - 2)) {
+            throw new IllegalArgumentException("HDLC FCS mismatch");
+        }
+
+        int p = offset + 2;
+        int end = offset + length - 2;
+        int[] destination = new int[4];
+        int parts = 0;
+        while (true) {
+            if (p >= end || parts == 4) {
+                throw new IllegalArgumentException("Malformed HDLC destination address");
+            }
+            int b = data[p++] & 0xFF;
+            destination[parts++] = b >> 1;
+            if ((b & 1) != 0) {
+                break;
+            }
+        }
+        int upper;
+        int lower;
+        if (parts == 1) {
+            upper = 0;
+            lower = destination[0];
+        } else if (parts == 2) {
+            upper = destination[0];
+            lower = destination[1];
+        } else if (parts == 4) {
+            upper = (destination[0] << 7) | destination[1];
+            lower = (destination[2] << 7) | destination[3];
+        } else {
+            throw new IllegalArgumentException("Unsupported HDLC address length " + parts);
+        }
+
+        int source = 0;
+        while (true) {
+            if (p >= end) {
+                throw new IllegalArgumentException("Malformed HDLC source address");
+            }
+            int b = data[p++] & 0xFF;
+            source = (source << 7) | (b >> 1);
+            if ((b & 1) != 0) {
+                break;
+            }
+        }
+        if (p >= end) {
+            throw new IllegalArgumentException("Missing HDLC control field");
+        }
+        int control = data[p++] & 0xFF;
+
+        byte[] info = new byte[0];
+        if (p < end) {
+            if (end - p < 2 || fcs16(data, offset, p - offset) != readCheck(data, p)) {
+                throw new IllegalArgumentException("HDLC HCS mismatch");
+            }
+            p += 2;
+            info = Arrays.copyOfRange(data, p, end);
+        }
+        return new HdlcFrame(upper, lower, source, control, info);
+    }
+
+    /** CRC-16/X-25 as specified for the HCS and FCS */
+    public static int fcs16(byte[] data, int offset, int length) {
+        int fcs = 0xFFFF;
+        for (int i = offset; i < offset + length; i++) {
+            fcs = (fcs >>> 8) ^ FCS_TABLE[(fcs ^ data[i]) & 0xFF];
+        }
+        return ~fcs & 0xFFFF;
+    }
+
+    /**
+     * Prefix an APDU with the LLC header: E6 E6 00 from the client, E6 E7 00 from the server.
+     */
+    public static byte[] withLlc(boolean response, byte[] apdu) {
+        byte[] info = new byte[3 + apdu.length];
+        info[0] = (byte) 0xE6;
+        info[1] = response ? (byte) 0xE7 : (byte) 0xE6;
+        System.arraycopy(apdu, 0, info, 3, apdu.length);
+        return info;
+    }
+
+    public static byte[] withoutLlc(byte[] info) {
+        if (info.length < 3 || info[0] != (byte) 0xE6 || (info[1] != (byte) 0xE6 && info[1] != (byte) 0xE7)) {
+            throw new IllegalArgumentException("Missing LLC header");
+        }
+        return Arrays.copyOfRange(info, 3, info.length);
+    }
+
+    private static int putCheck(byte[] frame, int p, int check) {
+        frame[p] = (byte) check;
+        frame[p + 1] = (byte) (check >> 8);
+        return p + 2;
+    }
+
+    private static int readCheck(byte[] data, int p) {
+        return (data[p] & 0xFF) | ((data[p + 1] & 0xFF) << 8);
+    }
+}
@@ -1,80 +1,175 @@
 package com.hes.collector.dlms;
 
-import lombok.Getter;
-import java.util.Arrays;
-import java.util.regex.Pattern;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
-@Getter
-public class ObisCode {
-    private static final Pattern OBIS_PATTERN = Pattern.compile("^\\d+\\.\\d+\\.\\d+\\.\\d+\\.\\d+\\.\\d+$");
-    private final byte[] code;
+/**
+ * Six-group OBIS code A.B.C.D.E.F packed into the low 48 bits of a long, A in the highest byte.
+ * Instances are interned: the first {@value #INTERN_LIMIT} distinct codes seen are canonical, so
+ * parsing or decoding a known code does not allocate and equal codes are usually the same object.
+ */
+public final class ObisCode {
+    private static final int INTERN_CAPACITY = 4096;
+    private static final int INTERN_LIMIT = INTERN_CAPACITY / 2;
+    private static final AtomicReferenceArray<ObisCode> INTERNED = new AtomicReferenceArray<>(INTERN_CAPACITY);
+    private static final AtomicInteger INTERNED_COUNT = new AtomicInteger();
 
-    private ObisCode(byte[] code) {
-        if (code == null || code.length != 6) {
-            throw new IllegalArgumentException("OBIS code must be 6 bytes");
-        }
-        this.code = Arrays.copyOf(code, 6);
+    private final long value;
+
+    private ObisCode(long value) {
+        this.value = value;
     }
 
+    /**
+     * Parse dotted decimal notation, e.g. {@code 1.0.1.7.0.255}, in a single pass.
+     */
     public static ObisCode parse(String obisString) {
-        if (obisString == null || !OBIS_PATTERN.matcher(obisString).matches()) {
+        if (obisString == null) {
             throw new IllegalArgumentException("Invalid OBIS code format");
         }
-
-        String[] parts = obisString.split("\\.");
-        byte[] code = new byte[6];
-        
-        for (int i = 0; i < 6; i++) {
-            int value = Integer.parseInt(parts[i]);
-            if (value < 0 || value > 255) {
-                throw new IllegalArgumentException("OBIS code values must be between 0 and 255");
+        long packed = 0;
+        int groups = 0;
+        int group = 0;
+        int digits = 0;
+        int length = obisString.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? obisString.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                group = group * 10 + (c - '0');
+                if (group > 255) {
+                    throw new IllegalArgumentException("OBIS code values must be between 0 and 255");
+                }
+                digits++;
+            } else if (c == '.' && digits > 0 && groups < 6) {
+                packed = packed << 8 | group;
+                groups++;
+                group = 0;
+                digits = 0;
+            } else {
+                throw new IllegalArgumentException("Invalid OBIS code format");
             }
-            code[i] = (byte) value;
         }
-
-        return new ObisCode(code);
+        if (groups != 6) {
+            throw new IllegalArgumentException("Invalid OBIS code format");
+        }
+        return intern(packed);
     }
 
     public static ObisCode of(int a, int b, int c, int d, int e, int f) {
-        byte[] code = new byte[] {
-            validateByte(a),
-            validateByte(b),
-            validateByte(c),
-            validateByte(d),
-            validateByte(e),
-            validateByte(f)
-        };
-        return new ObisCode(code);
+        return intern((long) validateByte(a) << 40 | (long) validateByte(b) << 32 | (long) validateByte(c) << 24
+            | validateByte(d) << 16 | validateByte(e) << 8 | validateByte(f));
+    }
+
+    /**
+     * Code whose six groups are {@code bytes[offset..offset+5]}, as carried in an attribute descriptor.
+     */
+    public static ObisCode fromBytes(byte[] bytes, int offset) {
+        if (offset < 0 || offset + 6 > bytes.length) {
+            throw new IllegalArgumentException("OBIS code must be 6 bytes");
+        }
+        long packed = 0;
+        for (int i = 0; i < 6; i++) {
+            packed = packed << 8 | (bytes[offset + i] & 0xFF);
+        }
+        return intern(packed);
     }
 
-    private static byte validateByte(int value) {
+    /**
+     * Inverse of {@link #toLong()}.
+     */
+    public static ObisCode fromLong(long packed) {
+        if ((packed & ~0xFFFF_FFFF_FFFFL) != 0) {
+            throw new IllegalArgumentException("OBIS code must fit in 48 bits");
+        }
+        return intern(packed);
+    }
+
+    private static int validateByte(int value) {
         if (value < 0 || value > 255) {
             throw new IllegalArgumentException("OBIS code values must be between 0 and 255");
         }
-        return (byte) value;
+        return value;
+    }
+
+    /**
+     * Canonical instance from an open-addressed table; once it is half full, new codes are
+     * returned uninterned rather than evicting anything.
+     */
+    private static ObisCode intern(long packed) {
+        int mask = INTERN_CAPACITY - 1;
+        for (int slot = mix(packed) & mask; ; slot = (slot + 1) & mask) {
+            ObisCode existing = INTERNED.get(slot);
+            if (existing == null) {
+                if (INTERNED_COUNT.get() >= INTERN_LIMIT) {
+                    return new ObisCode(packed);
+                }
+                ObisCode created = new ObisCode(packed);
+                if (INTERNED.compareAndSet(slot, null, created)) {
+                    INTERNED_COUNT.incrementAndGet();
+                    return created;
+                }
+                existing = INTERNED.get(slot);
+            }
+            if (existing.value == packed) {
+                return existing;
+            }
+        }
+    }
+
+    private static int mix(long packed) {
+        long h = packed * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+
+    /** The six groups, A first; a fresh array on every call */
+    public byte[] getCode() {
+        byte[] code = new byte[6];
+        for (int i = 0; i < 6; i++) {
+            code[i] = (byte) (value >>> (40 - 8 * i));
+        }
+        return code;
+    }
+
+    /** Group {@code index} (0 for A through 5 for F) as 0..255 */
+    public int get(int index) {
+        if (index < 0 || index > 5) {
+            throw new IndexOutOfBoundsException("OBIS group " + index);
+        }
+        return (int) (value >>> (40 - 8 * index)) & 0xFF;
+    }
+
+    /** The 48-bit packed form */
+    public long toLong() {
+        return value;
+    }
+
+    /** Put the six groups into {@code out} without an intermediate array */
+    public void writeTo(ByteBuffer out) {
+        out.putShort((short) (value >>> 32)).putInt((int) value);
     }
 
     @Override
     public String toString() {
-        return String.format("%d.%d.%d.%d.%d.%d",
-            code[0] & 0xFF,
-            code[1] & 0xFF,
-            code[2] & 0xFF,
-            code[3] & 0xFF,
-            code[4] & 0xFF,
-            code[5] & 0xFF);
+        StringBuilder sb = new StringBuilder(23);
+        for (int i = 0; i < 6; i++) {
+            if (i > 0) {
+                sb.append('.');
+            }
+            sb.append(get(i));
+        }
+        return sb.toString();
     }
 
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
-        if (obj == null || getClass() != obj.getClass()) return false;
-        ObisCode other = (ObisCode) obj;
-        return Arrays.equals(code, other.code);
+        if (!(obj instanceof ObisCode)) return false;
+        return value == ((ObisCode) obj).value;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(code);
+        return mix(value);
     }
-} 
\ No newline at end of file
+}
@@ -1,11 +1,11 @@
 package com.hes.collector.dlms;
 
 import lombok.extern.slf4j.Slf4j;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
-import java.util.Arrays;
 
 @Slf4j
 public class TcpConnection implements DlmsConnection {
@@ -14,15 +14,25 @@ public class TcpConnection implements DlmsConnection {
     private static final int MAX_BUFFER_SIZE = 2048;
 
     private final Socket socket;
-    private final InputStream in;
+    private final DataInputStream in;
     private final OutputStream out;
-    private final byte[] buffer;
+    private final int sourceWPort;
+    private final int destinationWPort;
 
     public TcpConnection(Socket socket) throws IOException {
+        this(socket, 1, 1);
+    }
+
+    /**
+     * @param sourceWPort wrapper port of the client
+     * @param destinationWPort wrapper port of the logical device in the meter
+     */
+    public TcpConnection(Socket socket, int sourceWPort, int destinationWPort) throws IOException {
         this.socket = socket;
-        this.in = socket.getInputStream();
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
         this.out = socket.getOutputStream();
-        this.buffer = new byte[MAX_BUFFER_SIZE];
+        this.sourceWPort = sourceWPort;
+        this.destinationWPort = destinationWPort;
     }
 
     @Override
@@ -55,23 +65,20 @@ public class TcpConnection implements DlmsConnection {
         return readResponse();
     }
 
+    /**
+     * Wrapper header (IEC 62056-47): version, source wPort, destination wPort and the length of
+     * the APDU that follows, each two bytes big endian.
+     */
     private byte[] createWrapper(byte[] data) {
-        int length = data.length + WRAPPER_LENGTH;
-        byte[] wrapper = new byte[length];
-
-        // Version
-        wrapper[0] = VERSION;
+        byte[] wrapper = new byte[WRAPPER_LENGTH + data.length];
+        wrapper[0] = 0;
         wrapper[1] = VERSION;
-
-        // Length (big endian)
-        wrapper[2] = (byte) ((length >> 8) & 0xFF);
-        wrapper[3] = (byte) (length & 0xFF);
-
-        // Source and destination addresses
-        wrapper[4] = 0x00;
-        wrapper[5] = 0x01;
-        wrapper[6] = 0x00;
-        wrapper[7] = 0x01;
+        wrapper[2] = (byte) (sourceWPort >> 8);
+        wrapper[3] = (byte) sourceWPort;
+        wrapper[4] = (byte) (destinationWPort >> 8);
+        wrapper[5] = (byte) destinationWPort;
+        wrapper[6] = (byte) (data.length >> 8);
+        wrapper[7] = (byte) data.length;
 
         // Copy data
         System.arraycopy(data, 0, wrapper, WRAPPER_LENGTH, data.length);
@@ -80,27 +87,20 @@ public class TcpConnection implements DlmsConnection {
     }
 
     private byte[] readResponse() throws IOException {
-        // Read header
-        int headerRead = in.read(buffer, 0, WRAPPER_LENGTH);
-        if (headerRead != WRAPPER_LENGTH) {
-            throw new IOException("Failed to read DLMS wrapper header");
+        byte[] header = new byte[WRAPPER_LENGTH];
+        in.readFully(header);
+        int version = ((header[0] & 0xFF) << 8) | (header[1] & 0xFF);
+        if (version != VERSION) {
+            throw new IOException("Unsupported DLMS wrapper version: " + version);
         }
 
-        // Get length from header
-        int length = ((buffer[2] & 0xFF) << 8) | (buffer[3] & 0xFF);
-        int dataLength = length - WRAPPER_LENGTH;
-
+        int dataLength = ((header[6] & 0xFF) << 8) | (header[7] & 0xFF);
         if (dataLength <= 0 || dataLength > MAX_BUFFER_SIZE - WRAPPER_LENGTH) {
             throw new IOException("Invalid DLMS wrapper length: " + dataLength);
         }
 
-        // Read data
-        int dataRead = in.read(buffer, WRAPPER_LENGTH, dataLength);
-        if (dataRead != dataLength) {
-            throw new IOException("Failed to read complete DLMS data");
-        }
-
-        // Return data without wrapper
-        return Arrays.copyOfRange(buffer, WRAPPER_LENGTH, length);
+        byte[] data = new byte[dataLength];
+        in.readFully(data);
+        return data;
     }
-} 
\ No newline at end of file
+}
@@ -108,6 +108,14 @@ public class SecuritySuite {
         return cipher.doFinal(data);
     }
 
+    public SecurityPolicy getSecurityPolicy() {
+        return securityPolicy;
+    }
+
+    public byte[] getAuthenticationKey() {
+        return authenticationKey.clone();
+    }
+
     public void incrementFrameCounter() {
         for (int i = frameCounter.length - 1; i >= 0; i--) {
             if (++frameCounter[i] != 0) {
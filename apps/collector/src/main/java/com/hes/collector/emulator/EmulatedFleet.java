@@ -0,0 +1,382 @@
+package com.hes.collector.emulator;
+
+import com.hes.collector.dlms.AxdrCodec;
+import com.hes.collector.dlms.CosemApdu;
+import com.hes.collector.dlms.DataAccessResult;
+import com.hes.collector.dlms.DataObject;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State and register values of all emulated meters.
+ * <p>
+ * Measurements are not stored: each one is derived from a hash of (seed, meter, 15-second
+ * slot) over a per-meter daily load curve, so any meter reads the same value at the same time
+ * and energy registers only move forward. The only mutable state is the relay and the clock
+ * offset left by a SET or shift_time, kept in flat arrays at 5 bytes per meter. Concurrent SETs to the same
+ * meter from two connections are last-writer-wins, as they would be on a real meter. Meters that
+ * are sent a firmware image also keep its Image Transfer state until the next initiate.
+ */
+public class EmulatedFleet {
+    private static final long EPOCH_2020 = 1577836800L;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private final int meterCount;
+    private final int metersPerPort;
+    private final long seed;
+    private final ZoneId zone;
+    /** 1 connected, 0 disconnected */
+    private final byte[] relay;
+    private final int[] clockOffsetSeconds;
+    private final int imageBlockSize;
+    private final int maxImageSize;
+    private final Map<Integer, EmulatedImage> images = new ConcurrentHashMap<>();
+
+    public EmulatedFleet(int ports, int metersPerPort, long seed, ZoneId zone) {
+        this(ports, metersPerPort, seed, zone, 192, 4 * 1024 * 1024);
+    }
+
+    /**
+     * @param imageBlockSize image_block_size reported by every meter's Image Transfer object
+     * @param maxImageSize largest firmware image a meter accepts
+     */
+    public EmulatedFleet(int ports, int metersPerPort, long seed, ZoneId zone, int imageBlockSize, int maxImageSize) {
+        this.imageBlockSize = imageBlockSize;
+        this.maxImageSize = maxImageSize;
+        this.meterCount = ports * metersPerPort;
+        this.metersPerPort = metersPerPort;
+        this.seed = seed;
+        this.zone = zone;
+        this.relay = new byte[meterCount];
+        this.clockOffsetSeconds = new int[meterCount];
+        Arrays.fill(relay, (byte) 1);
+    }
+
+    public int getMeterCount() {
+        return meterCount;
+    }
+
+    /**
+     * Meter behind a gateway port for a physical address, or -1 when nothing answers there.
+     */
+    public int meterIndex(int portIndex, int physicalAddress) {
+        if (physicalAddress < 1 || physicalAddress > metersPerPort) {
+            return -1;
+        }
+        return portIndex * metersPerPort + physicalAddress - 1;
+    }
+
+    public boolean isConnected(int meter) {
+        return relay[meter] != 0;
+    }
+
+    /** Image received by a meter so far, or null when no transfer was initiated */
+    public byte[] image(int meter) {
+        EmulatedImage image = images.get(meter);
+        return image == null ? null : image.data();
+    }
+
+    /** image_transfer_status of a meter */
+    public int imageTransferStatus(int meter) {
+        EmulatedImage image = images.get(meter);
+        return image == null ? EmulatedImage.NOT_INITIATED : image.getStatus();
+    }
+
+    public String serialNumber(int meter) {
+        return String.format("EMU%07d", meter);
+    }
+
+    /**
+     * GET-Response APDU for an attribute of a meter.
+     */
+    byte[] get(int meter, CosemApdu.AttributeRequest request, long nowMillis) {
+        EmulatedObject object = EmulatedObject.find(request.getObisCode());
+        DataAccessResult check = check(object, request);
+        if (check != DataAccessResult.SUCCESS) {
+            return CosemApdu.getResponse(request.getInvokeId(), check);
+        }
+        EmulatedImage image = images.get(meter);
+        ByteBuffer out = ByteBuffer.allocate(object == EmulatedObject.IMAGE_TRANSFER && image != null
+            ? 16 + image.getBlockCount() / 8 : 32);
+        int attribute = request.getAttributeId();
+        if (attribute == 1) {
+            AxdrCodec.putOctetString(out, object.getObisCode().getCode());
+        } else if (!putAttribute(out, meter, object, attribute, nowMillis)) {
+            return CosemApdu.getResponse(request.getInvokeId(), DataAccessResult.OBJECT_UNDEFINED);
+        }
+        return CosemApdu.getResponse(request.getInvokeId(), Arrays.copyOf(out.array(), out.position()));
+    }
+
+    /**
+     * SET-Response APDU; writable are the clock time and the disconnect control state.
+     */
+    byte[] set(int meter, CosemApdu.AttributeRequest request, DataObject value, long nowMillis) {
+        EmulatedObject object = EmulatedObject.find(request.getObisCode());
+        DataAccessResult result = check(object, request);
+        if (result == DataAccessResult.SUCCESS) {
+            result = write(meter, object, request.getAttributeId(), value, nowMillis);
+        }
+        return CosemApdu.setResponse(request.getInvokeId(), result);
+    }
+
+    /**
+     * ACTION-Response APDU. Methods are the clock's shift_time (method 6), which moves the clock
+     * by -900..900 seconds given as a long (int16) and refuses any other type, and the four methods
+     * of Image Transfer.
+     */
+    byte[] action(int meter, CosemApdu.AttributeRequest request, DataObject parameter, long nowMillis) {
+        EmulatedObject object = EmulatedObject.find(request.getObisCode());
+        DataAccessResult result = check(object, request);
+        if (result == DataAccessResult.SUCCESS && object == EmulatedObject.IMAGE_TRANSFER) {
+            try {
+                result = imageAction(meter, request.getAttributeId(), parameter);
+            } catch (IllegalStateException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                result = DataAccessResult.TYPE_UNMATCHED;
+            }
+        } else if (result == DataAccessResult.SUCCESS) {
+            if (object != EmulatedObject.CLOCK || request.getAttributeId() != 6) {
+                result = DataAccessResult.READ_WRITE_DENIED;
+            } else if (parameter == null || parameter.getEncodedWidth() != 2
+                || Math.abs(parameter.asInteger()) > 900) {
+                result = DataAccessResult.TYPE_UNMATCHED;
+            } else {
+                clockOffsetSeconds[meter] += (int) parameter.asInteger();
+            }
+        }
+        return CosemApdu.actionResponse(request.getInvokeId(), result);
+    }
+
+    /**
+     * image_transfer_initiate (1) starts over with a new image; image_block_transfer (2),
+     * image_verify (3) and image_activate (4) work on the current one.
+     */
+    private DataAccessResult imageAction(int meter, int method, DataObject parameter) {
+        EmulatedImage image = images.get(meter);
+        switch (method) {
+            case 1: {
+                List<DataObject> fields = parameter.asStructure();
+                long size = fields.get(1).asUnsigned();
+                if (size < 1 || size > maxImageSize) {
+                    return DataAccessResult.OTHER_REASON;
+                }
+                images.put(meter, new EmulatedImage(fields.get(0).asOctetString(), (int) size, imageBlockSize));
+                return DataAccessResult.SUCCESS;
+            }
+            case 2: {
+                if (image == null) {
+                    return DataAccessResult.READ_WRITE_DENIED;
+                }
+                List<DataObject> fields = parameter.asStructure();
+                return image.block(fields.get(0).asUnsigned(), fields.get(1).asOctetString());
+            }
+            case 3:
+                return image == null ? DataAccessResult.READ_WRITE_DENIED : image.verify();
+            case 4:
+                return image == null ? DataAccessResult.READ_WRITE_DENIED : image.activate();
+            default:
+                return DataAccessResult.OBJECT_UNAVAILABLE;
+        }
+    }
+
+    private DataAccessResult check(EmulatedObject object, CosemApdu.AttributeRequest request) {
+        if (object == null) {
+            return DataAccessResult.OBJECT_UNDEFINED;
+        }
+        if (object.getClassId() != request.getClassId()) {
+            return DataAccessResult.OBJECT_CLASS_INCONSISTENT;
+        }
+        if (request.isSelectiveAccess()) {
+            return DataAccessResult.SCOPE_OF_ACCESS_VIOLATED;
+        }
+        return DataAccessResult.SUCCESS;
+    }
+
+    private DataAccessResult write(int meter, EmulatedObject object, int attribute, DataObject value, long nowMillis) {
+        try {
+            if (object == EmulatedObject.CLOCK && attribute == 2) {
+                long target;
+                if (value.getType() == DataObject.DataType.DATETIME) {
+                    target = value.asDateTime().atZone(zone).toEpochSecond();
+                } else {
+                    byte[] bytes = value.asOctetString();
+                    ZoneOffset offset = AxdrCodec.decodeDeviation(bytes);
+                    LocalDateTime time = AxdrCodec.decodeDateTime(bytes);
+                    target = offset == null ? time.atZone(zone).toEpochSecond() : time.toEpochSecond(offset);
+                }
+                clockOffsetSeconds[meter] = (int) (target - nowMillis / 1000);
+                return DataAccessResult.SUCCESS;
+            }
+            if (object == EmulatedObject.DISCONNECT_CONTROL && (attribute == 2 || attribute == 3)) {
+                boolean connect;
+                switch (value.getType()) {
+                    case BOOLEAN:
+                        connect = value.asBoolean();
+                        break;
+                    case UNSIGNED:
+                        connect = value.asUnsigned() != 0;
+                        break;
+                    case INTEGER:
+                        connect = value.asInteger() != 0;
+                        break;
+                    default:
+                        return DataAccessResult.TYPE_UNMATCHED;
+                }
+                relay[meter] = (byte) (connect ? 1 : 0);
+                return DataAccessResult.SUCCESS;
+            }
+        } catch (IllegalStateException | IllegalArgumentException | java.time.DateTimeException e) {
+            return DataAccessResult.TYPE_UNMATCHED;
+        }
+        return DataAccessResult.READ_WRITE_DENIED;
+    }
+
+    private boolean putAttribute(ByteBuffer out, int meter, EmulatedObject object, int attribute, long nowMillis) {
+        switch (object) {
+            case CLOCK:
+                if (attribute != 2) {
+                    return false;
+                }
+                java.time.Instant instant = java.time.Instant.ofEpochSecond(nowMillis / 1000 + clockOffsetSeconds[meter]);
+                ZoneOffset offset = zone.getRules().getOffset(instant);
+                out.put((byte) AxdrCodec.OCTET_STRING).put((byte) AxdrCodec.DATE_TIME_LENGTH);
+                AxdrCodec.putDateTime(out, LocalDateTime.ofInstant(instant, offset), offset);
+                return true;
+            case LOGICAL_DEVICE_NAME:
+            case SERIAL_NUMBER:
+                if (attribute != 2) {
+                    return false;
+                }
+                String name = object == EmulatedObject.SERIAL_NUMBER ? serialNumber(meter) : "HES" + serialNumber(meter);
+                AxdrCodec.putOctetString(out, name.getBytes(StandardCharsets.US_ASCII));
+                return true;
+            case IMAGE_TRANSFER:
+                return putImageAttribute(out, images.get(meter), attribute);
+            case DISCONNECT_CONTROL:
+                if (attribute == 2) {
+                    out.put((byte) AxdrCodec.BOOLEAN).put(relay[meter]);
+                    return true;
+                }
+                if (attribute == 3) {
+                    out.put((byte) AxdrCodec.ENUM).put(relay[meter]);
+                    return true;
+                }
+                return false;
+            default:
+                if (attribute == 3) {
+                    AxdrCodec.putStructureHeader(out, 2);
+                    out.put((byte) AxdrCodec.INTEGER).put((byte) object.getScaler());
+                    out.put((byte) AxdrCodec.ENUM).put((byte) object.getUnit());
+                    return true;
+                }
+                if (attribute != 2) {
+                    return false;
+                }
+                long raw = register(meter, object, nowMillis / 1000);
+                out.put((byte) object.getType());
+                if (object.getType() == AxdrCodec.DOUBLE_LONG_UNSIGNED) {
+                    out.putInt((int) raw);
+                } else {
+                    out.putShort((short) raw);
+                }
+                return true;
+        }
+    }
+
+    private boolean putImageAttribute(ByteBuffer out, EmulatedImage image, int attribute) {
+        switch (attribute) {
+            case 2:
+                out.put((byte) AxdrCodec.DOUBLE_LONG_UNSIGNED).putInt(imageBlockSize);
+                return true;
+            case 3: {
+                byte[] bits = image == null ? new byte[0] : image.bitmap();
+                out.put((byte) AxdrCodec.BIT_STRING);
+                AxdrCodec.putLength(out, image == null ? 0 : image.getBlockCount());
+                out.put(bits);
+                return true;
+            }
+            case 4:
+                out.put((byte) AxdrCodec.DOUBLE_LONG_UNSIGNED).putInt(image == null ? 0 : image.firstMissingBlock());
+                return true;
+            case 5:
+                out.put((byte) AxdrCodec.BOOLEAN).put((byte) 1);
+                return true;
+            case 6:
+                out.put((byte) AxdrCodec.ENUM).put((byte) (image == null ? EmulatedImage.NOT_INITIATED : image.getStatus()));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Raw register value before the scaler is applied.
+     */
+    long register(int meter, EmulatedObject object, long epochSecond) {
+        long slot = epochSecond / 15;
+        double noise = unit(mix(seed ^ meter * GOLDEN ^ slot * 0xBF58476D1CE4E5B9L ^ object.ordinal()));
+        double ratedWatts = 500 + 4500 * unit(mix(seed ^ meter * GOLDEN));
+        boolean solar = unit(mix(seed ^ meter * GOLDEN ^ 0x5EED)) < 0.1;
+        double load = isConnected(meter) ? ratedWatts * loadShape(meter, epochSecond) : 0;
+        double voltage = 230 + 6 * Math.sin(meter * 0.7) + 2 * (noise - 0.5);
+        switch (object) {
+            case VOLTAGE_L1:
+            case VOLTAGE_L2:
+            case VOLTAGE_L3:
+                return Math.round(voltage * 10);
+            case CURRENT_L1:
+            case CURRENT_L2:
+            case CURRENT_L3:
+                return Math.round(load / 3 / voltage * 100 * (0.95 + 0.1 * noise));
+            case ACTIVE_POWER_IMPORT:
+                return Math.round(load * (0.95 + 0.1 * noise));
+            case ACTIVE_POWER_EXPORT:
+                return solar ? Math.round(ratedWatts * 0.3 * solarShape(epochSecond) * noise) : 0;
+            case POWER_FACTOR:
+                return 850 + Math.round(140 * noise);
+            case FREQUENCY:
+                return 4995 + Math.round(10 * noise);
+            case ENERGY_IMPORT: {
+                // Average of the load shape is about 0.55 of the rated power
+                double hours = (epochSecond - EPOCH_2020) / 3600.0;
+                return (long) (ratedWatts * 0.55 * hours) & 0xFFFFFFFFL;
+            }
+            case ENERGY_EXPORT: {
+                double hours = (epochSecond - EPOCH_2020) / 3600.0;
+                return solar ? (long) (ratedWatts * 0.3 * 0.25 * hours) & 0xFFFFFFFFL : 0;
+            }
+            default:
+                throw new IllegalArgumentException("Not a register: " + object);
+        }
+    }
+
+    /** Daily curve between 0.2 and 1.0 with a morning and an evening peak, shifted per meter */
+    private double loadShape(int meter, long epochSecond) {
+        double hour = ((epochSecond + meter * 97L) % 86400) / 3600.0;
+        double morning = Math.exp(-Math.pow(hour - 8, 2) / 4);
+        double evening = Math.exp(-Math.pow(hour - 20, 2) / 6);
+        return 0.2 + 0.5 * morning + 0.8 * evening > 1.0 ? 1.0 : 0.2 + 0.5 * morning + 0.8 * evening;
+    }
+
+    private double solarShape(long epochSecond) {
+        double hour = (epochSecond % 86400) / 3600.0;
+        return hour < 6 || hour > 18 ? 0 : Math.sin((hour - 6) / 12 * Math.PI);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static double unit(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,95 @@
+package com.hes.collector.emulator;
+
+import com.hes.collector.dlms.DataAccessResult;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Image Transfer state of one emulated meter: the received blocks, which ones arrived, and the
+ * transfer status (image_transfer_status of class 18). The image is kept in memory, so the
+ * emulator accepts images up to a configured size.
+ */
+final class EmulatedImage {
+    static final int NOT_INITIATED = 0;
+    static final int INITIATED = 1;
+    static final int VERIFICATION_SUCCESSFUL = 3;
+    static final int VERIFICATION_FAILED = 4;
+    static final int ACTIVATION_SUCCESSFUL = 6;
+
+    private final byte[] identifier;
+    private final int blockSize;
+    private final byte[] data;
+    private final BitSet received;
+    private final int blockCount;
+    private int status = INITIATED;
+
+    EmulatedImage(byte[] identifier, int size, int blockSize) {
+        this.identifier = identifier;
+        this.blockSize = blockSize;
+        this.data = new byte[size];
+        this.blockCount = (size + blockSize - 1) / blockSize;
+        this.received = new BitSet(blockCount);
+    }
+
+    synchronized DataAccessResult block(long number, byte[] value) {
+        if (status != INITIATED) {
+            return DataAccessResult.READ_WRITE_DENIED;
+        }
+        if (number < 0 || number >= blockCount) {
+            return DataAccessResult.OTHER_REASON;
+        }
+        int offset = (int) number * blockSize;
+        if (value.length != Math.min(blockSize, data.length - offset)) {
+            return DataAccessResult.TYPE_UNMATCHED;
+        }
+        System.arraycopy(value, 0, data, offset, value.length);
+        received.set((int) number);
+        return DataAccessResult.SUCCESS;
+    }
+
+    synchronized DataAccessResult verify() {
+        if (status != INITIATED && status != VERIFICATION_FAILED) {
+            return status == VERIFICATION_SUCCESSFUL ? DataAccessResult.SUCCESS : DataAccessResult.READ_WRITE_DENIED;
+        }
+        status = received.cardinality() == blockCount ? VERIFICATION_SUCCESSFUL : VERIFICATION_FAILED;
+        return status == VERIFICATION_SUCCESSFUL ? DataAccessResult.SUCCESS : DataAccessResult.OTHER_REASON;
+    }
+
+    synchronized DataAccessResult activate() {
+        if (status != VERIFICATION_SUCCESSFUL && status != ACTIVATION_SUCCESSFUL) {
+            return DataAccessResult.READ_WRITE_DENIED;
+        }
+        status = ACTIVATION_SUCCESSFUL;
+        return DataAccessResult.SUCCESS;
+    }
+
+    synchronized int getStatus() {
+        return status;
+    }
+
+    synchronized int firstMissingBlock() {
+        return received.nextClearBit(0);
+    }
+
+    int getBlockCount() {
+        return blockCount;
+    }
+
+    /** Transferred blocks as a bit string, block 0 in the most significant bit of the first byte */
+    synchronized byte[] bitmap() {
+        byte[] bits = new byte[(blockCount + 7) / 8];
+        for (int i = received.nextSetBit(0); i >= 0; i = received.nextSetBit(i + 1)) {
+            bits[i >>> 3] |= (byte) (0x80 >>> (i & 7));
+        }
+        return bits;
+    }
+
+    synchronized byte[] data() {
+        return Arrays.copyOf(data, data.length);
+    }
+
+    byte[] getIdentifier() {
+        return identifier;
+    }
+}
@@ -0,0 +1,77 @@
+package com.hes.collector.emulator;
+
+import com.hes.collector.dlms.AxdrCodec;
+import com.hes.collector.dlms.ObisCode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * COSEM objects exposed by every emulated meter, with the A-XDR type, scaler and unit of their
+ * value attribute. Units are the DLMS unit enumeration (27 W, 30 Wh, 33 A, 35 V, 44 Hz, 255 none).
+ */
+enum EmulatedObject {
+    CLOCK(8, "0.0.1.0.0.255", AxdrCodec.OCTET_STRING, 0, 255),
+    LOGICAL_DEVICE_NAME(1, "0.0.42.0.0.255", AxdrCodec.OCTET_STRING, 0, 255),
+    SERIAL_NUMBER(1, "0.0.96.1.0.255", AxdrCodec.OCTET_STRING, 0, 255),
+    DISCONNECT_CONTROL(70, "0.0.96.3.10.255", AxdrCodec.BOOLEAN, 0, 255),
+    IMAGE_TRANSFER(18, "0.0.44.0.0.255", AxdrCodec.DOUBLE_LONG_UNSIGNED, 0, 255),
+    VOLTAGE_L1(3, "1.0.32.7.0.255", AxdrCodec.LONG_UNSIGNED, -1, 35),
+    VOLTAGE_L2(3, "1.0.52.7.0.255", AxdrCodec.LONG_UNSIGNED, -1, 35),
+    VOLTAGE_L3(3, "1.0.72.7.0.255", AxdrCodec.LONG_UNSIGNED, -1, 35),
+    CURRENT_L1(3, "1.0.31.7.0.255", AxdrCodec.LONG_UNSIGNED, -2, 33),
+    CURRENT_L2(3, "1.0.51.7.0.255", AxdrCodec.LONG_UNSIGNED, -2, 33),
+    CURRENT_L3(3, "1.0.71.7.0.255", AxdrCodec.LONG_UNSIGNED, -2, 33),
+    ACTIVE_POWER_IMPORT(3, "1.0.1.7.0.255", AxdrCodec.DOUBLE_LONG_UNSIGNED, 0, 27),
+    ACTIVE_POWER_EXPORT(3, "1.0.2.7.0.255", AxdrCodec.DOUBLE_LONG_UNSIGNED, 0, 27),
+    POWER_FACTOR(3, "1.0.13.7.0.255", AxdrCodec.LONG, -3, 255),
+    FREQUENCY(3, "1.0.14.7.0.255", AxdrCodec.LONG_UNSIGNED, -2, 44),
+    ENERGY_IMPORT(3, "1.0.1.8.0.255", AxdrCodec.DOUBLE_LONG_UNSIGNED, 0, 30),
+    ENERGY_EXPORT(3, "1.0.2.8.0.255", AxdrCodec.DOUBLE_LONG_UNSIGNED, 0, 30);
+
+    private static final Map<ObisCode, EmulatedObject> BY_OBIS = new HashMap<>();
+
+    static {
+        for (EmulatedObject object : values()) {
+            BY_OBIS.put(object.obisCode, object);
+        }
+    }
+
+    private final int classId;
+    private final ObisCode obisCode;
+    private final int type;
+    private final int scaler;
+    private final int unit;
+
+    EmulatedObject(int classId, String obisCode, int type, int scaler, int unit) {
+        this.classId = classId;
+        this.obisCode = ObisCode.parse(obisCode);
+        this.type = type;
+        this.scaler = scaler;
+        this.unit = unit;
+    }
+
+    static EmulatedObject find(ObisCode obisCode) {
+        return BY_OBIS.get(obisCode);
+    }
+
+    int getClassId() {
+        return classId;
+    }
+
+    ObisCode getObisCode() {
+        return obisCode;
+    }
+
+    int getType() {
+        return type;
+    }
+
+    int getScaler() {
+        return scaler;
+    }
+
+    int getUnit() {
+        return unit;
+    }
+}
@@ -0,0 +1,255 @@
+package com.hes.collector.emulator;
+
+import com.hes.collector.dlms.AxdrCodec;
+import com.hes.collector.dlms.CosemApdu;
+import com.hes.collector.dlms.DataAccessResult;
+import com.hes.collector.dlms.DataObject;
+import com.hes.collector.dlms.HdlcFrame;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server side of one TCP connection to the emulator. The framing is detected from the first
+ * byte: an HDLC flag selects HDLC, anything else the IEC 62056-47 wrapper. The connection talks
+ * to one meter at a time, chosen by SNRM (HDLC) or by the first APDU for a new destination
+ * wPort. Not thread safe; a session is only used by the worker thread that owns its channel.
+ */
+class EmulatorSession {
+    private static final int MODE_UNKNOWN = 0;
+    private static final int MODE_HDLC = 1;
+    private static final int MODE_WRAPPER = 2;
+    private static final int WRAPPER_LENGTH = 8;
+    private static final int MAX_PDU_SIZE = 1024;
+
+    private final EmulatedFleet fleet;
+    private final int portIndex;
+    private final byte[] password;
+    private final double errorRate;
+    private final SplittableRandom random;
+    private final LongAdder requests;
+    private final LongAdder injectedErrors;
+
+    private int mode = MODE_UNKNOWN;
+    /** Bytes of an incomplete frame carried over to the next read */
+    private byte[] pending = new byte[0];
+    private int meter = -1;
+    private int wPort;
+    private boolean hdlcConnected;
+    private boolean associated;
+    private int sendSequence;
+    private int receiveSequence;
+
+    EmulatorSession(EmulatedFleet fleet, int portIndex, byte[] password, double errorRate,
+                    SplittableRandom random, LongAdder requests, LongAdder injectedErrors) {
+        this.fleet = fleet;
+        this.portIndex = portIndex;
+        this.password = password;
+        this.errorRate = errorRate;
+        this.random = random;
+        this.requests = requests;
+        this.injectedErrors = injectedErrors;
+    }
+
+    /**
+     * Consume received bytes and append one encoded response per complete request frame.
+     */
+    void receive(ByteBuffer in, List<byte[]> responses) {
+        byte[] data;
+        if (pending.length == 0) {
+            data = new byte[in.remaining()];
+            in.get(data);
+        } else {
+            data = Arrays.copyOf(pending, pending.length + in.remaining());
+            in.get(data, pending.length, data.length - pending.length);
+        }
+        if (mode == MODE_UNKNOWN && data.length > 0) {
+            mode = data[0] == HdlcFrame.FLAG ? MODE_HDLC : MODE_WRAPPER;
+        }
+        int consumed = mode == MODE_HDLC ? receiveHdlc(data, responses) : receiveWrapper(data, responses);
+        pending = consumed == data.length ? new byte[0] : Arrays.copyOfRange(data, consumed, data.length);
+    }
+
+    private int receiveHdlc(byte[] data, List<byte[]> responses) {
+        int p = 0;
+        while (true) {
+            while (p < data.length && data[p] == HdlcFrame.FLAG) {
+                p++;
+            }
+            if (p + 2 > data.length) {
+                // Keep the opening flag so the leftover still parses as a frame start
+                return Math.max(0, p - 1);
+            }
+            int length = ((data[p] & 0x07) << 8) | (data[p + 1] & 0xFF);
+            if ((data[p] & 0xF0) != 0xA0 || length < 7) {
+                p = skipToFlag(data, p + 1);
+                continue;
+            }
+            if (p + length + 1 > data.length) {
+                return Math.max(0, p - 1);
+            }
+            if (data[p + length] != HdlcFrame.FLAG) {
+                p = skipToFlag(data, p + 1);
+                continue;
+            }
+            try {
+                byte[] response = handleFrame(HdlcFrame.decode(data, p, length));
+                if (response != null) {
+                    responses.add(response);
+                }
+            } catch (IllegalArgumentException e) {
+                // Corrupted frames are discarded silently, as a meter would
+            }
+            p += length;
+        }
+    }
+
+    private static int skipToFlag(byte[] data, int from) {
+        int p = from;
+        while (p < data.length && data[p] != HdlcFrame.FLAG) {
+            p++;
+        }
+        return p;
+    }
+
+    private byte[] handleFrame(HdlcFrame frame) {
+        int target = fleet.meterIndex(portIndex, frame.getDestinationLower());
+        if (target < 0) {
+            return null;
+        }
+        byte[] client = HdlcFrame.clientAddress(frame.getSource());
+        byte[] server = HdlcFrame.serverAddress(frame.getDestinationUpper(), frame.getDestinationLower());
+        int control = frame.getControl() & 0xEF;
+        if (control == (HdlcFrame.SNRM & 0xEF)) {
+            meter = target;
+            hdlcConnected = true;
+            associated = false;
+            sendSequence = 0;
+            receiveSequence = 0;
+            return HdlcFrame.encode(client, server, HdlcFrame.UA, new byte[0]);
+        }
+        if (control == (HdlcFrame.DISC & 0xEF)) {
+            boolean wasConnected = hdlcConnected && meter == target;
+            if (wasConnected) {
+                hdlcConnected = false;
+                associated = false;
+            }
+            return HdlcFrame.encode(client, server, wasConnected ? HdlcFrame.UA : HdlcFrame.DM, new byte[0]);
+        }
+        if (!frame.isInformation()) {
+            return null;
+        }
+        if (!hdlcConnected || meter != target) {
+            return HdlcFrame.encode(client, server, HdlcFrame.DM, new byte[0]);
+        }
+        receiveSequence = (frame.getSendSequence() + 1) & 0x07;
+        byte[] apdu = handleApdu(HdlcFrame.withoutLlc(frame.getInfo()));
+        int responseControl = HdlcFrame.informationControl(receiveSequence, sendSequence);
+        sendSequence = (sendSequence + 1) & 0x07;
+        return HdlcFrame.encode(client, server, responseControl, HdlcFrame.withLlc(true, apdu));
+    }
+
+    private int receiveWrapper(byte[] data, List<byte[]> responses) {
+        int p = 0;
+        while (p + WRAPPER_LENGTH <= data.length) {
+            ByteBuffer header = ByteBuffer.wrap(data, p, WRAPPER_LENGTH);
+            int version = header.getShort() & 0xFFFF;
+            int source = header.getShort() & 0xFFFF;
+            int destination = header.getShort() & 0xFFFF;
+            int length = header.getShort() & 0xFFFF;
+            if (version != 1) {
+                // Not a wrapper stream any more; drop everything received
+                return data.length;
+            }
+            if (p + WRAPPER_LENGTH + length > data.length) {
+                break;
+            }
+            byte[] apdu = Arrays.copyOfRange(data, p + WRAPPER_LENGTH, p + WRAPPER_LENGTH + length);
+            p += WRAPPER_LENGTH + length;
+
+            int target = fleet.meterIndex(portIndex, destination);
+            if (target < 0) {
+                continue;
+            }
+            if (target != meter || destination != wPort) {
+                meter = target;
+                wPort = destination;
+                associated = false;
+            }
+            byte[] response = handleApdu(apdu);
+            ByteBuffer out = ByteBuffer.allocate(WRAPPER_LENGTH + response.length);
+            out.putShort((short) 1).putShort((short) destination).putShort((short) source)
+                .putShort((short) response.length).put(response);
+            responses.add(out.array());
+        }
+        return p;
+    }
+
+    private byte[] handleApdu(byte[] apdu) {
+        if (apdu.length == 0) {
+            return CosemApdu.exceptionResponse();
+        }
+        int tag = apdu[0] & 0xFF;
+        try {
+            switch (tag) {
+                case CosemApdu.AARQ:
+                    return associate(apdu);
+                case CosemApdu.RLRQ:
+                    associated = false;
+                    return CosemApdu.rlre();
+                case CosemApdu.GET_REQUEST:
+                case CosemApdu.SET_REQUEST:
+                case CosemApdu.ACTION_REQUEST:
+                    return associated ? access(apdu) : CosemApdu.exceptionResponse();
+                default:
+                    return CosemApdu.exceptionResponse();
+            }
+        } catch (IllegalArgumentException e) {
+            return CosemApdu.exceptionResponse();
+        }
+    }
+
+    private byte[] associate(byte[] apdu) {
+        if (password.length > 0 && !Arrays.equals(password, CosemApdu.aarqPassword(apdu))) {
+            associated = false;
+            return CosemApdu.aare(CosemApdu.REJECTED_PERMANENT, CosemApdu.AUTHENTICATION_FAILURE, MAX_PDU_SIZE);
+        }
+        associated = true;
+        return CosemApdu.aare(CosemApdu.ACCEPTED, 0, MAX_PDU_SIZE);
+    }
+
+    private byte[] access(byte[] apdu) {
+        requests.increment();
+        CosemApdu.AttributeRequest request = CosemApdu.parseAttributeRequest(apdu);
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            injectedErrors.increment();
+            DataAccessResult error = random.nextBoolean()
+                ? DataAccessResult.HARDWARE_FAULT : DataAccessResult.TEMPORARY_FAILURE;
+            if (request.isAction()) {
+                return CosemApdu.actionResponse(request.getInvokeId(), error);
+            }
+            return request.isSet()
+                ? CosemApdu.setResponse(request.getInvokeId(), error)
+                : CosemApdu.getResponse(request.getInvokeId(), error);
+        }
+        long now = System.currentTimeMillis();
+        if (!request.isSet() && !request.isAction()) {
+            return fleet.get(meter, request, now);
+        }
+        DataObject value = null;
+        try {
+            int offset = request.getDataOffset();
+            if (offset >= 0) {
+                value = AxdrCodec.decode(ByteBuffer.wrap(apdu, offset, apdu.length - offset));
+            }
+        } catch (IllegalArgumentException e) {
+            return request.isAction()
+                ? CosemApdu.actionResponse(request.getInvokeId(), DataAccessResult.TYPE_UNMATCHED)
+                : CosemApdu.setResponse(request.getInvokeId(), DataAccessResult.TYPE_UNMATCHED);
+        }
+        return request.isAction() ? fleet.action(meter, request, value, now) : fleet.set(meter, request, value, now);
+    }
+}
@@ -0,0 +1,334 @@
+package com.hes.collector.emulator;
+
+import com.hes.collector.config.MeterEmulatorConfig;
+import com.hes.collector.net.TcpAcceptor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DLMS meter emulator for load tests of the collector, serving a fleet of
+ * {@code ports * metersPerPort} meters (100k with the defaults) from a handful of threads.
+ * <p>
+ * A {@link TcpAcceptor} hands new connections round robin to {@code ioThreads} workers, each
+ * running its own selector. Responses can be delayed by a fixed latency plus jitter, dropped
+ * with {@code lossRate}, or replaced by a data access error with {@code errorRate}. Meter state
+ * lives in {@link EmulatedFleet}, so idle meters cost no connection and no objects.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "collector.emulator", name = "enabled", havingValue = "true")
+public class MeterEmulator {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final long SWEEP_INTERVAL_MS = 1000;
+
+    private final MeterEmulatorConfig config;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder droppedResponses = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final List<Worker> workers = new ArrayList<>();
+
+    private EmulatedFleet fleet;
+    private TcpAcceptor acceptor;
+
+    public MeterEmulator(MeterEmulatorConfig config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (config.getMetersPerPort() < 1 || config.getMetersPerPort() > 0x3FFF) {
+            throw new IllegalArgumentException("metersPerPort must be between 1 and 16383");
+        }
+        fleet = new EmulatedFleet(config.getPorts(), config.getMetersPerPort(), config.getSeed(),
+            config.getZone().isEmpty() ? ZoneId.systemDefault() : ZoneId.of(config.getZone()),
+            config.getImageBlockSize(), config.getMaxImageSize());
+        byte[] password = parseHex(config.getPassword());
+
+        for (int i = 0; i < Math.max(1, config.getIoThreads()); i++) {
+            workers.add(new Worker(i, password));
+        }
+        List<Integer> bindPorts = new ArrayList<>();
+        for (int i = 0; i < config.getPorts(); i++) {
+            bindPorts.add(config.getBasePort() == 0 ? 0 : config.getBasePort() + i);
+        }
+        acceptor = new TcpAcceptor("meter-emulator", workers, channel -> {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            return true;
+        });
+        acceptor.start(config.getHost(), bindPorts);
+
+        log.info("Meter emulator serving {} meters on ports {} with {} I/O threads",
+            fleet.getMeterCount(), acceptor.getPorts(), workers.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (acceptor != null) {
+            acceptor.stop();
+        }
+        log.info("Meter emulator stopped after {} requests", requests.sum());
+    }
+
+    /** Bound ports in gateway order; meter n of port i has physical address / wPort n + 1 */
+    public List<Integer> getPorts() {
+        return acceptor.getPorts();
+    }
+
+    public EmulatedFleet getFleet() {
+        return fleet;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getDroppedResponses() {
+        return droppedResponses.sum();
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    private static byte[] parseHex(String hex) {
+        if (hex == null || hex.isEmpty()) {
+            return new byte[0];
+        }
+        if (hex.length() % 2 != 0) {
+            throw new IllegalArgumentException("Emulator password must be hex");
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+
+    /** One accepted TCP connection */
+    private static final class Connection {
+        final SocketChannel channel;
+        final EmulatorSession session;
+        final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<>();
+        long lastActivity;
+
+        Connection(SocketChannel channel, EmulatorSession session, long now) {
+            this.channel = channel;
+            this.session = session;
+            this.lastActivity = now;
+        }
+    }
+
+    /** Response held back to emulate latency */
+    private static final class DelayedResponse implements Comparable<DelayedResponse> {
+        final long due;
+        final long sequence;
+        final SelectionKey key;
+        final byte[] data;
+
+        DelayedResponse(long due, long sequence, SelectionKey key, byte[] data) {
+            this.due = due;
+            this.sequence = sequence;
+            this.key = key;
+            this.data = data;
+        }
+
+        @Override
+        public int compareTo(DelayedResponse other) {
+            int byDue = Long.compare(due, other.due);
+            return byDue != 0 ? byDue : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final class Worker extends TcpAcceptor.IoWorker {
+        private final byte[] password;
+        private final SplittableRandom random;
+        private final PriorityQueue<DelayedResponse> delayed = new PriorityQueue<>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private final List<byte[]> responses = new ArrayList<>();
+        private long sequence;
+        private long lastSweep;
+
+        Worker(int index, byte[] password) throws IOException {
+            super("meter-emulator-io-" + index);
+            this.password = password;
+            this.random = new SplittableRandom(config.getSeed() * 31 + index);
+        }
+
+        @Override
+        protected void run() {
+            try {
+                while (isRunning()) {
+                    long now = System.currentTimeMillis();
+                    long timeout = SWEEP_INTERVAL_MS;
+                    if (!delayed.isEmpty()) {
+                        timeout = Math.max(1, Math.min(timeout, delayed.peek().due - now));
+                    }
+                    selector.select(timeout);
+                    now = System.currentTimeMillis();
+                    register(now);
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        handle(key, now);
+                    }
+                    flushDelayed(System.currentTimeMillis());
+                    if (now - lastSweep >= SWEEP_INTERVAL_MS) {
+                        sweep(now);
+                        lastSweep = now;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (isRunning()) {
+                    log.error("Meter emulator worker failed: {}", e.getMessage(), e);
+                }
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    close(key);
+                }
+                TcpAcceptor.closeQuietly(selector);
+            }
+        }
+
+        private void register(long now) {
+            TcpAcceptor.Accepted accepted;
+            while ((accepted = nextAccepted()) != null) {
+                SocketChannel channel = accepted.getChannel();
+                EmulatorSession session = new EmulatorSession(fleet, accepted.getPortIndex(), password,
+                    config.getErrorRate(), random, requests, injectedErrors);
+                try {
+                    channel.register(selector, SelectionKey.OP_READ, new Connection(channel, session, now));
+                    activeConnections.incrementAndGet();
+                } catch (IOException e) {
+                    TcpAcceptor.closeQuietly(channel);
+                }
+            }
+        }
+
+        private void handle(SelectionKey key, long now) {
+            if (!key.isValid()) {
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    readBuffer.clear();
+                    int read = connection.channel.read(readBuffer);
+                    if (read < 0) {
+                        close(key);
+                        return;
+                    }
+                    connection.lastActivity = now;
+                    readBuffer.flip();
+                    responses.clear();
+                    connection.session.receive(readBuffer, responses);
+                    for (byte[] response : responses) {
+                        respond(key, response, now);
+                    }
+                }
+                if (key.isValid() && key.isWritable()) {
+                    write(key);
+                }
+            } catch (IOException e) {
+                close(key);
+            }
+        }
+
+        private void respond(SelectionKey key, byte[] response, long now) throws IOException {
+            if (config.getLossRate() > 0 && random.nextDouble() < config.getLossRate()) {
+                droppedResponses.increment();
+                return;
+            }
+            long delay = config.getLatencyMs();
+            if (config.getLatencyJitterMs() > 0) {
+                delay += random.nextInt(config.getLatencyJitterMs() + 1);
+            }
+            if (delay > 0) {
+                delayed.add(new DelayedResponse(now + delay, sequence++, key, response));
+            } else {
+                enqueue(key, response);
+            }
+        }
+
+        private void flushDelayed(long now) {
+            while (!delayed.isEmpty() && delayed.peek().due <= now) {
+                DelayedResponse response = delayed.poll();
+                if (!response.key.isValid()) {
+                    continue;
+                }
+                try {
+                    enqueue(response.key, response.data);
+                } catch (IOException e) {
+                    close(response.key);
+                }
+            }
+        }
+
+        private void enqueue(SelectionKey key, byte[] data) throws IOException {
+            Connection connection = (Connection) key.attachment();
+            connection.outbound.add(ByteBuffer.wrap(data));
+            write(key);
+        }
+
+        private void write(SelectionKey key) throws IOException {
+            Connection connection = (Connection) key.attachment();
+            while (!connection.outbound.isEmpty()) {
+                ByteBuffer buffer = connection.outbound.peek();
+                connection.channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                connection.outbound.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        private void sweep(long now) {
+            int timeout = config.getInactivityTimeoutMs();
+            if (timeout <= 0) {
+                return;
+            }
+            for (SelectionKey key : new ArrayList<>(selector.keys())) {
+                Connection connection = (Connection) key.attachment();
+                if (connection != null && now - connection.lastActivity > timeout) {
+                    close(key);
+                }
+            }
+        }
+
+        private void close(SelectionKey key) {
+            if (key.attachment() == null) {
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            key.attach(null);
+            key.cancel();
+            TcpAcceptor.closeQuietly(connection.channel);
+            activeConnections.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.hes.collector.firmware;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Firmware image file mapped read-only into memory. One mapping serves every transfer of the
+ * image: blocks are copied out of independent views of the buffer, so any number of transfers
+ * read it in parallel and the OS page cache holds the file once.
+ */
+public final class FirmwareImage {
+    private final Path path;
+    private final String identifier;
+    private final MappedByteBuffer buffer;
+    private final int size;
+    private final long lastModified;
+    private final String sha256;
+
+    private FirmwareImage(Path path, String identifier, MappedByteBuffer buffer, long lastModified) {
+        this.path = path;
+        this.identifier = identifier;
+        this.buffer = buffer;
+        this.size = buffer.capacity();
+        this.lastModified = lastModified;
+        this.sha256 = digest(buffer);
+    }
+
+    /**
+     * Map an image file.
+     *
+     * @param identifier image_identifier sent to the meters with image_transfer_initiate
+     */
+    public static FirmwareImage open(Path path, String identifier) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || size > Integer.MAX_VALUE) {
+                throw new IOException("Firmware image " + path + " has an unsupported size of " + size + " bytes");
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new FirmwareImage(path, identifier, buffer, Files.getLastModifiedTime(path).toMillis());
+        }
+    }
+
+    public int blockCount(int blockSize) {
+        return (size + blockSize - 1) / blockSize;
+    }
+
+    /**
+     * Copy a block into {@code into}; the last block may be shorter than the block size.
+     *
+     * @return length of the block
+     */
+    public int block(int number, int blockSize, byte[] into) {
+        int offset = number * blockSize;
+        int length = Math.min(blockSize, size - offset);
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.get(into, 0, length);
+        return length;
+    }
+
+    /** Whether the file changed since it was mapped */
+    boolean isStale() throws IOException {
+        return !Files.exists(path) || Files.size(path) != size
+            || Files.getLastModifiedTime(path).toMillis() != lastModified;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    private static String digest(MappedByteBuffer buffer) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(buffer.duplicate());
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.hes.collector.firmware;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Firmware upgrade of a set of meters with one image. The per-meter transfers are listed
+ * separately through {@link #transfers()} to keep the job summary small.
+ */
+@Data
+public class FirmwareJob {
+    public enum Status { RUNNING, COMPLETED, COMPLETED_WITH_FAILURES, CANCELLED, FAILED }
+
+    private final UUID jobId = UUID.randomUUID();
+    private String imageIdentifier;
+    private String imageFile;
+    private int imageSize;
+    private String sha256;
+    /** Activate the image after verification */
+    private boolean activate;
+    private Status status = Status.RUNNING;
+    private Instant startedAt = Instant.now();
+    private Instant completedAt;
+    private long elapsedMs;
+    private String error;
+    private volatile boolean cancelRequested;
+    @Getter(AccessLevel.NONE)
+    private final List<FirmwareTransfer> transfers = Collections.synchronizedList(new ArrayList<>());
+
+    public List<FirmwareTransfer> transfers() {
+        synchronized (transfers) {
+            return new ArrayList<>(transfers);
+        }
+    }
+
+    void add(FirmwareTransfer transfer) {
+        transfers.add(transfer);
+    }
+
+    public int getMeters() {
+        return transfers.size();
+    }
+
+    public long getCompleted() {
+        return count(FirmwareTransfer.State.COMPLETED);
+    }
+
+    public long getFailed() {
+        return count(FirmwareTransfer.State.FAILED);
+    }
+
+    public long getResumed() {
+        return transfers().stream().filter(FirmwareTransfer::isResumed).count();
+    }
+
+    public long getBlocksSent() {
+        return transfers().stream().mapToLong(FirmwareTransfer::getBlocksSent).sum();
+    }
+
+    public boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+
+    private long count(FirmwareTransfer.State state) {
+        return transfers().stream().filter(t -> t.getState() == state).count();
+    }
+}
@@ -0,0 +1,134 @@
+package com.hes.collector.firmware;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Image transfer to one meter. Progress is kept per confirmed block, so a transfer broken off by
+ * a failed session continues with the next unconfirmed block rather than from the start.
+ * Written by one lane worker at a time and read by the API.
+ */
+@Getter
+public class FirmwareTransfer {
+    public enum State { PENDING, TRANSFERRING, VERIFYING, ACTIVATING, COMPLETED, FAILED, CANCELLED }
+
+    private final String serialNumber;
+    private final String ipAddress;
+    private final int port;
+    private volatile State state = State.PENDING;
+    private volatile int blockSize;
+    private volatile int blockCount;
+    /** First block not confirmed by the meter */
+    private volatile int nextBlock;
+    /** Block transfers the meter acknowledged, retransmissions included */
+    private volatile long blocksSent;
+    /** Blocks sent again because the meter's bitmap reported them missing */
+    private volatile long retransmitted;
+    private volatile int sessions;
+    /** Failed sessions since the last confirmed block or successful session */
+    private volatile int consecutiveFailures;
+    private volatile int missingRounds;
+    /** Continued from a checkpoint of an earlier job */
+    private volatile boolean resumed;
+    private volatile String error;
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
+
+    /** Whether the meter was initiated with this image */
+    @Getter(AccessLevel.NONE)
+    volatile boolean initiated;
+    /** Whether the block size was read from the meter in this job */
+    @Getter(AccessLevel.NONE)
+    volatile boolean negotiated;
+    /** Blocks the meter reported missing in the current round, and the next of them to send */
+    @Getter(AccessLevel.NONE)
+    volatile int[] resendBlocks;
+    @Getter(AccessLevel.NONE)
+    volatile int resendIndex;
+    /** Waiting for the meter to verify or activate; the next session only polls its status */
+    @Getter(AccessLevel.NONE)
+    volatile boolean polling;
+    /** When verification or activation times out, 0 before the first poll */
+    @Getter(AccessLevel.NONE)
+    volatile long pollDeadline;
+
+    FirmwareTransfer(String serialNumber, String ipAddress, int port) {
+        this.serialNumber = serialNumber;
+        this.ipAddress = ipAddress;
+        this.port = port;
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED || state == State.CANCELLED;
+    }
+
+    /** Continue from a checkpoint: the meter confirmed the blocks before {@code nextBlock} */
+    void resume(int blockSize, int blockCount, int nextBlock) {
+        this.blockSize = blockSize;
+        this.blockCount = blockCount;
+        this.nextBlock = nextBlock;
+        this.initiated = true;
+        this.resumed = true;
+    }
+
+    /** Start again from block 0 with the given block size */
+    void restart(int blockSize, int blockCount) {
+        this.blockSize = blockSize;
+        this.blockCount = blockCount;
+        this.nextBlock = 0;
+        this.missingRounds = 0;
+        this.resendBlocks = null;
+        this.initiated = false;
+    }
+
+    void setState(State state) {
+        if (state != this.state) {
+            pollDeadline = 0;
+        }
+        this.state = state;
+        if (state == State.TRANSFERRING && startedAt == null) {
+            startedAt = Instant.now();
+        } else if (isFinished()) {
+            completedAt = Instant.now();
+        }
+    }
+
+    void blockConfirmed(int number, boolean retransmission) {
+        if (number == nextBlock) {
+            nextBlock = number + 1;
+        }
+        blocksSent++;
+        consecutiveFailures = 0;
+        if (retransmission) {
+            retransmitted++;
+        }
+    }
+
+    /** Start a round of sending again the blocks the meter reported missing */
+    void missingRound(int[] blocks) {
+        missingRounds++;
+        resendBlocks = blocks;
+        resendIndex = 0;
+    }
+
+    void sessionStarted() {
+        sessions++;
+    }
+
+    void sessionSucceeded() {
+        consecutiveFailures = 0;
+        error = null;
+    }
+
+    void sessionFailed(String error) {
+        consecutiveFailures++;
+        this.error = error;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        setState(State.FAILED);
+    }
+}
@@ -0,0 +1,602 @@
+package com.hes.collector.firmware;
+
+import com.hes.collector.config.FirmwareUpgradeConfig;
+import com.hes.collector.dlms.DlmsProtocol;
+import com.hes.collector.model.Meter;
+import com.hes.collector.model.MeterTransaction;
+import com.hes.collector.scheduling.CommandLane;
+import com.hes.collector.service.MeterCommunicationService;
+import com.hes.collector.service.MeterService;
+import com.hes.common.entity.MeterGroup;
+import com.hes.common.repository.MeterGroupRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Transfers firmware images to meters through their Image Transfer object (class 18) and
+ * optionally activates them. One memory-mapped copy of the image feeds every meter of a job, and
+ * up to {@code maxParallelTransfers} meters receive blocks at the same time.
+ * <p>
+ * A transfer is a series of short sessions on the firmware lane, each sending at most
+ * {@code blocksPerSession} blocks, so firmware never holds lane workers or meter associations
+ * for long and reads keep flowing. The block size is the meter's image_block_size, checked
+ * against the PDU size negotiated in the association. After every session the first unconfirmed
+ * block is checkpointed in {@code firmware_transfers}; a failed session, and a later job with
+ * the same image, continue from there. Before verification the meter's transferred blocks
+ * bitmap is read and missing blocks are sent again, also at most {@code blocksPerSession} per
+ * session. While the meter verifies or activates the image, every status poll is a session of its
+ * own, {@code verifyPollMs} after the previous one.
+ */
+@Slf4j
+@Service
+public class FirmwareUpgradeService {
+    private static final String CHECKPOINT_SQL = "INSERT INTO firmware_transfers (meter_serial_number, " +
+        "image_identifier, image_size, block_size, next_block, state, job_id, error, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (meter_serial_number, image_identifier) DO UPDATE SET " +
+        "image_size = EXCLUDED.image_size, block_size = EXCLUDED.block_size, next_block = EXCLUDED.next_block, " +
+        "state = EXCLUDED.state, job_id = EXCLUDED.job_id, error = EXCLUDED.error, updated_at = EXCLUDED.updated_at";
+    private static final String CHECKPOINTS_SQL = "SELECT meter_serial_number, image_size, block_size, next_block " +
+        "FROM firmware_transfers WHERE image_identifier = ? AND state <> 'COMPLETED' AND next_block > 0";
+
+    private final FirmwareUpgradeConfig config;
+    private final MeterCommunicationService communicationService;
+    private final MeterService meterService;
+    private final MeterGroupRepository groupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry registry;
+    private final Map<Path, FirmwareImage> images = new HashMap<>();
+    private final Map<UUID, FirmwareJob> jobs = new LinkedHashMap<>();
+    private final Set<String> activeMeters = ConcurrentHashMap.newKeySet();
+
+    public FirmwareUpgradeService(FirmwareUpgradeConfig config, MeterCommunicationService communicationService,
+                                  MeterService meterService, MeterGroupRepository groupRepository,
+                                  JdbcTemplate jdbcTemplate, MeterRegistry registry) {
+        this.config = config;
+        this.communicationService = communicationService;
+        this.meterService = meterService;
+        this.groupRepository = groupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.registry = registry;
+    }
+
+    /**
+     * Start transferring an image to the given meters, or to every meter of a group, in the
+     * background.
+     *
+     * @param imageFile file name relative to the image directory
+     * @param imageIdentifier image_identifier for the meters; the file name when null
+     * @param serialNumbers meters to upgrade, or null to use the group
+     * @param group group id or name
+     * @param activate activate the image after verification; the configured default when null
+     * @throws IllegalArgumentException when the image, a meter or the group does not exist
+     * @throws IllegalStateException when one of the meters is already receiving an image
+     * @throws IOException when the image cannot be read
+     */
+    public FirmwareJob start(String imageFile, String imageIdentifier, List<String> serialNumbers, String group,
+                             Boolean activate) throws IOException {
+        FirmwareImage image = image(imageFile, imageIdentifier);
+        List<Meter> meters = resolveMeters(serialNumbers, group);
+        List<String> reserved = new ArrayList<>(meters.size());
+        for (Meter meter : meters) {
+            if (!activeMeters.add(meter.getSerialNumber())) {
+                activeMeters.removeAll(reserved);
+                throw new IllegalStateException("Meter " + meter.getSerialNumber() + " is already receiving firmware");
+            }
+            reserved.add(meter.getSerialNumber());
+        }
+        FirmwareJob job = newJob(image, activate != null ? activate : config.isActivate());
+        CompletableFuture.runAsync(() -> {
+            try {
+                run(job, image, meters);
+            } catch (RuntimeException e) {
+                log.error("Firmware job {} failed: {}", job.getJobId(), e.getMessage(), e);
+                job.setError(e.getMessage());
+                job.setCompletedAt(Instant.now());
+                job.setStatus(FirmwareJob.Status.FAILED);
+            } finally {
+                activeMeters.removeAll(reserved);
+            }
+        });
+        return job;
+    }
+
+    public FirmwareJob getJob(UUID jobId) {
+        synchronized (jobs) {
+            return jobs.get(jobId);
+        }
+    }
+
+    /** Running and recent jobs, oldest first */
+    public List<FirmwareJob> getJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    /**
+     * Stop a running job after the current session of each meter; the checkpoints let a later
+     * job continue the transfers.
+     *
+     * @return false when the job is unknown or already finished
+     */
+    public boolean cancel(UUID jobId) {
+        FirmwareJob job = getJob(jobId);
+        if (job == null || job.isFinished()) {
+            return false;
+        }
+        job.setCancelRequested(true);
+        return true;
+    }
+
+    /**
+     * Mapped image for a file of the image directory, mapped again when the file changed. Jobs
+     * already running keep their mapping, so a new image should get a new file name.
+     */
+    FirmwareImage image(String imageFile, String imageIdentifier) throws IOException {
+        Path directory = Paths.get(config.getImageDirectory()).toAbsolutePath().normalize();
+        Path path = directory.resolve(imageFile).normalize();
+        if (!path.startsWith(directory) || path.equals(directory)) {
+            throw new IllegalArgumentException("Image file must be inside " + directory + ": " + imageFile);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("Image file not found: " + imageFile);
+        }
+        String identifier = imageIdentifier == null || imageIdentifier.trim().isEmpty()
+            ? path.getFileName().toString() : imageIdentifier.trim();
+        synchronized (images) {
+            FirmwareImage image = images.get(path);
+            if (image == null || image.isStale() || !image.getIdentifier().equals(identifier)) {
+                image = FirmwareImage.open(path, identifier);
+                images.put(path, image);
+                log.info("Mapped firmware image {} ({} bytes, sha256 {})", path, image.getSize(), image.getSha256());
+            }
+            return image;
+        }
+    }
+
+    FirmwareJob newJob(FirmwareImage image, boolean activate) {
+        FirmwareJob job = new FirmwareJob();
+        job.setImageIdentifier(image.getIdentifier());
+        job.setImageFile(image.getPath().getFileName().toString());
+        job.setImageSize(image.getSize());
+        job.setSha256(image.getSha256());
+        job.setActivate(activate);
+        synchronized (jobs) {
+            jobs.put(job.getJobId(), job);
+            // Evict the oldest finished jobs beyond the history size
+            Iterator<FirmwareJob> oldest = jobs.values().iterator();
+            while (jobs.size() > config.getJobHistory() && oldest.hasNext()) {
+                if (oldest.next().isFinished()) {
+                    oldest.remove();
+                }
+            }
+        }
+        return job;
+    }
+
+    /**
+     * Transfer the image to the given meters, at most {@code maxParallelTransfers} at a time, and
+     * wait for all of them.
+     */
+    FirmwareJob run(FirmwareJob job, FirmwareImage image, List<Meter> meters) {
+        long started = System.nanoTime();
+        Map<String, Map<String, Object>> checkpoints = checkpoints(image);
+        for (Meter meter : meters) {
+            FirmwareTransfer transfer = new FirmwareTransfer(meter.getSerialNumber(), meter.getIpAddress(),
+                meter.getPort());
+            Map<String, Object> checkpoint = checkpoints.get(meter.getSerialNumber());
+            if (checkpoint != null) {
+                int blockSize = ((Number) checkpoint.get("block_size")).intValue();
+                int nextBlock = ((Number) checkpoint.get("next_block")).intValue();
+                if (blockSize > 0 && nextBlock <= image.blockCount(blockSize)) {
+                    transfer.resume(blockSize, image.blockCount(blockSize), nextBlock);
+                }
+            }
+            job.add(transfer);
+        }
+        log.info("Firmware job {}: image {} ({} bytes) to {} meters, {} continuing from a checkpoint",
+            job.getJobId(), image.getIdentifier(), image.getSize(), meters.size(), job.getResumed());
+
+        Semaphore window = new Semaphore(Math.max(1, config.getMaxParallelTransfers()));
+        List<CompletableFuture<Void>> transfers = new ArrayList<>(meters.size());
+        for (FirmwareTransfer transfer : job.transfers()) {
+            try {
+                window.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                job.setError("Interrupted");
+                job.setCancelRequested(true);
+                break;
+            }
+            transfers.add(drive(job, image, transfer).whenComplete((v, e) -> window.release()));
+        }
+        CompletableFuture.allOf(transfers.toArray(new CompletableFuture[0])).join();
+        for (FirmwareTransfer transfer : job.transfers()) {
+            if (transfer.getState() == FirmwareTransfer.State.PENDING) {
+                transfer.setState(FirmwareTransfer.State.CANCELLED);
+            }
+        }
+
+        job.setElapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        job.setCompletedAt(Instant.now());
+        if (job.isCancelRequested()) {
+            job.setStatus(FirmwareJob.Status.CANCELLED);
+        } else {
+            job.setStatus(job.getFailed() == 0 ? FirmwareJob.Status.COMPLETED : FirmwareJob.Status.COMPLETED_WITH_FAILURES);
+        }
+        log.info("Firmware job {} {}: {} of {} meters done, {} failed, {} blocks sent in {} ms", job.getJobId(),
+            job.getStatus(), job.getCompleted(), job.getMeters(), job.getFailed(), job.getBlocksSent(),
+            job.getElapsedMs());
+        return job;
+    }
+
+    /**
+     * Run sessions on one meter until its transfer is finished. Each session is queued on the
+     * firmware lane behind the work already there; after a failed one the next waits
+     * {@code retryDelayMs}.
+     */
+    private CompletableFuture<Void> drive(FirmwareJob job, FirmwareImage image, FirmwareTransfer transfer) {
+        if (job.isCancelRequested()) {
+            transfer.setState(FirmwareTransfer.State.CANCELLED);
+            checkpoint(job, image, transfer);
+            return CompletableFuture.completedFuture(null);
+        }
+        return communicationService.communicate(CommandLane.FIRMWARE, transfer.getSerialNumber(),
+                transfer.getIpAddress(), transfer.getPort(), protocol -> session(protocol, job, image, transfer))
+            .handle((result, e) -> {
+                if (e != null) {
+                    return e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                }
+                return result.isSuccess() ? null : String.valueOf(result.getError());
+            })
+            .thenCompose(error -> {
+                if (transfer.isFinished()) {
+                    // Completed, or refused for good by the meter
+                } else if (error == null) {
+                    transfer.sessionSucceeded();
+                } else {
+                    transfer.sessionFailed(error);
+                    log.debug("Firmware session {} on meter {} failed: {}", transfer.getSessions(),
+                        transfer.getSerialNumber(), error);
+                    if (transfer.getConsecutiveFailures() >= config.getMaxSessionFailures()) {
+                        transfer.fail("Gave up after " + transfer.getConsecutiveFailures() +
+                            " failed sessions: " + error);
+                    }
+                }
+                checkpoint(job, image, transfer);
+                if (transfer.isFinished()) {
+                    finished(job, transfer);
+                    return CompletableFuture.<Void>completedFuture(null);
+                }
+                if (error == null && !transfer.polling) {
+                    return drive(job, image, transfer);
+                }
+                long delayMs = error == null ? config.getVerifyPollMs() : config.getRetryDelayMs();
+                return CompletableFuture.supplyAsync(() -> drive(job, image, transfer),
+                        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS))
+                    .thenCompose(next -> next);
+            });
+    }
+
+    /**
+     * One association with a meter: negotiate the block size on first contact, (re)initiate the
+     * transfer when the meter has none in progress, send the next blocks and, once all are sent,
+     * fill the gaps, then start verification and activation and poll them once per session.
+     */
+    private MeterTransaction.Result session(DlmsProtocol protocol, FirmwareJob job, FirmwareImage image,
+                                            FirmwareTransfer transfer) {
+        transfer.sessionStarted();
+        transfer.polling = false;
+        MeterTransaction.Result result = new MeterTransaction.Result();
+        ImageTransferClient client = new ImageTransferClient(protocol);
+        try {
+            if (!transfer.negotiated) {
+                negotiate(protocol, client, image, transfer);
+            }
+            int status = client.status();
+            if (!transfer.initiated || status == ImageTransferClient.NOT_INITIATED) {
+                if (transfer.initiated) {
+                    log.warn("Meter {} has no transfer of image {} in progress, starting again from block 0",
+                        transfer.getSerialNumber(), image.getIdentifier());
+                }
+                transfer.restart(transfer.getBlockSize(), transfer.getBlockCount());
+                client.initiate(image.getIdentifier(), image.getSize());
+                transfer.initiated = true;
+                transfer.setState(FirmwareTransfer.State.TRANSFERRING);
+            } else if (status == ImageTransferClient.VERIFICATION_FAILED) {
+                throw new TransferRefused("Meter failed to verify the image");
+            } else if (transfer.getState() == FirmwareTransfer.State.PENDING) {
+                transfer.setState(FirmwareTransfer.State.TRANSFERRING);
+            }
+
+            if (transfer.getState() == FirmwareTransfer.State.TRANSFERRING) {
+                int limit = Math.max(1, config.getBlocksPerSession());
+                int sent = sendBlocks(job, client, image, transfer, limit);
+                if (transfer.getNextBlock() < transfer.getBlockCount()
+                    || !sendMissing(job, client, image, transfer, limit - sent)) {
+                    result.setSuccess(true);
+                    return result;
+                }
+                transfer.setState(FirmwareTransfer.State.VERIFYING);
+                // Read before the blocks went in, when the meter may not have been initiated yet
+                status = ImageTransferClient.INITIATED;
+            }
+            if (transfer.getState() == FirmwareTransfer.State.VERIFYING) {
+                if (!poll(client, transfer, status, false)) {
+                    result.setSuccess(true);
+                    return result;
+                }
+                if (job.isActivate()) {
+                    transfer.setState(FirmwareTransfer.State.ACTIVATING);
+                    status = client.status();
+                } else {
+                    transfer.setState(FirmwareTransfer.State.COMPLETED);
+                }
+            }
+            if (transfer.getState() == FirmwareTransfer.State.ACTIVATING) {
+                if (!poll(client, transfer, status, true)) {
+                    result.setSuccess(true);
+                    return result;
+                }
+                transfer.setState(FirmwareTransfer.State.COMPLETED);
+            }
+            result.setSuccess(true);
+        } catch (TransferRefused e) {
+            log.error("Firmware transfer of image {} to meter {} failed: {}", image.getIdentifier(),
+                transfer.getSerialNumber(), e.getMessage());
+            // The meter has to start over, so the checkpoint must not resume it
+            transfer.restart(transfer.getBlockSize(), transfer.getBlockCount());
+            transfer.fail(e.getMessage());
+            result.setSuccess(false);
+            result.setError(e.getMessage());
+        } catch (IOException e) {
+            result.setSuccess(false);
+            result.setError(e.getMessage());
+        }
+        return result;
+    }
+
+    /** Take the meter's image_block_size, which has to fit an ACTION-Request within the negotiated PDU */
+    private void negotiate(DlmsProtocol protocol, ImageTransferClient client, FirmwareImage image,
+                           FirmwareTransfer transfer) throws IOException {
+        long blockSize = client.blockSize();
+        int pduSize = protocol.getNegotiatedPduSize();
+        if (blockSize <= 0 || blockSize + ImageTransferClient.BLOCK_OVERHEAD > pduSize) {
+            throw new TransferRefused("image_block_size of " + blockSize + " bytes does not fit the negotiated " +
+                "PDU size of " + pduSize + " bytes");
+        }
+        int size = (int) blockSize;
+        if (!transfer.initiated || size != transfer.getBlockSize()) {
+            if (transfer.initiated) {
+                log.info("Meter {} now uses {} byte blocks instead of {}, starting image {} again",
+                    transfer.getSerialNumber(), size, transfer.getBlockSize(), image.getIdentifier());
+            }
+            transfer.restart(size, image.blockCount(size));
+        }
+        transfer.negotiated = true;
+    }
+
+    /**
+     * Send blocks in order from the first unconfirmed one, at most {@code limit}.
+     *
+     * @return the number of blocks sent
+     */
+    private int sendBlocks(FirmwareJob job, ImageTransferClient client, FirmwareImage image,
+                           FirmwareTransfer transfer, int limit) throws IOException {
+        byte[] block = new byte[transfer.getBlockSize()];
+        int sent = 0;
+        for (; sent < limit && transfer.getNextBlock() < transfer.getBlockCount() && !job.isCancelRequested(); sent++) {
+            int number = transfer.getNextBlock();
+            int length = image.block(number, transfer.getBlockSize(), block);
+            client.transferBlock(number, block, length);
+            transfer.blockConfirmed(number, false);
+        }
+        return sent;
+    }
+
+    /**
+     * Resend the blocks the meter reports missing until there are none, at most {@code limit} in
+     * this session and for at most {@code missingBlockRounds} rounds per transfer. A round that
+     * does not fit the session is finished by the next ones before the meter is asked again.
+     *
+     * @return true when the meter has every block
+     */
+    private boolean sendMissing(FirmwareJob job, ImageTransferClient client, FirmwareImage image,
+                                FirmwareTransfer transfer, int limit) throws IOException {
+        byte[] block = new byte[transfer.getBlockSize()];
+        int sent = 0;
+        while (true) {
+            int[] round = transfer.resendBlocks;
+            if (round == null || transfer.resendIndex >= round.length) {
+                int[] missing = missingBlocks(client, transfer);
+                if (missing.length == 0) {
+                    transfer.resendBlocks = null;
+                    return true;
+                }
+                if (transfer.getMissingRounds() >= config.getMissingBlockRounds()) {
+                    throw new TransferRefused(missing.length + " blocks still missing after " +
+                        transfer.getMissingRounds() + " rounds, first is " + missing[0]);
+                }
+                transfer.missingRound(missing);
+                log.info("Meter {} is missing {} blocks of image {}, sending them again", transfer.getSerialNumber(),
+                    missing.length, image.getIdentifier());
+                round = missing;
+            }
+            for (; transfer.resendIndex < round.length; transfer.resendIndex++, sent++) {
+                if (sent >= limit || job.isCancelRequested()) {
+                    return false;
+                }
+                int number = round[transfer.resendIndex];
+                int length = image.block(number, transfer.getBlockSize(), block);
+                client.transferBlock(number, block, length);
+                transfer.blockConfirmed(number, true);
+            }
+        }
+    }
+
+    /** Missing blocks from the bitmap, or every block from the first not transferred one */
+    private static int[] missingBlocks(ImageTransferClient client, FirmwareTransfer transfer) throws IOException {
+        try {
+            return client.missingBlocks(transfer.getBlockCount());
+        } catch (IOException e) {
+            log.debug("Meter {} gave no transferred blocks bitmap, using the first missing block: {}",
+                transfer.getSerialNumber(), e.getMessage());
+        }
+        long first = client.firstNotTransferredBlock();
+        return first >= transfer.getBlockCount() ? new int[0]
+            : IntStream.range((int) first, transfer.getBlockCount()).toArray();
+    }
+
+    /**
+     * One poll of verification or activation, given the image_transfer_status just read: start
+     * it when the meter is idle, and otherwise leave the meter to work until the next session. A
+     * meter that refuses because it is busy is asked again on the next poll.
+     *
+     * @return true when the meter reports success
+     */
+    private boolean poll(ImageTransferClient client, FirmwareTransfer transfer, int status, boolean activation)
+            throws IOException {
+        int target = activation ? ImageTransferClient.ACTIVATION_SUCCESSFUL : ImageTransferClient.VERIFICATION_SUCCESSFUL;
+        int idle = activation ? ImageTransferClient.VERIFICATION_SUCCESSFUL : ImageTransferClient.INITIATED;
+        if (status == target || status == ImageTransferClient.ACTIVATION_SUCCESSFUL) {
+            return true;
+        }
+        if (status == ImageTransferClient.VERIFICATION_FAILED) {
+            throw new TransferRefused("Meter failed to verify the image");
+        }
+        if (status == ImageTransferClient.NOT_INITIATED) {
+            throw new IOException("Meter dropped the image before " + (activation ? "activation" : "verification"));
+        }
+        long now = System.currentTimeMillis();
+        if (transfer.pollDeadline == 0) {
+            transfer.pollDeadline = now + config.getVerifyTimeoutMs();
+        } else if (now >= transfer.pollDeadline) {
+            // The next session waits the full timeout again
+            transfer.pollDeadline = 0;
+            throw new IOException((activation ? "Activation" : "Verification") + " did not finish within " +
+                config.getVerifyTimeoutMs() + " ms");
+        }
+        if (status == idle && (activation ? client.activate() : client.verify())) {
+            // A meter that finishes at once needs no further session
+            int started = client.status();
+            if (started == target || started == ImageTransferClient.ACTIVATION_SUCCESSFUL) {
+                return true;
+            }
+        }
+        transfer.polling = true;
+        return false;
+    }
+
+    /** Save the progress of a transfer so a later session or job continues from it */
+    private void checkpoint(FirmwareJob job, FirmwareImage image, FirmwareTransfer transfer) {
+        if (transfer.getBlockSize() == 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(CHECKPOINT_SQL, transfer.getSerialNumber(), image.getIdentifier(),
+                (long) image.getSize(), transfer.getBlockSize(), transfer.getNextBlock(), transfer.getState().name(),
+                job.getJobId(), transfer.getError(), Timestamp.from(Instant.now()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to checkpoint the firmware transfer to meter {}: {}", transfer.getSerialNumber(),
+                e.getMessage());
+        }
+    }
+
+    /** Unfinished transfers of the image by meter serial number */
+    private Map<String, Map<String, Object>> checkpoints(FirmwareImage image) {
+        Map<String, Map<String, Object>> checkpoints = new HashMap<>();
+        try {
+            for (Map<String, Object> row : jdbcTemplate.queryForList(CHECKPOINTS_SQL, image.getIdentifier())) {
+                if (((Number) row.get("image_size")).longValue() == image.getSize()) {
+                    checkpoints.put((String) row.get("meter_serial_number"), row);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to load firmware transfer checkpoints of image {}, starting all meters from block 0: {}",
+                image.getIdentifier(), e.getMessage());
+        }
+        return checkpoints;
+    }
+
+    private void finished(FirmwareJob job, FirmwareTransfer transfer) {
+        log.info("Firmware transfer of image {} to meter {} {}: {} blocks in {} sessions{}", job.getImageIdentifier(),
+            transfer.getSerialNumber(), transfer.getState(), transfer.getBlocksSent(), transfer.getSessions(),
+            transfer.getError() != null ? ", " + transfer.getError() : "");
+        if (transfer.getStartedAt() != null && transfer.getCompletedAt() != null) {
+            Timer.builder("collector.firmware.transfer")
+                .description("Time to transfer a firmware image to one meter")
+                .tag("outcome", transfer.getState().name().toLowerCase())
+                .register(registry)
+                .record(Duration.between(transfer.getStartedAt(), transfer.getCompletedAt()));
+        }
+    }
+
+    private List<Meter> resolveMeters(List<String> serialNumbers, String group) {
+        List<Meter> meters;
+        if (serialNumbers != null && !serialNumbers.isEmpty()) {
+            meters = new ArrayList<>(serialNumbers.size());
+            for (String serialNumber : serialNumbers.stream().distinct().collect(Collectors.toList())) {
+                try {
+                    meters.add(meterService.getMeterBySerialNumber(serialNumber));
+                } catch (EmptyResultDataAccessException e) {
+                    throw new IllegalArgumentException("Meter not found: " + serialNumber);
+                }
+            }
+        } else if (group != null && !group.trim().isEmpty()) {
+            MeterGroup meterGroup = resolveGroup(group.trim())
+                .orElseThrow(() -> new IllegalArgumentException("Meter group not found: " + group));
+            meters = meterService.getMetersByGroup(meterGroup.getId());
+        } else {
+            throw new IllegalArgumentException("Meters or a group are required");
+        }
+        meters = meters.stream()
+            .filter(m -> m.getIpAddress() != null && m.getPort() != null)
+            .collect(Collectors.toList());
+        if (meters.isEmpty()) {
+            throw new IllegalArgumentException("No meters with an address to upgrade");
+        }
+        return meters;
+    }
+
+    private Optional<MeterGroup> resolveGroup(String group) {
+        try {
+            return groupRepository.findById(UUID.fromString(group));
+        } catch (IllegalArgumentException e) {
+            return groupRepository.findByName(group);
+        }
+    }
+
+    /** The meter refused the transfer in a way another session would not fix */
+    private static final class TransferRefused extends IOException {
+        TransferRefused(String message) {
+            super(message);
+        }
+    }
+}
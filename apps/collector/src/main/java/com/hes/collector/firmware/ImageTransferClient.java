@@ -0,0 +1,130 @@
+package com.hes.collector.firmware;
+
+import com.hes.collector.dlms.CosemObject;
+import com.hes.collector.dlms.DataObject;
+import com.hes.collector.dlms.DlmsProtocol;
+import com.hes.collector.dlms.ObisCode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Image Transfer (class 18, 0.0.44.0.0.255) over an associated meter: attribute reads and the
+ * initiate, block transfer, verify and activate methods. Failures are thrown as IOException
+ * with the meter's answer.
+ */
+class ImageTransferClient {
+    static final ObisCode OBIS = ObisCode.parse("0.0.44.0.0.255");
+    static final int BLOCK_SIZE = 2;
+    static final int TRANSFERRED_BLOCKS = 3;
+    static final int FIRST_NOT_TRANSFERRED = 4;
+    static final int TRANSFER_STATUS = 6;
+    static final int INITIATE = 1;
+    static final int BLOCK_TRANSFER = 2;
+    static final int VERIFY = 3;
+    static final int ACTIVATE = 4;
+
+    /** image_transfer_status values */
+    static final int NOT_INITIATED = 0;
+    static final int INITIATED = 1;
+    static final int VERIFICATION_INITIATED = 2;
+    static final int VERIFICATION_SUCCESSFUL = 3;
+    static final int VERIFICATION_FAILED = 4;
+    static final int ACTIVATION_INITIATED = 5;
+    static final int ACTIVATION_SUCCESSFUL = 6;
+
+    /**
+     * Bytes an image_block_transfer request adds to the block: ACTION-Request header and method
+     * descriptor (13), structure of two (2), block number (5) and octet string tag with up to a
+     * three byte length (4).
+     */
+    static final int BLOCK_OVERHEAD = 24;
+
+    private final DlmsProtocol protocol;
+
+    ImageTransferClient(DlmsProtocol protocol) {
+        this.protocol = protocol;
+    }
+
+    long blockSize() throws IOException {
+        return read(BLOCK_SIZE, "image_block_size").asUnsigned();
+    }
+
+    int status() throws IOException {
+        return (int) read(TRANSFER_STATUS, "image_transfer_status").asUnsigned();
+    }
+
+    long firstNotTransferredBlock() throws IOException {
+        return read(FIRST_NOT_TRANSFERRED, "image_first_not_transferred_block_number").asUnsigned();
+    }
+
+    /**
+     * Blocks below {@code blockCount} the meter has not received, from the transferred blocks
+     * bit string.
+     */
+    int[] missingBlocks(int blockCount) throws IOException {
+        byte[] bits = read(TRANSFERRED_BLOCKS, "image_transferred_blocks_status").asBitString();
+        List<Integer> missing = new ArrayList<>();
+        for (int block = 0; block < blockCount; block++) {
+            int index = block >>> 3;
+            if (index >= bits.length || (bits[index] & (0x80 >>> (block & 7))) == 0) {
+                missing.add(block);
+            }
+        }
+        return missing.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    void initiate(String identifier, long size) throws IOException {
+        invoke(INITIATE, DataObject.newStructure(Arrays.asList(
+            DataObject.newOctetString(identifier.getBytes(StandardCharsets.US_ASCII)),
+            DataObject.newUnsigned(size))), "image_transfer_initiate");
+    }
+
+    /**
+     * Send one block; {@code data[0..length)} is only read during the call, so the caller may
+     * reuse the array.
+     */
+    void transferBlock(int number, byte[] data, int length) throws IOException {
+        invoke(BLOCK_TRANSFER, DataObject.newStructure(Arrays.asList(
+            DataObject.newUnsigned(number),
+            DataObject.wrapOctetString(data, 0, length))), "image_block_transfer of block " + number);
+    }
+
+    /** Start verification; false when the meter refused, e.g. because it is still busy */
+    boolean verify() {
+        return protocol.action(object(0), VERIFY, DataObject.newInteger(0)).isSuccess();
+    }
+
+    /** Start activation; false when the meter refused */
+    boolean activate() {
+        return protocol.action(object(0), ACTIVATE, DataObject.newInteger(0)).isSuccess();
+    }
+
+    private DataObject read(int attribute, String name) throws IOException {
+        DlmsProtocol.GetResult result = protocol.get(object(attribute));
+        if (!result.isSuccess() || result.getValue() == null) {
+            throw new IOException("Reading " + name + " failed: " + result.getError());
+        }
+        return result.getValue();
+    }
+
+    private void invoke(int method, DataObject parameter, String name) throws IOException {
+        DlmsProtocol.ActionResult result = protocol.action(object(0), method, parameter);
+        if (!result.isSuccess()) {
+            throw new IOException(name + " failed: " + result.getError());
+        }
+    }
+
+    private static CosemObject object(int attribute) {
+        return CosemObject.builder()
+            .classId(18)
+            .obisCode(OBIS)
+            .attributeId(attribute)
+            .dataIndex(0)
+            .accessLevel(attribute == 0 ? CosemObject.AccessLevel.READ_WRITE : CosemObject.AccessLevel.READ_ONLY)
+            .build();
+    }
+}
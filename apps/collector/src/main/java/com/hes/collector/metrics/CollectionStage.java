@@ -0,0 +1,30 @@
+package com.hes.collector.metrics;
+
+import java.util.Locale;
+
+/**
+ * Stages of one collection cycle, from opening the connection to publishing the reading.
+ */
+public enum CollectionStage {
+    TCP_CONNECT,
+    HDLC_SNRM,
+    AARQ,
+    /** GET request sent and response received */
+    GET,
+    /** SET request sent and response received */
+    SET,
+    /** ACTION request sent and response received */
+    ACTION,
+    /** GET response parsed into a data object */
+    DECODE,
+    DB_WRITE,
+    /** Reading sent until acknowledged by the broker */
+    KAFKA_PUBLISH;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    /** Value of the {@code stage} tag */
+    public String getTag() {
+        return tag;
+    }
+}
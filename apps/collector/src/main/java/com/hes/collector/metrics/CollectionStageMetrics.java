@@ -0,0 +1,161 @@
+package com.hes.collector.metrics;
+
+import com.hes.collector.config.StageMetricsConfig;
+import com.hes.collector.model.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-stage latency timers, {@code collector.stage.duration}, tagged with stage, outcome, meter
+ * model and firmware. Each timer keeps a percentile histogram so the tail of every stage is
+ * visible. Meters are identified through {@link #identify} as MeterService loads or registers
+ * them; recorders for meters that were not identified use the tag value {@code unknown}.
+ * Stages are best recorded by serial number: an address is only resolved while a single meter
+ * has been identified at it, since the meters behind one gateway may share it.
+ */
+@Slf4j
+@Component
+public class CollectionStageMetrics {
+    public static final String METRIC = "collector.stage.duration";
+    static final String UNKNOWN = "unknown";
+    static final String OTHER = "other";
+    /** Endpoint of more than one identified meter */
+    private static final String SHARED = "\u0000shared";
+
+    private final MeterRegistry registry;
+    private final StageMetricsConfig config;
+    private final double[] percentiles;
+    /** Recorders by model and firmware */
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    /** Serial number of the meter identified at each ip:port, or {@link #SHARED} */
+    private final Map<String, String> endpointSerials = new ConcurrentHashMap<>();
+    private final Map<String, Recorder> bySerial = new ConcurrentHashMap<>();
+    private final Recorder unknown;
+    private final Recorder other;
+    private final AtomicBoolean overflowLogged = new AtomicBoolean();
+
+    public CollectionStageMetrics(MeterRegistry registry, StageMetricsConfig config) {
+        this.registry = registry;
+        this.config = config;
+        this.percentiles = config.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+        this.unknown = new Recorder(UNKNOWN, UNKNOWN);
+        this.other = new Recorder(OTHER, OTHER);
+    }
+
+    /**
+     * Remember the model and firmware of a meter, so stages recorded by serial number or by
+     * address carry them. Identifying a meter again picks up a new firmware version.
+     */
+    public void identify(Meter meter) {
+        String serialNumber = meter.getSerialNumber();
+        if (serialNumber == null) {
+            return;
+        }
+        bySerial.put(serialNumber, recorder(model(meter), meter.getFirmwareVersion()));
+        if (meter.getIpAddress() != null && meter.getPort() != null) {
+            endpointSerials.merge(endpoint(meter.getIpAddress(), meter.getPort()), serialNumber,
+                (previous, current) -> previous.equals(current) ? previous : SHARED);
+        }
+    }
+
+    public StageRecorder forMeter(String model, String firmware) {
+        return recorder(model, firmware);
+    }
+
+    public StageRecorder forSerial(String serialNumber) {
+        return serialNumber == null ? unknown : bySerial.getOrDefault(serialNumber, unknown);
+    }
+
+    public StageRecorder forEndpoint(String ipAddress, int port) {
+        String serialNumber = endpointSerials.get(endpoint(ipAddress, port));
+        return serialNumber == null || serialNumber.equals(SHARED) ? unknown : forSerial(serialNumber);
+    }
+
+    /** By serial number when the meter was identified, else by its address */
+    public StageRecorder forSerial(String serialNumber, String ipAddress, int port) {
+        Recorder recorder = serialNumber == null ? null : bySerial.get(serialNumber);
+        return recorder != null ? recorder : forEndpoint(ipAddress, port);
+    }
+
+    private Recorder recorder(String model, String firmware) {
+        String modelTag = tagValue(model);
+        String firmwareTag = tagValue(firmware);
+        String key = modelTag + '\u0000' + firmwareTag;
+        Recorder recorder = recorders.get(key);
+        if (recorder != null) {
+            return recorder;
+        }
+        if (recorders.size() >= config.getMaxTagCombinations()) {
+            if (overflowLogged.compareAndSet(false, true)) {
+                log.warn("More than {} meter model and firmware pairs, recording {}/{} and later pairs as {}",
+                    config.getMaxTagCombinations(), modelTag, firmwareTag, OTHER);
+            }
+            return other;
+        }
+        return recorders.computeIfAbsent(key, k -> new Recorder(modelTag, firmwareTag));
+    }
+
+    /** Model tag of a meter: manufacturer and meter type, e.g. {@code L&T-3} */
+    private static String model(Meter meter) {
+        if (meter.getManufacturerName() == null) {
+            return null;
+        }
+        return meter.getMeterType() == null
+            ? meter.getManufacturerName()
+            : meter.getManufacturerName() + "-" + meter.getMeterType();
+    }
+
+    private static String tagValue(String value) {
+        return value == null || value.trim().isEmpty() ? UNKNOWN : value.trim();
+    }
+
+    private static String endpoint(String ipAddress, int port) {
+        return ipAddress + ":" + port;
+    }
+
+    /** Timers of one model and firmware, registered on first use */
+    private final class Recorder implements StageRecorder {
+        private final String model;
+        private final String firmware;
+        /** Indexed by stage ordinal * 2 + (success ? 0 : 1) */
+        private final AtomicReferenceArray<Timer> timers =
+            new AtomicReferenceArray<>(CollectionStage.values().length * 2);
+
+        Recorder(String model, String firmware) {
+            this.model = model;
+            this.firmware = firmware;
+        }
+
+        @Override
+        public void record(CollectionStage stage, long nanos, boolean success) {
+            int index = stage.ordinal() * 2 + (success ? 0 : 1);
+            Timer timer = timers.get(index);
+            if (timer == null) {
+                // Registration is idempotent, so racing threads get the same timer
+                timer = Timer.builder(METRIC)
+                    .description("Duration of one stage of meter data collection")
+                    .tag("stage", stage.getTag())
+                    .tag("outcome", success ? "success" : "failure")
+                    .tag("model", model)
+                    .tag("firmware", firmware)
+                    .publishPercentiles(percentiles)
+                    .publishPercentileHistogram(config.isPercentileHistogram())
+                    .percentilePrecision(config.getPercentilePrecision())
+                    .minimumExpectedValue(Duration.ofMillis(config.getMinimumExpectedMs()))
+                    .maximumExpectedValue(Duration.ofMillis(config.getMaximumExpectedMs()))
+                    .register(registry);
+                timers.set(index, timer);
+            }
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.hes.collector.metrics;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Point-in-time communication health of one meter, see {@link MeterHealthScoreboard}.
+ */
+@Getter
+public class MeterHealth {
+    /** Meter address, ip:port */
+    private final String meter;
+    /** Decayed share of successful calls, 0 to 1 */
+    private final double successRate;
+    /** Decayed median round trip time of successful calls; -1 before the first success */
+    private final long medianRttMs;
+    private final long totalCalls;
+    private final int consecutiveFailures;
+    private final Instant lastCall;
+    private final Instant lastSuccess;
+    private final String lastError;
+    private final Instant lastErrorTime;
+
+    public MeterHealth(String meter, double successRate, long medianRttMs, long totalCalls, int consecutiveFailures,
+                       Instant lastCall, Instant lastSuccess, String lastError, Instant lastErrorTime) {
+        this.meter = meter;
+        this.successRate = successRate;
+        this.medianRttMs = medianRttMs;
+        this.totalCalls = totalCalls;
+        this.consecutiveFailures = consecutiveFailures;
+        this.lastCall = lastCall;
+        this.lastSuccess = lastSuccess;
+        this.lastError = lastError;
+        this.lastErrorTime = lastErrorTime;
+    }
+}
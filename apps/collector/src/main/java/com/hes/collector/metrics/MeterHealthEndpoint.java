@@ -0,0 +1,39 @@
+package com.hes.collector.metrics;
+
+import com.hes.collector.config.ScoreboardConfig;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint over {@link MeterHealthScoreboard}: {@code GET /actuator/meterhealth?limit=20}
+ * returns the fleet summary with the worst meters, {@code GET /actuator/meterhealth/{ip:port}}
+ * one meter.
+ */
+@Component
+@Endpoint(id = "meterhealth")
+public class MeterHealthEndpoint {
+    private final MeterHealthScoreboard scoreboard;
+    private final int defaultLimit;
+
+    public MeterHealthEndpoint(MeterHealthScoreboard scoreboard, ScoreboardConfig config) {
+        this.scoreboard = scoreboard;
+        this.defaultLimit = config.getTopK();
+    }
+
+    @ReadOperation
+    public Map<String, Object> scoreboard(@Nullable Integer limit) {
+        Map<String, Object> summary = scoreboard.summary();
+        summary.put("worst", scoreboard.worst(limit != null ? limit : defaultLimit));
+        return summary;
+    }
+
+    @ReadOperation
+    public MeterHealth meter(@Selector String meter) {
+        return scoreboard.get(meter);
+    }
+}
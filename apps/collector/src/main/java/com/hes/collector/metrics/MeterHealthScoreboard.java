@@ -0,0 +1,310 @@
+package com.hes.collector.metrics;
+
+import com.hes.collector.config.ScoreboardConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Communication health of every meter, kept in memory and updated on each call: success rate and
+ * median round trip time, both exponentially decayed with a configurable half-life, plus the last
+ * error and the number of consecutive failures. Meters are keyed by address ({@code ip:port}),
+ * as calls are made, and spread over lock stripes.
+ * <p>
+ * Decay uses forward decay: a call at time t is weighted by e^((t - landmark) / tau) instead of
+ * decaying all earlier state, so an update costs the same however many calls came before. The
+ * weights grow over time and are rescaled to a new landmark when they get large. Round trip times
+ * go into a histogram with four buckets per power of two milliseconds, so the median is within
+ * about 12%. Reports scan all meters; updates do not.
+ */
+@Slf4j
+@Component
+public class MeterHealthScoreboard {
+    /** Four buckets per power of two from 1 ms up to 2^17 ms, plus one for less than 1 ms */
+    static final int RTT_BUCKETS = 1 + 17 * 4;
+    /** Upper bounds, in percent, of the success rate histogram buckets */
+    private static final int[] SUCCESS_RATE_BOUNDS = {10, 20, 30, 40, 50, 60, 70, 80, 90, 95, 99, 100};
+    /** Upper bounds, in ms, of the median round trip time histogram buckets */
+    private static final long[] RTT_BOUNDS = {50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, Long.MAX_VALUE};
+
+    private final ScoreboardConfig config;
+    private final double tauMs;
+    private final Stripe[] stripes;
+    private final AtomicInteger meterCount = new AtomicInteger();
+    private final AtomicBoolean capacityLogged = new AtomicBoolean();
+
+    public MeterHealthScoreboard(ScoreboardConfig config) {
+        this.config = config;
+        this.tauMs = TimeUnit.MINUTES.toMillis(config.getHalfLifeMinutes()) / Math.log(2);
+        this.stripes = new Stripe[Math.max(1, config.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Score one call to a meter.
+     *
+     * @param rttNanos duration of the call; only successful calls contribute to the round trip time
+     * @param error failure reason, ignored for successful calls
+     */
+    public void record(String meter, boolean success, long rttNanos, String error) {
+        record(meter, success, rttNanos, error, System.currentTimeMillis());
+    }
+
+    void record(String meter, boolean success, long rttNanos, String error, long nowMs) {
+        Stripe stripe = stripe(meter);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(meter);
+            if (entry == null) {
+                if (meterCount.get() >= config.getMaxMeters()) {
+                    if (capacityLogged.compareAndSet(false, true)) {
+                        log.warn("Meter health scoreboard is full at {} meters; meters beyond it are not scored",
+                            config.getMaxMeters());
+                    }
+                    return;
+                }
+                meterCount.incrementAndGet();
+                entry = new Entry(meter, nowMs);
+                stripe.entries.put(meter, entry);
+            }
+            entry.record(success, rttNanos, error, nowMs, tauMs);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /** Health of one meter, or null when it has not been called */
+    public MeterHealth get(String meter) {
+        Stripe stripe = stripe(meter);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(meter);
+            return entry == null ? null : entry.snapshot();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * The {@code limit} meters with the lowest success rate, most consecutive failures first
+     * among equal rates.
+     */
+    public List<MeterHealth> worst(int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        Comparator<MeterHealth> worstFirst = Comparator.comparingDouble(MeterHealth::getSuccessRate)
+            .thenComparing(Comparator.comparingInt(MeterHealth::getConsecutiveFailures).reversed());
+        // Max-heap on "worst first" order keeps the best of the current top K at the head
+        PriorityQueue<MeterHealth> top = new PriorityQueue<>(limit, worstFirst.reversed());
+        forEach(health -> {
+            if (top.size() < limit) {
+                top.add(health);
+            } else if (worstFirst.compare(health, top.peek()) < 0) {
+                top.poll();
+                top.add(health);
+            }
+        });
+        List<MeterHealth> result = new ArrayList<>(top);
+        result.sort(worstFirst);
+        return result;
+    }
+
+    /**
+     * Fleet summary: meter count, success rate and median round trip time histograms keyed by
+     * bucket upper bound, and the meters currently failing.
+     */
+    public Map<String, Object> summary() {
+        long[] rateCounts = new long[SUCCESS_RATE_BOUNDS.length];
+        long[] rttCounts = new long[RTT_BOUNDS.length];
+        long[] failing = new long[1];
+        forEach(health -> {
+            rateCounts[rateBucket(health.getSuccessRate())]++;
+            if (health.getMedianRttMs() >= 0) {
+                rttCounts[rttBucket(health.getMedianRttMs())]++;
+            }
+            if (health.getConsecutiveFailures() > 0) {
+                failing[0]++;
+            }
+        });
+        Map<String, Long> successRate = new LinkedHashMap<>();
+        for (int i = 0; i < SUCCESS_RATE_BOUNDS.length; i++) {
+            successRate.put("le_" + SUCCESS_RATE_BOUNDS[i] + "%", rateCounts[i]);
+        }
+        Map<String, Long> medianRtt = new LinkedHashMap<>();
+        for (int i = 0; i < RTT_BOUNDS.length; i++) {
+            medianRtt.put(RTT_BOUNDS[i] == Long.MAX_VALUE ? "inf" : "le_" + RTT_BOUNDS[i] + "ms", rttCounts[i]);
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("meters", meterCount.get());
+        summary.put("failingMeters", failing[0]);
+        summary.put("halfLifeMinutes", config.getHalfLifeMinutes());
+        summary.put("successRateHistogram", successRate);
+        summary.put("medianRttHistogram", medianRtt);
+        return summary;
+    }
+
+    public int size() {
+        return meterCount.get();
+    }
+
+    private void forEach(Consumer<MeterHealth> action) {
+        for (Stripe stripe : stripes) {
+            List<MeterHealth> snapshots;
+            stripe.lock.lock();
+            try {
+                snapshots = new ArrayList<>(stripe.entries.size());
+                for (Entry entry : stripe.entries.values()) {
+                    snapshots.add(entry.snapshot());
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            snapshots.forEach(action);
+        }
+    }
+
+    private Stripe stripe(String meter) {
+        int h = meter.hashCode();
+        h ^= h >>> 16;
+        return stripes[Math.floorMod(h, stripes.length)];
+    }
+
+    private static int rateBucket(double successRate) {
+        double percent = successRate * 100;
+        for (int i = 0; i < SUCCESS_RATE_BOUNDS.length; i++) {
+            if (percent <= SUCCESS_RATE_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return SUCCESS_RATE_BOUNDS.length - 1;
+    }
+
+    private static int rttBucket(long rttMs) {
+        int i = 0;
+        while (rttMs > RTT_BOUNDS[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    /** Round trip time histogram bucket of a duration */
+    static int rttIndex(long ms) {
+        if (ms < 1) {
+            return 0;
+        }
+        int octave = 63 - Long.numberOfLeadingZeros(ms);
+        int sub = octave >= 2 ? (int) (ms >>> (octave - 2)) & 3 : (int) (ms << (2 - octave)) & 3;
+        return Math.min(1 + octave * 4 + sub, RTT_BUCKETS - 1);
+    }
+
+    /** Middle of a round trip time bucket, in ms */
+    static long rttValue(int index) {
+        if (index == 0) {
+            return 0;
+        }
+        int octave = (index - 1) / 4;
+        int sub = (index - 1) % 4;
+        double low = (4 + sub) * Math.pow(2, octave) / 4;
+        double width = Math.pow(2, octave) / 4;
+        return Math.round(low + width / 2);
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Entry> entries = new HashMap<>();
+    }
+
+    /** Mutable state of one meter, guarded by its stripe's lock */
+    private static final class Entry {
+        private final String meter;
+        private long landmarkMs;
+        private double calls;
+        private double successes;
+        private final float[] rtt = new float[RTT_BUCKETS];
+        private double rttWeight;
+        private long totalCalls;
+        private int consecutiveFailures;
+        private long lastCallMs;
+        private long lastSuccessMs;
+        private String lastError;
+        private long lastErrorMs;
+
+        Entry(String meter, long nowMs) {
+            this.meter = meter;
+            this.landmarkMs = nowMs;
+        }
+
+        void record(boolean success, long rttNanos, String error, long nowMs, double tauMs) {
+            double age = (nowMs - landmarkMs) / tauMs;
+            if (age > 40) {
+                rescale(Math.exp(-age));
+                landmarkMs = nowMs;
+                age = 0;
+            }
+            double weight = Math.exp(age);
+            calls += weight;
+            totalCalls++;
+            lastCallMs = nowMs;
+            if (success) {
+                successes += weight;
+                rtt[rttIndex(TimeUnit.NANOSECONDS.toMillis(rttNanos))] += weight;
+                rttWeight += weight;
+                consecutiveFailures = 0;
+                lastSuccessMs = nowMs;
+            } else {
+                consecutiveFailures++;
+                lastError = error;
+                lastErrorMs = nowMs;
+            }
+        }
+
+        private void rescale(double factor) {
+            calls *= factor;
+            successes *= factor;
+            rttWeight *= factor;
+            for (int i = 0; i < rtt.length; i++) {
+                rtt[i] *= factor;
+            }
+        }
+
+        private long medianRttMs() {
+            if (rttWeight <= 0) {
+                return -1;
+            }
+            double half = rttWeight / 2;
+            double cumulative = 0;
+            for (int i = 0; i < rtt.length; i++) {
+                cumulative += rtt[i];
+                if (cumulative >= half) {
+                    return rttValue(i);
+                }
+            }
+            return rttValue(rtt.length - 1);
+        }
+
+        MeterHealth snapshot() {
+            return new MeterHealth(meter, calls > 0 ? successes / calls : 1.0, medianRttMs(), totalCalls,
+                consecutiveFailures, instant(lastCallMs), instant(lastSuccessMs), lastError, instant(lastErrorMs));
+        }
+
+        private static Instant instant(long ms) {
+            return ms == 0 ? null : Instant.ofEpochMilli(ms);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.hes.collector.metrics;
+
+/**
+ * Receives the duration of collection stages for one meter.
+ */
+@FunctionalInterface
+public interface StageRecorder {
+    StageRecorder NONE = (stage, nanos, success) -> { };
+
+    void record(CollectionStage stage, long nanos, boolean success);
+
+    /** Record the time since {@code startNanos}, a {@link System#nanoTime()} value */
+    default void recordSince(CollectionStage stage, long startNanos, boolean success) {
+        record(stage, System.nanoTime() - startNanos, success);
+    }
+}
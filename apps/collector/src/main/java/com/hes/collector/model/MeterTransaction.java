@@ -5,6 +5,9 @@ import java.time.Instant;
 import java.util.UUID;
 
 public class MeterTransaction {
+    public static final int MAX_RETRIES = 3;
+    public static final long RETRY_WINDOW_SECONDS = 120;
+
     private UUID transactionId;
     private String meterSerialNumber;
     private String ipAddress;
@@ -75,10 +78,14 @@ public class MeterTransaction {
                status == TransactionStatus.TIMEOUT;
     }
 
+    /**
+     * Whether another attempt is allowed: attempts left, not already completed,
+     * and still inside the retry window measured from the first attempt
+     */
     public boolean canRetry() {
-        return retryCount < 3 && 
-               (status == TransactionStatus.FAILED || status == TransactionStatus.TIMEOUT) &&
-               startTime.plusSeconds(120).isAfter(Instant.now());
+        return retryCount < MAX_RETRIES &&
+               status != TransactionStatus.COMPLETED &&
+               startTime.plusSeconds(RETRY_WINDOW_SECONDS).isAfter(Instant.now());
     }
 
     public static class Result {
@@ -0,0 +1,220 @@
+package com.hes.collector.net;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Accepts TCP connections on one or more ports and hands them round robin to a fixed pool of
+ * {@link IoWorker}s, each running its own selector, so thousands of mostly idle connections cost
+ * no threads. Used by the push listener and the meter emulator, which differ only in what their
+ * workers do with a connection.
+ * <p>
+ * Accepted channels are switched to non-blocking mode, offered to the {@link AcceptFilter} and,
+ * if it keeps them, queued on the next worker together with the index of the port they came in on.
+ */
+@Slf4j
+public class TcpAcceptor {
+    private static final int BACKLOG = 1024;
+    private static final long SELECT_TIMEOUT_MS = 1000;
+    private static final long JOIN_TIMEOUT_MS = 5000;
+
+    /** Vets or configures a freshly accepted channel; returning false closes it */
+    @FunctionalInterface
+    public interface AcceptFilter {
+        boolean accept(SocketChannel channel) throws IOException;
+    }
+
+    private final String name;
+    private final List<? extends IoWorker> workers;
+    private final AcceptFilter filter;
+    private final List<ServerSocketChannel> servers = new ArrayList<>();
+    private final List<Integer> ports = new ArrayList<>();
+
+    private Selector selector;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * @param name    prefix of the acceptor thread name and of log messages
+     * @param workers pool the connections are spread over, started by {@link #start}
+     * @param filter  applied to each accepted channel on the acceptor thread
+     */
+    public TcpAcceptor(String name, List<? extends IoWorker> workers, AcceptFilter filter) {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one I/O worker is required");
+        }
+        this.name = name;
+        this.workers = workers;
+        this.filter = filter;
+    }
+
+    /** Start the workers, bind {@code host} on each port (0 for any free one) and start accepting */
+    public void start(String host, List<Integer> bindPorts) throws IOException {
+        running = true;
+        for (IoWorker worker : workers) {
+            worker.start();
+        }
+        selector = Selector.open();
+        for (int i = 0; i < bindPorts.size(); i++) {
+            ServerSocketChannel server = ServerSocketChannel.open();
+            servers.add(server);
+            server.bind(new InetSocketAddress(host, bindPorts.get(i)), BACKLOG);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT, i);
+            ports.add(((InetSocketAddress) server.getLocalAddress()).getPort());
+        }
+        thread = new Thread(this::acceptLoop, name + "-accept");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stop accepting, stop the workers and wait for all threads before closing the ports */
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        for (IoWorker worker : workers) {
+            worker.stop();
+        }
+        join(thread);
+        for (IoWorker worker : workers) {
+            join(worker.thread);
+        }
+        for (ServerSocketChannel server : servers) {
+            closeQuietly(server);
+        }
+        closeQuietly(selector);
+    }
+
+    /** Bound ports, in the order they were passed to {@link #start} */
+    public List<Integer> getPorts() {
+        return Collections.unmodifiableList(ports);
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            try {
+                selector.select(SELECT_TIMEOUT_MS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    SocketChannel channel = ((ServerSocketChannel) key.channel()).accept();
+                    if (channel == null) {
+                        continue;
+                    }
+                    channel.configureBlocking(false);
+                    if (!filter.accept(channel)) {
+                        closeQuietly(channel);
+                        continue;
+                    }
+                    workers.get(next++ % workers.size()).add(channel, (Integer) key.attachment());
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("{} accept failed: {}", name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void join(Thread thread) {
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(JOIN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing left to do on shutdown
+        }
+    }
+
+    /** Connection queued by the acceptor for a worker */
+    public static final class Accepted {
+        private final SocketChannel channel;
+        private final int portIndex;
+
+        Accepted(SocketChannel channel, int portIndex) {
+            this.channel = channel;
+            this.portIndex = portIndex;
+        }
+
+        public SocketChannel getChannel() {
+            return channel;
+        }
+
+        /** Index into the ports passed to {@link TcpAcceptor#start} */
+        public int getPortIndex() {
+            return portIndex;
+        }
+    }
+
+    /**
+     * Selector thread serving part of the connections. Subclasses implement {@link #run()}, looping
+     * while {@link #isRunning()} and registering what {@link #nextAccepted()} returns.
+     */
+    public abstract static class IoWorker {
+        protected final Selector selector;
+        private final Thread thread;
+        private final Queue<Accepted> registrations = new ConcurrentLinkedQueue<>();
+        private volatile boolean running;
+
+        protected IoWorker(String threadName) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this::run, threadName);
+            this.thread.setDaemon(true);
+        }
+
+        protected abstract void run();
+
+        protected boolean isRunning() {
+            return running;
+        }
+
+        /** Next connection handed over by the acceptor, or null when there is none */
+        protected Accepted nextAccepted() {
+            return registrations.poll();
+        }
+
+        void start() {
+            running = true;
+            thread.start();
+        }
+
+        void stop() {
+            running = false;
+            selector.wakeup();
+        }
+
+        void add(SocketChannel channel, int portIndex) {
+            registrations.add(new Accepted(channel, portIndex));
+            selector.wakeup();
+        }
+    }
+}
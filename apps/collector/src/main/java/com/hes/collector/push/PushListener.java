@@ -0,0 +1,252 @@
+package com.hes.collector.push;
+
+import com.hes.collector.config.PushListenerConfig;
+import com.hes.collector.dlms.CosemApdu;
+import com.hes.collector.net.TcpAcceptor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listens for DataNotification pushes from meters, so alarms and periodic profiles arrive as they
+ * happen instead of being polled. Meters connect over TCP with either the wrapper or HDLC; each
+ * APDU is decoded into a {@link com.hes.collector.dlms.DataObject}, classified by
+ * {@link PushNotification} and handed to {@link PushWriter}. Connections from addresses the
+ * {@link PushSourceFilter} does not allow are closed on accept.
+ * <p>
+ * Connections are spread over {@code ioThreads} selector workers by a {@link TcpAcceptor}, as in
+ * the meter emulator, so thousands of mostly idle meter connections cost no threads.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "collector.push", name = "enabled", havingValue = "true")
+public class PushListener {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final long SWEEP_INTERVAL_MS = 1000;
+
+    private final PushListenerConfig config;
+    private final PushWriter writer;
+    private final PushSourceFilter sourceFilter;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder unidentified = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final List<Worker> workers = new ArrayList<>();
+
+    private TcpAcceptor acceptor;
+
+    public PushListener(PushListenerConfig config, PushWriter writer, PushSourceFilter sourceFilter) {
+        this.config = config;
+        this.writer = writer;
+        this.sourceFilter = sourceFilter;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        for (int i = 0; i < Math.max(1, config.getIoThreads()); i++) {
+            workers.add(new Worker(i));
+        }
+        acceptor = new TcpAcceptor("push-listener", workers, this::allows);
+        acceptor.start(config.getHost(), List.of(config.getPort()));
+        log.info("Push listener on {}:{} with {} I/O threads", config.getHost(), getPort(), workers.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (acceptor != null) {
+            acceptor.stop();
+        }
+        log.info("Push listener stopped after {} notifications ({} unidentified, {} malformed), {} connections rejected",
+            received.sum(), unidentified.sum(), malformed.sum(), rejected.sum());
+    }
+
+    public int getPort() {
+        return acceptor.getPorts().get(0);
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    /** Connections closed because their source address is not allowed */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getUnidentified() {
+        return unidentified.sum();
+    }
+
+    public long getMalformed() {
+        return malformed.sum();
+    }
+
+    /**
+     * Decode, classify and queue one pushed APDU. Anything but a DataNotification is counted as
+     * malformed.
+     */
+    void handle(byte[] apdu, LocalDateTime receivedAt) {
+        PushNotification push;
+        try {
+            push = PushNotification.classify(CosemApdu.parseDataNotification(apdu), receivedAt);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            malformed.increment();
+            log.debug("Dropping pushed APDU: {}", e.getMessage());
+            return;
+        }
+        received.increment();
+        if (push == null) {
+            unidentified.increment();
+            return;
+        }
+        writer.offer(push);
+    }
+
+    private boolean allows(SocketChannel channel) throws IOException {
+        InetSocketAddress source = (InetSocketAddress) channel.getRemoteAddress();
+        if (sourceFilter.allows(source.getAddress())) {
+            return true;
+        }
+        rejected.increment();
+        log.debug("Rejected push connection from {}", source.getAddress().getHostAddress());
+        return false;
+    }
+
+    /** One accepted meter connection */
+    private static final class Connection {
+        final SocketChannel channel;
+        final PushSession session = new PushSession();
+        long lastActivity;
+
+        Connection(SocketChannel channel, long now) {
+            this.channel = channel;
+            this.lastActivity = now;
+        }
+    }
+
+    private final class Worker extends TcpAcceptor.IoWorker {
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private final List<byte[]> apdus = new ArrayList<>();
+        private long lastSweep;
+
+        Worker(int index) throws IOException {
+            super("push-listener-io-" + index);
+        }
+
+        @Override
+        protected void run() {
+            try {
+                while (isRunning()) {
+                    selector.select(SWEEP_INTERVAL_MS);
+                    long now = System.currentTimeMillis();
+                    register(now);
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        read(key, now);
+                    }
+                    if (now - lastSweep >= SWEEP_INTERVAL_MS) {
+                        sweep(now);
+                        lastSweep = now;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (isRunning()) {
+                    log.error("Push listener worker failed: {}", e.getMessage(), e);
+                }
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    close(key);
+                }
+                TcpAcceptor.closeQuietly(selector);
+            }
+        }
+
+        private void register(long now) {
+            TcpAcceptor.Accepted accepted;
+            while ((accepted = nextAccepted()) != null) {
+                SocketChannel channel = accepted.getChannel();
+                try {
+                    channel.register(selector, SelectionKey.OP_READ, new Connection(channel, now));
+                    activeConnections.incrementAndGet();
+                } catch (IOException e) {
+                    TcpAcceptor.closeQuietly(channel);
+                }
+            }
+        }
+
+        private void read(SelectionKey key, long now) {
+            if (!key.isValid() || !key.isReadable()) {
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            try {
+                readBuffer.clear();
+                int read = connection.channel.read(readBuffer);
+                if (read < 0) {
+                    close(key);
+                    return;
+                }
+                connection.lastActivity = now;
+                readBuffer.flip();
+                apdus.clear();
+                long malformedBefore = connection.session.getMalformedFrames();
+                connection.session.receive(readBuffer, apdus);
+                malformed.add(connection.session.getMalformedFrames() - malformedBefore);
+                if (!apdus.isEmpty()) {
+                    LocalDateTime receivedAt = LocalDateTime.now();
+                    for (byte[] apdu : apdus) {
+                        handle(apdu, receivedAt);
+                    }
+                }
+            } catch (IOException e) {
+                close(key);
+            }
+        }
+
+        private void sweep(long now) {
+            int timeout = config.getInactivityTimeoutMs();
+            if (timeout <= 0) {
+                return;
+            }
+            for (SelectionKey key : new ArrayList<>(selector.keys())) {
+                Connection connection = (Connection) key.attachment();
+                if (connection != null && now - connection.lastActivity > timeout) {
+                    close(key);
+                }
+            }
+        }
+
+        private void close(SelectionKey key) {
+            if (key.attachment() == null) {
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            key.attach(null);
+            key.cancel();
+            TcpAcceptor.closeQuietly(connection.channel);
+            activeConnections.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.hes.collector.push;
+
+import com.hes.collector.dlms.CosemApdu;
+import com.hes.collector.dlms.DataObject;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A DataNotification from a meter, classified by the shape of its body. The body is a structure
+ * whose first element identifies the meter (octet or visible string) and whose second element
+ * tells the kind: a bit string for an ESWF push, an integer for an event push with an optional
+ * event time after it, anything else for a profile push.
+ */
+public final class PushNotification {
+    /** Length of the ESWF bit string in eswf_alarms */
+    static final int ESWF_BITS = 128;
+
+    public enum Kind {
+        ESWF,
+        EVENT,
+        PROFILE
+    }
+
+    private final Kind kind;
+    private final String meterSerialNumber;
+    private final long invokeId;
+    private final LocalDateTime meterTime;
+    private final LocalDateTime receivedAt;
+    private final DataObject body;
+
+    private PushNotification(Kind kind, String meterSerialNumber, long invokeId, LocalDateTime meterTime,
+                             LocalDateTime receivedAt, DataObject body) {
+        this.kind = kind;
+        this.meterSerialNumber = meterSerialNumber;
+        this.invokeId = invokeId;
+        this.meterTime = meterTime;
+        this.receivedAt = receivedAt;
+        this.body = body;
+    }
+
+    /**
+     * Classify a notification, or return null when its body does not identify the meter.
+     */
+    public static PushNotification classify(CosemApdu.DataNotification notification, LocalDateTime receivedAt) {
+        DataObject body = notification.getBody();
+        if (body.getType() != DataObject.DataType.STRUCTURE || body.asStructure().isEmpty()) {
+            return null;
+        }
+        List<DataObject> elements = body.asStructure();
+        String serial = serialNumber(elements.get(0));
+        if (serial == null) {
+            return null;
+        }
+        Kind kind = Kind.PROFILE;
+        if (elements.size() > 1) {
+            DataObject.DataType type = elements.get(1).getType();
+            if (type == DataObject.DataType.BIT_STRING) {
+                kind = Kind.ESWF;
+            } else if (type == DataObject.DataType.INTEGER || type == DataObject.DataType.UNSIGNED) {
+                kind = Kind.EVENT;
+            }
+        }
+        return new PushNotification(kind, serial, notification.getInvokeId(), notification.getDateTime(),
+            receivedAt, body);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getMeterSerialNumber() {
+        return meterSerialNumber;
+    }
+
+    public long getInvokeId() {
+        return invokeId;
+    }
+
+    /** Date-time of the notification as set by the meter, or null */
+    public LocalDateTime getMeterTime() {
+        return meterTime;
+    }
+
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+
+    public DataObject getBody() {
+        return body;
+    }
+
+    /** Meter time of the notification, or the time it was received */
+    public LocalDateTime getTime() {
+        return meterTime != null ? meterTime : receivedAt;
+    }
+
+    /** Event code of an event push */
+    public int getEventCode() {
+        return (int) body.asStructure().get(1).longValue();
+    }
+
+    /** Time of an event push: its own event time when it carries one, else {@link #getTime()} */
+    public LocalDateTime getEventTime() {
+        List<DataObject> elements = body.asStructure();
+        if (elements.size() > 2 && elements.get(2).getType() == DataObject.DataType.DATETIME) {
+            return elements.get(2).asDateTime();
+        }
+        return getTime();
+    }
+
+    /** ESWF bits of an ESWF push as a string of 0 and 1, bit 0 first, padded or cut to 128 */
+    public String getEswfBits() {
+        ByteBuffer bits = body.asStructure().get(1).asByteView();
+        StringBuilder out = new StringBuilder(ESWF_BITS);
+        for (int i = 0; i < ESWF_BITS; i++) {
+            int index = i / 8;
+            boolean set = index < bits.remaining() && (bits.get(bits.position() + index) & (0x80 >>> (i % 8))) != 0;
+            out.append(set ? '1' : '0');
+        }
+        return out.toString();
+    }
+
+    private static String serialNumber(DataObject id) {
+        String serial;
+        if (id.getType() == DataObject.DataType.OCTET_STRING) {
+            ByteBuffer bytes = id.asByteView();
+            byte[] copy = new byte[bytes.remaining()];
+            bytes.get(copy);
+            serial = new String(copy, StandardCharsets.US_ASCII);
+        } else if (id.getType() == DataObject.DataType.STRING) {
+            serial = id.asString();
+        } else {
+            return null;
+        }
+        serial = serial.trim();
+        return serial.isEmpty() ? null : serial;
+    }
+}
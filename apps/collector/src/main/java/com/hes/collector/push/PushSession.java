@@ -0,0 +1,113 @@
+package com.hes.collector.push;
+
+import com.hes.collector.dlms.HdlcFrame;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Receiving side of one push connection. As in the emulator, the framing is detected from the
+ * first byte: an HDLC flag selects HDLC, anything else the IEC 62056-47 wrapper. Pushes are
+ * unconfirmed, so nothing is ever sent back. Not thread safe; a session is only used by the
+ * worker thread that owns its channel.
+ */
+class PushSession {
+    private static final int MODE_UNKNOWN = 0;
+    private static final int MODE_HDLC = 1;
+    private static final int MODE_WRAPPER = 2;
+    private static final int WRAPPER_LENGTH = 8;
+
+    private int mode = MODE_UNKNOWN;
+    /** Bytes of an incomplete frame carried over to the next read */
+    private byte[] pending = new byte[0];
+    private long malformedFrames;
+
+    /**
+     * Consume received bytes and append the APDU of every complete frame.
+     */
+    void receive(ByteBuffer in, List<byte[]> apdus) {
+        byte[] data;
+        if (pending.length == 0) {
+            data = new byte[in.remaining()];
+            in.get(data);
+        } else {
+            data = Arrays.copyOf(pending, pending.length + in.remaining());
+            in.get(data, pending.length, data.length - pending.length);
+        }
+        if (mode == MODE_UNKNOWN && data.length > 0) {
+            mode = data[0] == HdlcFrame.FLAG ? MODE_HDLC : MODE_WRAPPER;
+        }
+        int consumed = mode == MODE_HDLC ? receiveHdlc(data, apdus) : receiveWrapper(data, apdus);
+        pending = consumed == data.length ? new byte[0] : Arrays.copyOfRange(data, consumed, data.length);
+    }
+
+    /** Frames dropped for a bad check sequence, a missing LLC header or a wrong wrapper version */
+    long getMalformedFrames() {
+        return malformedFrames;
+    }
+
+    private int receiveHdlc(byte[] data, List<byte[]> apdus) {
+        int p = 0;
+        while (true) {
+            while (p < data.length && data[p] == HdlcFrame.FLAG) {
+                p++;
+            }
+            if (p + 2 > data.length) {
+                // Keep the opening flag so the leftover still parses as a frame start
+                return Math.max(0, p - 1);
+            }
+            int length = ((data[p] & 0x07) << 8) | (data[p + 1] & 0xFF);
+            if ((data[p] & 0xF0) != 0xA0 || length < 7) {
+                malformedFrames++;
+                p = skipToFlag(data, p + 1);
+                continue;
+            }
+            if (p + length + 1 > data.length) {
+                return Math.max(0, p - 1);
+            }
+            if (data[p + length] != HdlcFrame.FLAG) {
+                malformedFrames++;
+                p = skipToFlag(data, p + 1);
+                continue;
+            }
+            try {
+                // Meters push in UI or I frames; either way the information field is LLC + APDU
+                HdlcFrame frame = HdlcFrame.decode(data, p, length);
+                if (frame.getInfo().length > 0) {
+                    apdus.add(HdlcFrame.withoutLlc(frame.getInfo()));
+                }
+            } catch (IllegalArgumentException e) {
+                malformedFrames++;
+            }
+            p += length;
+        }
+    }
+
+    private int receiveWrapper(byte[] data, List<byte[]> apdus) {
+        int p = 0;
+        while (p + WRAPPER_LENGTH <= data.length) {
+            int version = ((data[p] & 0xFF) << 8) | (data[p + 1] & 0xFF);
+            int length = ((data[p + 6] & 0xFF) << 8) | (data[p + 7] & 0xFF);
+            if (version != 1) {
+                // Not a wrapper stream any more; drop everything received
+                malformedFrames++;
+                return data.length;
+            }
+            if (p + WRAPPER_LENGTH + length > data.length) {
+                break;
+            }
+            apdus.add(Arrays.copyOfRange(data, p + WRAPPER_LENGTH, p + WRAPPER_LENGTH + length));
+            p += WRAPPER_LENGTH + length;
+        }
+        return p;
+    }
+
+    private static int skipToFlag(byte[] data, int from) {
+        int p = from;
+        while (p < data.length && data[p] != HdlcFrame.FLAG) {
+            p++;
+        }
+        return p;
+    }
+}
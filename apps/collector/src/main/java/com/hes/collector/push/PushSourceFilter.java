@@ -0,0 +1,136 @@
+package com.hes.collector.push;
+
+import com.hes.collector.config.PushListenerConfig;
+import com.hes.collector.service.MeterService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decides which source addresses may push: the configured addresses and CIDR ranges, plus the
+ * ip_address of every meter in the meters table when allowRegisteredMeters is set. The meter
+ * addresses are read again every registeredMetersRefreshMs, so a newly commissioned meter can
+ * push after at most one refresh. Called from the listener's acceptor thread only.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "collector.push", name = "enabled", havingValue = "true")
+public class PushSourceFilter {
+    private final PushListenerConfig config;
+    private final MeterService meterService;
+    private final List<byte[]> networks = new ArrayList<>();
+    private final List<Integer> prefixLengths = new ArrayList<>();
+
+    private Set<String> registered = Collections.emptySet();
+    private long refreshedAt = Long.MIN_VALUE;
+
+    public PushSourceFilter(PushListenerConfig config, MeterService meterService) {
+        this.config = config;
+        this.meterService = meterService;
+        for (String source : config.getAllowedSources()) {
+            if (!source.trim().isEmpty()) {
+                addNetwork(source.trim());
+            }
+        }
+    }
+
+    /**
+     * Whether a connection from {@code address} is accepted
+     */
+    public boolean allows(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        for (int i = 0; i < networks.size(); i++) {
+            if (matches(networks.get(i), prefixLengths.get(i), bytes)) {
+                return true;
+            }
+        }
+        return config.isAllowRegisteredMeters() && registeredAddresses().contains(address.getHostAddress());
+    }
+
+    private Set<String> registeredAddresses() {
+        long now = System.currentTimeMillis();
+        if (refreshedAt == Long.MIN_VALUE || now - refreshedAt >= config.getRegisteredMetersRefreshMs()) {
+            refreshedAt = now;
+            try {
+                Set<String> addresses = new HashSet<>();
+                for (String ipAddress : meterService.getMeterIpAddresses()) {
+                    addresses.add(normalize(ipAddress.trim()));
+                }
+                registered = addresses;
+            } catch (RuntimeException e) {
+                // Keep the last known addresses until the next refresh
+                log.warn("Failed to read registered meter addresses: {}", e.getMessage());
+            }
+        }
+        return registered;
+    }
+
+    private void addNetwork(String source) {
+        int slash = source.indexOf('/');
+        byte[] network = literal(slash < 0 ? source : source.substring(0, slash));
+        int prefixLength = network.length * 8;
+        if (slash >= 0) {
+            try {
+                prefixLength = Integer.parseInt(source.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid prefix length in allowed push source " + source);
+            }
+            if (prefixLength < 0 || prefixLength > network.length * 8) {
+                throw new IllegalArgumentException("Invalid prefix length in allowed push source " + source);
+            }
+        }
+        networks.add(network);
+        prefixLengths.add(prefixLength);
+    }
+
+    private static boolean matches(byte[] network, int prefixLength, byte[] address) {
+        if (network.length != address.length) {
+            return false;
+        }
+        int full = prefixLength / 8;
+        for (int i = 0; i < full; i++) {
+            if (network[i] != address[i]) {
+                return false;
+            }
+        }
+        int rest = prefixLength % 8;
+        if (rest == 0) {
+            return true;
+        }
+        int mask = (0xFF << (8 - rest)) & 0xFF;
+        return (network[full] & mask) == (address[full] & mask);
+    }
+
+    /** Same text as InetAddress.getHostAddress for IP literals; anything else is kept as is */
+    private static String normalize(String ipAddress) {
+        try {
+            return isLiteral(ipAddress) ? InetAddress.getByName(ipAddress).getHostAddress() : ipAddress;
+        } catch (UnknownHostException e) {
+            return ipAddress;
+        }
+    }
+
+    /** Parse an IP literal without a DNS lookup */
+    private static byte[] literal(String address) {
+        if (!isLiteral(address)) {
+            throw new IllegalArgumentException("Allowed push source is not an IP address: " + address);
+        }
+        try {
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Allowed push source is not an IP address: " + address);
+        }
+    }
+
+    private static boolean isLiteral(String address) {
+        return address.indexOf(':') >= 0 || address.matches("\\d{1,3}(\\.\\d{1,3}){3}");
+    }
+}
@@ -0,0 +1,226 @@
+package com.hes.collector.push;
+
+import com.hes.collector.config.PushListenerConfig;
+import com.hes.collector.dlms.AxdrCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes received pushes with JDBC batches from one thread. ESWF and event pushes take the fast
+ * path: they have their own queue, wake the writer at once and are written before any profile.
+ * Profile pushes go to push_notifications when a batch is full or the flush interval has passed.
+ * A push that finds its queue full is dropped and counted, so a slow database never blocks
+ * the listener's I/O threads.
+ * <p>
+ * A batch that fails on a lost connection or another transient error is retried as a whole. A
+ * batch that fails otherwise, usually on one bad row, is split in halves until the rows that
+ * fail on their own are isolated; only those are counted as failed. The driver runs each batch
+ * in one transaction, so a failed batch leaves no rows behind to be written twice.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "collector.push", name = "enabled", havingValue = "true")
+public class PushWriter {
+    static final String EVENT_SQL = "INSERT INTO events (meter_serial_number, event_type_id, event_datetime, " +
+        "event_code, rtc_timestamp) VALUES (?, ?, ?, ?, ?)";
+    static final String ESWF_SQL = "INSERT INTO eswf_alarms (meter_serial_number, alarm_datetime, bits, " +
+        "rtc_timestamp) VALUES (?, ?, CAST(? AS BIT VARYING), ?)";
+    static final String PROFILE_SQL = "INSERT INTO push_notifications (meter_serial_number, received_at, " +
+        "meter_time, invoke_id, payload) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PushListenerConfig config;
+    private final BlockingQueue<PushNotification> alarms;
+    private final BlockingQueue<PushNotification> profiles;
+    private final Semaphore wakeups = new Semaphore(0);
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private Thread thread;
+    private volatile boolean running;
+
+    public PushWriter(JdbcTemplate jdbcTemplate, PushListenerConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        this.alarms = new LinkedBlockingQueue<>(config.getQueueCapacity());
+        this.profiles = new LinkedBlockingQueue<>(config.getQueueCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "push-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        wakeups.release();
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("Push writer stopped after {} rows, {} dropped, {} failed", written.sum(), dropped.sum(), failed.sum());
+    }
+
+    /**
+     * Queue a push for writing; false when its queue is full and the push was dropped.
+     */
+    public boolean offer(PushNotification push) {
+        boolean alarm = push.getKind() != PushNotification.Kind.PROFILE;
+        BlockingQueue<PushNotification> queue = alarm ? alarms : profiles;
+        if (!queue.offer(push)) {
+            dropped.increment();
+            return false;
+        }
+        if (alarm || profiles.size() >= config.getBatchSize()) {
+            wakeups.release();
+        }
+        return true;
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public int getQueued() {
+        return alarms.size() + profiles.size();
+    }
+
+    private void run() {
+        long nextProfileFlush = System.currentTimeMillis() + config.getFlushIntervalMs();
+        while (running) {
+            try {
+                long wait = Math.max(1, nextProfileFlush - System.currentTimeMillis());
+                wakeups.tryAcquire(wait, TimeUnit.MILLISECONDS);
+                wakeups.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            writeAlarms();
+            long now = System.currentTimeMillis();
+            if (profiles.size() >= config.getBatchSize() || now >= nextProfileFlush) {
+                writeProfiles();
+                nextProfileFlush = now + config.getFlushIntervalMs();
+            }
+        }
+        flush();
+    }
+
+    /** Write everything queued, alarms first */
+    void flush() {
+        writeAlarms();
+        writeProfiles();
+    }
+
+    private void writeAlarms() {
+        List<PushNotification> batch = new ArrayList<>();
+        while (alarms.drainTo(batch, config.getBatchSize()) > 0) {
+            List<Object[]> events = new ArrayList<>();
+            List<Object[]> eswf = new ArrayList<>();
+            for (PushNotification push : batch) {
+                if (push.getKind() == PushNotification.Kind.EVENT) {
+                    events.add(new Object[] {push.getMeterSerialNumber(), push.getEventCode(),
+                        Timestamp.valueOf(push.getEventTime()), push.getEventCode(), Timestamp.valueOf(push.getTime())});
+                } else {
+                    Timestamp time = Timestamp.valueOf(push.getTime());
+                    eswf.add(new Object[] {push.getMeterSerialNumber(), time, push.getEswfBits(), time});
+                }
+            }
+            write(EVENT_SQL, events);
+            write(ESWF_SQL, eswf);
+            batch.clear();
+        }
+    }
+
+    private void writeProfiles() {
+        List<PushNotification> batch = new ArrayList<>();
+        while (profiles.drainTo(batch, config.getBatchSize()) > 0) {
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (PushNotification push : batch) {
+                rows.add(new Object[] {push.getMeterSerialNumber(), Timestamp.valueOf(push.getReceivedAt()),
+                    push.getMeterTime() == null ? null : Timestamp.valueOf(push.getMeterTime()),
+                    push.getInvokeId(), AxdrCodec.encode(push.getBody())});
+            }
+            write(PROFILE_SQL, rows);
+            batch.clear();
+        }
+    }
+
+    private void write(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        long delay = config.getWriteRetryDelayMs();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                jdbcTemplate.batchUpdate(sql, rows);
+                written.add(rows.size());
+                return;
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    if (attempt < config.getWriteRetries() && pause(delay)) {
+                        log.warn("Retrying {} pushed rows after: {}", rows.size(), e.getMessage());
+                        delay *= 2;
+                        continue;
+                    }
+                } else if (rows.size() > 1) {
+                    int half = rows.size() / 2;
+                    write(sql, rows.subList(0, half));
+                    write(sql, rows.subList(half, rows.size()));
+                    return;
+                }
+                failed.add(rows.size());
+                log.error("Failed to write {} pushed rows: {}", rows.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+            || e instanceof DataAccessResourceFailureException;
+    }
+
+    /** Wait before a retry; false when interrupted */
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.hes.collector.relay;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parent transaction of a group relay command: progress of every meter in the group is counted
+ * here, and meters that are not confirmed yet are listed with the reason.
+ */
+@Data
+public class GroupRelayJob {
+    public enum Operation { CONNECT, DISCONNECT }
+
+    public enum Status { RUNNING, COMPLETED, ABORTED, CANCELLED, FAILED }
+
+    private final UUID transactionId = UUID.randomUUID();
+    private UUID groupId;
+    private String groupName;
+    private Operation operation;
+    private Status status = Status.RUNNING;
+    private Instant startedAt = Instant.now();
+    private Instant deadline;
+    private Instant completedAt;
+    private long sloSeconds;
+    /** Time the job needs at the configured command rate */
+    private long projectedSeconds;
+    private Boolean sloMet;
+    private int meters;
+    private int gateways;
+    private int waves;
+    /** Relay SETs sent, retries included */
+    private long commands;
+    /** Meters whose relay is in the requested state */
+    private long confirmed;
+    /** Meters sent again after failing a pass */
+    private long retried;
+    /** Meters never commanded because the job stopped */
+    private long skipped;
+    private long elapsedMs;
+    private String error;
+    private volatile boolean cancelRequested;
+    /** Meters not confirmed after their last attempt, by serial number */
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+    public int getFailed() {
+        return failures.size();
+    }
+
+    public boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+}
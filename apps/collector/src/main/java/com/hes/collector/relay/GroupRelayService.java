@@ -0,0 +1,431 @@
+package com.hes.collector.relay;
+
+import com.hes.collector.config.GroupRelayConfig;
+import com.hes.collector.dlms.CosemObject;
+import com.hes.collector.dlms.DataObject;
+import com.hes.collector.model.Meter;
+import com.hes.collector.model.MeterTransaction;
+import com.hes.collector.resilience.MeterAccessGuard;
+import com.hes.collector.scheduling.CommandLane;
+import com.hes.collector.scheduling.MeterWaves;
+import com.hes.collector.service.MeterCommunicationService;
+import com.hes.collector.service.MeterService;
+import com.hes.common.entity.MeterGroup;
+import com.hes.common.repository.MeterGroupRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Connects or disconnects every meter of a {@link MeterGroup}, e.g. for load shedding. Meters are
+ * commanded in waves on the urgent lane: a wave takes at most {@code gatewayConcurrency} meters
+ * per gateway, never more than the gateway's current AIMD limit, and waves are paced to the
+ * configured command rate. After each wave the relay output state of the acknowledged meters is
+ * read back as one batch, and confirmed meters get their status updated in one batch write.
+ * <p>
+ * A wave in which most meters fail stops the job rather than pressing on against a failing
+ * network. Meters that fail or do not confirm are retried while the completion-time SLO allows.
+ * The job is the parent transaction: its id identifies the command and it counts the outcome of
+ * every meter.
+ */
+@Slf4j
+@Service
+public class GroupRelayService {
+    /** output_state of the Disconnect control class, true when the relay is connected */
+    static final CosemObject RELAY_OUTPUT_STATE = CosemObject.builder()
+        .classId(70)
+        .obisCode(CosemObject.StandardObjects.RELAY_CONTROL.getObisCode())
+        .attributeId(2)
+        .dataIndex(0)
+        .accessLevel(CosemObject.AccessLevel.READ_ONLY)
+        .build();
+    private static final String STATUS_SQL = "UPDATE meters SET status = ?, last_communication = ? " +
+        "WHERE meter_serial_number = ?";
+
+    private final GroupRelayConfig config;
+    private final MeterCommunicationService communicationService;
+    private final MeterService meterService;
+    private final MeterGroupRepository groupRepository;
+    private final MeterAccessGuard accessGuard;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry registry;
+    private final Map<UUID, GroupRelayJob> jobs = new LinkedHashMap<>();
+    private final Set<UUID> runningGroups = ConcurrentHashMap.newKeySet();
+
+    public GroupRelayService(GroupRelayConfig config, MeterCommunicationService communicationService,
+                             MeterService meterService, MeterGroupRepository groupRepository,
+                             MeterAccessGuard accessGuard, JdbcTemplate jdbcTemplate, MeterRegistry registry) {
+        this.config = config;
+        this.communicationService = communicationService;
+        this.meterService = meterService;
+        this.groupRepository = groupRepository;
+        this.accessGuard = accessGuard;
+        this.jdbcTemplate = jdbcTemplate;
+        this.registry = registry;
+    }
+
+    /**
+     * Start connecting or disconnecting a group in the background.
+     *
+     * @param group group id or name
+     * @throws IllegalArgumentException when the group does not exist
+     * @throws IllegalStateException when a relay job is already running on the group
+     */
+    public GroupRelayJob start(String group, GroupRelayJob.Operation operation) {
+        MeterGroup meterGroup = resolve(group)
+            .orElseThrow(() -> new IllegalArgumentException("Meter group not found: " + group));
+        if (!runningGroups.add(meterGroup.getId())) {
+            throw new IllegalStateException("A relay job is already running on group " + meterGroup.getName());
+        }
+        GroupRelayJob job = newJob(meterGroup.getId(), meterGroup.getName(), operation);
+        CompletableFuture.runAsync(() -> {
+            try {
+                List<Meter> meters = meterService.getMetersByGroup(meterGroup.getId()).stream()
+                    .filter(m -> m.getIpAddress() != null && m.getPort() != null)
+                    .collect(Collectors.toList());
+                run(job, meters);
+            } catch (RuntimeException e) {
+                log.error("Group relay job {} failed: {}", job.getTransactionId(), e.getMessage(), e);
+                job.setError(e.getMessage());
+                finish(job, GroupRelayJob.Status.FAILED);
+            } finally {
+                runningGroups.remove(meterGroup.getId());
+            }
+        });
+        return job;
+    }
+
+    public GroupRelayJob getJob(UUID transactionId) {
+        synchronized (jobs) {
+            return jobs.get(transactionId);
+        }
+    }
+
+    /** Running and recent jobs, oldest first */
+    public List<GroupRelayJob> getJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    /**
+     * Stop a running job before its next wave; meters already commanded keep their new state.
+     *
+     * @return false when the job is unknown or already finished
+     */
+    public boolean cancel(UUID transactionId) {
+        GroupRelayJob job = getJob(transactionId);
+        if (job == null || job.isFinished()) {
+            return false;
+        }
+        job.setCancelRequested(true);
+        return true;
+    }
+
+    GroupRelayJob newJob(UUID groupId, String groupName, GroupRelayJob.Operation operation) {
+        GroupRelayJob job = new GroupRelayJob();
+        job.setGroupId(groupId);
+        job.setGroupName(groupName);
+        job.setOperation(operation);
+        job.setSloSeconds(config.getSloSeconds());
+        job.setDeadline(job.getStartedAt().plusSeconds(config.getSloSeconds()));
+        synchronized (jobs) {
+            jobs.put(job.getTransactionId(), job);
+            // Evict the oldest finished jobs beyond the history size
+            Iterator<GroupRelayJob> oldest = jobs.values().iterator();
+            while (jobs.size() > config.getJobHistory() && oldest.hasNext()) {
+                if (oldest.next().isFinished()) {
+                    oldest.remove();
+                }
+            }
+        }
+        return job;
+    }
+
+    /**
+     * Command the given meters wave by wave, then retry the ones that did not confirm.
+     */
+    GroupRelayJob run(GroupRelayJob job, List<Meter> meters) {
+        long started = System.nanoTime();
+        job.setMeters(meters.size());
+        job.setGateways((int) meters.stream().map(Meter::getIpAddress).distinct().count());
+        double rate = Math.max(0.001, config.getCommandsPerSecond());
+        job.setProjectedSeconds((long) Math.ceil(meters.size() / rate));
+        if (job.getProjectedSeconds() > job.getSloSeconds()) {
+            log.warn("Group relay job {} on {} needs about {} s for {} meters at {} commands/s, above its {} s SLO",
+                job.getTransactionId(), job.getGroupName(), job.getProjectedSeconds(), meters.size(), rate,
+                job.getSloSeconds());
+        }
+        log.info("Group relay job {}: {} {} meters of group {} on {} gateways", job.getTransactionId(),
+            job.getOperation(), meters.size(), job.getGroupName(), job.getGateways());
+
+        Pacer pacer = new Pacer(rate);
+        List<Meter> pending = meters;
+        GroupRelayJob.Status status = GroupRelayJob.Status.COMPLETED;
+        for (int pass = 0; pass <= config.getRetries() && !pending.isEmpty(); pass++) {
+            if (pass > 0) {
+                if (Instant.now().isAfter(job.getDeadline())) {
+                    log.warn("Group relay job {} is past its SLO, not retrying {} meters", job.getTransactionId(),
+                        pending.size());
+                    break;
+                }
+                job.setRetried(job.getRetried() + pending.size());
+            }
+            List<List<Meter>> waves = MeterWaves.split(pending,
+                ip -> Math.min(config.getGatewayConcurrency(), accessGuard.getGatewayLimit(ip)), config.getWaveSize());
+            List<Meter> failed = new ArrayList<>();
+            for (int i = 0; i < waves.size() && status == GroupRelayJob.Status.COMPLETED; i++) {
+                List<Meter> wave = waves.get(i);
+                if (job.isCancelRequested()) {
+                    status = GroupRelayJob.Status.CANCELLED;
+                } else if (!pacer.await(wave.size())) {
+                    status = GroupRelayJob.Status.CANCELLED;
+                    job.setError("Interrupted");
+                }
+                if (status != GroupRelayJob.Status.COMPLETED) {
+                    skip(job, waves.subList(i, waves.size()));
+                    break;
+                }
+                List<Meter> waveFailed = runWave(job, wave);
+                failed.addAll(waveFailed);
+                job.setWaves(job.getWaves() + 1);
+                if (wave.size() >= config.getAbortMinWaveSize()
+                    && waveFailed.size() > wave.size() * config.getAbortFailureRatio()) {
+                    job.setError(waveFailed.size() + " of " + wave.size() + " meters failed in one wave");
+                    log.error("Stopping group relay job {}: {}", job.getTransactionId(), job.getError());
+                    status = GroupRelayJob.Status.ABORTED;
+                    skip(job, waves.subList(i + 1, waves.size()));
+                }
+            }
+            if (status != GroupRelayJob.Status.COMPLETED) {
+                break;
+            }
+            pending = failed;
+        }
+        job.setElapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        finish(job, status);
+        log.info("Group relay job {} {}: {} of {} meters confirmed, {} failed, {} skipped in {} ms, SLO {}",
+            job.getTransactionId(), status, job.getConfirmed(), job.getMeters(), job.getFailed(), job.getSkipped(),
+            job.getElapsedMs(), job.getSloMet() ? "met" : "missed");
+        return job;
+    }
+
+    /**
+     * Send the relay SET to every meter of a wave, then read back the ones that acknowledged.
+     *
+     * @return meters that are not confirmed
+     */
+    private List<Meter> runWave(GroupRelayJob job, List<Meter> wave) {
+        boolean connect = job.getOperation() == GroupRelayJob.Operation.CONNECT;
+        List<CompletableFuture<MeterTransaction.Result>> commands = new ArrayList<>(wave.size());
+        for (Meter meter : wave) {
+            commands.add(communicationService.communicate(CommandLane.URGENT, meter.getSerialNumber(), meter.getIpAddress(),
+                meter.getPort(), CosemObject.StandardObjects.RELAY_CONTROL, DataObject.newBoolean(connect), true));
+        }
+        job.setCommands(job.getCommands() + wave.size());
+        await(commands);
+
+        List<Meter> failed = new ArrayList<>();
+        List<Meter> acknowledged = new ArrayList<>();
+        for (int i = 0; i < wave.size(); i++) {
+            String error = error(commands.get(i));
+            if (error == null) {
+                acknowledged.add(wave.get(i));
+            } else {
+                fail(job, wave.get(i), "Relay command failed: " + error, failed);
+            }
+        }
+
+        List<Meter> confirmed = acknowledged;
+        if (config.isVerify() && !acknowledged.isEmpty()) {
+            confirmed = readBack(job, acknowledged, connect, failed);
+        }
+        List<Object[]> rows = new ArrayList<>(confirmed.size());
+        Timestamp now = Timestamp.from(Instant.now());
+        for (Meter meter : confirmed) {
+            job.getFailures().remove(meter.getSerialNumber());
+            rows.add(new Object[] {connect ? "CONNECTED" : "DISCONNECTED", now, meter.getSerialNumber()});
+        }
+        job.setConfirmed(job.getConfirmed() + confirmed.size());
+        if (!rows.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(STATUS_SQL, rows);
+            } catch (RuntimeException e) {
+                log.error("Failed to update the status of {} meters of group relay job {}: {}", rows.size(),
+                    job.getTransactionId(), e.getMessage());
+            }
+        }
+        return failed;
+    }
+
+    /** Read the output state of the meters as one batch; returns the ones in the requested state */
+    private List<Meter> readBack(GroupRelayJob job, List<Meter> meters, boolean connect, List<Meter> failed) {
+        try {
+            Thread.sleep(config.getVerifyDelayMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<CompletableFuture<MeterTransaction.Result>> reads = new ArrayList<>(meters.size());
+        for (Meter meter : meters) {
+            reads.add(communicationService.communicate(CommandLane.URGENT, meter.getSerialNumber(), meter.getIpAddress(),
+                meter.getPort(), RELAY_OUTPUT_STATE, null, false));
+        }
+        await(reads);
+
+        List<Meter> confirmed = new ArrayList<>(meters.size());
+        for (int i = 0; i < meters.size(); i++) {
+            String error = error(reads.get(i));
+            if (error != null) {
+                fail(job, meters.get(i), "Relay read-back failed: " + error, failed);
+                continue;
+            }
+            Boolean state = connected(reads.get(i).join().getValue());
+            if (state == null) {
+                fail(job, meters.get(i), "Unreadable relay state", failed);
+            } else if (state != connect) {
+                fail(job, meters.get(i), "Relay reads " + (state ? "connected" : "disconnected"), failed);
+            } else {
+                confirmed.add(meters.get(i));
+            }
+        }
+        return confirmed;
+    }
+
+    private void await(List<CompletableFuture<MeterTransaction.Result>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .get(config.getWaveTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Reported per meter
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Failure of a command, or null when it succeeded */
+    private static String error(CompletableFuture<MeterTransaction.Result> future) {
+        if (!future.isDone()) {
+            return "timed out";
+        }
+        try {
+            MeterTransaction.Result result = future.join();
+            return result.isSuccess() ? null : String.valueOf(result.getError());
+        } catch (CompletionException e) {
+            return e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        }
+    }
+
+    private static Boolean connected(DataObject value) {
+        if (value == null) {
+            return null;
+        }
+        switch (value.getType()) {
+            case BOOLEAN:
+                return value.asBoolean();
+            case UNSIGNED:
+                return value.asUnsigned() != 0;
+            case INTEGER:
+                return value.asInteger() != 0;
+            default:
+                return null;
+        }
+    }
+
+    private static void fail(GroupRelayJob job, Meter meter, String reason, List<Meter> failed) {
+        job.getFailures().put(meter.getSerialNumber(), reason);
+        failed.add(meter);
+    }
+
+    private static void skip(GroupRelayJob job, List<List<Meter>> waves) {
+        for (List<Meter> wave : waves) {
+            job.setSkipped(job.getSkipped() + wave.size());
+            for (Meter meter : wave) {
+                job.getFailures().put(meter.getSerialNumber(), "Skipped: job " +
+                    (job.isCancelRequested() ? "cancelled" : "stopped"));
+            }
+        }
+    }
+
+    private void finish(GroupRelayJob job, GroupRelayJob.Status status) {
+        Instant now = Instant.now();
+        job.setCompletedAt(now);
+        job.setSloMet(status == GroupRelayJob.Status.COMPLETED && job.getFailed() == 0
+            && !now.isAfter(job.getDeadline()));
+        job.setStatus(status);
+        Timer.builder("collector.group_relay.duration")
+            .description("Time from start to end of a group relay job")
+            .tag("operation", job.getOperation().name().toLowerCase())
+            .tag("slo", job.getSloMet() ? "met" : "missed")
+            .register(registry)
+            .record(Duration.between(job.getStartedAt(), now));
+    }
+
+    private Optional<MeterGroup> resolve(String group) {
+        try {
+            return groupRepository.findById(UUID.fromString(group));
+        } catch (IllegalArgumentException e) {
+            return groupRepository.findByName(group);
+        }
+    }
+
+    /** Spaces waves so commands start at no more than the configured rate */
+    static final class Pacer {
+        private final double rate;
+        private final LongSupplier clock;
+        private long nextNanos;
+
+        Pacer(double rate) {
+            this(rate, System::nanoTime);
+        }
+
+        Pacer(double rate, LongSupplier clock) {
+            this.rate = rate;
+            this.clock = clock;
+            this.nextNanos = clock.getAsLong();
+        }
+
+        /** Book the start of a wave of the given size and return how long to wait for it, in nanoseconds */
+        long reserve(int commands) {
+            long now = clock.getAsLong();
+            long start = Math.max(nextNanos, now);
+            nextNanos = start + (long) (commands * 1e9 / rate);
+            return start - now;
+        }
+
+        /** Wait until a wave of the given size may start; false when interrupted */
+        boolean await(int commands) {
+            long wait = reserve(commands);
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.hes.collector.replication;
+
+import com.hes.collector.config.OracleReplicationConfig;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Writes replicated readings to Oracle METER_READINGS in JDBC batches, one transaction per round.
+ * <p>
+ * The MERGE makes a re-shipped batch harmless, and ids come from METER_READING_SEQ.NEXTVAL
+ * inside the statement, so the whole batch costs one round trip per {@code jdbcBatchSize}
+ * rows instead of a sequence call per row. The pool is private to this writer rather than a
+ * DataSource bean so it cannot be picked up by the primary JPA/JDBC setup.
+ * Timestamps are written as UTC.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "collector.replication", name = "enabled", havingValue = "true")
+public class OracleReadingSink implements ReadingSink {
+    private static final String MERGE_SQL =
+        "MERGE INTO METER_READINGS t " +
+        "USING (SELECT ? METER_ID, ? READING_TIMESTAMP, ? READING_TYPE, ? READING_VALUE, " +
+        "? QUALITY_CODE, ? UNIT FROM dual) s " +
+        "ON (t.METER_ID = s.METER_ID AND t.READING_TIMESTAMP = s.READING_TIMESTAMP " +
+        "AND t.READING_TYPE = s.READING_TYPE) " +
+        "WHEN MATCHED THEN UPDATE SET t.READING_VALUE = s.READING_VALUE, " +
+        "t.QUALITY_CODE = s.QUALITY_CODE, t.UNIT = s.UNIT, t.UPDATED_AT = SYSTIMESTAMP " +
+        "WHEN NOT MATCHED THEN INSERT (ID, METER_ID, READING_TIMESTAMP, READING_TYPE, READING_VALUE, " +
+        "QUALITY_CODE, UNIT, CREATED_AT, UPDATED_AT) " +
+        "VALUES (METER_READING_SEQ.NEXTVAL, s.METER_ID, s.READING_TIMESTAMP, s.READING_TYPE, " +
+        "s.READING_VALUE, s.QUALITY_CODE, s.UNIT, SYSTIMESTAMP, SYSTIMESTAMP)";
+
+    private final OracleReplicationConfig config;
+    private final HikariDataSource dataSource;
+
+    public OracleReadingSink(OracleReplicationConfig config) {
+        this.config = config;
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName("oracle-replication");
+        hikari.setJdbcUrl(config.getOracleJdbcUrl());
+        hikari.setUsername(config.getOracleUsername());
+        hikari.setPassword(config.getOraclePassword());
+        hikari.setMaximumPoolSize(config.getOracleMaxPoolSize());
+        hikari.setAutoCommit(false);
+        // Do not fail startup when Oracle is down; the replicator retries with backoff
+        hikari.setInitializationFailTimeout(-1);
+        this.dataSource = new HikariDataSource(hikari);
+    }
+
+    @Override
+    public void write(List<ReplicatedReading> readings) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(MERGE_SQL)) {
+                int pending = 0;
+                for (ReplicatedReading reading : readings) {
+                    statement.setString(1, reading.getMeterId().toString());
+                    statement.setObject(2, LocalDateTime.ofInstant(reading.getHesTimestamp(), ZoneOffset.UTC));
+                    statement.setString(3, reading.getReadingType());
+                    statement.setDouble(4, reading.getValue());
+                    if (reading.getQuality() != null) {
+                        statement.setInt(5, reading.getQuality());
+                    } else {
+                        statement.setNull(5, Types.INTEGER);
+                    }
+                    statement.setString(6, reading.getUnit());
+                    statement.addBatch();
+                    if (++pending == config.getJdbcBatchSize()) {
+                        statement.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    statement.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        log.debug("Merged {} readings into Oracle", readings.size());
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+}
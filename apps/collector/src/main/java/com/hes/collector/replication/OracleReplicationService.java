@@ -0,0 +1,169 @@
+package com.hes.collector.replication;
+
+import com.hes.collector.config.OracleReplicationConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous replication of meter readings from TimescaleDB to Oracle.
+ * <p>
+ * Runs on its own thread and only reads rows that are already committed, so the Postgres
+ * ingest path never waits on Oracle. Each round ships the rows after the stored checkpoint, in
+ * the order they were written to Postgres, then advances the checkpoint. A full batch means a backlog: the stream switches to
+ * catch-up mode, using larger batches back to back until a round comes back short.
+ * Oracle failures keep the checkpoint where it is and retry with exponential backoff.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "collector.replication", name = "enabled", havingValue = "true")
+public class OracleReplicationService {
+    private final ReadingTail tail;
+    private final ReadingSink sink;
+    private final OracleReplicationConfig config;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter rowsCounter;
+    private final Counter failureCounter;
+    private final Timer batchTimer;
+
+    private volatile ReplicationCheckpoint checkpoint;
+    /** When the first row of the round in progress was written to Postgres */
+    private volatile Instant pendingSince;
+    private volatile boolean catchingUp;
+    private volatile boolean stopped;
+    private int consecutiveFailures;
+
+    public OracleReplicationService(ReadingTail tail, ReadingSink sink,
+                                    OracleReplicationConfig config, MeterRegistry registry) {
+        this.tail = tail;
+        this.sink = sink;
+        this.config = config;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "oracle-replication");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rowsCounter = Counter.builder("collector.replication.rows")
+            .description("Meter readings shipped to Oracle")
+            .register(registry);
+        this.failureCounter = Counter.builder("collector.replication.failures")
+            .description("Replication rounds that failed and will be retried")
+            .register(registry);
+        this.batchTimer = Timer.builder("collector.replication.batch")
+            .description("Time to write one batch to Oracle")
+            .register(registry);
+        Gauge.builder("collector.replication.lag.seconds", lagMillis, millis -> millis.get() / 1000.0)
+            .description("Time since the oldest write to Postgres not yet shipped to Oracle")
+            .register(registry);
+        Gauge.builder("collector.replication.catchup", this, service -> service.catchingUp ? 1 : 0)
+            .description("1 while the stream is working through a backlog")
+            .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        log.info("Starting Oracle replication stream {}", config.getCheckpointName());
+        executor.schedule(this::run, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        executor.shutdown();
+    }
+
+    /**
+     * Ship one batch. Returns the number of rows shipped; exceptions leave the checkpoint unchanged.
+     */
+    int replicateOnce() throws Exception {
+        if (checkpoint == null) {
+            ReplicationCheckpoint stored = tail.loadCheckpoint(config.getCheckpointName());
+            checkpoint = stored != null ? stored : ReplicationCheckpoint.START;
+            log.info("Replication stream {} resuming after {}", config.getCheckpointName(), checkpoint);
+        }
+
+        int limit = catchingUp ? config.getCatchUpBatchSize() : config.getBatchSize();
+        List<ReplicatedReading> batch = tail.fetchAfter(checkpoint, limit);
+
+        if (!batch.isEmpty()) {
+            pendingSince = batch.get(0).getIngestedAt();
+            long start = System.nanoTime();
+            sink.write(batch);
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            ReplicationCheckpoint next = ReplicationCheckpoint.after(batch.get(batch.size() - 1));
+            tail.saveCheckpoint(config.getCheckpointName(), next, batch.size());
+            checkpoint = next;
+            pendingSince = null;
+            rowsCounter.increment(batch.size());
+        }
+
+        boolean backlog = batch.size() == limit;
+        if (backlog != catchingUp) {
+            log.info("Replication stream {} {} catch-up mode at {}", config.getCheckpointName(),
+                backlog ? "entering" : "leaving", checkpoint);
+        }
+        catchingUp = backlog;
+        // The next unshipped row was written no earlier than the last one shipped
+        lagMillis.set(backlog ? ingestLag(batch.get(batch.size() - 1).getIngestedAt()) : 0);
+        return batch.size();
+    }
+
+    public ReplicationCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    public boolean isCatchingUp() {
+        return catchingUp;
+    }
+
+    public long getLagMillis() {
+        return lagMillis.get();
+    }
+
+    private static long ingestLag(Instant ingestedAt) {
+        return Math.max(0, Duration.between(ingestedAt, Instant.now()).toMillis());
+    }
+
+    private void run() {
+        if (stopped) {
+            return;
+        }
+        long delay = config.getPollIntervalMs();
+        try {
+            do {
+                replicateOnce();
+            } while (catchingUp && !stopped);
+            consecutiveFailures = 0;
+        } catch (Exception e) {
+            consecutiveFailures++;
+            failureCounter.increment();
+            delay = Math.min(config.getMaxBackoffMs(),
+                config.getPollIntervalMs() << Math.min(consecutiveFailures, 16));
+            Instant since = pendingSince;
+            if (since != null) {
+                lagMillis.set(ingestLag(since));
+            }
+            log.error("Oracle replication round failed (attempt {}), retrying in {} ms: {}",
+                consecutiveFailures, delay, e.getMessage());
+        }
+        if (!stopped) {
+            executor.schedule(this::run, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+}
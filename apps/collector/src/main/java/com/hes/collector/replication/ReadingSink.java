@@ -0,0 +1,12 @@
+package com.hes.collector.replication;
+
+import java.util.List;
+
+/**
+ * Target side of replication. Writes must be idempotent: a batch is shipped again if the
+ * process stops between the write and the checkpoint update.
+ */
+public interface ReadingSink {
+
+    void write(List<ReplicatedReading> readings) throws Exception;
+}
@@ -0,0 +1,20 @@
+package com.hes.collector.replication;
+
+import java.util.List;
+
+/**
+ * Source side of replication: reads persisted readings in ingest order and stores progress
+ */
+public interface ReadingTail {
+
+    /**
+     * Rows strictly after the checkpoint, in keyset order, written by transactions that finished
+     * before any transaction still running began writing
+     */
+    List<ReplicatedReading> fetchAfter(ReplicationCheckpoint checkpoint, int limit);
+
+    /** Stored position of the stream, or null if it has never run */
+    ReplicationCheckpoint loadCheckpoint(String name);
+
+    void saveCheckpoint(String name, ReplicationCheckpoint checkpoint, int rowsShipped);
+}
@@ -0,0 +1,39 @@
+package com.hes.collector.replication;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One meter_readings row as shipped to Oracle, with its position in ingest order
+ */
+public final class ReplicatedReading {
+    private final long ingestXid;
+    private final Instant ingestedAt;
+    private final UUID meterId;
+    private final Instant hesTimestamp;
+    private final String readingType;
+    private final double value;
+    private final Integer quality;
+    private final String unit;
+
+    public ReplicatedReading(long ingestXid, Instant ingestedAt, UUID meterId, Instant hesTimestamp,
+                             String readingType, double value, Integer quality, String unit) {
+        this.ingestXid = ingestXid;
+        this.ingestedAt = ingestedAt;
+        this.meterId = meterId;
+        this.hesTimestamp = hesTimestamp;
+        this.readingType = readingType;
+        this.value = value;
+        this.quality = quality;
+        this.unit = unit;
+    }
+
+    public long getIngestXid() { return ingestXid; }
+    public Instant getIngestedAt() { return ingestedAt; }
+    public UUID getMeterId() { return meterId; }
+    public Instant getHesTimestamp() { return hesTimestamp; }
+    public String getReadingType() { return readingType; }
+    public double getValue() { return value; }
+    public Integer getQuality() { return quality; }
+    public String getUnit() { return unit; }
+}
@@ -0,0 +1,41 @@
+package com.hes.collector.replication;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Keyset position in meter_readings, ordered by (ingest_xid, hes_timestamp, meter_id, reading_type).
+ * Everything up to and including this key has been shipped.
+ */
+public final class ReplicationCheckpoint {
+    /** Position before the first possible row */
+    public static final ReplicationCheckpoint START =
+        new ReplicationCheckpoint(0L, Instant.EPOCH, new UUID(0L, 0L), "");
+
+    private final long ingestXid;
+    private final Instant hesTimestamp;
+    private final UUID meterId;
+    private final String readingType;
+
+    public ReplicationCheckpoint(long ingestXid, Instant hesTimestamp, UUID meterId, String readingType) {
+        this.ingestXid = ingestXid;
+        this.hesTimestamp = hesTimestamp;
+        this.meterId = meterId;
+        this.readingType = readingType;
+    }
+
+    public static ReplicationCheckpoint after(ReplicatedReading reading) {
+        return new ReplicationCheckpoint(reading.getIngestXid(), reading.getHesTimestamp(), reading.getMeterId(),
+            reading.getReadingType());
+    }
+
+    public long getIngestXid() { return ingestXid; }
+    public Instant getHesTimestamp() { return hesTimestamp; }
+    public UUID getMeterId() { return meterId; }
+    public String getReadingType() { return readingType; }
+
+    @Override
+    public String toString() {
+        return ingestXid + "/" + hesTimestamp + "/" + meterId + "/" + readingType;
+    }
+}
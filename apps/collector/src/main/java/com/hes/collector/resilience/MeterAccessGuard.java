@@ -0,0 +1,287 @@
+package com.hes.collector.resilience;
+
+import com.hes.collector.config.MeterAccessConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-memory admission control for meter sessions. Each meter (ip:port) and each gateway (ip)
+ * has its own circuit breaker, each meter has a fixed number of session permits, and each
+ * gateway has an AIMD limit on in-flight sessions, so one bad meter or modem only blocks itself.
+ * State of meters and gateways that have not been asked for a session for a while is dropped
+ * by {@link #evictIdle()}.
+ */
+@Slf4j
+@Component
+public class MeterAccessGuard {
+    private final MeterAccessConfig config;
+    private final CircuitBreakerRegistry meterBreakers;
+    private final CircuitBreakerRegistry gatewayBreakers;
+    private final ConcurrentHashMap<String, Tracked<Semaphore>> meterPermits = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Tracked<AimdLimiter>> gatewayLimiters = new ConcurrentHashMap<>();
+    private final Counter meterOpenDenials;
+    private final Counter gatewayOpenDenials;
+    private final Counter meterBusyDenials;
+    private final Counter gatewayBusyDenials;
+
+    public MeterAccessGuard(MeterAccessConfig config, MeterRegistry registry) {
+        this.config = config;
+        this.meterBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(config.getMeterFailureRateThreshold())
+            .slidingWindowSize(config.getMeterSlidingWindowSize())
+            .minimumNumberOfCalls(config.getMeterMinimumNumberOfCalls())
+            .waitDurationInOpenState(Duration.ofMillis(config.getMeterOpenStateMs()))
+            .build());
+        this.gatewayBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(config.getGatewayFailureRateThreshold())
+            .slidingWindowSize(config.getGatewaySlidingWindowSize())
+            .minimumNumberOfCalls(config.getGatewayMinimumNumberOfCalls())
+            .waitDurationInOpenState(Duration.ofMillis(config.getGatewayOpenStateMs()))
+            .build());
+        this.meterOpenDenials = deniedCounter(registry, "meter_circuit_open");
+        this.gatewayOpenDenials = deniedCounter(registry, "gateway_circuit_open");
+        this.meterBusyDenials = deniedCounter(registry, "meter_busy");
+        this.gatewayBusyDenials = deniedCounter(registry, "gateway_busy");
+    }
+
+    /**
+     * Admit a session to a meter without blocking. Always returns a permit; check
+     * {@link Permit#isGranted()} and call {@link Permit#release(boolean, boolean)} once the session
+     * is over. A session refused because the meter or gateway is busy may be tried again later,
+     * see {@link Permit#isRetryable()}.
+     */
+    public Permit acquire(String ipAddress, int port) {
+        String meterKey = ipAddress + ":" + port;
+        // Touched before anything else, so evictIdle cannot drop an entry this session is about to use
+        long now = System.nanoTime();
+        Semaphore sessions = touch(meterPermits, meterKey, now, () -> new Semaphore(config.getMeterMaxSessions()));
+        AimdLimiter limiter = touch(gatewayLimiters, ipAddress, now, () -> new AimdLimiter(
+            config.getGatewayInitialLimit(),
+            config.getGatewayMinLimit(),
+            config.getGatewayMaxLimit(),
+            config.getGatewayLatencyThresholdMs(),
+            config.getGatewayBackoffRatio()));
+        CircuitBreaker meterBreaker = meterBreakers.circuitBreaker(meterKey);
+        CircuitBreaker gatewayBreaker = gatewayBreakers.circuitBreaker(ipAddress);
+
+        if (!meterBreaker.tryAcquirePermission()) {
+            meterOpenDenials.increment();
+            return Permit.denied("Circuit open for meter " + meterKey);
+        }
+        if (!gatewayBreaker.tryAcquirePermission()) {
+            meterBreaker.releasePermission();
+            gatewayOpenDenials.increment();
+            return Permit.denied("Circuit open for gateway " + ipAddress);
+        }
+
+        // Never wait here: a lane worker parked on a busy meter or gateway cannot serve anyone else
+        if (!sessions.tryAcquire()) {
+            meterBreaker.releasePermission();
+            gatewayBreaker.releasePermission();
+            meterBusyDenials.increment();
+            return Permit.busy("Meter " + meterKey + " is busy with another session");
+        }
+        if (!limiter.tryAcquire()) {
+            sessions.release();
+            meterBreaker.releasePermission();
+            gatewayBreaker.releasePermission();
+            gatewayBusyDenials.increment();
+            return Permit.busy("Gateway " + ipAddress + " is at its session limit (" + limiter.getLimit() + ")");
+        }
+
+        return new Permit(meterBreaker, gatewayBreaker, sessions, limiter);
+    }
+
+    /** Longest time a session may keep retrying a busy meter or gateway */
+    public long getPermitTimeoutMs() {
+        return config.getPermitTimeoutMs();
+    }
+
+    /** Wait between tries at a busy meter or gateway */
+    public long getPermitRetryMs() {
+        return config.getPermitRetryMs();
+    }
+
+    /** Current in-flight limit for a gateway, or the initial limit if it has not been seen yet */
+    public int getGatewayLimit(String ipAddress) {
+        Tracked<AimdLimiter> limiter = gatewayLimiters.get(ipAddress);
+        return limiter != null ? limiter.value.getLimit() : config.getGatewayInitialLimit();
+    }
+
+    public CircuitBreaker.State getMeterCircuitState(String ipAddress, int port) {
+        return circuitState(meterBreakers, ipAddress + ":" + port);
+    }
+
+    public CircuitBreaker.State getGatewayCircuitState(String ipAddress) {
+        return circuitState(gatewayBreakers, ipAddress);
+    }
+
+    /**
+     * Drop the session permits, limiter and circuit breaker of meters and gateways that have not
+     * been asked for a session within collector.access.idleEvictionMs, so the maps do not keep
+     * every meter ever polled. Entries with a session in flight or a circuit that is not closed
+     * are kept; an evicted gateway starts again from the initial limit.
+     */
+    @Scheduled(fixedDelayString = "${collector.access.idleEvictionMs:600000}",
+        initialDelayString = "${collector.access.idleEvictionMs:600000}")
+    public void evictIdle() {
+        int evicted = evictIdle(System.nanoTime());
+        if (evicted > 0) {
+            log.debug("Evicted {} idle meter and gateway entries", evicted);
+        }
+    }
+
+    /** Evict as of {@code now} in System.nanoTime() terms; returns the meters and gateways dropped */
+    int evictIdle(long now) {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(config.getIdleEvictionMs());
+        int evicted = 0;
+        for (String key : meterPermits.keySet()) {
+            Tracked<Semaphore> kept = meterPermits.computeIfPresent(key, (k, entry) ->
+                now - entry.lastUsed >= idleNanos
+                    && entry.value.availablePermits() == config.getMeterMaxSessions()
+                    && removeIfClosed(meterBreakers, k) ? null : entry);
+            if (kept == null) {
+                evicted++;
+            }
+        }
+        for (String key : gatewayLimiters.keySet()) {
+            Tracked<AimdLimiter> kept = gatewayLimiters.computeIfPresent(key, (k, entry) ->
+                now - entry.lastUsed >= idleNanos
+                    && entry.value.getInFlight() == 0
+                    && removeIfClosed(gatewayBreakers, k) ? null : entry);
+            if (kept == null) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    private static <T> T touch(ConcurrentHashMap<String, Tracked<T>> map, String key, long now, Supplier<T> factory) {
+        return map.compute(key, (k, entry) -> {
+            Tracked<T> touched = entry != null ? entry : new Tracked<>(factory.get());
+            touched.lastUsed = now;
+            return touched;
+        }).value;
+    }
+
+    private static CircuitBreaker.State circuitState(CircuitBreakerRegistry registry, String name) {
+        return registry.find(name).map(CircuitBreaker::getState).orElse(CircuitBreaker.State.CLOSED);
+    }
+
+    /** Remove a closed or missing breaker; false, keeping it, when it is open or half open */
+    private static boolean removeIfClosed(CircuitBreakerRegistry registry, String name) {
+        if (circuitState(registry, name) != CircuitBreaker.State.CLOSED) {
+            return false;
+        }
+        registry.remove(name);
+        return true;
+    }
+
+    private static Counter deniedCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("collector.access.denied")
+            .description("Meter sessions refused by the access guard")
+            .tag("reason", reason)
+            .register(registry);
+    }
+
+    /** Map value with the System.nanoTime() of its last use */
+    private static final class Tracked<T> {
+        private final T value;
+        private volatile long lastUsed;
+
+        private Tracked(T value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Admission decision for one session
+     */
+    public static final class Permit {
+        private final CircuitBreaker meterBreaker;
+        private final CircuitBreaker gatewayBreaker;
+        private final Semaphore sessions;
+        private final AimdLimiter limiter;
+        private final String denialReason;
+        private final boolean retryable;
+        private final long grantedAt = System.nanoTime();
+        private boolean released;
+
+        private Permit(CircuitBreaker meterBreaker, CircuitBreaker gatewayBreaker, Semaphore sessions, AimdLimiter limiter) {
+            this.meterBreaker = meterBreaker;
+            this.gatewayBreaker = gatewayBreaker;
+            this.sessions = sessions;
+            this.limiter = limiter;
+            this.denialReason = null;
+            this.retryable = false;
+        }
+
+        private Permit(String denialReason, boolean retryable) {
+            this.meterBreaker = null;
+            this.gatewayBreaker = null;
+            this.sessions = null;
+            this.limiter = null;
+            this.denialReason = denialReason;
+            this.retryable = retryable;
+        }
+
+        static Permit denied(String reason) {
+            return new Permit(reason, false);
+        }
+
+        static Permit busy(String reason) {
+            return new Permit(reason, true);
+        }
+
+        public boolean isGranted() {
+            return denialReason == null;
+        }
+
+        public String getDenialReason() {
+            return denialReason;
+        }
+
+        /** Refused only because the meter or its gateway is busy, so a later try may be granted */
+        public boolean isRetryable() {
+            return retryable;
+        }
+
+        /**
+         * Record the session outcome. A failed connect counts against the gateway;
+         * any failure counts against the meter and shrinks the gateway limit.
+         */
+        public void release(boolean connected, boolean success) {
+            if (!isGranted() || released) {
+                return;
+            }
+            released = true;
+            long elapsed = System.nanoTime() - grantedAt;
+            RuntimeException failure = new IllegalStateException("Meter session failed");
+
+            if (success) {
+                meterBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            } else {
+                meterBreaker.onError(elapsed, TimeUnit.NANOSECONDS, failure);
+            }
+            if (connected) {
+                gatewayBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            } else {
+                gatewayBreaker.onError(elapsed, TimeUnit.NANOSECONDS, failure);
+            }
+            limiter.release(elapsed, success);
+            sessions.release();
+        }
+    }
+}
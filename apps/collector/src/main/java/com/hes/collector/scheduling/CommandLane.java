@@ -0,0 +1,15 @@
+package com.hes.collector.scheduling;
+
+/**
+ * Traffic classes for meter communication, in priority order.
+ */
+public enum CommandLane {
+    /** Operator commands that change meter state, e.g. relay connect/disconnect */
+    URGENT,
+    /** On-demand reads and pings requested through the API */
+    ODR,
+    /** Scheduled bulk collection cycles */
+    BULK,
+    /** Firmware image transfers, served last and with few workers so they never starve reads */
+    FIRMWARE
+}
@@ -0,0 +1,244 @@
+package com.hes.collector.scheduling;
+
+import com.hes.collector.config.LaneSchedulerConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs meter communication work on a shared worker pool with one queue per {@link CommandLane}.
+ * Lanes are served by weighted round robin in priority order, and each lane has its own
+ * concurrency limit so a large bulk cycle cannot occupy every worker.
+ */
+@Slf4j
+@Component
+public class LaneScheduler {
+    private final Lane[] lanes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public LaneScheduler(LaneSchedulerConfig config, MeterRegistry registry) {
+        CommandLane[] values = CommandLane.values();
+        this.lanes = new Lane[values.length];
+        for (CommandLane lane : values) {
+            lanes[lane.ordinal()] = new Lane(lane, config, registry);
+        }
+
+        int threads = Math.max(1, config.getWorkerThreads());
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::workerLoop, "lane-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Lane scheduler started with {} workers", threads);
+    }
+
+    /**
+     * Queue work on a lane. The future fails with {@link RejectedExecutionException}
+     * when the lane queue is full or the scheduler is shutting down.
+     */
+    public <T> CompletableFuture<T> submit(CommandLane lane, Supplier<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Lane target = lanes[lane.ordinal()];
+
+        lock.lock();
+        try {
+            if (!running) {
+                future.completeExceptionally(new RejectedExecutionException("Lane scheduler is shut down"));
+                return future;
+            }
+            if (target.queue.size() >= target.capacity) {
+                target.rejected.increment();
+                future.completeExceptionally(new RejectedExecutionException(
+                    "Lane " + lane + " is full (" + target.capacity + " queued)"));
+                return future;
+            }
+            target.queue.addLast(new Task<>(work, future));
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    /** Number of tasks waiting in a lane */
+    public int getQueueDepth(CommandLane lane) {
+        lock.lock();
+        try {
+            return lanes[lane.ordinal()].queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Number of tasks currently executing in a lane */
+    public int getActiveCount(CommandLane lane) {
+        lock.lock();
+        try {
+            return lanes[lane.ordinal()].active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            for (Lane lane : lanes) {
+                Task<?> task;
+                while ((task = lane.queue.pollFirst()) != null) {
+                    task.future.completeExceptionally(new RejectedExecutionException("Lane scheduler is shut down"));
+                }
+            }
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    private void workerLoop() {
+        while (running) {
+            Lane lane;
+            Task<?> task;
+            lock.lock();
+            try {
+                while ((lane = nextLane()) == null) {
+                    if (!running) {
+                        return;
+                    }
+                    workAvailable.await();
+                }
+                task = lane.queue.pollFirst();
+                lane.active++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            lane.waitTimer.record(System.nanoTime() - task.enqueuedAt, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                lock.lock();
+                try {
+                    lane.active--;
+                    // A freed concurrency slot may make a waiting lane eligible again
+                    workAvailable.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Pick the next lane to serve. Lanes are scanned in priority order and each one may take
+     * as many turns as its weight before the credits of all eligible lanes are refilled.
+     * Must be called with the lock held.
+     */
+    private Lane nextLane() {
+        for (int pass = 0; pass < 2; pass++) {
+            boolean anyEligible = false;
+            for (Lane lane : lanes) {
+                if (!lane.isEligible()) {
+                    continue;
+                }
+                anyEligible = true;
+                if (lane.credit > 0) {
+                    lane.credit--;
+                    return lane;
+                }
+            }
+            if (!anyEligible) {
+                return null;
+            }
+            for (Lane lane : lanes) {
+                lane.credit = lane.weight;
+            }
+        }
+        return null;
+    }
+
+    private static final class Lane {
+        private final ArrayDeque<Task<?>> queue = new ArrayDeque<>();
+        private final int weight;
+        private final int maxConcurrency;
+        private final int capacity;
+        private final Timer waitTimer;
+        private final Counter rejected;
+        private int credit;
+        private int active;
+
+        Lane(CommandLane lane, LaneSchedulerConfig config, MeterRegistry registry) {
+            this.weight = Math.max(1, config.getWeight(lane));
+            this.maxConcurrency = Math.max(1, config.getMaxConcurrency(lane));
+            this.capacity = Math.max(1, config.getQueueCapacity(lane));
+            this.credit = weight;
+            String tag = lane.name().toLowerCase();
+            this.waitTimer = Timer.builder("collector.lane.wait")
+                .description("Time spent queued before a worker picked the task up")
+                .tag("lane", tag)
+                .publishPercentileHistogram()
+                .register(registry);
+            this.rejected = Counter.builder("collector.lane.rejected")
+                .description("Tasks rejected because the lane queue was full")
+                .tag("lane", tag)
+                .register(registry);
+            Gauge.builder("collector.lane.queue.depth", queue, ArrayDeque::size)
+                .description("Tasks waiting in the lane")
+                .tag("lane", tag)
+                .register(registry);
+            Gauge.builder("collector.lane.active", this, l -> l.active)
+                .description("Tasks executing in the lane")
+                .tag("lane", tag)
+                .register(registry);
+        }
+
+        boolean isEligible() {
+            return !queue.isEmpty() && active < maxConcurrency;
+        }
+    }
+
+    private static final class Task<T> {
+        private final Supplier<T> work;
+        private final CompletableFuture<T> future;
+        private final long enqueuedAt = System.nanoTime();
+
+        Task(Supplier<T> work, CompletableFuture<T> future) {
+            this.work = work;
+            this.future = future;
+        }
+
+        void run() {
+            try {
+                future.complete(work.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+}
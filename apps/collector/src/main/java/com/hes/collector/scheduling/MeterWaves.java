@@ -0,0 +1,57 @@
+package com.hes.collector.scheduling;
+
+import com.hes.collector.model.Meter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Splits fleet-wide operations into waves that keep every gateway within its session limit.
+ */
+public final class MeterWaves {
+
+    private MeterWaves() {
+    }
+
+    /**
+     * Split meters into waves of at most {@code waveSize}, with at most {@code gatewayLimit} meters
+     * of one gateway per wave. Gateways take turns, so every wave spreads over as many gateways
+     * as possible.
+     */
+    public static List<List<Meter>> split(List<Meter> meters, ToIntFunction<String> gatewayLimit, int waveSize) {
+        Map<String, ArrayDeque<Meter>> byGateway = new LinkedHashMap<>();
+        for (Meter meter : meters) {
+            byGateway.computeIfAbsent(meter.getIpAddress(), ip -> new ArrayDeque<>()).add(meter);
+        }
+        List<List<Meter>> waves = new ArrayList<>();
+        while (!byGateway.isEmpty()) {
+            List<Meter> wave = new ArrayList<>();
+            Map<String, Integer> taken = new LinkedHashMap<>();
+            boolean progress = true;
+            while (wave.size() < waveSize && progress) {
+                progress = false;
+                Iterator<Map.Entry<String, ArrayDeque<Meter>>> gateways = byGateway.entrySet().iterator();
+                while (gateways.hasNext() && wave.size() < waveSize) {
+                    Map.Entry<String, ArrayDeque<Meter>> gateway = gateways.next();
+                    int count = taken.getOrDefault(gateway.getKey(), 0);
+                    if (count >= Math.max(1, gatewayLimit.applyAsInt(gateway.getKey()))) {
+                        continue;
+                    }
+                    wave.add(gateway.getValue().poll());
+                    taken.put(gateway.getKey(), count + 1);
+                    progress = true;
+                    if (gateway.getValue().isEmpty()) {
+                        gateways.remove();
+                    }
+                }
+            }
+            waves.add(wave);
+        }
+        return waves;
+    }
+}
@@ -0,0 +1,204 @@
+package com.hes.collector.scheduling;
+
+import com.hes.collector.config.TransactionRetryConfig;
+import com.hes.collector.model.MeterTransaction;
+import com.hes.collector.service.MeterTransactionManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-dispatches failed meter transactions after an exponential backoff with jitter.
+ * Urgent retries fire on their own backoff; ODR and bulk retries are pushed to the next
+ * collection window boundary and every retry for the same meter in that window fires together.
+ * Once {@link MeterTransaction#canRetry()} is exhausted the transaction is failed and dead-lettered.
+ */
+@Slf4j
+@Component
+public class TransactionRetryScheduler {
+    private final MeterTransactionManager transactionManager;
+    private final TransactionRetryConfig config;
+    private final ScheduledExecutorService timer;
+    private final ConcurrentHashMap<String, List<Runnable>> batches = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+    private final Counter scheduledCounter;
+    private final Counter dispatchedCounter;
+    private final Counter deadLetterCounter;
+
+    public TransactionRetryScheduler(MeterTransactionManager transactionManager,
+                                     TransactionRetryConfig config,
+                                     MeterRegistry registry) {
+        this.transactionManager = transactionManager;
+        this.config = config;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "transaction-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduledCounter = Counter.builder("collector.retry.scheduled")
+            .description("Failed transactions scheduled for another attempt")
+            .register(registry);
+        this.dispatchedCounter = Counter.builder("collector.retry.dispatched")
+            .description("Retry attempts handed back to the lanes")
+            .register(registry);
+        this.deadLetterCounter = Counter.builder("collector.retry.dead_lettered")
+            .description("Transactions failed after exhausting their retries")
+            .register(registry);
+        Gauge.builder("collector.retry.pending", pending, AtomicInteger::get)
+            .description("Retries waiting for their backoff to expire")
+            .register(registry);
+    }
+
+    /**
+     * Schedule another attempt of a failed transaction. The redispatch action runs on the
+     * retry timer thread, so it should hand the work to a lane rather than block.
+     *
+     * @return true if a retry was scheduled, false if the transaction was dead-lettered
+     */
+    public boolean scheduleRetry(UUID transactionId, CommandLane lane, String errorMessage, Runnable redispatch) {
+        MeterTransaction transaction = transactionManager.getTransaction(transactionId);
+        if (transaction == null) {
+            log.warn("Cannot retry transaction {}: no longer active", transactionId);
+            return false;
+        }
+        if (!transactionManager.retryTransaction(transactionId)) {
+            deadLetter(transaction, errorMessage);
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        long dueAt = now + computeBackoffMs(transaction.getRetryCount());
+        long fireAt = lane == CommandLane.URGENT ? dueAt : alignToWindow(dueAt);
+        String batchKey = transaction.getMeterSerialNumber() + "@" + fireAt;
+
+        batches.compute(batchKey, (key, batch) -> {
+            if (batch == null) {
+                batch = new ArrayList<>();
+                timer.schedule(() -> fire(key), Math.max(0, fireAt - now), TimeUnit.MILLISECONDS);
+            }
+            batch.add(redispatch);
+            return batch;
+        });
+        pending.incrementAndGet();
+        scheduledCounter.increment();
+        log.info("Scheduled retry {} of transaction {} for meter {} in {} ms",
+            transaction.getRetryCount(), transactionId, transaction.getMeterSerialNumber(), fireAt - now);
+        return true;
+    }
+
+    /**
+     * Backoff before the given attempt (1-based): base * multiplier^(attempt-1), capped at the
+     * maximum, with the configured fraction of it randomised
+     */
+    long computeBackoffMs(int attempt) {
+        double exponential = config.getBaseDelayMs() * Math.pow(config.getMultiplier(), Math.max(0, attempt - 1));
+        long capped = (long) Math.min(config.getMaxDelayMs(), exponential);
+        long jitterRange = (long) (capped * Math.max(0, Math.min(1, config.getJitter())));
+        long jitter = jitterRange > 0 ? ThreadLocalRandom.current().nextLong(jitterRange + 1) : 0;
+        return capped - jitterRange + jitter;
+    }
+
+    /** Round a due time up to the start of the next collection window */
+    long alignToWindow(long dueAtMs) {
+        long window = config.getCollectionWindowMs();
+        if (window <= 0) {
+            return dueAtMs;
+        }
+        return ((dueAtMs + window - 1) / window) * window;
+    }
+
+    /** Most recent dead-lettered transactions, newest first */
+    public List<DeadLetter> getDeadLetters() {
+        synchronized (deadLetters) {
+            return new ArrayList<>(deadLetters);
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private void fire(String batchKey) {
+        List<Runnable> batch = batches.remove(batchKey);
+        if (batch == null) {
+            return;
+        }
+        for (Runnable redispatch : batch) {
+            pending.decrementAndGet();
+            try {
+                redispatch.run();
+                dispatchedCounter.increment();
+            } catch (Exception e) {
+                log.error("Error re-dispatching retry batch {}: {}", batchKey, e.getMessage());
+            }
+        }
+    }
+
+    private void deadLetter(MeterTransaction transaction, String errorMessage) {
+        String reason = "Retries exhausted after " + transaction.getRetryCount() + " attempts: " + errorMessage;
+        transactionManager.updateTransactionStatus(
+            transaction.getTransactionId(),
+            MeterTransaction.TransactionStatus.FAILED,
+            reason
+        );
+        synchronized (deadLetters) {
+            deadLetters.addFirst(new DeadLetter(transaction, errorMessage));
+            while (deadLetters.size() > config.getDeadLetterCapacity()) {
+                deadLetters.removeLast();
+            }
+        }
+        deadLetterCounter.increment();
+        log.warn("Dead-lettered transaction {} for meter {}: {}",
+            transaction.getTransactionId(), transaction.getMeterSerialNumber(), reason);
+    }
+
+    /**
+     * A transaction that failed for good
+     */
+    public static class DeadLetter {
+        private final UUID transactionId;
+        private final String meterSerialNumber;
+        private final MeterTransaction.TransactionType type;
+        private final int attempts;
+        private final String lastError;
+        private final Instant deadLetteredAt;
+
+        DeadLetter(MeterTransaction transaction, String lastError) {
+            this.transactionId = transaction.getTransactionId();
+            this.meterSerialNumber = transaction.getMeterSerialNumber();
+            this.type = transaction.getType();
+            this.attempts = transaction.getRetryCount() + 1;
+            this.lastError = lastError;
+            this.deadLetteredAt = Instant.now();
+        }
+
+        public UUID getTransactionId() { return transactionId; }
+        public String getMeterSerialNumber() { return meterSerialNumber; }
+        public MeterTransaction.TransactionType getType() { return type; }
+        public int getAttempts() { return attempts; }
+        public String getLastError() { return lastError; }
+        public Instant getDeadLetteredAt() { return deadLetteredAt; }
+    }
+}
@@ -0,0 +1,84 @@
+package com.hes.collector.serialization;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader for the layout produced by {@link BinaryWriter}. Truncated or malformed input
+ * raises IllegalArgumentException.
+ */
+final class BinaryReader {
+    private final byte[] buf;
+    private int pos;
+
+    BinaryReader(byte[] buf) {
+        this.buf = buf;
+    }
+
+    int readByte() {
+        require(1);
+        return buf[pos++] & 0xFF;
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than 10 bytes at offset " + pos);
+    }
+
+    long readZigZagLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    long readLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buf[pos++] & 0xFF);
+        }
+        return value;
+    }
+
+    double readDouble() {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    byte[] readBytes() {
+        int length = readLength();
+        byte[] bytes = new byte[length];
+        System.arraycopy(buf, pos, bytes, 0, length);
+        pos += length;
+        return bytes;
+    }
+
+    String readString() {
+        int length = readLength();
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    boolean hasRemaining() {
+        return pos < buf.length;
+    }
+
+    private int readLength() {
+        long length = readVarLong();
+        if (length < 0 || length > buf.length - pos) {
+            throw new IllegalArgumentException("Length " + length + " exceeds remaining " + (buf.length - pos) + " bytes");
+        }
+        return (int) length;
+    }
+
+    private void require(int length) {
+        if (pos + length > buf.length) {
+            throw new IllegalArgumentException("Unexpected end of data at offset " + pos);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.hes.collector.serialization;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable big-endian byte buffer with LEB128 varints, used by the reading codecs.
+ */
+final class BinaryWriter {
+    private byte[] buf;
+    private int pos;
+
+    BinaryWriter(int initialCapacity) {
+        this.buf = new byte[Math.max(16, initialCapacity)];
+    }
+
+    void writeByte(int value) {
+        ensure(1);
+        buf[pos++] = (byte) value;
+    }
+
+    /** Unsigned varint, 7 bits per byte, low group first */
+    void writeVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    /** Signed varint with zig-zag encoding so small negative numbers stay short */
+    void writeZigZagLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeLong(long value) {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buf[pos++] = (byte) (value >>> shift);
+        }
+    }
+
+    void writeDouble(double value) {
+        writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    void writeBytes(byte[] bytes) {
+        writeVarLong(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    void writeString(String value) {
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Reserve space for a value written later with {@link #setByte(int, int)} */
+    int skip(int length) {
+        ensure(length);
+        int at = pos;
+        pos += length;
+        return at;
+    }
+
+    void setByte(int at, int value) {
+        buf[at] = (byte) value;
+    }
+
+    int position() {
+        return pos;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    private void ensure(int extra) {
+        if (pos + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+        }
+    }
+}
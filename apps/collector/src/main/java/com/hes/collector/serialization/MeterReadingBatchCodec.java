@@ -0,0 +1,222 @@
+package com.hes.collector.serialization;
+
+import com.hes.collector.model.MeterReading;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hes.collector.serialization.MeterReadingSchema.*;
+
+/**
+ * Columnar envelope carrying many readings in one record.
+ * <p>
+ * Layout: schema version byte, reading count, then one column per schema field. Each column
+ * starts with a presence marker (none, all, or a bitmap over the rows) followed by the present
+ * values. String columns are dictionary coded, timestamp columns are deltas from the previous
+ * row, so repeated serials, reading types and 30 second capture intervals cost a byte or two.
+ */
+public final class MeterReadingBatchCodec {
+    /** Upper bound on readings per envelope, checked on both sides */
+    public static final int MAX_READINGS = 100_000;
+    private static final int NONE_PRESENT = 0;
+    private static final int ALL_PRESENT = 1;
+    private static final int BITMAP = 2;
+
+    private MeterReadingBatchCodec() {
+    }
+
+    public static byte[] encode(List<MeterReading> readings) {
+        int count = readings.size();
+        if (count > MAX_READINGS) {
+            throw new IllegalArgumentException("Batch of " + count + " readings exceeds " + MAX_READINGS);
+        }
+        BinaryWriter out = new BinaryWriter(64 + count * 96);
+        out.writeByte(VERSION);
+        out.writeVarLong(count);
+        boolean[] present = new boolean[count];
+
+        for (Field<String> field : STRINGS) {
+            for (int row = 0; row < count; row++) {
+                present[row] = field.getter.apply(readings.get(row)) != null;
+            }
+            writePresence(out, present);
+            Map<String, Integer> dictionary = new HashMap<>();
+            for (int row = 0; row < count; row++) {
+                if (present[row]) {
+                    String value = field.getter.apply(readings.get(row));
+                    Integer index = dictionary.get(value);
+                    if (index != null) {
+                        out.writeVarLong(index);
+                    } else {
+                        out.writeVarLong(dictionary.size());
+                        out.writeString(value);
+                        dictionary.put(value, dictionary.size());
+                    }
+                }
+            }
+        }
+        for (Field<Instant> field : INSTANTS) {
+            for (int row = 0; row < count; row++) {
+                present[row] = field.getter.apply(readings.get(row)) != null;
+            }
+            writePresence(out, present);
+            Instant previous = Instant.EPOCH;
+            for (int row = 0; row < count; row++) {
+                if (present[row]) {
+                    Instant value = field.getter.apply(readings.get(row));
+                    writeInstantDelta(out, value, previous);
+                    previous = value;
+                }
+            }
+        }
+        for (Field<BigDecimal> field : DECIMALS) {
+            for (int row = 0; row < count; row++) {
+                present[row] = field.getter.apply(readings.get(row)) != null;
+            }
+            writePresence(out, present);
+            for (int row = 0; row < count; row++) {
+                if (present[row]) {
+                    writeDecimal(out, field.getter.apply(readings.get(row)));
+                }
+            }
+        }
+        for (DoubleField field : DOUBLES) {
+            for (int row = 0; row < count; row++) {
+                present[row] = isPresent(field.getter.applyAsDouble(readings.get(row)));
+            }
+            writePresence(out, present);
+            for (int row = 0; row < count; row++) {
+                if (present[row]) {
+                    out.writeDouble(field.getter.applyAsDouble(readings.get(row)));
+                }
+            }
+        }
+        for (int row = 0; row < count; row++) {
+            present[row] = readings.get(row).isValid();
+        }
+        writePresence(out, present);
+        return out.toByteArray();
+    }
+
+    public static List<MeterReading> decode(byte[] data) {
+        try {
+            BinaryReader in = new BinaryReader(data);
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported meter reading schema version " + version);
+            }
+            long declared = in.readVarLong();
+            if (declared < 0 || declared > MAX_READINGS) {
+                throw new IllegalArgumentException("Batch of " + declared + " readings exceeds " + MAX_READINGS);
+            }
+            int count = (int) declared;
+            List<MeterReading> readings = new ArrayList<>(count);
+            for (int row = 0; row < count; row++) {
+                readings.add(new MeterReading());
+            }
+
+            for (Field<String> field : STRINGS) {
+                boolean[] present = readPresence(in, count);
+                List<String> dictionary = new ArrayList<>();
+                for (int row = 0; row < count; row++) {
+                    if (present[row]) {
+                        long index = in.readVarLong();
+                        if (index == dictionary.size()) {
+                            dictionary.add(in.readString());
+                        } else if (index > dictionary.size()) {
+                            throw new IllegalArgumentException("Dictionary index " + index + " out of range");
+                        }
+                        field.setter.accept(readings.get(row), dictionary.get((int) index));
+                    }
+                }
+            }
+            for (Field<Instant> field : INSTANTS) {
+                boolean[] present = readPresence(in, count);
+                Instant previous = Instant.EPOCH;
+                for (int row = 0; row < count; row++) {
+                    if (present[row]) {
+                        previous = readInstantDelta(in, previous);
+                        field.setter.accept(readings.get(row), previous);
+                    }
+                }
+            }
+            for (Field<BigDecimal> field : DECIMALS) {
+                boolean[] present = readPresence(in, count);
+                for (int row = 0; row < count; row++) {
+                    if (present[row]) {
+                        field.setter.accept(readings.get(row), readDecimal(in));
+                    }
+                }
+            }
+            for (DoubleField field : DOUBLES) {
+                boolean[] present = readPresence(in, count);
+                for (int row = 0; row < count; row++) {
+                    if (present[row]) {
+                        field.setter.accept(readings.get(row), in.readDouble());
+                    }
+                }
+            }
+            boolean[] valid = readPresence(in, count);
+            for (int row = 0; row < count; row++) {
+                readings.get(row).setValid(valid[row]);
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes after reading batch");
+            }
+            return readings;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed reading batch: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writePresence(BinaryWriter out, boolean[] present) {
+        int set = 0;
+        for (boolean p : present) {
+            if (p) {
+                set++;
+            }
+        }
+        if (set == 0) {
+            out.writeByte(NONE_PRESENT);
+        } else if (set == present.length) {
+            out.writeByte(ALL_PRESENT);
+        } else {
+            out.writeByte(BITMAP);
+            int at = out.skip((present.length + 7) / 8);
+            for (int i = 0; i < present.length; i += 8) {
+                int bits = 0;
+                for (int j = 0; j < 8 && i + j < present.length; j++) {
+                    if (present[i + j]) {
+                        bits |= 1 << j;
+                    }
+                }
+                out.setByte(at + i / 8, bits);
+            }
+        }
+    }
+
+    private static boolean[] readPresence(BinaryReader in, int count) {
+        boolean[] present = new boolean[count];
+        int marker = in.readByte();
+        if (marker == ALL_PRESENT) {
+            Arrays.fill(present, true);
+        } else if (marker == BITMAP) {
+            for (int i = 0; i < count; i += 8) {
+                int bits = in.readByte();
+                for (int j = 0; j < 8 && i + j < count; j++) {
+                    present[i + j] = (bits & (1 << j)) != 0;
+                }
+            }
+        } else if (marker != NONE_PRESENT) {
+            throw new IllegalArgumentException("Unknown presence marker " + marker);
+        }
+        return present;
+    }
+}
@@ -0,0 +1,25 @@
+package com.hes.collector.serialization;
+
+import com.hes.collector.model.MeterReading;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.List;
+
+/**
+ * Kafka value deserializer for {@link MeterReadingBatchCodec} envelopes.
+ */
+public class MeterReadingBatchDeserializer implements Deserializer<List<MeterReading>> {
+
+    @Override
+    public List<MeterReading> deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return MeterReadingBatchCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot decode reading batch from " + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
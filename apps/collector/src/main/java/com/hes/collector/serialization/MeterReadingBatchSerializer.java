@@ -0,0 +1,17 @@
+package com.hes.collector.serialization;
+
+import com.hes.collector.model.MeterReading;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.List;
+
+/**
+ * Kafka value serializer writing a {@link MeterReadingBatchCodec} envelope.
+ */
+public class MeterReadingBatchSerializer implements Serializer<List<MeterReading>> {
+
+    @Override
+    public byte[] serialize(String topic, List<MeterReading> readings) {
+        return readings == null ? null : MeterReadingBatchCodec.encode(readings);
+    }
+}
@@ -0,0 +1,141 @@
+package com.hes.collector.serialization;
+
+import com.hes.collector.model.MeterReading;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static com.hes.collector.serialization.MeterReadingSchema.*;
+
+/**
+ * Compact binary encoding of a single {@link MeterReading}.
+ * <p>
+ * Layout: schema version byte, presence bitmap as a varint, then the present fields in
+ * schema order. Null references, +0.0 doubles and a false isValid flag take no space.
+ * The first timestamp is stored against the epoch and each later one as a delta from
+ * the previous, so capture/reading/collection times usually cost two bytes each.
+ */
+public final class MeterReadingCodec {
+
+    private MeterReadingCodec() {
+    }
+
+    public static byte[] encode(MeterReading reading) {
+        BinaryWriter out = new BinaryWriter(192);
+        encode(reading, out);
+        return out.toByteArray();
+    }
+
+    public static MeterReading decode(byte[] data) {
+        try {
+            BinaryReader in = new BinaryReader(data);
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported meter reading schema version " + version);
+            }
+            MeterReading reading = decode(in);
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes after meter reading");
+            }
+            return reading;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed meter reading: " + e.getMessage(), e);
+        }
+    }
+
+    static void encode(MeterReading reading, BinaryWriter out) {
+        out.writeByte(VERSION);
+        out.writeVarLong(presence(reading));
+
+        for (Field<String> field : STRINGS) {
+            String value = field.getter.apply(reading);
+            if (value != null) {
+                out.writeString(value);
+            }
+        }
+        Instant previous = Instant.EPOCH;
+        for (Field<Instant> field : INSTANTS) {
+            Instant value = field.getter.apply(reading);
+            if (value != null) {
+                writeInstantDelta(out, value, previous);
+                previous = value;
+            }
+        }
+        for (Field<BigDecimal> field : DECIMALS) {
+            BigDecimal value = field.getter.apply(reading);
+            if (value != null) {
+                writeDecimal(out, value);
+            }
+        }
+        for (DoubleField field : DOUBLES) {
+            double value = field.getter.applyAsDouble(reading);
+            if (isPresent(value)) {
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    static MeterReading decode(BinaryReader in) {
+        long presence = in.readVarLong();
+        MeterReading reading = new MeterReading();
+
+        for (int i = 0; i < STRINGS.size(); i++) {
+            if (isSet(presence, i)) {
+                STRINGS.get(i).setter.accept(reading, in.readString());
+            }
+        }
+        Instant previous = Instant.EPOCH;
+        for (int i = 0; i < INSTANTS.size(); i++) {
+            if (isSet(presence, INSTANT_BASE + i)) {
+                previous = readInstantDelta(in, previous);
+                INSTANTS.get(i).setter.accept(reading, previous);
+            }
+        }
+        for (int i = 0; i < DECIMALS.size(); i++) {
+            if (isSet(presence, DECIMAL_BASE + i)) {
+                DECIMALS.get(i).setter.accept(reading, readDecimal(in));
+            }
+        }
+        for (int i = 0; i < DOUBLES.size(); i++) {
+            if (isSet(presence, DOUBLE_BASE + i)) {
+                DOUBLES.get(i).setter.accept(reading, in.readDouble());
+            }
+        }
+        reading.setValid(isSet(presence, VALID_BIT));
+        return reading;
+    }
+
+    private static long presence(MeterReading reading) {
+        long bits = 0;
+        for (int i = 0; i < STRINGS.size(); i++) {
+            if (STRINGS.get(i).getter.apply(reading) != null) {
+                bits |= 1L << i;
+            }
+        }
+        for (int i = 0; i < INSTANTS.size(); i++) {
+            if (INSTANTS.get(i).getter.apply(reading) != null) {
+                bits |= 1L << (INSTANT_BASE + i);
+            }
+        }
+        for (int i = 0; i < DECIMALS.size(); i++) {
+            if (DECIMALS.get(i).getter.apply(reading) != null) {
+                bits |= 1L << (DECIMAL_BASE + i);
+            }
+        }
+        for (int i = 0; i < DOUBLES.size(); i++) {
+            if (isPresent(DOUBLES.get(i).getter.applyAsDouble(reading))) {
+                bits |= 1L << (DOUBLE_BASE + i);
+            }
+        }
+        if (reading.isValid()) {
+            bits |= 1L << VALID_BIT;
+        }
+        return bits;
+    }
+
+    private static boolean isSet(long bits, int index) {
+        return (bits & (1L << index)) != 0;
+    }
+}
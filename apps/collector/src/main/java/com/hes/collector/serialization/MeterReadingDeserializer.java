@@ -0,0 +1,23 @@
+package com.hes.collector.serialization;
+
+import com.hes.collector.model.MeterReading;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka value deserializer for {@link MeterReadingCodec} records.
+ */
+public class MeterReadingDeserializer implements Deserializer<MeterReading> {
+
+    @Override
+    public MeterReading deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return MeterReadingCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot decode meter reading from " + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
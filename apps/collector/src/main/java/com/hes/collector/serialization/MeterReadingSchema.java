@@ -0,0 +1,157 @@
+package com.hes.collector.serialization;
+
+import com.hes.collector.model.MeterReading;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Field layout of schema version 1. The order of each list is part of the wire format:
+ * append new fields to the end of a list and bump {@link #VERSION} when the layout changes.
+ */
+final class MeterReadingSchema {
+    static final int VERSION = 1;
+
+    static final List<Field<String>> STRINGS = Collections.unmodifiableList(Arrays.asList(
+        new Field<>(MeterReading::getId, MeterReading::setId),
+        new Field<>(MeterReading::getMeterSerialNumber, MeterReading::setMeterSerialNumber),
+        new Field<>(MeterReading::getTransactionId, MeterReading::setTransactionId),
+        new Field<>(MeterReading::getRtcTime, MeterReading::setRtcTime),
+        new Field<>(MeterReading::getReadingQuality, MeterReading::setReadingQuality),
+        new Field<>(MeterReading::getReadingStatus, MeterReading::setReadingStatus),
+        new Field<>(MeterReading::getValidationMessage, MeterReading::setValidationMessage),
+        new Field<>(MeterReading::getReadingType, MeterReading::setReadingType),
+        new Field<>(MeterReading::getSource, MeterReading::setSource),
+        new Field<>(MeterReading::getNotes, MeterReading::setNotes)
+    ));
+
+    static final List<Field<Instant>> INSTANTS = Collections.unmodifiableList(Arrays.asList(
+        new Field<>(MeterReading::getTimestamp, MeterReading::setTimestamp),
+        new Field<>(MeterReading::getCaptureTime, MeterReading::setCaptureTime),
+        new Field<>(MeterReading::getReadingTime, MeterReading::setReadingTime),
+        new Field<>(MeterReading::getCollectionTime, MeterReading::setCollectionTime)
+    ));
+
+    static final List<Field<BigDecimal>> DECIMALS = Collections.unmodifiableList(Arrays.asList(
+        new Field<>(MeterReading::getActiveEnergyImport, MeterReading::setActiveEnergyImport),
+        new Field<>(MeterReading::getActiveEnergyExport, MeterReading::setActiveEnergyExport),
+        new Field<>(MeterReading::getReactiveEnergyImport, MeterReading::setReactiveEnergyImport),
+        new Field<>(MeterReading::getReactiveEnergyExport, MeterReading::setReactiveEnergyExport),
+        new Field<>(MeterReading::getApparentEnergy, MeterReading::setApparentEnergy),
+        new Field<>(MeterReading::getActivePowerImport, MeterReading::setActivePowerImport),
+        new Field<>(MeterReading::getActivePowerExport, MeterReading::setActivePowerExport),
+        new Field<>(MeterReading::getReactivePowerImport, MeterReading::setReactivePowerImport),
+        new Field<>(MeterReading::getReactivePowerExport, MeterReading::setReactivePowerExport),
+        new Field<>(MeterReading::getApparentPower, MeterReading::setApparentPower),
+        new Field<>(MeterReading::getVoltageL1, MeterReading::setVoltageL1),
+        new Field<>(MeterReading::getVoltageL2, MeterReading::setVoltageL2),
+        new Field<>(MeterReading::getVoltageL3, MeterReading::setVoltageL3),
+        new Field<>(MeterReading::getCurrentL1, MeterReading::setCurrentL1),
+        new Field<>(MeterReading::getCurrentL2, MeterReading::setCurrentL2),
+        new Field<>(MeterReading::getCurrentL3, MeterReading::setCurrentL3),
+        new Field<>(MeterReading::getPowerFactor, MeterReading::setPowerFactor),
+        new Field<>(MeterReading::getFrequency, MeterReading::setFrequency),
+        new Field<>(MeterReading::getMaximumDemand, MeterReading::setMaximumDemand),
+        new Field<>(MeterReading::getCurrentDemand, MeterReading::setCurrentDemand),
+        new Field<>(MeterReading::getAverageDemand, MeterReading::setAverageDemand)
+    ));
+
+    /** Primitive doubles; a value of exactly +0.0 is treated as absent */
+    static final List<DoubleField> DOUBLES = Collections.unmodifiableList(Arrays.asList(
+        new DoubleField(MeterReading::getCumEnergyWhImport, MeterReading::setCumEnergyWhImport),
+        new DoubleField(MeterReading::getCumEnergyWhExport, MeterReading::setCumEnergyWhExport),
+        new DoubleField(MeterReading::getActivePower, MeterReading::setActivePower),
+        new DoubleField(MeterReading::getReactivePower, MeterReading::setReactivePower),
+        new DoubleField(MeterReading::getApparentPowerDouble, MeterReading::setApparentPowerDouble),
+        new DoubleField(MeterReading::getL1CurrentIr, MeterReading::setL1CurrentIr),
+        new DoubleField(MeterReading::getL2CurrentIy, MeterReading::setL2CurrentIy),
+        new DoubleField(MeterReading::getL3CurrentIb, MeterReading::setL3CurrentIb),
+        new DoubleField(MeterReading::getL1VoltageVrn, MeterReading::setL1VoltageVrn),
+        new DoubleField(MeterReading::getL2VoltageVyn, MeterReading::setL2VoltageVyn),
+        new DoubleField(MeterReading::getL3VoltageVbn, MeterReading::setL3VoltageVbn),
+        new DoubleField(MeterReading::getL1PowerFactor, MeterReading::setL1PowerFactor),
+        new DoubleField(MeterReading::getL2PowerFactor, MeterReading::setL2PowerFactor),
+        new DoubleField(MeterReading::getL3PowerFactor, MeterReading::setL3PowerFactor),
+        new DoubleField(MeterReading::getThreePhasePf, MeterReading::setThreePhasePf),
+        new DoubleField(MeterReading::getFrequencyDouble, MeterReading::setFrequencyDouble)
+    ));
+
+    /** Bit positions in the presence bitmap: strings, instants, decimals, doubles, then isValid */
+    static final int INSTANT_BASE = STRINGS.size();
+    static final int DECIMAL_BASE = INSTANT_BASE + INSTANTS.size();
+    static final int DOUBLE_BASE = DECIMAL_BASE + DECIMALS.size();
+    static final int VALID_BIT = DOUBLE_BASE + DOUBLES.size();
+
+    private MeterReadingSchema() {
+    }
+
+    static boolean isPresent(double value) {
+        return Double.doubleToRawLongBits(value) != 0L;
+    }
+
+    /**
+     * Scale and unscaled value; the unscaled value is a zig-zag varint when it fits in a long,
+     * otherwise its two's complement bytes
+     */
+    static void writeDecimal(BinaryWriter out, BigDecimal value) {
+        BigInteger unscaled = value.unscaledValue();
+        boolean big = unscaled.bitLength() > 63;
+        long scale = value.scale();
+        out.writeVarLong(((scale << 1) ^ (scale >> 63)) << 1 | (big ? 1 : 0));
+        if (big) {
+            out.writeBytes(unscaled.toByteArray());
+        } else {
+            out.writeZigZagLong(unscaled.longValue());
+        }
+    }
+
+    static BigDecimal readDecimal(BinaryReader in) {
+        long header = in.readVarLong();
+        long zigzagScale = header >>> 1;
+        int scale = (int) ((zigzagScale >>> 1) ^ -(zigzagScale & 1));
+        if ((header & 1) != 0) {
+            return new BigDecimal(new BigInteger(in.readBytes()), scale);
+        }
+        return BigDecimal.valueOf(in.readZigZagLong(), scale);
+    }
+
+    /** Write an instant as seconds and nanoseconds relative to a previous instant */
+    static void writeInstantDelta(BinaryWriter out, Instant value, Instant previous) {
+        out.writeZigZagLong(value.getEpochSecond() - previous.getEpochSecond());
+        out.writeZigZagLong((long) value.getNano() - previous.getNano());
+    }
+
+    static Instant readInstantDelta(BinaryReader in, Instant previous) {
+        long seconds = previous.getEpochSecond() + in.readZigZagLong();
+        long nanos = previous.getNano() + in.readZigZagLong();
+        return Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    static final class Field<T> {
+        final Function<MeterReading, T> getter;
+        final BiConsumer<MeterReading, T> setter;
+
+        Field(Function<MeterReading, T> getter, BiConsumer<MeterReading, T> setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    static final class DoubleField {
+        final ToDoubleFunction<MeterReading> getter;
+        final ObjDoubleConsumer<MeterReading> setter;
+
+        DoubleField(ToDoubleFunction<MeterReading> getter, ObjDoubleConsumer<MeterReading> setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.hes.collector.serialization;
+
+import com.hes.collector.model.MeterReading;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka value serializer writing {@link MeterReadingCodec} records.
+ */
+public class MeterReadingSerializer implements Serializer<MeterReading> {
+
+    @Override
+    public byte[] serialize(String topic, MeterReading reading) {
+        return reading == null ? null : MeterReadingCodec.encode(reading);
+    }
+}
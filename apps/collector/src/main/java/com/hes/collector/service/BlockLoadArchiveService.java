@@ -0,0 +1,189 @@
+package com.hes.collector.service;
+
+import com.hes.collector.archive.ArchiveEntry;
+import com.hes.collector.archive.BlockLoadArchiveReader;
+import com.hes.collector.archive.BlockLoadArchiveWriter;
+import com.hes.collector.archive.BlockLoadColumn;
+import com.hes.collector.archive.BlockLoadSeries;
+import com.hes.collector.config.ArchiveConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves block load profiles older than {@code monthsInPostgres} into one compressed archive per
+ * month ({@code block-load-yyyy-MM.hla}) and reads them back for billing re-computation.
+ * <p>
+ * A month is read, archived and deleted in one REPEATABLE READ transaction, so the DELETE sees
+ * exactly the snapshot that was archived; rows written to the month meanwhile stay in Postgres.
+ * The transaction is rolled back unless it deletes as many rows as the archive on disk holds.
+ */
+@Slf4j
+@Service
+public class BlockLoadArchiveService {
+    private static final int ROWS_PER_METER_MONTH = 31 * 96;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArchiveConfig config;
+    private final TransactionTemplate snapshotTransaction;
+    private final String selectSql;
+
+    public BlockLoadArchiveService(JdbcTemplate jdbcTemplate, ArchiveConfig config,
+                                   PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        StringBuilder columns = new StringBuilder();
+        for (BlockLoadColumn column : BlockLoadColumn.values()) {
+            columns.append(", ").append(column.getColumnName());
+        }
+        this.selectSql = "SELECT capture_time" + columns + " FROM block_load_profiles " +
+            "WHERE meter_serial_number = ? AND capture_time >= ? AND capture_time < ? ORDER BY capture_time";
+    }
+
+    @Scheduled(cron = "${collector.archive.cron:0 30 2 1 * *}")
+    public void archiveExpiredMonth() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        YearMonth month = YearMonth.now(ZoneOffset.UTC).minusMonths(config.getMonthsInPostgres() + 1L);
+        try {
+            archiveMonth(month);
+        } catch (Exception e) {
+            log.error("Failed to archive block load profiles for {}: {}", month, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Archive one UTC month. An existing archive for the month is left untouched.
+     */
+    public Path archiveMonth(YearMonth month) throws IOException {
+        Path target = archivePath(month);
+        if (Files.exists(target)) {
+            log.info("Block load archive {} already exists, skipping", target);
+            return target;
+        }
+        Timestamp from = Timestamp.from(month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        Timestamp to = Timestamp.from(month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        try {
+            snapshotTransaction.executeWithoutResult(status -> {
+                try {
+                    archive(month, target, from, to);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return target;
+    }
+
+    private void archive(YearMonth month, Path target, Timestamp from, Timestamp to) throws IOException {
+        List<String> serials = jdbcTemplate.queryForList(
+            "SELECT DISTINCT meter_serial_number FROM block_load_profiles " +
+            "WHERE capture_time >= ? AND capture_time < ? ORDER BY meter_serial_number",
+            String.class, from, to);
+
+        long start = System.nanoTime();
+        long rows = 0;
+        BlockLoadArchiveWriter writer = new BlockLoadArchiveWriter(target);
+        try (writer) {
+            for (String serial : serials) {
+                BlockLoadSeries series = load(serial, from, to);
+                writer.write(series);
+                rows += series.size();
+            }
+            writer.commit();
+        }
+
+        long archivedRows;
+        try {
+            archivedRows = verify(target, rows);
+        } catch (IOException e) {
+            // Let the next run write the month again
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        log.info("Archived {} block load rows of {} meters for {} into {}: {} KB, {}x smaller than raw columns, {} ms",
+            rows, serials.size(), month, target, Files.size(target) / 1024,
+            String.format("%.1f", writer.getRawBytes() / (double) Math.max(1, writer.getCompressedBytes())),
+            (System.nanoTime() - start) / 1_000_000);
+
+        if (config.isDeleteAfterArchive()) {
+            int deleted = jdbcTemplate.update(
+                "DELETE FROM block_load_profiles WHERE capture_time >= ? AND capture_time < ?", from, to);
+            if (deleted != archivedRows) {
+                // Rolls the transaction back; the archive stays, holding a copy of rows still in Postgres
+                throw new IOException("Deleting " + month + " would remove " + deleted + " block load rows but "
+                    + target + " holds " + archivedRows + "; nothing deleted");
+            }
+            log.info("Deleted {} archived block load rows for {} from Postgres", deleted, month);
+        }
+    }
+
+    /**
+     * Archived rows of one meter for a month, decoding only {@code columns}; null when not archived.
+     */
+    public BlockLoadSeries readArchived(YearMonth month, String meterSerialNumber,
+                                        Set<BlockLoadColumn> columns) throws IOException {
+        Path path = archivePath(month);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (BlockLoadArchiveReader reader = new BlockLoadArchiveReader(path)) {
+            return reader.read(meterSerialNumber, columns);
+        }
+    }
+
+    public Path archivePath(YearMonth month) {
+        return Paths.get(config.getDirectory(), "block-load-" + month + ".hla");
+    }
+
+    private BlockLoadSeries load(String serial, Timestamp from, Timestamp to) {
+        BlockLoadSeries series = new BlockLoadSeries(serial, ROWS_PER_METER_MONTH);
+        BlockLoadColumn[] columns = BlockLoadColumn.values();
+        double[] row = new double[columns.length];
+        jdbcTemplate.query(selectSql, (RowCallbackHandler) rs -> {
+            Instant captureTime = rs.getTimestamp(1).toInstant();
+            for (int c = 0; c < columns.length; c++) {
+                double value = rs.getDouble(c + 2);
+                row[c] = rs.wasNull() ? Double.NaN : value;
+            }
+            series.add(captureTime.toEpochMilli(), row);
+        }, serial, from, to);
+        return series;
+    }
+
+    /** Rows the archive on disk holds, read back from its index */
+    private long verify(Path target, long expectedRows) throws IOException {
+        long archivedRows = 0;
+        try (BlockLoadArchiveReader reader = new BlockLoadArchiveReader(target)) {
+            for (ArchiveEntry entry : reader.getEntries()) {
+                archivedRows += entry.getRowCount();
+            }
+        }
+        if (archivedRows != expectedRows) {
+            throw new IOException("Archive " + target + " holds " + archivedRows + " rows, expected " + expectedRows);
+        }
+        return archivedRows;
+    }
+}
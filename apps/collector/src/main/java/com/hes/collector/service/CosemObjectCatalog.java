@@ -0,0 +1,199 @@
+package com.hes.collector.service;
+
+import com.hes.collector.config.CosemCatalogConfig;
+import com.hes.collector.dlms.CosemObject;
+import com.hes.collector.dlms.ObisCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * COSEM objects known to the collector, loaded from obis_codes into an immutable index keyed by
+ * OBIS code and by object name. The built-in {@link CosemObject.StandardObjects} are always
+ * present; rows in the table add objects or override them. The table is polled and the index
+ * swapped atomically when its row count or latest updated_at changes.
+ */
+@Slf4j
+@Service
+public class CosemObjectCatalog {
+    private static final String SELECT_OBJECTS =
+        "SELECT logical_name, class_id, object_name, attribute_id, access_level FROM obis_codes";
+    private static final String SELECT_FINGERPRINT =
+        "SELECT COUNT(*) || ':' || COALESCE(MAX(updated_at)::text, '') FROM obis_codes";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CosemCatalogConfig config;
+    private volatile Index index;
+    private volatile String fingerprint;
+
+    public CosemObjectCatalog(JdbcTemplate jdbcTemplate, CosemCatalogConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        this.index = Index.build(Collections.emptyList(), config.getReadPlan());
+    }
+
+    @PostConstruct
+    public void load() {
+        refreshIfChanged();
+    }
+
+    /**
+     * Rebuild the index if obis_codes changed since the last load. Failures keep the current index.
+     */
+    @Scheduled(fixedDelayString = "${collector.catalog.refreshIntervalMs:60000}",
+        initialDelayString = "${collector.catalog.refreshIntervalMs:60000}")
+    public void refreshIfChanged() {
+        try {
+            String current = jdbcTemplate.queryForObject(SELECT_FINGERPRINT, String.class);
+            if (current != null && current.equals(fingerprint)) {
+                return;
+            }
+            reload();
+            fingerprint = current;
+        } catch (Exception e) {
+            log.warn("Could not refresh COSEM catalog, keeping {} objects: {}", index.byObis.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Load obis_codes and swap in a new index.
+     */
+    public void reload() {
+        List<Entry> entries = jdbcTemplate.query(SELECT_OBJECTS, (rs, rowNum) -> {
+            String logicalName = rs.getString("logical_name");
+            try {
+                CosemObject object = CosemObject.builder()
+                    .classId(rs.getInt("class_id"))
+                    .obisCode(ObisCode.parse(logicalName.trim()))
+                    .attributeId(rs.getInt("attribute_id"))
+                    .dataIndex(0)
+                    .accessLevel(accessLevel(rs.getString("access_level")))
+                    .build();
+                return new Entry(rs.getString("object_name"), object);
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping obis_codes row {}: {}", logicalName, e.getMessage());
+                return null;
+            }
+        });
+        entries.removeIf(Objects::isNull);
+        Index rebuilt = Index.build(entries, config.getReadPlan());
+        index = rebuilt;
+        log.info("Loaded COSEM catalog: {} objects, {} from obis_codes", rebuilt.byObis.size(), entries.size());
+    }
+
+    public CosemObject find(ObisCode obisCode) {
+        return index.byObis.get(obisCode);
+    }
+
+    /**
+     * Object by name (case-insensitive, e.g. {@code clock}) or by OBIS code; null when unknown.
+     */
+    public CosemObject resolve(String nameOrObis) {
+        if (nameOrObis == null) {
+            return null;
+        }
+        Index current = index;
+        return Index.lookup(current.byObis, current.byName, nameOrObis.trim());
+    }
+
+    /** Objects of the configured read plan that the catalog knows, in plan order */
+    public List<CosemObject> getReadPlan() {
+        return index.readPlan;
+    }
+
+    public int size() {
+        return index.byObis.size();
+    }
+
+    private static CosemObject.AccessLevel accessLevel(String value) {
+        if (value == null) {
+            return CosemObject.AccessLevel.READ_ONLY;
+        }
+        return CosemObject.AccessLevel.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final CosemObject object;
+
+        Entry(String name, CosemObject object) {
+            this.name = name;
+            this.object = object;
+        }
+    }
+
+    private static final class Index {
+        private final Map<ObisCode, CosemObject> byObis;
+        private final Map<String, CosemObject> byName;
+        private final List<CosemObject> readPlan;
+
+        private Index(Map<ObisCode, CosemObject> byObis, Map<String, CosemObject> byName, List<CosemObject> readPlan) {
+            this.byObis = byObis;
+            this.byName = byName;
+            this.readPlan = readPlan;
+        }
+
+        static Index build(List<Entry> entries, List<String> plan) {
+            Map<ObisCode, CosemObject> byObis = new HashMap<>();
+            Map<String, CosemObject> byName = new HashMap<>();
+            putBuiltIn(byObis, byName, "CLOCK", CosemObject.StandardObjects.CLOCK);
+            putBuiltIn(byObis, byName, "ASSOCIATION_LN", CosemObject.StandardObjects.ASSOCIATION_LN);
+            putBuiltIn(byObis, byName, "ACTIVE_POWER_IMPORT", CosemObject.StandardObjects.ACTIVE_POWER_IMPORT);
+            putBuiltIn(byObis, byName, "VOLTAGE_L1", CosemObject.StandardObjects.VOLTAGE_L1);
+            putBuiltIn(byObis, byName, "CURRENT_L1", CosemObject.StandardObjects.CURRENT_L1);
+            putBuiltIn(byObis, byName, "RELAY_CONTROL", CosemObject.StandardObjects.RELAY_CONTROL);
+            for (Entry entry : entries) {
+                CosemObject previous = byObis.put(entry.object.getObisCode(), entry.object);
+                // Names of an overridden object now resolve to the row
+                if (previous != null) {
+                    byName.replaceAll((name, object) -> object == previous ? entry.object : object);
+                }
+                if (entry.name != null && !entry.name.trim().isEmpty()) {
+                    byName.put(entry.name.trim().toUpperCase(Locale.ROOT), entry.object);
+                }
+            }
+            List<CosemObject> readPlan = new ArrayList<>();
+            for (String name : plan) {
+                CosemObject object = lookup(byObis, byName, name.trim());
+                if (object == null) {
+                    log.warn("Read plan object {} is not in the COSEM catalog", name);
+                } else {
+                    readPlan.add(object);
+                }
+            }
+            return new Index(Collections.unmodifiableMap(byObis), Collections.unmodifiableMap(byName),
+                Collections.unmodifiableList(readPlan));
+        }
+
+        static CosemObject lookup(Map<ObisCode, CosemObject> byObis, Map<String, CosemObject> byName,
+                                  String nameOrObis) {
+            if (nameOrObis.isEmpty()) {
+                return null;
+            }
+            if (Character.isDigit(nameOrObis.charAt(0))) {
+                try {
+                    return byObis.get(ObisCode.parse(nameOrObis));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+            return byName.get(nameOrObis.toUpperCase(Locale.ROOT));
+        }
+
+        private static void putBuiltIn(Map<ObisCode, CosemObject> byObis, Map<String, CosemObject> byName,
+                                       String name, CosemObject object) {
+            byObis.put(object.getObisCode(), object);
+            byName.put(name, object);
+        }
+    }
+}
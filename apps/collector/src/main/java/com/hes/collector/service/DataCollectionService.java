@@ -4,7 +4,6 @@ import com.hes.collector.simulator.CollectorMeterSimulator;
 import com.hes.collector.model.Meter;
 import com.hes.collector.model.MeterReading;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,12 +12,9 @@ import java.util.List;
 @Service
 public class DataCollectionService {
     private final CollectorMeterSimulator meterSimulator;
-    private final KafkaTemplate<String, MeterReading> kafkaTemplate;
-    private static final String TOPIC = "meter-readings";
 
-    public DataCollectionService(CollectorMeterSimulator meterSimulator, KafkaTemplate<String, MeterReading> kafkaTemplate) {
+    public DataCollectionService(CollectorMeterSimulator meterSimulator) {
         this.meterSimulator = meterSimulator;
-        this.kafkaTemplate = kafkaTemplate;
     }
 
     public void addMeter(Meter meter) {
@@ -26,15 +22,13 @@ public class DataCollectionService {
         meterSimulator.addMeter(meter);
     }
 
+    /**
+     * Run one collection cycle; the simulator persists the readings and publishes them to Kafka
+     */
     public List<MeterReading> collectReadings() {
         log.info("Starting to collect readings from simulator");
         try {
-            meterSimulator.generateReadings();
-            log.info("Generated readings from simulator");
-            
-            // For now, return empty list since generateReadings doesn't return data
-            // In a real implementation, you would get the readings from a repository or cache
-            List<MeterReading> readings = java.util.Collections.emptyList();
+            List<MeterReading> readings = meterSimulator.generateReadings();
             log.info("Collected {} readings", readings.size());
             
             log.info("Successfully processed all readings");
@@ -5,6 +5,8 @@ import com.hes.collector.model.Meter;
 import com.hes.collector.model.MeterTransaction;
 import com.hes.collector.dlms.CosemObject;
 import com.hes.collector.dlms.DataObject;
+import com.hes.collector.scheduling.CommandLane;
+import com.hes.collector.scheduling.TransactionRetryScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -13,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import jakarta.annotation.PostConstruct;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -24,6 +27,9 @@ public class EnhancedSimulatorService {
     private final MeterCommunicationService meterCommunicationService;
     private final DlmsMeterCommunicationService dlmsService;
     private final RealTimeMeterCommunicationService realTimeService;
+    private final MeterTransactionManager transactionManager;
+    private final TransactionRetryScheduler retryScheduler;
+    private final CosemObjectCatalog cosemObjectCatalog;
 
     @Autowired
     public EnhancedSimulatorService(
@@ -31,12 +37,18 @@ public class EnhancedSimulatorService {
             MeterService meterService,
             MeterCommunicationService meterCommunicationService,
             DlmsMeterCommunicationService dlmsService,
-            RealTimeMeterCommunicationService realTimeService) {
+            RealTimeMeterCommunicationService realTimeService,
+            MeterTransactionManager transactionManager,
+            TransactionRetryScheduler retryScheduler,
+            CosemObjectCatalog cosemObjectCatalog) {
         this.simulator = simulator;
         this.meterService = meterService;
         this.meterCommunicationService = meterCommunicationService;
         this.dlmsService = dlmsService;
         this.realTimeService = realTimeService;
+        this.transactionManager = transactionManager;
+        this.retryScheduler = retryScheduler;
+        this.cosemObjectCatalog = cosemObjectCatalog;
         log.info("EnhancedSimulatorService initialized with all DLMS communication services");
     }
 
@@ -100,6 +112,8 @@ public class EnhancedSimulatorService {
             }
             
             CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                CommandLane.BULK,
+                meter.getSerialNumber(),
                 meter.getIpAddress(),
                 meter.getPort(),
                 CosemObject.StandardObjects.CLOCK,
@@ -129,18 +143,13 @@ public class EnhancedSimulatorService {
             log.warn("Meter {} does not have a port configured. Skipping read operations.", meter.getSerialNumber());
             return;
         }
-        CosemObject[] objectsToRead = {
-            CosemObject.StandardObjects.ACTIVE_POWER_IMPORT,
-            CosemObject.StandardObjects.VOLTAGE_L1,
-            CosemObject.StandardObjects.CURRENT_L1,
-            CosemObject.StandardObjects.CLOCK
-        };
-
-        for (CosemObject object : objectsToRead) {
+        for (CosemObject object : cosemObjectCatalog.getReadPlan()) {
             try {
                 log.debug("Reading {} for meter: {}", object, meter.getSerialNumber());
                 
                 CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                    CommandLane.BULK,
+                    meter.getSerialNumber(),
                     meter.getIpAddress(),
                     meter.getPort(),
                     object,
@@ -183,6 +192,8 @@ public class EnhancedSimulatorService {
                 meter.getSerialNumber(), connect ? "CONNECT" : "DISCONNECT");
             
             CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                CommandLane.BULK,
+                meter.getSerialNumber(),
                 meter.getIpAddress(),
                 meter.getPort(),
                 CosemObject.StandardObjects.RELAY_CONTROL,
@@ -209,8 +220,47 @@ public class EnhancedSimulatorService {
 
     private void triggerRetryMechanism(Meter meter, String operation) {
         log.info("Triggering retry mechanism for meter {} operation {}", meter.getSerialNumber(), operation);
-        // This would integrate with the transaction manager for retry logic
-        // For now, just log the retry attempt
+        if (!"PING".equals(operation)) {
+            log.warn("No retry handler for operation {} on meter {}", operation, meter.getSerialNumber());
+            return;
+        }
+        MeterTransaction transaction = transactionManager.createTransaction(
+            meter.getSerialNumber(),
+            MeterTransaction.TransactionType.PING
+        );
+        schedulePingRetry(meter, transaction.getTransactionId(), "Ping failed");
+    }
+
+    private void schedulePingRetry(Meter meter, UUID transactionId, String errorMessage) {
+        boolean scheduled = retryScheduler.scheduleRetry(transactionId, CommandLane.BULK, errorMessage,
+            () -> retryPing(meter, transactionId));
+        if (!scheduled) {
+            log.warn("Giving up on ping for meter {}: {}", meter.getSerialNumber(), errorMessage);
+        }
+    }
+
+    /**
+     * One retry attempt of a scheduled ping; chains the next retry on failure without blocking
+     */
+    private void retryPing(Meter meter, UUID transactionId) {
+        meterCommunicationService.communicate(
+            CommandLane.BULK,
+            meter.getSerialNumber(),
+            meter.getIpAddress(),
+            meter.getPort(),
+            CosemObject.StandardObjects.CLOCK,
+            null,
+            false
+        ).whenComplete((result, error) -> {
+            if (error == null && result.isSuccess()) {
+                log.info("Ping retry successful for meter: {}", meter.getSerialNumber());
+                transactionManager.setTransactionResult(transactionId, result);
+                meterService.updateLastCommunication(meter.getSerialNumber());
+            } else {
+                String message = error != null ? error.getMessage() : result.getError();
+                schedulePingRetry(meter, transactionId, message);
+            }
+        });
     }
 
     /**
@@ -246,6 +296,8 @@ public class EnhancedSimulatorService {
                 DataObject relayValue = DataObject.newBoolean(connect);
                 
                 CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                    CommandLane.URGENT,
+                    meter.getSerialNumber(),
                     meter.getIpAddress(),
                     meter.getPort(),
                     CosemObject.StandardObjects.RELAY_CONTROL,
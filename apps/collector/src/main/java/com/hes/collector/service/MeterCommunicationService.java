@@ -3,40 +3,59 @@ package com.hes.collector.service;
 import com.hes.collector.config.DlmsConfig;
 import com.hes.collector.dlms.*;
 import com.hes.collector.dlms.security.SecuritySuite;
+import com.hes.collector.metrics.CollectionStageMetrics;
+import com.hes.collector.metrics.MeterHealthScoreboard;
+import com.hes.collector.metrics.StageRecorder;
 import com.hes.collector.model.MeterTransaction;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import com.hes.collector.resilience.MeterAccessGuard;
+import com.hes.collector.scheduling.CommandLane;
+import com.hes.collector.scheduling.LaneScheduler;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import java.time.Duration;
-import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 public class MeterCommunicationService {
+    /** Returned by a lane task whose session was refused for a busy meter or gateway and should be tried again */
+    private static final MeterTransaction.Result REQUEUE = new MeterTransaction.Result();
+
     private final DlmsConfig config;
+    private final LaneScheduler laneScheduler;
+    private final MeterAccessGuard accessGuard;
+    private final CollectionStageMetrics stageMetrics;
+    private final MeterHealthScoreboard scoreboard;
     private final Timer communicationTimer;
-    private final Timer successTimer;
-    private final Timer failureTimer;
+    private final Counter successCounter;
+    private final Counter failureCounter;
 
-    public MeterCommunicationService(DlmsConfig config, MeterRegistry registry) {
+    public MeterCommunicationService(DlmsConfig config, MeterRegistry registry, LaneScheduler laneScheduler,
+                                     MeterAccessGuard accessGuard, CollectionStageMetrics stageMetrics,
+                                     MeterHealthScoreboard scoreboard) {
         this.config = config;
+        this.laneScheduler = laneScheduler;
+        this.accessGuard = accessGuard;
+        this.stageMetrics = stageMetrics;
+        this.scoreboard = scoreboard;
         this.communicationTimer = Timer.builder("meter.communication.duration")
             .description("Time taken for meter communication")
             .register(registry);
-        this.successTimer = Timer.builder("meter.communication.success")
+        this.successCounter = Counter.builder("meter.communication.success")
             .description("Successful meter communications")
             .register(registry);
-        this.failureTimer = Timer.builder("meter.communication.failure")
+        this.failureCounter = Counter.builder("meter.communication.failure")
             .description("Failed meter communications")
             .register(registry);
     }
 
-    @CircuitBreaker(name = "meterCommunication")
+    /**
+     * Communicate with a meter on the scheduled bulk lane
+     */
     @Retry(name = "meterCommunication")
     public CompletableFuture<MeterTransaction.Result> communicate(
             String ipAddress,
@@ -44,12 +63,107 @@ public class MeterCommunicationService {
             CosemObject object,
             DataObject value,
             boolean isWrite) {
-        
-        return CompletableFuture.supplyAsync(() -> {
-            Instant start = Instant.now();
+        return communicate(CommandLane.BULK, ipAddress, port, object, value, isWrite);
+    }
+
+    /**
+     * Communicate with a meter on the given scheduler lane
+     */
+    @Retry(name = "meterCommunication")
+    public CompletableFuture<MeterTransaction.Result> communicate(
+            CommandLane lane,
+            String ipAddress,
+            int port,
+            CosemObject object,
+            DataObject value,
+            boolean isWrite) {
+        return communicate(lane, null, ipAddress, port, object, value, isWrite);
+    }
+
+    /**
+     * Communicate with a meter of known serial number on the given scheduler lane; its stages
+     * are recorded under its own model and firmware even when other meters share the address
+     */
+    @Retry(name = "meterCommunication")
+    public CompletableFuture<MeterTransaction.Result> communicate(
+            CommandLane lane,
+            String meterSerialNumber,
+            String ipAddress,
+            int port,
+            CosemObject object,
+            DataObject value,
+            boolean isWrite) {
+        return communicate(lane, meterSerialNumber, ipAddress, port, protocol -> {
+            MeterTransaction.Result result = new MeterTransaction.Result();
+            if (isWrite) {
+                DlmsProtocol.SetResult setResult = protocol.set(object, value);
+                result.setSuccess(setResult.isSuccess());
+                result.setError(setResult.getError());
+            } else {
+                DlmsProtocol.GetResult getResult = protocol.get(object);
+                result.setSuccess(getResult.isSuccess());
+                result.setError(getResult.getError());
+                result.setValue(getResult.getValue());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Run several requests in one association with a meter, on the given scheduler lane. The
+     * session goes through the same access guard, metrics and health scoring as a single request.
+     * A session refused because the meter or its gateway is busy goes back to its lane after
+     * collector.access.permitRetryMs, until collector.access.permitTimeoutMs has passed, so the
+     * lane worker is free for other meters meanwhile.
+     */
+    public CompletableFuture<MeterTransaction.Result> communicate(
+            CommandLane lane,
+            String ipAddress,
+            int port,
+            Session session) {
+        return communicate(lane, null, ipAddress, port, session);
+    }
+
+    /**
+     * Run a session with a meter of known serial number, see {@link #communicate(CommandLane, String, int, Session)}
+     */
+    public CompletableFuture<MeterTransaction.Result> communicate(
+            CommandLane lane,
+            String meterSerialNumber,
+            String ipAddress,
+            int port,
+            Session session) {
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(accessGuard.getPermitTimeoutMs());
+        StageRecorder stages = stageMetrics.forSerial(meterSerialNumber, ipAddress, port);
+        return attempt(lane, ipAddress, port, stages, session, deadline);
+    }
+
+    private CompletableFuture<MeterTransaction.Result> attempt(
+            CommandLane lane,
+            String ipAddress,
+            int port,
+            StageRecorder stages,
+            Session session,
+            long deadline) {
+
+        return laneScheduler.submit(lane, () -> {
+            long start = System.nanoTime();
             MeterTransaction.Result result = new MeterTransaction.Result();
-            
-            try (DlmsProtocol protocol = createProtocol(ipAddress, port)) {
+
+            MeterAccessGuard.Permit permit = accessGuard.acquire(ipAddress, port);
+            if (!permit.isGranted() && permit.isRetryable() && start - deadline < 0) {
+                return REQUEUE;
+            }
+            if (!permit.isGranted()) {
+                result.setSuccess(false);
+                result.setError(permit.getDenialReason());
+                recordFailure(start);
+                return result;
+            }
+
+            boolean connected = false;
+            try (DlmsProtocol protocol = createProtocol(ipAddress, port, stages)) {
                 // Establish connection
                 if (!protocol.connect()) {
                     result.setSuccess(false);
@@ -57,18 +171,10 @@ public class MeterCommunicationService {
                     recordFailure(start);
                     return result;
                 }
+                connected = true;
 
                 // Perform operation
-                if (isWrite) {
-                    DlmsProtocol.SetResult setResult = protocol.set(object, value);
-                    result.setSuccess(setResult.isSuccess());
-                    result.setError(setResult.getError());
-                } else {
-                    DlmsProtocol.GetResult getResult = protocol.get(object);
-                    result.setSuccess(getResult.isSuccess());
-                    result.setError(getResult.getError());
-                    result.setValue(getResult.getValue());
-                }
+                result = session.run(protocol);
 
                 // Record metrics
                 if (result.isSuccess()) {
@@ -84,11 +190,28 @@ public class MeterCommunicationService {
                 result.setError(e.getMessage());
                 recordFailure(start);
                 return result;
+            } finally {
+                permit.release(connected, result.isSuccess());
+                // Calls denied by the access guard above never reached the meter and are not scored
+                scoreboard.record(ipAddress + ":" + port, result.isSuccess(), System.nanoTime() - start,
+                    result.getError());
             }
-        });
+        }).thenCompose(result -> result != REQUEUE
+            ? CompletableFuture.completedFuture(result)
+            : CompletableFuture.supplyAsync(() -> attempt(lane, ipAddress, port, stages, session, deadline),
+                    CompletableFuture.delayedExecutor(accessGuard.getPermitRetryMs(), TimeUnit.MILLISECONDS))
+                .thenCompose(next -> next));
+    }
+
+    /**
+     * Requests made on one connected and associated meter
+     */
+    @FunctionalInterface
+    public interface Session {
+        MeterTransaction.Result run(DlmsProtocol protocol);
     }
 
-    private DlmsProtocol createProtocol(String ipAddress, int port) {
+    private DlmsProtocol createProtocol(String ipAddress, int port, StageRecorder stages) {
         SecuritySuite security;
         if (config.isUseHighLevelSecurity()) {
             security = SecuritySuite.highLevelSecurity(
@@ -107,19 +230,18 @@ public class MeterCommunicationService {
             .port(port)
             .config(config)
             .security(security)
+            .stages(stages)
             .build();
     }
 
-    private void recordSuccess(Instant start) {
-        Duration duration = Duration.between(start, Instant.now());
-        communicationTimer.record(duration.toMillis(), TimeUnit.MILLISECONDS);
-        successTimer.record(1, TimeUnit.SECONDS);
+    private void recordSuccess(long start) {
+        communicationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        successCounter.increment();
     }
 
-    private void recordFailure(Instant start) {
-        Duration duration = Duration.between(start, Instant.now());
-        communicationTimer.record(duration.toMillis(), TimeUnit.MILLISECONDS);
-        failureTimer.record(1, TimeUnit.SECONDS);
+    private void recordFailure(long start) {
+        communicationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        failureCounter.increment();
     }
 
     private static byte[] hexStringToByteArray(String s) {
@@ -1,5 +1,6 @@
 package com.hes.collector.service;
 
+import com.hes.collector.metrics.CollectionStageMetrics;
 import com.hes.collector.model.Meter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -11,12 +12,18 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Meter registry access. Every meter registered or loaded here is identified to the stage
+ * metrics, so its collection stages are tagged with its model and firmware.
+ */
 @Service
 public class MeterService {
     private final JdbcTemplate jdbcTemplate;
+    private final CollectionStageMetrics stageMetrics;
 
-    public MeterService(JdbcTemplate jdbcTemplate) {
+    public MeterService(JdbcTemplate jdbcTemplate, CollectionStageMetrics stageMetrics) {
         this.jdbcTemplate = jdbcTemplate;
+        this.stageMetrics = stageMetrics;
     }
 
     public List<Meter> getAllMeters() {
@@ -29,6 +36,16 @@ public class MeterService {
         return jdbcTemplate.queryForObject(sql, this::mapRowToMeter, serialNumber);
     }
 
+    public List<String> getMeterIpAddresses() {
+        String sql = "SELECT DISTINCT ip_address FROM meters WHERE ip_address IS NOT NULL";
+        return jdbcTemplate.queryForList(sql, String.class);
+    }
+
+    public List<Meter> getMetersByGroup(UUID groupId) {
+        String sql = "SELECT * FROM meters WHERE group_id = ? ORDER BY meter_serial_number";
+        return jdbcTemplate.query(sql, this::mapRowToMeter, groupId);
+    }
+
     public void saveMeter(Meter meter) {
         String sql = "INSERT INTO meters (meter_serial_number, device_id, manufacturer_name, firmware_version, meter_type, meter_category, current_rating, year_of_manufacture, ctr, ptr, status, last_communication, protocol_version, ip_address, port, group_id, created_at, updated_at) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
@@ -52,6 +69,7 @@ public class MeterService {
             meter.getCreatedAt() != null ? meter.getCreatedAt() : LocalDateTime.now(),
             meter.getUpdatedAt() != null ? meter.getUpdatedAt() : LocalDateTime.now()
         );
+        stageMetrics.identify(meter);
     }
 
     public void updateLastCommunication(String meterSerialNumber) {
@@ -87,6 +105,7 @@ public class MeterService {
         meter.setProtocolVersion(rs.getString("protocol_version"));
         meter.setIpAddress(rs.getString("ip_address"));
         meter.setPort(rs.getObject("port", Integer.class));
+        stageMetrics.identify(meter);
         return meter;
     }
 } 
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.hes.collector.service;
 
 import com.hes.collector.model.MeterTransaction;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import java.time.Instant;
@@ -82,6 +83,11 @@ public class MeterTransactionManager {
         return activeTransactions.get(transactionId);
     }
 
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
     private void startTimeoutChecker() {
         scheduler.scheduleAtFixedRate(() -> {
             Instant now = Instant.now();
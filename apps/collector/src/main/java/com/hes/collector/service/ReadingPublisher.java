@@ -0,0 +1,132 @@
+package com.hes.collector.service;
+
+import com.hes.collector.config.ReadingPublisherConfig;
+import com.hes.collector.metrics.CollectionStage;
+import com.hes.collector.metrics.CollectionStageMetrics;
+import com.hes.collector.model.MeterReading;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes persisted meter readings to Kafka. Records are keyed by meter serial number so
+ * every reading of a meter lands on the same partition and is consumed in order; sends are
+ * asynchronous and batched by the producer.
+ * <p>
+ * {@code send()} blocks for up to max.block.ms while the producer buffer is full or broker
+ * metadata is missing, so callers only queue the reading. One sender thread hands queued
+ * readings to the producer in order; a reading that finds the queue full is dropped and counted.
+ */
+@Slf4j
+@Service
+public class ReadingPublisher {
+    private final KafkaTemplate<String, MeterReading> kafkaTemplate;
+    private final ReadingPublisherConfig config;
+    private final CollectionStageMetrics stageMetrics;
+    private final ThreadPoolExecutor sender;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+    private final Timer ackTimer;
+
+    public ReadingPublisher(KafkaTemplate<String, MeterReading> kafkaTemplate,
+                            ReadingPublisherConfig config,
+                            MeterRegistry registry,
+                            CollectionStageMetrics stageMetrics) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.config = config;
+        this.stageMetrics = stageMetrics;
+        this.sender = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(config.getQueueCapacity()), runnable -> {
+                Thread thread = new Thread(runnable, "kafka-publisher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.publishedCounter = Counter.builder("collector.kafka.published")
+            .description("Meter readings acknowledged by Kafka")
+            .register(registry);
+        this.failedCounter = Counter.builder("collector.kafka.failed")
+            .description("Meter readings that could not be published")
+            .register(registry);
+        this.droppedCounter = Counter.builder("collector.kafka.dropped")
+            .description("Meter readings dropped because the send queue was full")
+            .register(registry);
+        this.ackTimer = Timer.builder("collector.kafka.ack")
+            .description("Time from send to broker acknowledgement")
+            .register(registry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdown();
+        try {
+            if (!sender.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Stopped publishing with {} readings still queued", sender.getQueue().size());
+                sender.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sender.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue one reading for sending. Never blocks or throws; the returned future completes with
+     * the send result, or with null when publishing is disabled, the queue was full or the record
+     * could not be handed to the producer.
+     */
+    public CompletableFuture<SendResult<String, MeterReading>> publish(MeterReading reading) {
+        if (!config.isEnabled() || reading == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<SendResult<String, MeterReading>> result = new CompletableFuture<>();
+        try {
+            sender.execute(() -> send(reading, result));
+        } catch (RejectedExecutionException e) {
+            droppedCounter.increment();
+            log.debug("Dropped reading for meter {}: send queue full", reading.getMeterSerialNumber());
+            result.complete(null);
+        }
+        return result;
+    }
+
+    public int getQueued() {
+        return sender.getQueue().size();
+    }
+
+    private void send(MeterReading reading, CompletableFuture<SendResult<String, MeterReading>> result) {
+        String key = reading.getMeterSerialNumber();
+        long start = System.nanoTime();
+        try {
+            kafkaTemplate.send(config.getTopic(), key, reading)
+                .whenComplete((sent, ex) -> {
+                    long elapsed = System.nanoTime() - start;
+                    stageMetrics.forSerial(key).record(CollectionStage.KAFKA_PUBLISH, elapsed, ex == null);
+                    if (ex == null) {
+                        publishedCounter.increment();
+                        ackTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                        result.complete(sent);
+                    } else {
+                        failedCounter.increment();
+                        log.warn("Failed to publish reading for meter {}: {}", key, ex.getMessage());
+                        result.completeExceptionally(ex);
+                    }
+                });
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.warn("Failed to publish reading for meter {}: {}", key, e.getMessage());
+            result.complete(null);
+        }
+    }
+}
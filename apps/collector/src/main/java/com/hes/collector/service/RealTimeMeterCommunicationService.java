@@ -2,10 +2,13 @@ package com.hes.collector.service;
 
 import com.hes.collector.model.MeterTransaction;
 import com.hes.collector.model.Meter;
+import com.hes.collector.scheduling.CommandLane;
+import com.hes.collector.scheduling.LaneScheduler;
+import com.hes.collector.scheduling.TransactionRetryScheduler;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 @Slf4j
 @Service
@@ -13,178 +16,118 @@ public class RealTimeMeterCommunicationService {
     private final MeterTransactionManager transactionManager;
     private final MeterService meterService;
     private final DlmsMeterCommunicationService dlmsService;
+    private final LaneScheduler laneScheduler;
+    private final TransactionRetryScheduler retryScheduler;
 
     public RealTimeMeterCommunicationService(
-            MeterTransactionManager transactionManager, 
+            MeterTransactionManager transactionManager,
             MeterService meterService,
-            DlmsMeterCommunicationService dlmsService) {
+            DlmsMeterCommunicationService dlmsService,
+            LaneScheduler laneScheduler,
+            TransactionRetryScheduler retryScheduler) {
         this.transactionManager = transactionManager;
         this.meterService = meterService;
         this.dlmsService = dlmsService;
+        this.laneScheduler = laneScheduler;
+        this.retryScheduler = retryScheduler;
     }
 
     public CompletableFuture<MeterTransaction> pingMeter(String meterSerialNumber) {
         MeterTransaction transaction = transactionManager.createTransaction(
-            meterSerialNumber, 
+            meterSerialNumber,
             MeterTransaction.TransactionType.PING
         );
-
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Meter meter = meterService.getMeterBySerialNumber(meterSerialNumber);
-                if (meter == null) {
-                    transactionManager.updateTransactionStatus(
-                        transaction.getTransactionId(),
-                        MeterTransaction.TransactionStatus.FAILED,
-                        "Meter not found"
-                    );
-                    return transaction;
-                }
-
-                boolean success = dlmsService.executePingCommand(meter);
-                
-                if (success) {
-                    MeterTransaction.Result result = new MeterTransaction.Result();
-                    result.setSuccess(true);
-                    result.setTimestamp(java.time.Instant.now());
-                    transactionManager.setTransactionResult(
-                        transaction.getTransactionId(),
-                        result
-                    );
-                } else {
-                    handleFailedTransaction(transaction.getTransactionId(), "Ping failed");
-                }
-            } catch (Exception e) {
-                handleFailedTransaction(transaction.getTransactionId(), e.getMessage());
-            }
-            return transactionManager.getTransaction(transaction.getTransactionId());
-        });
+        return dispatch(CommandLane.ODR, transaction,
+            meter -> dlmsService.executePingCommand(meter), "Ping failed");
     }
 
     public CompletableFuture<MeterTransaction> getRelayStatus(String meterSerialNumber) {
         MeterTransaction transaction = transactionManager.createTransaction(
-            meterSerialNumber, 
+            meterSerialNumber,
             MeterTransaction.TransactionType.READ
         );
-
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Meter meter = meterService.getMeterBySerialNumber(meterSerialNumber);
-                if (meter == null) {
-                    transactionManager.updateTransactionStatus(
-                        transaction.getTransactionId(),
-                        MeterTransaction.TransactionStatus.FAILED,
-                        "Meter not found"
-                    );
-                    return transaction;
-                }
-
-                // Get relay status through DLMS
-                boolean success = dlmsService.executeRelayCommand(meter, false); // false = just read status
-                
-                if (success) {
-                    MeterTransaction.Result result = new MeterTransaction.Result();
-                    result.setSuccess(true);
-                    result.setTimestamp(java.time.Instant.now());
-                    transactionManager.setTransactionResult(
-                        transaction.getTransactionId(),
-                        result
-                    );
-                } else {
-                    handleFailedTransaction(transaction.getTransactionId(), "Failed to get relay status");
-                }
-            } catch (Exception e) {
-                handleFailedTransaction(transaction.getTransactionId(), e.getMessage());
-            }
-            return transactionManager.getTransaction(transaction.getTransactionId());
-        });
+        // Get relay status through DLMS; false = just read status
+        return dispatch(CommandLane.ODR, transaction,
+            meter -> dlmsService.executeRelayCommand(meter, false), "Failed to get relay status");
     }
 
     public CompletableFuture<MeterTransaction> connectMeter(String meterSerialNumber) {
         MeterTransaction transaction = transactionManager.createTransaction(
-            meterSerialNumber, 
+            meterSerialNumber,
             MeterTransaction.TransactionType.CONNECT
         );
-
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Meter meter = meterService.getMeterBySerialNumber(meterSerialNumber);
-                if (meter == null) {
-                    transactionManager.updateTransactionStatus(
-                        transaction.getTransactionId(),
-                        MeterTransaction.TransactionStatus.FAILED,
-                        "Meter not found"
-                    );
-                    return transaction;
-                }
-
-                boolean success = dlmsService.executeRelayCommand(meter, true); // true = connect
-                
-                if (success) {
-                    MeterTransaction.Result result = new MeterTransaction.Result();
-                    result.setSuccess(true);
-                    result.setTimestamp(java.time.Instant.now());
-                    transactionManager.setTransactionResult(
-                        transaction.getTransactionId(),
-                        result
-                    );
-                } else {
-                    handleFailedTransaction(transaction.getTransactionId(), "Failed to connect meter");
-                }
-            } catch (Exception e) {
-                handleFailedTransaction(transaction.getTransactionId(), e.getMessage());
-            }
-            return transactionManager.getTransaction(transaction.getTransactionId());
-        });
+        // true = connect
+        return dispatch(CommandLane.URGENT, transaction,
+            meter -> dlmsService.executeRelayCommand(meter, true), "Failed to connect meter");
     }
 
     public CompletableFuture<MeterTransaction> disconnectMeter(String meterSerialNumber) {
         MeterTransaction transaction = transactionManager.createTransaction(
-            meterSerialNumber, 
+            meterSerialNumber,
             MeterTransaction.TransactionType.DISCONNECT
         );
+        // false = disconnect
+        return dispatch(CommandLane.URGENT, transaction,
+            meter -> dlmsService.executeRelayCommand(meter, false), "Failed to disconnect meter");
+    }
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Meter meter = meterService.getMeterBySerialNumber(meterSerialNumber);
-                if (meter == null) {
-                    transactionManager.updateTransactionStatus(
-                        transaction.getTransactionId(),
-                        MeterTransaction.TransactionStatus.FAILED,
-                        "Meter not found"
-                    );
-                    return transaction;
-                }
+    private CompletableFuture<MeterTransaction> dispatch(CommandLane lane, MeterTransaction transaction,
+                                                         Predicate<Meter> command, String failureMessage) {
+        return laneScheduler.submit(lane, () -> execute(lane, transaction, command, failureMessage));
+    }
 
-                boolean success = dlmsService.executeRelayCommand(meter, false); // false = disconnect
-                
-                if (success) {
-                    MeterTransaction.Result result = new MeterTransaction.Result();
-                    result.setSuccess(true);
-                    result.setTimestamp(java.time.Instant.now());
-                    transactionManager.setTransactionResult(
-                        transaction.getTransactionId(),
-                        result
-                    );
-                } else {
-                    handleFailedTransaction(transaction.getTransactionId(), "Failed to disconnect meter");
-                }
-            } catch (Exception e) {
-                handleFailedTransaction(transaction.getTransactionId(), e.getMessage());
+    /**
+     * Run one attempt of a transaction on the current lane worker
+     */
+    private MeterTransaction execute(CommandLane lane, MeterTransaction transaction,
+                                     Predicate<Meter> command, String failureMessage) {
+        try {
+            Meter meter = meterService.getMeterBySerialNumber(transaction.getMeterSerialNumber());
+            if (meter == null) {
+                transactionManager.updateTransactionStatus(
+                    transaction.getTransactionId(),
+                    MeterTransaction.TransactionStatus.FAILED,
+                    "Meter not found"
+                );
+                return transaction;
             }
-            return transactionManager.getTransaction(transaction.getTransactionId());
-        });
-    }
 
-    private void handleFailedTransaction(UUID transactionId, String errorMessage) {
-        if (transactionManager.retryTransaction(transactionId)) {
-            log.info("Retrying transaction: {}", transactionId);
-        } else {
             transactionManager.updateTransactionStatus(
-                transactionId,
-                MeterTransaction.TransactionStatus.FAILED,
-                errorMessage
+                transaction.getTransactionId(),
+                MeterTransaction.TransactionStatus.IN_PROGRESS,
+                null
             );
+            boolean success = command.test(meter);
+
+            if (success) {
+                MeterTransaction.Result result = new MeterTransaction.Result();
+                result.setSuccess(true);
+                result.setTimestamp(java.time.Instant.now());
+                transactionManager.setTransactionResult(
+                    transaction.getTransactionId(),
+                    result
+                );
+            } else {
+                handleFailedTransaction(lane, transaction, command, failureMessage, failureMessage);
+            }
+        } catch (Exception e) {
+            handleFailedTransaction(lane, transaction, command, failureMessage, e.getMessage());
+        }
+        MeterTransaction current = transactionManager.getTransaction(transaction.getTransactionId());
+        return current != null ? current : transaction;
+    }
+
+    private void handleFailedTransaction(CommandLane lane, MeterTransaction transaction,
+                                         Predicate<Meter> command, String failureMessage, String errorMessage) {
+        transaction.setErrorMessage(errorMessage);
+        boolean scheduled = retryScheduler.scheduleRetry(
+            transaction.getTransactionId(),
+            lane,
+            errorMessage,
+            () -> dispatch(lane, transaction, command, failureMessage)
+        );
+        if (scheduled) {
+            log.info("Retrying transaction: {}", transaction.getTransactionId());
         }
     }
-} 
\ No newline at end of file
+}
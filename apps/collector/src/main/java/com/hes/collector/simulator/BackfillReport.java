@@ -0,0 +1,29 @@
+package com.hes.collector.simulator;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Progress and outcome of a historical backfill run.
+ */
+@Data
+public class BackfillReport {
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private Status status = Status.RUNNING;
+    private int meters;
+    private int days;
+    private Instant from;
+    private Instant to;
+    /** COPY or JDBC_BATCH */
+    private String bulkPath;
+    private int threads;
+    private Map<String, Long> rowsByTable = new LinkedHashMap<>();
+    private long totalRows;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private String error;
+}
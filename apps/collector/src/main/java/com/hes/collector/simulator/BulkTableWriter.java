@@ -0,0 +1,119 @@
+package com.hes.collector.simulator;
+
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffers rows for one table and writes them in bulk: COPY FROM STDIN in text format when the
+ * connection is PostgreSQL, a JDBC batch insert otherwise. Values may be {@link Instant},
+ * {@link Number}, {@link String} or null. Not thread safe; one writer per table per worker.
+ */
+class BulkTableWriter {
+    private final String table;
+    private final String[] columns;
+    private final Connection connection;
+    private final CopyManager copyManager;
+    private final int flushRows;
+    private final StringBuilder text = new StringBuilder();
+    private final List<Object[]> batch = new ArrayList<>();
+    private int pendingRows;
+    private long writtenRows;
+
+    BulkTableWriter(String table, String[] columns, Connection connection, CopyManager copyManager, int flushRows) {
+        this.table = table;
+        this.columns = columns;
+        this.connection = connection;
+        this.copyManager = copyManager;
+        this.flushRows = flushRows;
+    }
+
+    void add(Object... values) throws SQLException {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException(table + " expects " + columns.length + " values");
+        }
+        if (copyManager != null) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    text.append('\t');
+                }
+                appendText(values[i]);
+            }
+            text.append('\n');
+        } else {
+            batch.add(values);
+        }
+        if (++pendingRows >= flushRows) {
+            flush();
+        }
+    }
+
+    void flush() throws SQLException {
+        if (pendingRows == 0) {
+            return;
+        }
+        if (copyManager != null) {
+            try {
+                copyManager.copyIn("COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN",
+                    new StringReader(text.toString()));
+            } catch (IOException e) {
+                throw new SQLException("COPY into " + table + " failed: " + e.getMessage(), e);
+            }
+            text.setLength(0);
+        } else {
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (")
+                .append(String.join(", ", columns)).append(") VALUES (");
+            for (int i = 0; i < columns.length; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            try (PreparedStatement statement = connection.prepareStatement(sql.append(')').toString())) {
+                for (Object[] row : batch) {
+                    for (int i = 0; i < row.length; i++) {
+                        Object value = row[i];
+                        statement.setObject(i + 1, value instanceof Instant ? Timestamp.from((Instant) value) : value);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            batch.clear();
+        }
+        writtenRows += pendingRows;
+        pendingRows = 0;
+    }
+
+    long getWrittenRows() {
+        return writtenRows;
+    }
+
+    String getTable() {
+        return table;
+    }
+
+    private void appendText(Object value) {
+        if (value == null) {
+            text.append("\\N");
+        } else if (value instanceof String) {
+            String s = (String) value;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '\\' || c == '\t' || c == '\n' || c == '\r') {
+                    text.append('\\').append(c == '\t' ? 't' : c == '\n' ? 'n' : c == '\r' ? 'r' : '\\');
+                } else {
+                    text.append(c);
+                }
+            }
+        } else {
+            // Instant.toString() is ISO-8601 in UTC, which timestamptz accepts
+            text.append(value);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hes.collector.simulator;
 
+import com.hes.collector.buffer.InstantaneousProfileBuffer;
 import com.hes.collector.model.Meter;
 import com.hes.collector.model.MeterReading;
 import com.hes.collector.model.MeterTransaction;
@@ -13,7 +14,13 @@ import com.hes.collector.dlms.CosemObject;
 import com.hes.collector.dlms.DataObject;
 import com.hes.collector.dlms.security.SecuritySuite;
 import com.hes.collector.config.DlmsConfig;
+import com.hes.collector.config.SimulatorConfig;
+import com.hes.collector.metrics.CollectionStage;
+import com.hes.collector.metrics.CollectionStageMetrics;
+import com.hes.collector.service.CosemObjectCatalog;
 import com.hes.collector.service.MeterCommunicationService;
+import com.hes.collector.service.ReadingPublisher;
+import com.hes.collector.scheduling.CommandLane;
 import lombok.Data;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +28,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -34,7 +42,8 @@ import java.util.concurrent.CompletableFuture;
 @Component
 public class CollectorMeterSimulator {
     private static final Logger log = LoggerFactory.getLogger(CollectorMeterSimulator.class);
-    private final Random random = new Random();
+    private final Random random;
+    private final FleetLoadModel loadModel;
     private final List<SimulatedMeter> simulatedMeters = new ArrayList<>();
     private final JdbcTemplate jdbcTemplate;
     private final CollectorMeterRepository meterRepository;
@@ -42,18 +51,38 @@ public class CollectorMeterSimulator {
     private final PingService pingService;
     private final MeterCommunicationService meterCommunicationService;
     private final DlmsConfig dlmsConfig;
+    private final ReadingPublisher readingPublisher;
+    private final InstantaneousProfileBuffer instantaneousBuffer;
+    private final CosemObjectCatalog cosemObjectCatalog;
+    private final CollectionStageMetrics stageMetrics;
     private final DateTimeFormatter rtcFormatter = DateTimeFormatter.ofPattern("yyMMddHHmmss");
 
+    private static final FleetLoadModel.Register[] BLOCK_REGISTERS = {
+        FleetLoadModel.Register.WH_IMPORT, FleetLoadModel.Register.WH_EXPORT,
+        FleetLoadModel.Register.VARH_Q1, FleetLoadModel.Register.VARH_Q2,
+        FleetLoadModel.Register.VARH_Q3, FleetLoadModel.Register.VARH_Q4,
+        FleetLoadModel.Register.VAH_IMPORT, FleetLoadModel.Register.VAH_EXPORT
+    };
+
     public CollectorMeterSimulator(JdbcTemplate jdbcTemplate, CollectorMeterRepository meterRepository,
                                  RelayService relayService, PingService pingService,
                                  MeterCommunicationService meterCommunicationService,
-                                 DlmsConfig dlmsConfig) {
+                                 DlmsConfig dlmsConfig, ReadingPublisher readingPublisher,
+                                 InstantaneousProfileBuffer instantaneousBuffer, SimulatorConfig simulatorConfig,
+                                 CosemObjectCatalog cosemObjectCatalog, CollectionStageMetrics stageMetrics) {
         this.jdbcTemplate = jdbcTemplate;
         this.meterRepository = meterRepository;
         this.relayService = relayService;
         this.pingService = pingService;
         this.meterCommunicationService = meterCommunicationService;
         this.dlmsConfig = dlmsConfig;
+        this.readingPublisher = readingPublisher;
+        this.instantaneousBuffer = instantaneousBuffer;
+        this.cosemObjectCatalog = cosemObjectCatalog;
+        this.stageMetrics = stageMetrics;
+        this.random = new Random(simulatorConfig.getSeed());
+        this.loadModel = new FleetLoadModel(simulatorConfig.getSeed(), ZoneId.systemDefault(),
+            simulatorConfig.getSolarShare());
         loadMeters();
     }
 
@@ -66,20 +95,24 @@ public class CollectorMeterSimulator {
     }
 
     public void addMeter(Meter meter) {
-        SimulatedMeter simMeter = new SimulatedMeter(meter);
+        SimulatedMeter simMeter = new SimulatedMeter(meter, loadModel);
         simulatedMeters.add(simMeter);
+        stageMetrics.identify(meter);
         log.info("Added simulated meter: {}", meter.getSerialNumber());
     }
 
     /**
-     * Scheduled comprehensive data collection (keeps all transaction data)
+     * Scheduled comprehensive data collection (keeps all transaction data).
+     * Every reading persisted in this cycle is published to Kafka as it is written; the
+     * instantaneous readings are returned.
      */
     @Scheduled(fixedRate = 30000) // Every 30 seconds
-    public void generateReadings() {
+    public List<MeterReading> generateReadings() {
         List<MeterReading> readings = new ArrayList<>();
         Instant now = Instant.now();
         
         log.info("Starting to generate comprehensive readings for {} meters at {}", simulatedMeters.size(), now);
+        loadModel.advance(now);
 
         for (SimulatedMeter simMeter : simulatedMeters) {
             try {
@@ -87,10 +120,16 @@ public class CollectorMeterSimulator {
                 pingService.updateLastCommunication(simMeter.getMeter().getSerialNumber());
 
                 // Generate and save different types of readings (scheduled)
-                generateAndSaveInstantaneousReadings(simMeter, now);
-                generateAndSaveBlockLoadProfile(simMeter, now);
-                generateAndSaveDailyLoadProfile(simMeter, now);
-                generateAndSaveBillingProfile(simMeter, now);
+                MeterReading reading = generateAndSaveInstantaneousReadings(simMeter, now);
+                if (reading != null) {
+                    readings.add(reading);
+                }
+                // Daily and billing rows follow the first block closed at their boundary,
+                // so a second tick in the same minute does not write them again
+                if (generateAndSaveBlockLoadProfile(simMeter, now)) {
+                    generateAndSaveDailyLoadProfile(simMeter, now);
+                    generateAndSaveBillingProfile(simMeter, now);
+                }
                 
                 // Generate events with 10% chance
                 if (random.nextDouble() < 0.10) {
@@ -106,6 +145,7 @@ public class CollectorMeterSimulator {
         }
 
         log.info("Completed generating comprehensive readings for {} meters", simulatedMeters.size());
+        return readings;
     }
 
     /**
@@ -301,6 +341,8 @@ public class CollectorMeterSimulator {
         }
         try {
             CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                CommandLane.BULK,
+                simMeter.getMeter().getSerialNumber(),
                 simMeter.getMeter().getIpAddress(),
                 simMeter.getMeter().getPort(),
                 CosemObject.StandardObjects.CLOCK,
@@ -326,16 +368,11 @@ public class CollectorMeterSimulator {
             log.warn("Simulated meter {} does not have a port. Skipping DLMS read.", simMeter.getMeter().getSerialNumber());
             return;
         }
-        CosemObject[] objectsToRead = {
-            CosemObject.StandardObjects.ACTIVE_POWER_IMPORT,
-            CosemObject.StandardObjects.VOLTAGE_L1,
-            CosemObject.StandardObjects.CURRENT_L1,
-            CosemObject.StandardObjects.CLOCK
-        };
-
-        for (CosemObject object : objectsToRead) {
+        for (CosemObject object : cosemObjectCatalog.getReadPlan()) {
             try {
                 CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                    CommandLane.BULK,
+                    simMeter.getMeter().getSerialNumber(),
                     simMeter.getMeter().getIpAddress(),
                     simMeter.getMeter().getPort(),
                     object,
@@ -370,6 +407,8 @@ public class CollectorMeterSimulator {
             DataObject relayValue = DataObject.newBoolean(connect);
             
             CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                CommandLane.BULK,
+                simMeter.getMeter().getSerialNumber(),
                 simMeter.getMeter().getIpAddress(),
                 simMeter.getMeter().getPort(),
                 CosemObject.StandardObjects.RELAY_CONTROL,
@@ -441,7 +480,11 @@ public class CollectorMeterSimulator {
         return rtcFormatter.format(instant.atZone(ZoneId.systemDefault()));
     }
 
-    private void generateAndSaveInstantaneousReadings(SimulatedMeter simMeter, Instant now) {
+    /**
+     * Insert one instantaneous profile row, add it to the in-memory buffer and return it as a reading,
+     * or null if the insert failed
+     */
+    private MeterReading generateAndSaveInstantaneousReadings(SimulatedMeter simMeter, Instant now) {
         try {
             String sql = "INSERT INTO instantaneous_profiles (meter_serial_number, capture_time, rtc_time, " +
                         "l1_current_ir, l2_current_iy, l3_current_ib, " +
@@ -453,41 +496,92 @@ public class CollectorMeterSimulator {
 
             Timestamp timestamp = Timestamp.from(now);
             String rtcTime = formatRtcTime(now);
-            
-            int rowsInserted = jdbcTemplate.update(sql,
-                simMeter.getMeter().getSerialNumber(),
-                timestamp,
-                rtcTime,
-                simMeter.generateCurrent(),
-                simMeter.generateCurrent(),
-                simMeter.generateCurrent(),
-                simMeter.generateVoltage(),
-                simMeter.generateVoltage(),
-                simMeter.generateVoltage(),
-                simMeter.generatePowerFactor(),
-                simMeter.generatePowerFactor(),
-                simMeter.generatePowerFactor(),
-                simMeter.generatePowerFactor(),
-                simMeter.generateFrequency(),
-                simMeter.generateApparentPower(),
-                simMeter.generateActivePowerImport(),
-                simMeter.generateReactivePower(),
-                simMeter.generateCumulativeEnergy(),
-                simMeter.generateCumulativeEnergy() * 0.1
-            );
+            loadModel.advance(now);
+            MeterReading reading = MeterReading.builder()
+                .meterSerialNumber(simMeter.getMeter().getSerialNumber())
+                .timestamp(now)
+                .captureTime(now)
+                .collectionTime(now)
+                .rtcTime(rtcTime)
+                .l1CurrentIr(simMeter.getCurrent(0))
+                .l2CurrentIy(simMeter.getCurrent(1))
+                .l3CurrentIb(simMeter.getCurrent(2))
+                .l1VoltageVrn(simMeter.getVoltage(0))
+                .l2VoltageVyn(simMeter.getVoltage(1))
+                .l3VoltageVbn(simMeter.getVoltage(2))
+                .l1PowerFactor(simMeter.getPowerFactor())
+                .l2PowerFactor(simMeter.getPowerFactor())
+                .l3PowerFactor(simMeter.getPowerFactor())
+                .threePhasePf(simMeter.getPowerFactor())
+                .frequencyDouble(simMeter.getFrequency())
+                .apparentPowerDouble(simMeter.getApparentPower())
+                .activePower(simMeter.getActivePowerImport())
+                .reactivePower(simMeter.getReactivePower())
+                .cumEnergyWhImport(simMeter.getCumulativeEnergy(FleetLoadModel.Register.WH_IMPORT))
+                .cumEnergyWhExport(simMeter.getCumulativeEnergy(FleetLoadModel.Register.WH_EXPORT))
+                .readingType("INSTANTANEOUS")
+                .source("SIMULATOR")
+                .build();
+
+            long start = System.nanoTime();
+            boolean written = false;
+            int rowsInserted;
+            try {
+                rowsInserted = jdbcTemplate.update(sql,
+                    reading.getMeterSerialNumber(),
+                    timestamp,
+                    rtcTime,
+                    reading.getL1CurrentIr(),
+                    reading.getL2CurrentIy(),
+                    reading.getL3CurrentIb(),
+                    reading.getL1VoltageVrn(),
+                    reading.getL2VoltageVyn(),
+                    reading.getL3VoltageVbn(),
+                    reading.getL1PowerFactor(),
+                    reading.getL2PowerFactor(),
+                    reading.getL3PowerFactor(),
+                    reading.getThreePhasePf(),
+                    reading.getFrequencyDouble(),
+                    reading.getApparentPowerDouble(),
+                    reading.getActivePower(),
+                    reading.getReactivePower(),
+                    reading.getCumEnergyWhImport(),
+                    reading.getCumEnergyWhExport()
+                );
+                written = true;
+            } finally {
+                stageMetrics.forSerial(reading.getMeterSerialNumber())
+                    .recordSince(CollectionStage.DB_WRITE, start, written);
+            }
             
             log.debug("Inserted {} instantaneous reading for meter {}", rowsInserted, simMeter.getMeter().getSerialNumber());
+            instantaneousBuffer.append(reading);
+            readingPublisher.publish(reading);
+            return reading;
         } catch (Exception e) {
             log.error("Failed to insert instantaneous reading for meter {}: {}", 
                 simMeter.getMeter().getSerialNumber(), e.getMessage(), e);
+            return null;
         }
     }
 
-    private void generateAndSaveBlockLoadProfile(SimulatedMeter simMeter, Instant now) {
+    /**
+     * Close the demand period at each 15-minute mark and store its energy; true if a period was closed
+     */
+    private boolean generateAndSaveBlockLoadProfile(SimulatedMeter simMeter, Instant now) {
+        boolean closed = false;
         try {
-            // Only generate block load profile every 15 minutes
+            // Only generate block load profile every 15 minutes, once per block
             LocalDateTime localNow = LocalDateTime.ofInstant(now, ZoneId.systemDefault());
             if (localNow.getMinute() % 15 == 0) {
+                double[] block = new double[BLOCK_REGISTERS.length];
+                for (int r = 0; r < block.length; r++) {
+                    block[r] = simMeter.getBlockEnergy(BLOCK_REGISTERS[r]);
+                }
+                closed = loadModel.closeBlock(simMeter.getIndex(), now.toEpochMilli());
+                if (!closed) {
+                    return false;
+                }
                 String sql = "INSERT INTO block_load_profiles (meter_serial_number, capture_time, rtc_timestamp, " +
                             "current_ir, current_iy, current_ib, " +
                             "voltage_vrn, voltage_vyn, voltage_vbn, " +
@@ -502,24 +596,25 @@ public class CollectorMeterSimulator {
                     simMeter.getMeter().getSerialNumber(),
                     Timestamp.from(now),
                     Timestamp.from(now), // rtc_timestamp
-                    simMeter.generateCurrent(),
-                    simMeter.generateCurrent(),
-                    simMeter.generateCurrent(),
-                    simMeter.generateVoltage(),
-                    simMeter.generateVoltage(),
-                    simMeter.generateVoltage(),
-                    simMeter.generateBlockEnergy(),
-                    simMeter.generateBlockEnergy() * 0.1, // 10% export
-                    simMeter.generateBlockEnergy() * 0.2, // Q1
-                    simMeter.generateBlockEnergy() * 0.3, // Q2
-                    simMeter.generateBlockEnergy() * 0.4, // Q3
-                    simMeter.generateBlockEnergy() * 0.5, // Q4
-                    simMeter.generateBlockEnergy() * 1.1, // VAH import
-                    simMeter.generateBlockEnergy() * 0.11, // VAH export
+                    simMeter.getCurrent(0),
+                    simMeter.getCurrent(1),
+                    simMeter.getCurrent(2),
+                    simMeter.getVoltage(0),
+                    simMeter.getVoltage(1),
+                    simMeter.getVoltage(2),
+                    block[0], // Wh import
+                    block[1], // Wh export
+                    block[2], // Q1
+                    block[3], // Q2
+                    block[4], // Q3
+                    block[5], // Q4
+                    block[6], // VAH import
+                    block[7], // VAH export
                     random.nextInt(100), // Health indicator 0-99
                     (short)random.nextInt(100) // Signal strength 0-99
                 );
                 
+                readingPublisher.publish(energyReading(simMeter, now, "BLOCK_LOAD", block));
                 log.info("Inserted {} block load profile for meter {} at 15-min mark", 
                     rowsInserted, simMeter.getMeter().getSerialNumber());
             }
@@ -527,6 +622,7 @@ public class CollectorMeterSimulator {
             log.error("Failed to insert block load profile for meter {}: {}", 
                 simMeter.getMeter().getSerialNumber(), e.getMessage(), e);
         }
+        return closed;
     }
 
     private void generateAndSaveDailyLoadProfile(SimulatedMeter simMeter, Instant now) {
@@ -542,25 +638,31 @@ public class CollectorMeterSimulator {
                             "max_demand_w, max_demand_w_datetime) " +
                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-                double dailyEnergy = simMeter.generateDailyEnergy();
+                int index = simMeter.getIndex();
+                double maxDemand = loadModel.getDayMaxDemand(index);
+                long maxDemandTime = loadModel.getDayMaxDemandTime(index);
+                loadModel.resetDayMaxDemand(index);
                 Timestamp timestamp = Timestamp.from(now);
                 
                 int rowsInserted = jdbcTemplate.update(sql,
                     simMeter.getMeter().getSerialNumber(),
                     timestamp,
                     timestamp, // rtc_timestamp
-                    dailyEnergy,
-                    dailyEnergy * 0.1,
-                    dailyEnergy * 1.1,
-                    dailyEnergy * 0.1,
-                    dailyEnergy * 0.25,
-                    dailyEnergy * 0.25,
-                    dailyEnergy * 0.25,
-                    dailyEnergy * 0.25,
-                    simMeter.generateMaxDemand(),
-                    Timestamp.from(now.minusSeconds(random.nextInt(86400))) // Random time in last 24h
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.WH_IMPORT),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.WH_EXPORT),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.VAH_IMPORT),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.VAH_EXPORT),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.VARH_Q1),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.VARH_Q2),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.VARH_Q3),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.VARH_Q4),
+                    maxDemand,
+                    maxDemandTime > 0 ? new Timestamp(maxDemandTime) : timestamp
                 );
                 
+                MeterReading reading = energyReading(simMeter, now, "DAILY_LOAD", cumulativeEnergy(simMeter));
+                reading.setMaximumDemand(BigDecimal.valueOf(maxDemand));
+                readingPublisher.publish(reading);
                 log.info("Inserted {} daily load profile for meter {} at midnight", 
                     rowsInserted, simMeter.getMeter().getSerialNumber());
             }
@@ -583,7 +685,10 @@ public class CollectorMeterSimulator {
                             "md_w_import, md_w_datetime) " +
                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-                double monthlyEnergy = simMeter.generateMonthlyEnergy();
+                int index = simMeter.getIndex();
+                double maxDemand = loadModel.getMonthMaxDemand(index);
+                long maxDemandTime = loadModel.getMonthMaxDemandTime(index);
+                loadModel.resetMonthMaxDemand(index);
                 Timestamp timestamp = Timestamp.from(now);
                 String rtcTime = formatRtcTime(now);
                 
@@ -591,18 +696,21 @@ public class CollectorMeterSimulator {
                     simMeter.getMeter().getSerialNumber(),
                     timestamp,
                     rtcTime,
-                    monthlyEnergy,
-                    monthlyEnergy * 0.1,
-                    monthlyEnergy * 1.1,
-                    monthlyEnergy * 0.1,
-                    monthlyEnergy * 0.25,
-                    monthlyEnergy * 0.25,
-                    monthlyEnergy * 0.25,
-                    monthlyEnergy * 0.25,
-                    simMeter.generateMaxDemand(),
-                    Timestamp.from(now.minusSeconds(random.nextInt(2592000))) // Random time in last month
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.WH_IMPORT),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.WH_EXPORT),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.VAH_IMPORT),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.VAH_EXPORT),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.VARH_Q1),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.VARH_Q2),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.VARH_Q3),
+                    simMeter.getCumulativeEnergy(FleetLoadModel.Register.VARH_Q4),
+                    maxDemand,
+                    maxDemandTime > 0 ? new Timestamp(maxDemandTime) : timestamp
                 );
                 
+                MeterReading reading = energyReading(simMeter, now, "BILLING", cumulativeEnergy(simMeter));
+                reading.setMaximumDemand(BigDecimal.valueOf(maxDemand));
+                readingPublisher.publish(reading);
                 log.info("Inserted {} billing profile for meter {} at month start", 
                     rowsInserted, simMeter.getMeter().getSerialNumber());
             }
@@ -612,6 +720,36 @@ public class CollectorMeterSimulator {
         }
     }
 
+    /** Current registers in {@link #BLOCK_REGISTERS} order */
+    private double[] cumulativeEnergy(SimulatedMeter simMeter) {
+        double[] energy = new double[BLOCK_REGISTERS.length];
+        for (int r = 0; r < energy.length; r++) {
+            energy[r] = simMeter.getCumulativeEnergy(BLOCK_REGISTERS[r]);
+        }
+        return energy;
+    }
+
+    /**
+     * Reading published for a profile row; {@code energy} holds the registers in
+     * {@link #BLOCK_REGISTERS} order, as block or cumulative values
+     */
+    private MeterReading energyReading(SimulatedMeter simMeter, Instant now, String readingType, double[] energy) {
+        return MeterReading.builder()
+            .meterSerialNumber(simMeter.getMeter().getSerialNumber())
+            .timestamp(now)
+            .captureTime(now)
+            .collectionTime(now)
+            .activeEnergyImport(BigDecimal.valueOf(energy[0]))
+            .activeEnergyExport(BigDecimal.valueOf(energy[1]))
+            // Reactive import is Q1 + Q2, export Q3 + Q4
+            .reactiveEnergyImport(BigDecimal.valueOf(energy[2] + energy[3]))
+            .reactiveEnergyExport(BigDecimal.valueOf(energy[4] + energy[5]))
+            .apparentEnergy(BigDecimal.valueOf(energy[6] + energy[7]))
+            .readingType(readingType)
+            .source("SIMULATOR")
+            .build();
+    }
+
     private void generateAndSaveEvent(SimulatedMeter simMeter, Instant now) {
         try {
             // Generate 1-3 random events per push
@@ -680,6 +818,8 @@ public class CollectorMeterSimulator {
         
         try {
             CompletableFuture<MeterTransaction.Result> future = meterCommunicationService.communicate(
+                CommandLane.BULK,
+                simMeter.getMeter().getSerialNumber(),
                 simMeter.getMeter().getIpAddress(),
                 simMeter.getMeter().getPort(),
                 object,
@@ -706,12 +846,11 @@ public class CollectorMeterSimulator {
      * Helper method to get CosemObject from string
      */
     private CosemObject getCosemObjectFromString(String objectName) {
-        try {
-            return CosemObject.StandardObjects.valueOf(objectName.toUpperCase());
-        } catch (IllegalArgumentException e) {
+        CosemObject object = cosemObjectCatalog.resolve(objectName);
+        if (object == null) {
             log.warn("Unknown COSEM object: {}", objectName);
-            return null;
         }
+        return object;
     }
 
     /**
@@ -0,0 +1,418 @@
+package com.hes.collector.simulator;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Load model for a fleet of simulated meters, stored as one primitive array per quantity and
+ * indexed by meter.
+ * <p>
+ * Each meter draws a rated power, daily curve shift, power factor, supply voltage and an
+ * optional rooftop PV size from its own stream, seeded by the fleet seed and its index, when it
+ * is added; the same stream then drives its noise. {@link #advance} moves every meter to the
+ * given time: demand follows the time of day times a slowly varying noise factor, PV follows
+ * the sun and a fleet wide cloud factor, voltage sags with load, and the energy registers
+ * integrate power over the step so they never go backwards. Reactive power is the inductive
+ * part of the load less a fixed capacitive part of the meter's installation, so it leads at
+ * light load and the varh of all four quadrants move. Frequency and cloud come from a
+ * stream seeded by the fleet seed alone. The same seed and advance times therefore give every
+ * meter the same values however the fleet is split into models. Advancing allocates nothing,
+ * so large fleets can be ticked without GC pressure. Getters take the same lock as
+ * {@link #advance}, so a meter is never read halfway through a step or a {@link #grow}.
+ */
+public class FleetLoadModel {
+    /** Cumulative registers, in Wh, varh and VAh */
+    public enum Register {
+        WH_IMPORT, WH_EXPORT, VARH_Q1, VARH_Q2, VARH_Q3, VARH_Q4, VAH_IMPORT, VAH_EXPORT
+    }
+
+    private static final int REGISTERS = Register.values().length;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    /** Longest integration step; longer gaps are split so the daily curve is followed */
+    private static final long MAX_STEP_MILLIS = 5 * 60 * 1000L;
+    private static final double NOISE_TAU_SECONDS = 600;
+    private static final double NOISE_SIGMA = 0.25;
+    private static final long BLOCK_MILLIS = 15 * 60 * 1000L;
+
+    private final long seed;
+    private final int firstIndex;
+    private final ZoneRules zoneRules;
+    private final double solarShare;
+    /** Grid stream: frequency and cloud, shared by every meter */
+    private final SplittableRandom random;
+    private double spareGaussian = Double.NaN;
+    private double polarSpare;
+
+    private int size;
+    private long time = Long.MIN_VALUE;
+    private double frequency = 50.0;
+    private double cloud = 1.0;
+
+    // Per meter parameters
+    private double[] ratedWatts = new double[0];
+    private int[] curveShiftSeconds = new int[0];
+    private double[] pvWatts = new double[0];
+    private double[] basePowerFactor = new double[0];
+    private double[] supplyVoltage = new double[0];
+    /** Capacitive var of electronics and cabling, drawn whatever the load */
+    private double[] capacitiveVar = new double[0];
+    /** Share of the load on each phase, 3 per meter */
+    private double[] phaseShare = new double[0];
+    private SplittableRandom[] meterRandom = new SplittableRandom[0];
+
+    // Per meter state
+    private double[] meterSpareGaussian = new double[0];
+    private double[] noise = new double[0];
+    private double[] importWatts = new double[0];
+    private double[] exportWatts = new double[0];
+    /** Positive when lagging (inductive), negative when leading (capacitive) */
+    private double[] reactiveVar = new double[0];
+    private double[] powerFactor = new double[0];
+    private double[] voltage = new double[0];
+    private double[] current = new double[0];
+    private double[] registers = new double[0];
+    private double[] blockStart = new double[0];
+    private long[] blockStartTime = new long[0];
+    private double[] dayMaxDemand = new double[0];
+    private long[] dayMaxDemandTime = new long[0];
+    private double[] monthMaxDemand = new double[0];
+    private long[] monthMaxDemandTime = new long[0];
+
+    public FleetLoadModel(long seed, ZoneId zone, double solarShare) {
+        this(seed, zone, solarShare, 0);
+    }
+
+    /**
+     * Model for a slice of a larger fleet whose first meter is fleet meter {@code firstIndex},
+     * so slices generated in parallel produce the same meters as one model of the whole fleet.
+     */
+    public FleetLoadModel(long seed, ZoneId zone, double solarShare, int firstIndex) {
+        this.seed = seed;
+        this.firstIndex = firstIndex;
+        this.zoneRules = zone.getRules();
+        this.solarShare = solarShare;
+        this.random = new SplittableRandom(seed);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Add a meter and return its index. Its parameters and noise depend only on the seed and the
+     * index, so meter n looks the same in every run regardless of when it is added.
+     */
+    public synchronized int addMeter() {
+        int i = size;
+        if (i == ratedWatts.length) {
+            grow(Math.max(16, i * 2));
+        }
+        SplittableRandom stream = new SplittableRandom(seed ^ (firstIndex + i + 1L) * GOLDEN);
+        // Log-uniform between 0.6 and 8 kW: many small households, few large consumers
+        ratedWatts[i] = 600 * Math.pow(8000.0 / 600, stream.nextDouble());
+        curveShiftSeconds[i] = stream.nextInt(-3600, 3601);
+        pvWatts[i] = stream.nextDouble() < solarShare ? ratedWatts[i] * stream.nextDouble(0.5, 1.5) : 0;
+        basePowerFactor[i] = stream.nextDouble(0.85, 0.98);
+        supplyVoltage[i] = stream.nextDouble(228, 242);
+        meterRandom[i] = stream;
+        meterSpareGaussian[i] = Double.NaN;
+        double a = stream.nextDouble(0.8, 1.2);
+        double b = stream.nextDouble(0.8, 1.2);
+        double c = stream.nextDouble(0.8, 1.2);
+        double total = a + b + c;
+        phaseShare[3 * i] = a / total;
+        phaseShare[3 * i + 1] = b / total;
+        phaseShare[3 * i + 2] = c / total;
+        // Start from an arbitrary installed life so fleets do not read zero
+        double startWh = stream.nextDouble(1e5, 5e7);
+        capacitiveVar[i] = stream.nextDouble(20, 120);
+        registers[REGISTERS * i + Register.WH_IMPORT.ordinal()] = startWh;
+        registers[REGISTERS * i + Register.VARH_Q1.ordinal()] = startWh * 0.3;
+        registers[REGISTERS * i + Register.VARH_Q4.ordinal()] = startWh * 0.02;
+        registers[REGISTERS * i + Register.VAH_IMPORT.ordinal()] = startWh * 1.08;
+        System.arraycopy(registers, REGISTERS * i, blockStart, REGISTERS * i, REGISTERS);
+        blockStartTime[i] = time;
+        size++;
+        if (time != Long.MIN_VALUE) {
+            update(i, localSecond(time), 0);
+        }
+        return i;
+    }
+
+    /**
+     * Move every meter to {@code epochMillis}. Calls with a time at or before the current one
+     * are ignored.
+     */
+    public synchronized void advance(long epochMillis) {
+        if (time == Long.MIN_VALUE) {
+            time = epochMillis;
+            long localSecond = localSecond(epochMillis);
+            for (int i = 0; i < size; i++) {
+                blockStartTime[i] = epochMillis;
+                update(i, localSecond, 0);
+            }
+            return;
+        }
+        while (time < epochMillis) {
+            long next = Math.min(epochMillis, time + MAX_STEP_MILLIS);
+            double seconds = (next - time) / 1000.0;
+            long localSecond = localSecond(next);
+            stepGrid(seconds);
+            for (int i = 0; i < size; i++) {
+                update(i, localSecond, seconds);
+            }
+            time = next;
+        }
+    }
+
+    public void advance(Instant now) {
+        advance(now.toEpochMilli());
+    }
+
+    private void stepGrid(double seconds) {
+        double keep = Math.exp(-seconds / 60);
+        frequency = 50 + (frequency - 50) * keep + Math.sqrt(1 - keep * keep) * 0.02 * gridGaussian();
+        double cloudKeep = Math.exp(-seconds / 1800);
+        cloud = clamp(0.7 + (cloud - 0.7) * cloudKeep + Math.sqrt(1 - cloudKeep * cloudKeep) * 0.3 * gridGaussian(), 0.1, 1.0);
+    }
+
+    private long localSecond(long epochMillis) {
+        return Math.floorDiv(epochMillis, 1000)
+            + zoneRules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds();
+    }
+
+    private void update(int i, long localSecond, double seconds) {
+        double keep = Math.exp(-seconds / NOISE_TAU_SECONDS);
+        noise[i] = noise[i] * keep + Math.sqrt(1 - keep * keep) * NOISE_SIGMA * meterGaussian(i);
+
+        double hour = Math.floorMod(localSecond + curveShiftSeconds[i], 86400) / 3600.0;
+        double demand = ratedWatts[i] * loadShape(hour) * Math.exp(noise[i] - NOISE_SIGMA * NOISE_SIGMA / 2);
+        double solarHour = Math.floorMod(localSecond, 86400) / 3600.0;
+        double generation = pvWatts[i] * solarShape(solarHour) * cloud;
+        double net = demand - generation;
+
+        double previousImport = importWatts[i];
+        double previousExport = exportWatts[i];
+        double previousReactive = reactiveVar[i];
+        double previousApparent = Math.hypot(previousImport + previousExport, previousReactive);
+        double loadPf = clamp(basePowerFactor[i] + 0.02 * noise[i], 0.5, 0.999);
+        double reactive = Math.abs(net) * Math.tan(Math.acos(loadPf)) - capacitiveVar[i];
+        double apparent = Math.hypot(net, reactive);
+        importWatts[i] = Math.max(net, 0);
+        exportWatts[i] = Math.max(-net, 0);
+        reactiveVar[i] = reactive;
+        powerFactor[i] = apparent > 0 ? Math.abs(net) / apparent : 1.0;
+
+        for (int phase = 0; phase < 3; phase++) {
+            double phaseWatts = net * phaseShare[3 * i + phase];
+            // Sag of about 2% at rated import, rise when exporting
+            double v = supplyVoltage[i] * (1 - 0.02 * phaseWatts * 3 / ratedWatts[i]) + 0.3 * meterGaussian(i);
+            voltage[3 * i + phase] = v;
+            current[3 * i + phase] = apparent * phaseShare[3 * i + phase] / v;
+        }
+
+        if (seconds > 0) {
+            double hours = seconds / 3600;
+            int r = REGISTERS * i;
+            double importWh = (previousImport + importWatts[i]) / 2 * hours;
+            double exportWh = (previousExport + exportWatts[i]) / 2 * hours;
+            double varh = (previousReactive + reactive) / 2 * hours;
+            double vah = (previousApparent + apparent) / 2 * hours;
+            registers[r + Register.WH_IMPORT.ordinal()] += importWh;
+            registers[r + Register.WH_EXPORT.ordinal()] += exportWh;
+            // Lagging var is Q1 when importing and Q2 when exporting, leading var Q4 and Q3
+            if (importWh > 0) {
+                double share = importWh / (importWh + exportWh);
+                registers[r + (varh >= 0 ? Register.VARH_Q1 : Register.VARH_Q4).ordinal()] += Math.abs(varh) * share;
+                registers[r + Register.VAH_IMPORT.ordinal()] += vah * share;
+            }
+            if (exportWh > 0) {
+                double share = exportWh / (importWh + exportWh);
+                registers[r + (varh >= 0 ? Register.VARH_Q2 : Register.VARH_Q3).ordinal()] += Math.abs(varh) * share;
+                registers[r + Register.VAH_EXPORT.ordinal()] += vah * share;
+            }
+        }
+    }
+
+    /** Residential curve: night base, morning peak around 8h, evening peak around 20h */
+    private static double loadShape(double hour) {
+        double morning = Math.exp(-(hour - 8) * (hour - 8) / 3);
+        double evening = Math.exp(-(hour - 20) * (hour - 20) / 5);
+        return 0.2 + 0.45 * morning + 0.8 * evening;
+    }
+
+    private static double solarShape(double hour) {
+        return hour <= 6 || hour >= 18 ? 0 : Math.sin((hour - 6) / 12 * Math.PI);
+    }
+
+    private double gridGaussian() {
+        double spare = spareGaussian;
+        if (!Double.isNaN(spare)) {
+            spareGaussian = Double.NaN;
+            return spare;
+        }
+        double value = polar(random);
+        spareGaussian = polarSpare;
+        return value;
+    }
+
+    private double meterGaussian(int i) {
+        double spare = meterSpareGaussian[i];
+        if (!Double.isNaN(spare)) {
+            meterSpareGaussian[i] = Double.NaN;
+            return spare;
+        }
+        double value = polar(meterRandom[i]);
+        meterSpareGaussian[i] = polarSpare;
+        return value;
+    }
+
+    /**
+     * Marsaglia polar method; SplittableRandom has no nextGaussian before Java 17. Returns one
+     * deviate and leaves the second in {@link #polarSpare} for the caller to keep.
+     */
+    private double polar(SplittableRandom stream) {
+        double u;
+        double v;
+        double s;
+        do {
+            u = stream.nextDouble() * 2 - 1;
+            v = stream.nextDouble() * 2 - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+        double scale = Math.sqrt(-2 * Math.log(s) / s);
+        polarSpare = v * scale;
+        return u * scale;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return value < min ? min : value > max ? max : value;
+    }
+
+    private void grow(int capacity) {
+        ratedWatts = Arrays.copyOf(ratedWatts, capacity);
+        curveShiftSeconds = Arrays.copyOf(curveShiftSeconds, capacity);
+        pvWatts = Arrays.copyOf(pvWatts, capacity);
+        basePowerFactor = Arrays.copyOf(basePowerFactor, capacity);
+        supplyVoltage = Arrays.copyOf(supplyVoltage, capacity);
+        capacitiveVar = Arrays.copyOf(capacitiveVar, capacity);
+        phaseShare = Arrays.copyOf(phaseShare, capacity * 3);
+        meterRandom = Arrays.copyOf(meterRandom, capacity);
+        meterSpareGaussian = Arrays.copyOf(meterSpareGaussian, capacity);
+        noise = Arrays.copyOf(noise, capacity);
+        importWatts = Arrays.copyOf(importWatts, capacity);
+        exportWatts = Arrays.copyOf(exportWatts, capacity);
+        reactiveVar = Arrays.copyOf(reactiveVar, capacity);
+        powerFactor = Arrays.copyOf(powerFactor, capacity);
+        voltage = Arrays.copyOf(voltage, capacity * 3);
+        current = Arrays.copyOf(current, capacity * 3);
+        registers = Arrays.copyOf(registers, capacity * REGISTERS);
+        blockStart = Arrays.copyOf(blockStart, capacity * REGISTERS);
+        blockStartTime = Arrays.copyOf(blockStartTime, capacity);
+        dayMaxDemand = Arrays.copyOf(dayMaxDemand, capacity);
+        dayMaxDemandTime = Arrays.copyOf(dayMaxDemandTime, capacity);
+        monthMaxDemand = Arrays.copyOf(monthMaxDemand, capacity);
+        monthMaxDemandTime = Arrays.copyOf(monthMaxDemandTime, capacity);
+    }
+
+    public synchronized double getActivePowerImport(int i) {
+        return importWatts[i];
+    }
+
+    public synchronized double getActivePowerExport(int i) {
+        return exportWatts[i];
+    }
+
+    public synchronized double getReactivePower(int i) {
+        return reactiveVar[i];
+    }
+
+    public synchronized double getApparentPower(int i) {
+        double p = importWatts[i] + exportWatts[i];
+        return Math.sqrt(p * p + reactiveVar[i] * reactiveVar[i]);
+    }
+
+    public synchronized double getPowerFactor(int i) {
+        return powerFactor[i];
+    }
+
+    /** Phase 0..2 */
+    public synchronized double getVoltage(int i, int phase) {
+        return voltage[3 * i + phase];
+    }
+
+    /** Phase 0..2 */
+    public synchronized double getCurrent(int i, int phase) {
+        return current[3 * i + phase];
+    }
+
+    public synchronized double getFrequency() {
+        return frequency;
+    }
+
+    public synchronized double getRegister(int i, Register register) {
+        return registers[REGISTERS * i + register.ordinal()];
+    }
+
+    /** Register growth since the last {@link #closeBlock} */
+    public synchronized double getBlockEnergy(int i, Register register) {
+        int r = REGISTERS * i + register.ordinal();
+        return registers[r] - blockStart[r];
+    }
+
+    /**
+     * End the current demand integration period of a meter and start the next. Returns false,
+     * changing nothing, when the period that is open at {@code epochMillis} was already closed.
+     * The period's average import counts towards the daily and monthly maximum demand.
+     */
+    public synchronized boolean closeBlock(int i, long epochMillis) {
+        if (time == Long.MIN_VALUE
+            || Math.floorDiv(epochMillis, BLOCK_MILLIS) == Math.floorDiv(blockStartTime[i], BLOCK_MILLIS)) {
+            return false;
+        }
+        double hours = (epochMillis - blockStartTime[i]) / 3_600_000.0;
+        if (hours > 0) {
+            double demand = getBlockEnergy(i, Register.WH_IMPORT) / hours;
+            if (demand > dayMaxDemand[i]) {
+                dayMaxDemand[i] = demand;
+                dayMaxDemandTime[i] = epochMillis;
+            }
+            if (demand > monthMaxDemand[i]) {
+                monthMaxDemand[i] = demand;
+                monthMaxDemandTime[i] = epochMillis;
+            }
+        }
+        System.arraycopy(registers, REGISTERS * i, blockStart, REGISTERS * i, REGISTERS);
+        blockStartTime[i] = epochMillis;
+        return true;
+    }
+
+    public synchronized double getDayMaxDemand(int i) {
+        return dayMaxDemand[i];
+    }
+
+    public synchronized long getDayMaxDemandTime(int i) {
+        return dayMaxDemandTime[i];
+    }
+
+    public synchronized double getMonthMaxDemand(int i) {
+        return monthMaxDemand[i];
+    }
+
+    public synchronized long getMonthMaxDemandTime(int i) {
+        return monthMaxDemandTime[i];
+    }
+
+    public synchronized void resetDayMaxDemand(int i) {
+        dayMaxDemand[i] = 0;
+        dayMaxDemandTime[i] = 0;
+    }
+
+    public synchronized void resetMonthMaxDemand(int i) {
+        monthMaxDemand[i] = 0;
+        monthMaxDemandTime[i] = 0;
+    }
+}
@@ -0,0 +1,356 @@
+package com.hes.collector.simulator;
+
+import com.hes.collector.config.SimulatorConfig;
+import com.hes.collector.enums.EswfBit;
+import com.hes.collector.enums.MeterEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates days of history for a synthetic fleet to size TimescaleDB chunks and indexes:
+ * instantaneous, block load, daily and billing profiles plus events and ESWF alarms, from the
+ * same {@link FleetLoadModel} the live simulator uses. The fleet is split into slices written
+ * in parallel, each on its own connection through {@link BulkTableWriter} (COPY on PostgreSQL).
+ * Every random draw comes from a stream seeded by the seed and the meter index, so the rows do
+ * not depend on backfillThreads. Meters are named {@code backfillSerialPrefix + index} and
+ * created when missing, so a run can be repeated with more days or meters; rows are not
+ * de-duplicated.
+ */
+@Slf4j
+@Component
+public class HistoricalBackfill {
+    private static final long MINUTE_MILLIS = 60_000L;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final int BLOCK_MINUTES = 15;
+
+    private static final String[] INSTANTANEOUS_COLUMNS = {
+        "meter_serial_number", "capture_time", "rtc_time",
+        "l1_current_ir", "l2_current_iy", "l3_current_ib",
+        "l1_voltage_vrn", "l2_voltage_vyn", "l3_voltage_vbn",
+        "l1_power_factor", "l2_power_factor", "l3_power_factor",
+        "three_phase_pf", "frequency", "apparent_power", "active_power", "reactive_power",
+        "cum_energy_wh_import", "cum_energy_wh_export"
+    };
+    private static final String[] BLOCK_COLUMNS = {
+        "meter_serial_number", "capture_time", "rtc_timestamp",
+        "current_ir", "current_iy", "current_ib",
+        "voltage_vrn", "voltage_vyn", "voltage_vbn",
+        "block_energy_wh_import", "block_energy_wh_export",
+        "block_energy_varh_q1", "block_energy_varh_q2", "block_energy_varh_q3", "block_energy_varh_q4",
+        "block_energy_vah_import", "block_energy_vah_export",
+        "meter_health_indicator", "signal_strength"
+    };
+    private static final String[] DAILY_COLUMNS = {
+        "meter_serial_number", "capture_time", "rtc_timestamp",
+        "cum_energy_wh_import", "cum_energy_wh_export", "cum_energy_vah_import", "cum_energy_vah_export",
+        "cum_energy_varh_q1", "cum_energy_varh_q2", "cum_energy_varh_q3", "cum_energy_varh_q4",
+        "max_demand_w", "max_demand_w_datetime"
+    };
+    private static final String[] BILLING_COLUMNS = {
+        "meter_serial_number", "billing_date", "rtc_time",
+        "cum_energy_wh_import", "cum_energy_wh_export", "cum_energy_vah_import", "cum_energy_vah_export",
+        "cum_energy_varh_q1", "cum_energy_varh_q2", "cum_energy_varh_q3", "cum_energy_varh_q4",
+        "md_w_import", "md_w_datetime"
+    };
+    private static final String[] EVENT_COLUMNS = {
+        "meter_serial_number", "event_type_id", "event_datetime", "event_code", "rtc_timestamp"
+    };
+    private static final String[] ALARM_COLUMNS = {
+        "meter_serial_number", "alarm_datetime", "bits", "rtc_timestamp"
+    };
+    private static final String[] TABLES = {
+        "instantaneous_profiles", "block_load_profiles", "daily_load_profiles",
+        "billing_profiles", "events", "eswf_alarms"
+    };
+    private static final FleetLoadModel.Register[] CUMULATIVE_REGISTERS = {
+        FleetLoadModel.Register.WH_IMPORT, FleetLoadModel.Register.WH_EXPORT,
+        FleetLoadModel.Register.VAH_IMPORT, FleetLoadModel.Register.VAH_EXPORT,
+        FleetLoadModel.Register.VARH_Q1, FleetLoadModel.Register.VARH_Q2,
+        FleetLoadModel.Register.VARH_Q3, FleetLoadModel.Register.VARH_Q4
+    };
+    private static final FleetLoadModel.Register[] BLOCK_REGISTERS = {
+        FleetLoadModel.Register.WH_IMPORT, FleetLoadModel.Register.WH_EXPORT,
+        FleetLoadModel.Register.VARH_Q1, FleetLoadModel.Register.VARH_Q2,
+        FleetLoadModel.Register.VARH_Q3, FleetLoadModel.Register.VARH_Q4,
+        FleetLoadModel.Register.VAH_IMPORT, FleetLoadModel.Register.VAH_EXPORT
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SimulatorConfig config;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final DateTimeFormatter rtcFormatter = DateTimeFormatter.ofPattern("yyMMddHHmmss");
+    private volatile BackfillReport lastReport;
+
+    public HistoricalBackfill(JdbcTemplate jdbcTemplate, SimulatorConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+    }
+
+    /**
+     * Start a backfill of {@code days} days up to now in the background; the returned report is
+     * updated when the run ends. Only one run at a time.
+     */
+    public BackfillReport start(int meters, int days) {
+        BackfillReport report = claim(meters, days, Instant.now());
+        Thread thread = new Thread(() -> execute(report), "simulator-backfill");
+        thread.setDaemon(true);
+        thread.start();
+        return report;
+    }
+
+    /**
+     * Backfill {@code days} days ending at {@code to} and wait for completion. Only one run at a
+     * time, started here or by {@link #start}.
+     */
+    public BackfillReport run(int meters, int days, Instant to) {
+        BackfillReport report = claim(meters, days, to);
+        execute(report);
+        return report;
+    }
+
+    public BackfillReport getLastReport() {
+        return lastReport;
+    }
+
+    private synchronized BackfillReport claim(int meters, int days, Instant to) {
+        if (lastReport != null && lastReport.getStatus() == BackfillReport.Status.RUNNING) {
+            throw new IllegalStateException("A backfill is already running");
+        }
+        BackfillReport report = newReport(meters, days, to);
+        lastReport = report;
+        return report;
+    }
+
+    private BackfillReport newReport(int meters, int days, Instant to) {
+        if (meters < 1 || days < 1) {
+            throw new IllegalArgumentException("meters and days must be positive");
+        }
+        long end = Math.floorDiv(to.toEpochMilli(), BLOCK_MINUTES * MINUTE_MILLIS) * BLOCK_MINUTES * MINUTE_MILLIS;
+        BackfillReport report = new BackfillReport();
+        report.setMeters(meters);
+        report.setDays(days);
+        report.setTo(Instant.ofEpochMilli(end));
+        report.setFrom(Instant.ofEpochMilli(end).minus(Duration.ofDays(days)));
+        report.setThreads(Math.max(1, Math.min(config.getBackfillThreads(), meters)));
+        return report;
+    }
+
+    private void execute(BackfillReport report) {
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(report.getThreads());
+        try {
+            ensureMeters(report.getMeters());
+            int threads = report.getThreads();
+            int perSlice = (report.getMeters() + threads - 1) / threads;
+            List<Future<long[]>> slices = new ArrayList<>();
+            for (int first = 0; first < report.getMeters(); first += perSlice) {
+                int sliceFirst = first;
+                int sliceCount = Math.min(perSlice, report.getMeters() - first);
+                slices.add(executor.submit(() -> jdbcTemplate.execute(
+                    (ConnectionCallback<long[]>) connection -> writeSlice(connection, report, sliceFirst, sliceCount))));
+            }
+            long[] rows = new long[TABLES.length];
+            for (Future<long[]> slice : slices) {
+                long[] sliceRows = slice.get();
+                for (int t = 0; t < rows.length; t++) {
+                    rows[t] += sliceRows[t];
+                }
+            }
+            long total = 0;
+            for (int t = 0; t < rows.length; t++) {
+                report.getRowsByTable().put(TABLES[t], rows[t]);
+                total += rows[t];
+            }
+            report.setTotalRows(total);
+            report.setStatus(BackfillReport.Status.COMPLETED);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.error("Backfill failed: {}", cause.getMessage(), cause);
+            report.setError(cause.getMessage());
+            report.setStatus(BackfillReport.Status.FAILED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.setError("Interrupted");
+            report.setStatus(BackfillReport.Status.FAILED);
+        } catch (RuntimeException e) {
+            log.error("Backfill failed: {}", e.getMessage(), e);
+            report.setError(e.getMessage());
+            report.setStatus(BackfillReport.Status.FAILED);
+        } finally {
+            executor.shutdownNow();
+            long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            report.setElapsedMs(elapsedMs);
+            report.setRowsPerSecond(report.getTotalRows() * 1000.0 / elapsedMs);
+        }
+        log.info("Backfill of {} meters x {} days {} via {}: {} rows in {} ms ({} rows/s)",
+            report.getMeters(), report.getDays(), report.getStatus(), report.getBulkPath(),
+            report.getTotalRows(), report.getElapsedMs(), Math.round(report.getRowsPerSecond()));
+    }
+
+    private void ensureMeters(int meters) {
+        String sql = "INSERT INTO meters (meter_serial_number, device_id, manufacturer_name, meter_type, status, " +
+            "created_at, updated_at) VALUES (?, ?, 'SIMULATOR', 1, 'ACTIVE', NOW(), NOW()) " +
+            "ON CONFLICT (meter_serial_number) DO NOTHING";
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < meters; i++) {
+            String serial = serial(i);
+            batch.add(new Object[] {serial, serial});
+            if (batch.size() == 1000 || i == meters - 1) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private String serial(int index) {
+        return String.format("%s%08d", config.getBackfillSerialPrefix(), index);
+    }
+
+    private long[] writeSlice(Connection connection, BackfillReport report, int first, int count) throws SQLException {
+        CopyManager copyManager = connection.isWrapperFor(PGConnection.class)
+            ? connection.unwrap(PGConnection.class).getCopyAPI() : null;
+        report.setBulkPath(copyManager != null ? "COPY" : "JDBC_BATCH");
+        int flushRows = config.getBackfillFlushRows();
+        BulkTableWriter instantaneous = new BulkTableWriter(TABLES[0], INSTANTANEOUS_COLUMNS, connection, copyManager, flushRows);
+        BulkTableWriter block = new BulkTableWriter(TABLES[1], BLOCK_COLUMNS, connection, copyManager, flushRows);
+        BulkTableWriter daily = new BulkTableWriter(TABLES[2], DAILY_COLUMNS, connection, copyManager, flushRows);
+        BulkTableWriter billing = new BulkTableWriter(TABLES[3], BILLING_COLUMNS, connection, copyManager, flushRows);
+        BulkTableWriter events = new BulkTableWriter(TABLES[4], EVENT_COLUMNS, connection, copyManager, flushRows);
+        BulkTableWriter alarms = new BulkTableWriter(TABLES[5], ALARM_COLUMNS, connection, copyManager, flushRows);
+
+        FleetLoadModel model = new FleetLoadModel(config.getSeed(), zone, config.getSolarShare(), first);
+        String[] serials = new String[count];
+        SplittableRandom[] randoms = new SplittableRandom[count];
+        for (int i = 0; i < count; i++) {
+            model.addMeter();
+            serials[i] = serial(first + i);
+            randoms[i] = new SplittableRandom(config.getSeed() ^ (first + i + 1L) * GOLDEN ^ 0xBAC4F111L);
+        }
+        MeterEvent[] eventTypes = MeterEvent.values();
+        EswfBit[] alarmBits = EswfBit.values();
+        ZoneRules rules = zone.getRules();
+
+        int instantMinutes = Math.max(1, config.getBackfillInstantaneousIntervalMinutes());
+        long stepMinutes = gcd(instantMinutes, BLOCK_MINUTES);
+        long step = stepMinutes * MINUTE_MILLIS;
+        double eventChance = config.getBackfillEventsPerMeterDay() * stepMinutes / 1440.0;
+        double alarmChance = config.getBackfillAlarmsPerMeterDay() * stepMinutes / 1440.0;
+        long from = report.getFrom().toEpochMilli();
+        long to = report.getTo().toEpochMilli();
+        double[] values = new double[BLOCK_REGISTERS.length];
+
+        for (long t = from; t <= to; t += step) {
+            model.advance(t);
+            Instant at = Instant.ofEpochMilli(t);
+            long localSecond = Math.floorDiv(t, 1000) + rules.getOffset(at).getTotalSeconds();
+            long localMinute = Math.floorDiv(localSecond, 60);
+            boolean writeInstant = Math.floorMod(localMinute, instantMinutes) == 0;
+            boolean closeBlock = t > from && Math.floorMod(localMinute, BLOCK_MINUTES) == 0;
+            boolean midnight = t > from && Math.floorMod(localSecond, 86400) == 0;
+            boolean monthStart = midnight && LocalDate.ofEpochDay(Math.floorDiv(localSecond, 86400)).getDayOfMonth() == 1;
+            String rtc = rtcFormatter.format(at.atZone(zone));
+
+            for (int i = 0; i < count; i++) {
+                String serial = serials[i];
+                SplittableRandom random = randoms[i];
+                if (writeInstant) {
+                    double pf = model.getPowerFactor(i);
+                    instantaneous.add(serial, at, rtc,
+                        model.getCurrent(i, 0), model.getCurrent(i, 1), model.getCurrent(i, 2),
+                        model.getVoltage(i, 0), model.getVoltage(i, 1), model.getVoltage(i, 2),
+                        pf, pf, pf, pf, model.getFrequency(), model.getApparentPower(i),
+                        model.getActivePowerImport(i), model.getReactivePower(i),
+                        model.getRegister(i, FleetLoadModel.Register.WH_IMPORT),
+                        model.getRegister(i, FleetLoadModel.Register.WH_EXPORT));
+                }
+                if (closeBlock) {
+                    for (int r = 0; r < values.length; r++) {
+                        values[r] = model.getBlockEnergy(i, BLOCK_REGISTERS[r]);
+                    }
+                    model.closeBlock(i, t);
+                    block.add(serial, at, at,
+                        model.getCurrent(i, 0), model.getCurrent(i, 1), model.getCurrent(i, 2),
+                        model.getVoltage(i, 0), model.getVoltage(i, 1), model.getVoltage(i, 2),
+                        values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7],
+                        90 + random.nextInt(10), (short) (60 + random.nextInt(40)));
+                }
+                if (midnight) {
+                    daily.add(serial, at, at,
+                        register(model, i, 0), register(model, i, 1), register(model, i, 2), register(model, i, 3),
+                        register(model, i, 4), register(model, i, 5), register(model, i, 6), register(model, i, 7),
+                        model.getDayMaxDemand(i), demandTime(model.getDayMaxDemandTime(i), at));
+                    model.resetDayMaxDemand(i);
+                }
+                if (monthStart) {
+                    billing.add(serial, at, rtc,
+                        register(model, i, 0), register(model, i, 1), register(model, i, 2), register(model, i, 3),
+                        register(model, i, 4), register(model, i, 5), register(model, i, 6), register(model, i, 7),
+                        model.getMonthMaxDemand(i), demandTime(model.getMonthMaxDemandTime(i), at));
+                    model.resetMonthMaxDemand(i);
+                }
+                if (random.nextDouble() < eventChance) {
+                    MeterEvent event = eventTypes[random.nextInt(eventTypes.length)];
+                    Instant eventTime = Instant.ofEpochMilli(t - random.nextLong(step));
+                    events.add(serial, event.getEventId(), eventTime, event.getEventId(), eventTime);
+                }
+                if (random.nextDouble() < alarmChance) {
+                    Instant alarmTime = Instant.ofEpochMilli(t - random.nextLong(step));
+                    alarms.add(serial, alarmTime, alarmBits(random, alarmBits), alarmTime);
+                }
+            }
+        }
+
+        BulkTableWriter[] writers = {instantaneous, block, daily, billing, events, alarms};
+        long[] rows = new long[writers.length];
+        for (int w = 0; w < writers.length; w++) {
+            writers[w].flush();
+            rows[w] = writers[w].getWrittenRows();
+        }
+        log.info("Backfilled meters {}..{}: {} instantaneous, {} block load rows",
+            serials[0], serials[count - 1], rows[0], rows[1]);
+        return rows;
+    }
+
+    private static double register(FleetLoadModel model, int i, int r) {
+        return model.getRegister(i, CUMULATIVE_REGISTERS[r]);
+    }
+
+    private static Instant demandTime(long epochMillis, Instant fallback) {
+        return epochMillis > 0 ? Instant.ofEpochMilli(epochMillis) : fallback;
+    }
+
+    /** 128-bit ESWF string with 1 to 4 random bits set */
+    private static String alarmBits(SplittableRandom random, EswfBit[] bits) {
+        char[] chars = new char[128];
+        java.util.Arrays.fill(chars, '0');
+        int set = 1 + random.nextInt(4);
+        for (int i = 0; i < set; i++) {
+            chars[bits[random.nextInt(bits.length)].getBitNumber()] = '1';
+        }
+        return new String(chars);
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
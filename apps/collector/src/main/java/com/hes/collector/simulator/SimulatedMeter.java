@@ -1,87 +1,70 @@
 package com.hes.collector.simulator;
 
 import com.hes.collector.model.Meter;
-import lombok.Data;
 
-import java.util.Random;
-
-@Data
+/**
+ * A meter of the simulator, backed by its slot in the shared {@link FleetLoadModel}. Values
+ * are those of the last {@link FleetLoadModel#advance}; reading them has no side effects.
+ */
 public class SimulatedMeter {
     private final Meter meter;
-    private final Random random = new Random();
-
-    // Base values for simulation
-    private double baseActivePower = 5000.0; // 5 kW
-    private double baseReactivePower = 1000.0; // 1 kVAr
-    private double baseVoltage = 230.0; // 230V
-    private double baseCurrent = 20.0; // 20A
-    private double baseFrequency = 50.0; // 50Hz
-    private double basePowerFactor = 0.95; // 0.95
+    private final FleetLoadModel model;
+    private final int index;
 
-    // Variation ranges (in percentage)
-    private double powerVariation = 0.2; // 20%
-    private double voltageVariation = 0.05; // 5%
-    private double currentVariation = 0.15; // 15%
-    private double frequencyVariation = 0.001; // 0.1%
-    private double powerFactorVariation = 0.05; // 5%
-
-    public SimulatedMeter(Meter meter) {
+    public SimulatedMeter(Meter meter, FleetLoadModel model) {
         this.meter = meter;
+        this.model = model;
+        this.index = model.addMeter();
     }
 
     public Meter getMeter() {
         return meter;
     }
 
-    public double generateActivePowerImport() {
-        return random.nextDouble() * 5000; // 0-5kW
-    }
-
-    public double generateActivePowerExport() {
-        return random.nextDouble() * 2000; // 0-2kW
-    }
-
-    public double generateReactivePower() {
-        return random.nextDouble() * 2000; // 0-2kVAR
+    public int getIndex() {
+        return index;
     }
 
-    public double generateVoltage() {
-        return 230 + (random.nextDouble() * 20 - 10); // 220-240V
+    public double getActivePowerImport() {
+        return model.getActivePowerImport(index);
     }
 
-    public double generateCurrent() {
-        return random.nextDouble() * 20; // 0-20A
+    public double getActivePowerExport() {
+        return model.getActivePowerExport(index);
     }
 
-    public double generatePowerFactor() {
-        return 0.8 + (random.nextDouble() * 0.2); // 0.8-1.0
+    public double getReactivePower() {
+        return model.getReactivePower(index);
     }
 
-    public double generateFrequency() {
-        return 50 + (random.nextDouble() * 0.2 - 0.1); // 49.9-50.1Hz
+    /** S = sqrt(P^2 + Q^2) from the same P and Q */
+    public double getApparentPower() {
+        return model.getApparentPower(index);
     }
 
-    public double generateApparentPower() {
-        return generateActivePowerImport() / generatePowerFactor(); // S = P/PF
+    /** Phase 0..2 */
+    public double getVoltage(int phase) {
+        return model.getVoltage(index, phase);
     }
 
-    public double generateBlockEnergy() {
-        return random.nextDouble() * 1000; // 0-1000 kWh
+    /** Phase 0..2 */
+    public double getCurrent(int phase) {
+        return model.getCurrent(index, phase);
     }
 
-    public double generateDailyEnergy() {
-        return generateActivePowerImport() * 24; // Daily energy in Wh
+    public double getPowerFactor() {
+        return model.getPowerFactor(index);
     }
 
-    public double generateMonthlyEnergy() {
-        return generateActivePowerImport() * 24 * 30; // Monthly energy in Wh
+    public double getFrequency() {
+        return model.getFrequency();
     }
 
-    public double generateMaxDemand() {
-        return generateActivePowerImport() * 1.5; // Peak demand 50% higher than average
+    public double getCumulativeEnergy(FleetLoadModel.Register register) {
+        return model.getRegister(index, register);
     }
 
-    public double generateCumulativeEnergy() {
-        return random.nextDouble() * 1000000; // Random cumulative energy up to 1MWh
+    public double getBlockEnergy(FleetLoadModel.Register register) {
+        return model.getBlockEnergy(index, register);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package com.hes.collector.archive;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Block Load Archive Tests")
+class BlockLoadArchiveTest {
+
+    private static final long BASE = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    private static final long PERIOD = 15 * 60 * 1000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should round-trip timestamps with irregular gaps and backwards steps")
+    void shouldRoundTripTimestamps() {
+        long[] timestamps = {BASE, BASE + PERIOD, BASE + 2 * PERIOD, BASE + 2 * PERIOD + 1,
+            BASE + 10 * PERIOD, BASE + 9 * PERIOD, Long.MIN_VALUE / 2, Long.MAX_VALUE / 2, 0, 7};
+        byte[] encoded = GorillaCodec.encodeTimestamps(timestamps, timestamps.length);
+
+        long[] decoded = new long[timestamps.length];
+        GorillaCodec.decodeTimestamps(encoded, 0, encoded.length, timestamps.length, decoded);
+
+        assertArrayEquals(timestamps, decoded);
+    }
+
+    @Test
+    @DisplayName("Should round-trip doubles bit for bit")
+    void shouldRoundTripValues() {
+        double[] values = {230.1, 230.1, 230.2, -0.0, 0.0, Double.NaN, Double.longBitsToDouble(0x7ff8dead00000001L),
+            Double.POSITIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE, 1e-300, 230.1, 230.1};
+        byte[] encoded = GorillaCodec.encodeValues(values, values.length);
+
+        double[] decoded = new double[values.length];
+        GorillaCodec.decodeValues(encoded, 0, encoded.length, values.length, decoded);
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(decoded[i]), "index " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should compress a regular near-repeating 15-minute series to a fraction of its raw size")
+    void shouldCompressRegularSeries() {
+        int rows = 2976;
+        long[] timestamps = new long[rows];
+        double[] voltage = new double[rows];
+        SplittableRandom random = new SplittableRandom(7);
+        double current = 230.0;
+        for (int i = 0; i < rows; i++) {
+            timestamps[i] = BASE + i * PERIOD;
+            if (random.nextInt(4) == 0) {
+                current = 230.0 + random.nextInt(-20, 21) / 4.0;
+            }
+            voltage[i] = current;
+        }
+
+        int timestampBytes = GorillaCodec.encodeTimestamps(timestamps, rows).length;
+        int voltageBytes = GorillaCodec.encodeValues(voltage, rows).length;
+
+        assertTrue(timestampBytes < rows / 8 + 16, "timestamps " + timestampBytes);
+        assertTrue(voltageBytes < rows * 8 / 2, "voltage " + voltageBytes);
+    }
+
+    @Test
+    @DisplayName("Should write an archive and read back selected columns per meter")
+    void shouldRoundTripArchive() throws IOException {
+        Path file = dir.resolve("block-load-2024-01.hla");
+        BlockLoadSeries first = series("MTR000001", 96, 1);
+        BlockLoadSeries second = series("MTR000002", 200, 2);
+        try (BlockLoadArchiveWriter writer = new BlockLoadArchiveWriter(file)) {
+            writer.write(first);
+            writer.write(second);
+            assertTrue(writer.getCompressedBytes() < writer.getRawBytes());
+            writer.commit();
+        }
+        assertFalse(Files.exists(dir.resolve("block-load-2024-01.hla.tmp")));
+
+        try (BlockLoadArchiveReader reader = new BlockLoadArchiveReader(file)) {
+            assertEquals(2, reader.getEntries().size());
+            BlockLoadSeries all = reader.read(reader.getEntries().get(1));
+            assertSeriesEquals(second, all);
+
+            BlockLoadSeries energy = reader.read("MTR000001", EnumSet.of(BlockLoadColumn.BLOCK_ENERGY_WH_IMPORT));
+            assertEquals(96, energy.size());
+            assertArrayEquals(Arrays.copyOf(first.getValues(BlockLoadColumn.BLOCK_ENERGY_WH_IMPORT), 96),
+                Arrays.copyOf(energy.getValues(BlockLoadColumn.BLOCK_ENERGY_WH_IMPORT), 96));
+            assertFalse(energy.hasColumn(BlockLoadColumn.VOLTAGE_VRN));
+            assertNull(reader.read("MTR999999", EnumSet.allOf(BlockLoadColumn.class)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should publish an archive only when committed")
+    void shouldDiscardUncommittedArchive() throws IOException {
+        Path file = dir.resolve("block-load-2024-02.hla");
+        Files.write(file, new byte[] {42});
+        try (BlockLoadArchiveWriter writer = new BlockLoadArchiveWriter(file)) {
+            writer.write(series("MTR000001", 96, 1));
+            // Failed before commit, e.g. while loading the next meter
+        }
+
+        assertFalse(Files.exists(dir.resolve("block-load-2024-02.hla.tmp")));
+        assertArrayEquals(new byte[] {42}, Files.readAllBytes(file));
+    }
+
+    @Test
+    @DisplayName("Should reject files that are not archives")
+    void shouldRejectForeignFiles() throws IOException {
+        Path file = dir.resolve("not-an-archive.hla");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IOException.class, () -> new BlockLoadArchiveReader(file));
+        byte[] truncated = {1, 2};
+        assertThrows(IllegalArgumentException.class,
+            () -> GorillaCodec.decodeValues(truncated, 0, truncated.length, 3, new double[3]));
+    }
+
+    private static BlockLoadSeries series(String serial, int rows, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        BlockLoadSeries series = new BlockLoadSeries(serial, 16);
+        double[] row = new double[BlockLoadColumn.values().length];
+        for (int i = 0; i < rows; i++) {
+            for (BlockLoadColumn column : BlockLoadColumn.values()) {
+                row[column.ordinal()] = Math.round(random.nextDouble(0, 500) * 100) / 100.0;
+            }
+            row[BlockLoadColumn.SIGNAL_STRENGTH.ordinal()] = i % 7 == 0 ? Double.NaN : 60;
+            series.add(BASE + i * PERIOD, row);
+        }
+        return series;
+    }
+
+    private static void assertSeriesEquals(BlockLoadSeries expected, BlockLoadSeries actual) {
+        assertEquals(expected.getMeterSerialNumber(), actual.getMeterSerialNumber());
+        assertEquals(expected.size(), actual.size());
+        int n = expected.size();
+        assertArrayEquals(Arrays.copyOf(expected.getCaptureTimes(), n), Arrays.copyOf(actual.getCaptureTimes(), n));
+        for (BlockLoadColumn column : BlockLoadColumn.values()) {
+            assertArrayEquals(Arrays.copyOf(expected.getValues(column), n), Arrays.copyOf(actual.getValues(column), n),
+                column.name());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.hes.collector.buffer;
+
+import com.hes.collector.model.MeterReading;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Instantaneous Profile Buffer Tests")
+class InstantaneousProfileBufferTest {
+
+    private static final Instant BASE = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should return rows in a half-open range with the requested columns")
+    void shouldReadRange() {
+        InstantaneousProfileBuffer buffer = new InstantaneousProfileBuffer(dir.resolve("ring"), 100, 4);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.append(reading("MTR000001", i, 230 + i)));
+        }
+
+        InstantaneousSeries series = buffer.read("MTR000001", BASE.plusSeconds(60), BASE.plusSeconds(150),
+            EnumSet.of(InstantaneousColumn.L1_VOLTAGE_VRN));
+
+        assertArrayEquals(new long[] {
+            BASE.plusSeconds(60).toEpochMilli(), BASE.plusSeconds(90).toEpochMilli(), BASE.plusSeconds(120).toEpochMilli()
+        }, series.getTimestamps());
+        assertArrayEquals(new double[] {232, 233, 234}, series.getColumns().get("l1VoltageVrn"));
+        assertEquals(1, series.getColumns().size());
+        assertNull(buffer.read("MTR999999", BASE, BASE.plusSeconds(60), EnumSet.allOf(InstantaneousColumn.class)));
+        buffer.close();
+    }
+
+    @Test
+    @DisplayName("Should keep only the newest rows once the ring wraps")
+    void shouldOverwriteOldestRows() {
+        InstantaneousProfileBuffer buffer = new InstantaneousProfileBuffer(dir.resolve("ring"), 8, 4);
+        for (int i = 0; i < 20; i++) {
+            buffer.append(reading("MTR000001", i, i));
+        }
+        assertFalse(buffer.append(reading("MTR000001", 19, 99)), "rows not newer than the last must be ignored");
+
+        InstantaneousSeries series = buffer.read("MTR000001", BASE, BASE.plusSeconds(3600),
+            EnumSet.of(InstantaneousColumn.L1_VOLTAGE_VRN));
+
+        assertArrayEquals(new double[] {12, 13, 14, 15, 16, 17, 18, 19}, series.getColumns().get("l1VoltageVrn"));
+        buffer.close();
+    }
+
+    @Test
+    @DisplayName("Should recover meters and rows from the mapped file after a restart")
+    void shouldRecoverAfterReopen() {
+        Path file = dir.resolve("ring");
+        InstantaneousProfileBuffer buffer = new InstantaneousProfileBuffer(file, 16, 4);
+        buffer.append(reading("MTR000001", 0, 231));
+        buffer.append(reading("MTR000002", 0, 241));
+        buffer.append(reading("MTR000002", 1, 242));
+        buffer.close();
+
+        InstantaneousProfileBuffer reopened = new InstantaneousProfileBuffer(file, 16, 4);
+        List<ColumnSummary> summaries = reopened.scan(InstantaneousColumn.L1_VOLTAGE_VRN, BASE, BASE.plusSeconds(3600));
+
+        assertEquals(2, reopened.getMeterCount());
+        assertEquals("MTR000002", summaries.get(1).getMeterSerialNumber());
+        assertEquals(2, summaries.get(1).getCount());
+        assertEquals(241.5, summaries.get(1).getAvg(), 1e-9);
+        assertEquals(242, summaries.get(1).getLast(), 1e-9);
+        reopened.close();
+
+        InstantaneousProfileBuffer resized = new InstantaneousProfileBuffer(file, 32, 4);
+        assertEquals(0, resized.getMeterCount(), "a different layout must start empty");
+        resized.close();
+    }
+
+    @Test
+    @DisplayName("Should rebase timestamp offsets after a long gap")
+    void shouldRebaseAfterLongGap() {
+        InstantaneousProfileBuffer buffer = new InstantaneousProfileBuffer(dir.resolve("ring"), 8, 1);
+        buffer.append(reading("MTR000001", 0, 1));
+        buffer.append(reading("MTR000001", 1, 2));
+        long gapIntervals = 40L * 24 * 3600 / 30;
+        buffer.append(reading("MTR000001", gapIntervals, 3));
+        buffer.append(reading("MTR000001", gapIntervals + 1, 4));
+
+        InstantaneousSeries series = buffer.read("MTR000001", BASE, BASE.plusSeconds(3600L * 24 * 365),
+            EnumSet.of(InstantaneousColumn.L1_VOLTAGE_VRN));
+
+        assertArrayEquals(new double[] {3, 4}, series.getColumns().get("l1VoltageVrn"));
+        assertEquals(BASE.plusSeconds(30 * (gapIntervals + 1)).toEpochMilli(), series.getTimestamps()[1]);
+        buffer.close();
+    }
+
+    @Test
+    @DisplayName("Should refuse new meters once full")
+    void shouldRefuseNewMetersWhenFull() {
+        InstantaneousProfileBuffer buffer = new InstantaneousProfileBuffer(dir.resolve("ring"), 4, 1);
+
+        assertTrue(buffer.append(reading("MTR000001", 0, 1)));
+        assertFalse(buffer.append(reading("MTR000002", 0, 1)));
+        buffer.close();
+    }
+
+    private static MeterReading reading(String serial, long interval, double voltage) {
+        Instant captureTime = BASE.plusSeconds(30 * interval);
+        return MeterReading.builder()
+            .meterSerialNumber(serial)
+            .captureTime(captureTime)
+            .timestamp(captureTime)
+            .l1VoltageVrn(voltage)
+            .activePower(voltage * 10)
+            .build();
+    }
+}
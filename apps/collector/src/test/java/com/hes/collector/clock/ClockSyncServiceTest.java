@@ -0,0 +1,184 @@
+package com.hes.collector.clock;
+
+import com.hes.collector.config.ClockSyncConfig;
+import com.hes.collector.config.DlmsConfig;
+import com.hes.collector.config.LaneSchedulerConfig;
+import com.hes.collector.config.MeterAccessConfig;
+import com.hes.collector.config.MeterEmulatorConfig;
+import com.hes.collector.config.ScoreboardConfig;
+import com.hes.collector.config.StageMetricsConfig;
+import com.hes.collector.dlms.CosemObject;
+import com.hes.collector.dlms.DataObject;
+import com.hes.collector.emulator.MeterEmulator;
+import com.hes.collector.metrics.CollectionStageMetrics;
+import com.hes.collector.metrics.MeterHealthScoreboard;
+import com.hes.collector.model.Meter;
+import com.hes.collector.resilience.MeterAccessGuard;
+import com.hes.collector.scheduling.LaneScheduler;
+import com.hes.collector.scheduling.MeterWaves;
+import com.hes.collector.service.MeterCommunicationService;
+import com.hes.collector.service.MeterService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Clock Sync Service Tests")
+class ClockSyncServiceTest {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private MeterEmulator emulator;
+
+    @AfterEach
+    void tearDown() {
+        if (emulator != null) {
+            emulator.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should shift small drifts, set large ones and flag outliers on meters in another zone")
+    void shouldCorrectDriftedMeters() throws Exception {
+        MeterEmulatorConfig emulatorConfig = new MeterEmulatorConfig();
+        emulatorConfig.setHost("127.0.0.1");
+        emulatorConfig.setBasePort(0);
+        emulatorConfig.setPorts(4);
+        emulatorConfig.setMetersPerPort(1);
+        emulatorConfig.setIoThreads(1);
+        // Meter clocks away from the HES zone, so drift is only right when read with their deviation
+        ZoneId meterZone = ZoneId.of(ZoneId.systemDefault().getRules().getOffset(Instant.now())
+            .equals(ZoneOffset.ofHoursMinutes(5, 30)) ? "UTC" : "Asia/Kolkata");
+        emulatorConfig.setZone(meterZone.getId());
+        emulator = new MeterEmulator(emulatorConfig);
+        emulator.start();
+
+        DlmsConfig dlmsConfig = new DlmsConfig();
+        dlmsConfig.setUseHdlc(false);
+        dlmsConfig.setReadTimeoutMs(2000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MeterAccessGuard guard = new MeterAccessGuard(new MeterAccessConfig(), registry);
+        CollectionStageMetrics stageMetrics = new CollectionStageMetrics(registry, new StageMetricsConfig());
+        MeterCommunicationService communication = new MeterCommunicationService(dlmsConfig, registry,
+            new LaneScheduler(new LaneSchedulerConfig(), registry), guard,
+            stageMetrics, new MeterHealthScoreboard(new ScoreboardConfig()));
+        RecordingJdbc jdbc = new RecordingJdbc();
+        ClockSyncService service = new ClockSyncService(new ClockSyncConfig(), communication, new MeterService(jdbc, stageMetrics),
+            guard, jdbc, registry);
+
+        long[] offsetsSeconds = {30, -2 * 3600, 0, 2};
+        List<Meter> meters = new ArrayList<>();
+        for (int i = 0; i < offsetsSeconds.length; i++) {
+            int port = emulator.getPorts().get(i);
+            LocalDateTime time = LocalDateTime.now(meterZone).plusSeconds(offsetsSeconds[i]);
+            assertTrue(communication.communicate("127.0.0.1", port, CosemObject.StandardObjects.CLOCK,
+                DataObject.newDateTime(time), true).get(5, TimeUnit.SECONDS).isSuccess());
+            meters.add(meter("M" + i, "127.0.0.1", port));
+        }
+
+        ClockSyncReport first = service.sweep(meters, new ClockSyncReport());
+        assertEquals(ClockSyncReport.Status.COMPLETED, first.getStatus());
+        assertEquals(4, first.getRead());
+        assertEquals(1, first.getShifted());
+        assertEquals(1, first.getSet());
+        assertEquals(2, first.getInSync());
+        assertEquals(1, first.getOutliers());
+        assertEquals(1, jdbc.rows);
+        assertEquals("M1", jdbc.lastSerial);
+
+        ClockSyncReport second = service.sweep(meters, new ClockSyncReport());
+        assertEquals(4, second.getInSync());
+        assertEquals(0, second.getOutliers());
+        List<DriftSample> history = service.getHistory("M0");
+        assertEquals(2, history.size());
+        assertEquals(DriftSample.Correction.SHIFT_TIME, history.get(0).getCorrection());
+        assertEquals(30000, history.get(0).getDriftMs(), 1000);
+        assertTrue(Math.abs(history.get(1).getDriftMs()) <= 1000);
+    }
+
+    @Test
+    @DisplayName("Should build waves within the per-gateway and wave limits")
+    void shouldBuildWavesPerGateway() {
+        List<Meter> meters = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            meters.add(meter("A" + i, "10.0.0.1", 4059 + i));
+        }
+        meters.add(meter("B0", "10.0.0.2", 4059));
+        meters.add(meter("B1", "10.0.0.2", 4060));
+        meters.add(meter("C0", "10.0.0.3", 4059));
+
+        List<List<Meter>> waves = MeterWaves.split(meters, ip -> ip.endsWith(".1") ? 3 : 4, 5);
+
+        Set<String> seen = new HashSet<>();
+        for (List<Meter> wave : waves) {
+            assertTrue(wave.size() <= 5);
+            Map<String, Integer> perGateway = new HashMap<>();
+            for (Meter meter : wave) {
+                assertTrue(seen.add(meter.getSerialNumber()));
+                perGateway.merge(meter.getIpAddress(), 1, Integer::sum);
+            }
+            assertTrue(perGateway.getOrDefault("10.0.0.1", 0) <= 3);
+        }
+        assertEquals(13, seen.size());
+        assertEquals(3, waves.get(0).stream().map(Meter::getIpAddress).distinct().count());
+        assertEquals(4, waves.size());
+    }
+
+    @Test
+    @DisplayName("Should compute the drift rate since the last sample or correction")
+    void shouldComputeDriftRate() {
+        DriftHistory history = new DriftHistory(2);
+        long t0 = 1_700_000_000_000L;
+        long window = 6 * HOUR;
+        assertTrue(Double.isNaN(history.rateSincePrevious(t0, 40_000, window)));
+
+        history.add(t0, 40_000, 80, DriftSample.Correction.SHIFT_TIME);
+        // Too soon after the last sample for a rate
+        assertTrue(Double.isNaN(history.rateSincePrevious(t0 + HOUR, 4_000, window)));
+        // 4 s off 12 h after the clock was set right: (4000 - 1000) ms / 43200 s = 69 ppm
+        assertEquals(69.4, history.rateSincePrevious(t0 + 12 * HOUR, 4_000, window), 0.1);
+
+        history.add(t0 + 12 * HOUR, 4_000, 80, DriftSample.Correction.NONE);
+        history.add(t0 + 24 * HOUR, 4_500, 80, DriftSample.Correction.NONE);
+        assertEquals(0.0, history.rateSincePrevious(t0 + 36 * HOUR, 5_000, window), 1e-9);
+        List<DriftSample> samples = history.samples();
+        assertEquals(2, samples.size());
+        assertEquals(4_000, samples.get(0).getDriftMs());
+        assertEquals(4_500, samples.get(1).getDriftMs());
+    }
+
+    private static Meter meter(String serial, String ipAddress, int port) {
+        Meter meter = new Meter();
+        meter.setMeterSerialNumber(serial);
+        meter.setIpAddress(ipAddress);
+        meter.setPort(port);
+        return meter;
+    }
+
+    /** Records ESWF rows flagged by the sweep */
+    private static class RecordingJdbc extends JdbcTemplate {
+        private int rows;
+        private String lastSerial;
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            rows += batchArgs.size();
+            lastSerial = (String) batchArgs.get(batchArgs.size() - 1)[0];
+            return new int[batchArgs.size()];
+        }
+    }
+}
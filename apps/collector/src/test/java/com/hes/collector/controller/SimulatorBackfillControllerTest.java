@@ -0,0 +1,84 @@
+package com.hes.collector.controller;
+
+import com.hes.collector.config.SimulatorConfig;
+import com.hes.collector.simulator.BackfillReport;
+import com.hes.collector.simulator.HistoricalBackfill;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Simulator Backfill Controller Tests")
+class SimulatorBackfillControllerTest {
+
+    private StubBackfill backfill;
+    private SimulatorBackfillController controller;
+
+    @BeforeEach
+    void setUp() {
+        backfill = new StubBackfill();
+        controller = new SimulatorBackfillController(backfill);
+    }
+
+    @Test
+    @DisplayName("Should accept a run and report it until the next one")
+    void shouldStartAndReport() {
+        assertEquals(HttpStatus.NOT_FOUND, controller.status().getStatusCode());
+
+        ResponseEntity<Map<String, Object>> started = controller.start(500, 30);
+
+        assertEquals(HttpStatus.ACCEPTED, started.getStatusCode());
+        assertEquals(true, started.getBody().get("success"));
+        BackfillReport report = (BackfillReport) started.getBody().get("report");
+        assertEquals(500, report.getMeters());
+        assertEquals(30, report.getDays());
+        ResponseEntity<Map<String, Object>> status = controller.status();
+        assertEquals(HttpStatus.OK, status.getStatusCode());
+        assertSame(report, status.getBody().get("report"));
+    }
+
+    @Test
+    @DisplayName("Should answer 400 for invalid sizes and 409 while a run is in progress")
+    void shouldRejectInvalidAndConcurrentRuns() {
+        backfill.refusal = new IllegalArgumentException("meters and days must be positive");
+        ResponseEntity<Map<String, Object>> invalid = controller.start(0, 7);
+        assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+        assertEquals("meters and days must be positive", invalid.getBody().get("error"));
+
+        backfill.refusal = new IllegalStateException("A backfill is already running");
+        ResponseEntity<Map<String, Object>> busy = controller.start(1000, 7);
+        assertEquals(HttpStatus.CONFLICT, busy.getStatusCode());
+        assertEquals(false, busy.getBody().get("success"));
+    }
+
+    /** Records the request instead of generating rows */
+    private static class StubBackfill extends HistoricalBackfill {
+        private RuntimeException refusal;
+        private BackfillReport report;
+
+        StubBackfill() {
+            super(null, new SimulatorConfig());
+        }
+
+        @Override
+        public BackfillReport start(int meters, int days) {
+            if (refusal != null) {
+                throw refusal;
+            }
+            report = new BackfillReport();
+            report.setMeters(meters);
+            report.setDays(days);
+            return report;
+        }
+
+        @Override
+        public BackfillReport getLastReport() {
+            return report;
+        }
+    }
+}
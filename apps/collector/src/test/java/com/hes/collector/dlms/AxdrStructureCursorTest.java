@@ -0,0 +1,89 @@
+package com.hes.collector.dlms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A-XDR Structure Cursor Tests")
+class AxdrStructureCursorTest {
+
+    @Test
+    @DisplayName("Should read profile rows column by column")
+    void shouldReadProfileRows() {
+        LocalDateTime t0 = LocalDateTime.of(2024, 6, 1, 0, 15);
+        byte[] buffer = profileBuffer(t0, 3);
+
+        AxdrStructureCursor cursor = AxdrStructureCursor.over(buffer);
+        assertEquals(3, cursor.getRowCount());
+        int rows = 0;
+        while (cursor.next()) {
+            int i = cursor.getRow();
+            assertEquals(5, cursor.getColumnCount());
+            assertEquals(t0.plusMinutes(15L * i), cursor.getDateTime(0));
+            assertEquals(2300 + i, cursor.getLong(1));
+            assertEquals(-12.5 * i, cursor.getDouble(2), 1e-9);
+            assertEquals(4_000_000_000L + i, cursor.getLong(3));
+            assertTrue(cursor.isNull(4));
+            assertEquals(AxdrCodec.DOUBLE_LONG_UNSIGNED, cursor.getTag(3));
+            rows++;
+        }
+        assertEquals(3, rows);
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    @DisplayName("Should match the tree decoder")
+    void shouldMatchTreeDecoder() {
+        byte[] buffer = profileBuffer(LocalDateTime.of(2024, 1, 1, 0, 0), 4);
+        List<DataObject> rows = AxdrCodec.decode(buffer).asArray();
+
+        AxdrStructureCursor cursor = AxdrStructureCursor.over(buffer);
+        for (DataObject row : rows) {
+            assertTrue(cursor.next());
+            for (int c = 0; c < row.asStructure().size(); c++) {
+                assertEquals(row.asStructure().get(c), cursor.get(c));
+            }
+        }
+        ByteBuffer time = cursor.getBytes(0);
+        assertEquals(AxdrCodec.DATE_TIME_LENGTH, time.remaining());
+        assertTrue(time.isReadOnly());
+    }
+
+    @Test
+    @DisplayName("Should reject truncated and malformed buffers")
+    void shouldRejectMalformedBuffers() {
+        byte[] buffer = profileBuffer(LocalDateTime.of(2024, 1, 1, 0, 0), 2);
+        AxdrStructureCursor truncated = AxdrStructureCursor.over(buffer, 0, buffer.length - 3);
+        assertTrue(truncated.next());
+        assertThrows(IllegalArgumentException.class, truncated::next);
+
+        assertThrows(IllegalArgumentException.class, () -> AxdrStructureCursor.over(new byte[]{2, 0}));
+        AxdrStructureCursor cursor = AxdrStructureCursor.over(buffer);
+        assertThrows(IllegalStateException.class, () -> cursor.getLong(0));
+        cursor.next();
+        assertThrows(IllegalStateException.class, () -> cursor.getLong(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> cursor.getLong(5));
+    }
+
+    /** Rows of capture time, voltage (long-unsigned), float64, energy (double-long-unsigned as unsigned) and null */
+    private static byte[] profileBuffer(LocalDateTime start, int rows) {
+        ByteBuffer out = ByteBuffer.allocate(64 * rows + 8);
+        out.put((byte) AxdrCodec.ARRAY);
+        AxdrCodec.putLength(out, rows);
+        for (int i = 0; i < rows; i++) {
+            AxdrCodec.putStructureHeader(out, 5);
+            AxdrCodec.putOctetString(out, AxdrCodec.encodeDateTime(start.plusMinutes(15L * i)));
+            out.put((byte) AxdrCodec.LONG_UNSIGNED).putShort((short) (2300 + i));
+            out.put((byte) AxdrCodec.FLOAT64).putDouble(-12.5 * i);
+            out.put((byte) AxdrCodec.DOUBLE_LONG_UNSIGNED).putInt((int) (4_000_000_000L + i));
+            out.put((byte) AxdrCodec.NULL_DATA);
+        }
+        return Arrays.copyOf(out.array(), out.position());
+    }
+}
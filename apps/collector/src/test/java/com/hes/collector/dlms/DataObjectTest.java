@@ -195,4 +195,55 @@ class DataObjectTest {
         
         assertNotEquals(data1, data2);
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should share instances of null, booleans and small integers")
+    void shouldShareSmallValues() {
+        assertSame(DataObject.newNull(), DataObject.newNull());
+        assertSame(DataObject.newBoolean(true), DataObject.newBoolean(true));
+        assertSame(DataObject.newInteger(-128L), DataObject.newInteger(-128L));
+        assertSame(DataObject.newUnsigned(255L), DataObject.newUnsigned(255L));
+        assertNotEquals(DataObject.newInteger(7L), DataObject.newUnsigned(7L));
+        assertEquals(DataObject.newInteger(100_000L), DataObject.newInteger(100_000L));
+    }
+
+    @Test
+    @DisplayName("Should widen numeric values without boxing")
+    void shouldWidenNumericValues() {
+        assertEquals(230.5, DataObject.newFloat(230.5f).doubleValue(), 0.0);
+        assertEquals(4_000_000_000L, DataObject.newUnsigned(4_000_000_000L).longValue());
+        assertEquals(-5.0, DataObject.newInteger(-5L).doubleValue(), 0.0);
+        assertEquals(1L, DataObject.newBoolean(true).longValue());
+        assertThrows(IllegalStateException.class, () -> DataObject.newString("x").doubleValue());
+        assertEquals(123.45f, DataObject.newFloat(123.45f).getValue());
+    }
+
+    @Test
+    @DisplayName("Should keep the long width of int16 integers through A-XDR")
+    void shouldKeepInt16Width() {
+        assertArrayEquals(new byte[]{0x10, (byte) 0xFF, (byte) 0xE2}, AxdrCodec.encode(DataObject.newInt16(-30)));
+        assertArrayEquals(new byte[]{0x05, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xE2},
+            AxdrCodec.encode(DataObject.newInteger(-30)));
+
+        DataObject decoded = AxdrCodec.decode(new byte[]{0x10, 0x03, (byte) 0x84});
+        assertEquals(900, decoded.asInteger());
+        assertEquals(2, decoded.getEncodedWidth());
+        assertEquals(0, AxdrCodec.decode(new byte[]{0x0F, 0x05}).getEncodedWidth());
+        assertThrows(IllegalArgumentException.class, () -> DataObject.newInt16(40_000));
+    }
+
+    @Test
+    @DisplayName("Should view wrapped octet strings without copying")
+    void shouldViewWrappedOctetStrings() {
+        byte[] buffer = {9, 1, 2, 3, 9};
+        DataObject wrapped = DataObject.wrapOctetString(buffer, 1, 3);
+
+        assertEquals(DataObject.newOctetString(new byte[]{1, 2, 3}), wrapped);
+        assertEquals(DataObject.newOctetString(new byte[]{1, 2, 3}).hashCode(), wrapped.hashCode());
+        assertArrayEquals(new byte[]{1, 2, 3}, wrapped.asOctetString());
+        assertEquals(3, wrapped.asByteView().remaining());
+        assertEquals(2, wrapped.asByteView().get(1));
+        assertTrue(wrapped.asByteView().isReadOnly());
+        assertThrows(IndexOutOfBoundsException.class, () -> DataObject.wrapOctetString(buffer, 3, 3));
+    }
+}
@@ -0,0 +1,69 @@
+package com.hes.collector.dlms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HDLC Frame and A-XDR Tests")
+class HdlcFrameTest {
+
+    @Test
+    @DisplayName("Should compute the CRC-16/X-25 check value")
+    void shouldComputeFcs() {
+        byte[] data = "123456789".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0x906E, HdlcFrame.fcs16(data, 0, data.length));
+    }
+
+    @Test
+    @DisplayName("Should round trip an I-frame with a four byte server address")
+    void shouldRoundTripInformationFrame() {
+        byte[] apdu = {(byte) 0xC0, 0x01, (byte) 0xC1, 0x00, 0x03};
+        byte[] frame = HdlcFrame.encode(HdlcFrame.serverAddress(1, 5000), HdlcFrame.clientAddress(16),
+            HdlcFrame.informationControl(3, 5), HdlcFrame.withLlc(false, apdu));
+
+        assertEquals(HdlcFrame.FLAG, frame[0]);
+        assertEquals(HdlcFrame.FLAG, frame[frame.length - 1]);
+        HdlcFrame decoded = HdlcFrame.decode(frame, 1, frame.length - 2);
+        assertEquals(1, decoded.getDestinationUpper());
+        assertEquals(5000, decoded.getDestinationLower());
+        assertEquals(16, decoded.getSource());
+        assertTrue(decoded.isInformation());
+        assertEquals(5, decoded.getSendSequence());
+        assertEquals(3, decoded.getReceiveSequence());
+        assertArrayEquals(apdu, HdlcFrame.withoutLlc(decoded.getInfo()));
+    }
+
+    @Test
+    @DisplayName("Should reject a frame with a corrupted FCS")
+    void shouldRejectCorruptedFrame() {
+        byte[] frame = HdlcFrame.encode(HdlcFrame.serverAddress(0, 17), HdlcFrame.clientAddress(1),
+            HdlcFrame.SNRM, new byte[0]);
+        frame[frame.length - 2] ^= 0x01;
+        assertThrows(IllegalArgumentException.class, () -> HdlcFrame.decode(frame, 1, frame.length - 2));
+    }
+
+    @Test
+    @DisplayName("Should round trip A-XDR values")
+    void shouldRoundTripAxdr() {
+        DataObject structure = DataObject.newStructure(Arrays.asList(
+            DataObject.newUnsigned(4_000_000_000L),
+            DataObject.newInteger(-5),
+            DataObject.newOctetString(new byte[] {1, 2, 3}),
+            DataObject.newBoolean(true)));
+        List<DataObject> decoded = AxdrCodec.decode(AxdrCodec.encode(structure)).asStructure();
+        assertEquals(4, decoded.size());
+        assertEquals(4_000_000_000L, decoded.get(0).asUnsigned());
+        assertEquals(-5L, decoded.get(1).asInteger());
+        assertArrayEquals(new byte[] {1, 2, 3}, decoded.get(2).asOctetString());
+        assertTrue(decoded.get(3).asBoolean());
+
+        LocalDateTime time = LocalDateTime.of(2024, 3, 31, 2, 15, 30);
+        assertEquals(time, AxdrCodec.decodeDateTime(AxdrCodec.encodeDateTime(time)));
+    }
+}
@@ -97,4 +97,40 @@ class ObisCodeTest {
             ObisCode.parse(null);
         });
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should reject malformed groups")
+    void shouldRejectMalformedGroups() {
+        assertThrows(IllegalArgumentException.class, () -> ObisCode.parse("1..1.7.0.255"));
+        assertThrows(IllegalArgumentException.class, () -> ObisCode.parse("1.0.1.7.0.255."));
+        assertThrows(IllegalArgumentException.class, () -> ObisCode.parse(".1.0.1.7.0"));
+        assertThrows(IllegalArgumentException.class, () -> ObisCode.parse("1.0.1.7.0.25a"));
+        assertThrows(IllegalArgumentException.class, () -> ObisCode.parse("1.0.1.7.0.-1"));
+        assertThrows(IllegalArgumentException.class, () -> ObisCode.parse("1.0.1.7.0.99999999999"));
+        assertThrows(IllegalArgumentException.class, () -> ObisCode.parse(""));
+    }
+
+    @Test
+    @DisplayName("Should intern parsed and decoded codes")
+    void shouldInternCodes() {
+        ObisCode parsed = ObisCode.parse("1.0.32.7.0.255");
+        assertSame(parsed, ObisCode.parse("1.0.32.7.0.255"));
+        assertSame(parsed, ObisCode.of(1, 0, 32, 7, 0, 255));
+        assertSame(parsed, ObisCode.fromBytes(new byte[]{9, 1, 0, 32, 7, 0, (byte) 255}, 1));
+        assertSame(parsed, ObisCode.fromLong(parsed.toLong()));
+    }
+
+    @Test
+    @DisplayName("Should pack groups into 48 bits")
+    void shouldPackGroups() {
+        ObisCode obisCode = ObisCode.parse("1.0.1.8.0.255");
+        assertEquals(0x0100_0108_00FFL, obisCode.toLong());
+        assertEquals(8, obisCode.get(3));
+        assertEquals(255, obisCode.get(5));
+
+        java.nio.ByteBuffer out = java.nio.ByteBuffer.allocate(6);
+        obisCode.writeTo(out);
+        assertArrayEquals(obisCode.getCode(), out.array());
+        assertThrows(IllegalArgumentException.class, () -> ObisCode.fromLong(1L << 48));
+    }
+}
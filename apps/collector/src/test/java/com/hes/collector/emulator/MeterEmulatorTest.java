@@ -0,0 +1,196 @@
+package com.hes.collector.emulator;
+
+import com.hes.collector.config.DlmsConfig;
+import com.hes.collector.config.MeterEmulatorConfig;
+import com.hes.collector.dlms.AxdrCodec;
+import com.hes.collector.dlms.CosemObject;
+import com.hes.collector.dlms.DataObject;
+import com.hes.collector.dlms.DlmsProtocol;
+import com.hes.collector.dlms.ObisCode;
+import com.hes.collector.dlms.security.SecuritySuite;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Meter Emulator Tests")
+class MeterEmulatorTest {
+
+    private static final CosemObject VOLTAGE = object(3, "1.0.32.7.0.255", 2);
+    private static final CosemObject SERIAL = object(1, "0.0.96.1.0.255", 2);
+    private static final CosemObject CLOCK = object(8, "0.0.1.0.0.255", 2);
+    private static final CosemObject RELAY = object(70, "0.0.96.3.10.255", 2);
+
+    private MeterEmulator emulator;
+
+    @AfterEach
+    void tearDown() {
+        if (emulator != null) {
+            emulator.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer GET over HDLC for the addressed meter")
+    void shouldReadOverHdlc() throws Exception {
+        start(0.0, "");
+        try (DlmsProtocol protocol = connect(true, 1, 7, "")) {
+            DlmsProtocol.GetResult voltage = protocol.get(VOLTAGE);
+            assertTrue(voltage.isSuccess(), voltage.getError());
+            long raw = voltage.getValue().asUnsigned();
+            assertTrue(raw > 2200 && raw < 2400, "voltage " + raw);
+
+            DlmsProtocol.GetResult serial = protocol.get(SERIAL);
+            assertTrue(serial.isSuccess());
+            assertEquals(emulator.getFleet().serialNumber(12500 + 6),
+                new String(serial.getValue().asOctetString(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer GET and SET over the wrapper")
+    void shouldReadAndWriteOverWrapper() throws Exception {
+        start(0.0, "");
+        try (DlmsProtocol protocol = connect(false, 0, 3, "")) {
+            assertTrue(protocol.get(CLOCK).isSuccess());
+
+            assertTrue(protocol.set(RELAY, DataObject.newBoolean(false)).isSuccess());
+            assertFalse(emulator.getFleet().isConnected(2));
+            assertFalse(protocol.get(RELAY).getValue().asBoolean());
+
+            LocalDateTime target = LocalDateTime.now().minusHours(1).withNano(0);
+            assertTrue(protocol.set(CLOCK, DataObject.newDateTime(target)).isSuccess());
+        }
+    }
+
+    @Test
+    @DisplayName("Should report data access errors for unknown objects and read-only attributes")
+    void shouldReportAccessErrors() throws Exception {
+        start(0.0, "");
+        try (DlmsProtocol protocol = connect(true, 0, 1, "")) {
+            DlmsProtocol.GetResult unknown = protocol.get(object(3, "1.0.99.99.0.255", 2));
+            assertFalse(unknown.isSuccess());
+            assertTrue(unknown.getError().contains("OBJECT_UNDEFINED"));
+
+            DlmsProtocol.SetResult readOnly = protocol.set(VOLTAGE, DataObject.newUnsigned(1));
+            assertFalse(readOnly.isSuccess());
+            assertTrue(readOnly.getError().contains("READ_WRITE_DENIED"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should report the clock deviation and shift the clock only with a long parameter")
+    void shouldShiftClockWithInt16Only() throws Exception {
+        start(0.0, "");
+        try (DlmsProtocol protocol = connect(false, 0, 1, "")) {
+            byte[] before = protocol.get(CLOCK).getValue().asOctetString();
+            ZoneOffset offset = AxdrCodec.decodeDeviation(before);
+            assertEquals(ZoneId.systemDefault().getRules().getOffset(Instant.now()), offset);
+
+            DlmsProtocol.ActionResult doubleLong = protocol.action(CLOCK, 6, DataObject.newInteger(-600));
+            assertFalse(doubleLong.isSuccess());
+            assertTrue(doubleLong.getError().contains("TYPE_UNMATCHED"), doubleLong.getError());
+            assertTrue(protocol.action(CLOCK, 6, DataObject.newInt16(-600)).isSuccess());
+
+            byte[] after = protocol.get(CLOCK).getValue().asOctetString();
+            long shifted = AxdrCodec.decodeDateTime(before).toEpochSecond(offset)
+                - AxdrCodec.decodeDateTime(after).toEpochSecond(offset);
+            assertTrue(shifted >= 598 && shifted <= 600, "shifted " + shifted);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject an association with the wrong password")
+    void shouldRejectWrongPassword() throws Exception {
+        start(0.0, "3132333435363738");
+        try (DlmsProtocol protocol = connect(true, 0, 1, "0000000000000000")) {
+            assertFalse(protocol.get(VOLTAGE).isSuccess());
+        }
+        try (DlmsProtocol protocol = connect(true, 0, 1, "3132333435363738")) {
+            assertTrue(protocol.get(VOLTAGE).isSuccess());
+        }
+    }
+
+    @Test
+    @DisplayName("Should inject errors at the configured rate")
+    void shouldInjectErrors() throws Exception {
+        start(1.0, "");
+        try (DlmsProtocol protocol = connect(false, 0, 1, "")) {
+            for (int i = 0; i < 5; i++) {
+                assertFalse(protocol.get(VOLTAGE).isSuccess());
+            }
+        }
+        assertEquals(5, emulator.getInjectedErrors());
+    }
+
+    @Test
+    @DisplayName("Should keep energy registers monotonic")
+    void shouldKeepEnergyMonotonic() {
+        EmulatedFleet fleet = new EmulatedFleet(1, 1000, 7, ZoneOffset.UTC);
+        long start = 1_700_000_000L;
+        for (int meter = 0; meter < 1000; meter += 37) {
+            long previous = -1;
+            for (long t = start; t < start + Duration.ofDays(2).getSeconds(); t += 900) {
+                long energy = fleet.register(meter, EmulatedObject.ENERGY_IMPORT, t);
+                assertTrue(energy >= previous);
+                previous = energy;
+            }
+        }
+    }
+
+    private void start(double errorRate, String password) throws Exception {
+        MeterEmulatorConfig config = new MeterEmulatorConfig();
+        config.setHost("127.0.0.1");
+        config.setBasePort(0);
+        config.setPorts(2);
+        config.setMetersPerPort(12500);
+        config.setIoThreads(2);
+        config.setErrorRate(errorRate);
+        config.setPassword(password);
+        emulator = new MeterEmulator(config);
+        emulator.start();
+    }
+
+    private DlmsProtocol connect(boolean hdlc, int portIndex, int address, String password) {
+        DlmsConfig config = new DlmsConfig();
+        config.setUseHdlc(hdlc);
+        config.setServerLowerMacAddress(address);
+        config.setServerWPort(address);
+        config.setReadTimeoutMs(2000);
+        SecuritySuite security = password.isEmpty()
+            ? SecuritySuite.noSecurity() : SecuritySuite.lowLevelSecurity(hex(password));
+        DlmsProtocol protocol = DlmsProtocol.builder()
+            .ipAddress("127.0.0.1")
+            .port(emulator.getPorts().get(portIndex))
+            .config(config)
+            .security(security)
+            .build();
+        protocol.connect();
+        return protocol;
+    }
+
+    private static CosemObject object(int classId, String obis, int attribute) {
+        return CosemObject.builder()
+            .classId(classId)
+            .obisCode(ObisCode.parse(obis))
+            .attributeId(attribute)
+            .accessLevel(CosemObject.AccessLevel.READ_WRITE)
+            .build();
+    }
+
+    private static byte[] hex(String value) {
+        byte[] bytes = new byte[value.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(value.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+}
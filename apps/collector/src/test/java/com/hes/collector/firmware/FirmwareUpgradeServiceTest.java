@@ -0,0 +1,254 @@
+package com.hes.collector.firmware;
+
+import com.hes.collector.config.DlmsConfig;
+import com.hes.collector.config.FirmwareUpgradeConfig;
+import com.hes.collector.config.LaneSchedulerConfig;
+import com.hes.collector.config.MeterAccessConfig;
+import com.hes.collector.config.MeterEmulatorConfig;
+import com.hes.collector.config.ScoreboardConfig;
+import com.hes.collector.config.StageMetricsConfig;
+import com.hes.collector.emulator.MeterEmulator;
+import com.hes.collector.metrics.CollectionStageMetrics;
+import com.hes.collector.metrics.MeterHealthScoreboard;
+import com.hes.collector.model.Meter;
+import com.hes.collector.model.MeterTransaction;
+import com.hes.collector.resilience.MeterAccessGuard;
+import com.hes.collector.scheduling.CommandLane;
+import com.hes.collector.scheduling.LaneScheduler;
+import com.hes.collector.service.MeterCommunicationService;
+import com.hes.collector.service.MeterService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Firmware Upgrade Service Tests")
+class FirmwareUpgradeServiceTest {
+    @TempDir
+    Path directory;
+
+    private MeterEmulator emulator;
+    private FirmwareUpgradeConfig config;
+    private CollectionStageMetrics stageMetrics;
+    private MeterCommunicationService communication;
+    private SimpleMeterRegistry registry;
+    private RecordingJdbc jdbc;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        config = new FirmwareUpgradeConfig();
+        config.setImageDirectory(directory.toString());
+        config.setBlocksPerSession(8);
+        config.setRetryDelayMs(0);
+        config.setVerifyPollMs(10);
+        config.setVerifyTimeoutMs(2000);
+        DlmsConfig dlmsConfig = new DlmsConfig();
+        dlmsConfig.setUseHdlc(false);
+        dlmsConfig.setReadTimeoutMs(2000);
+        dlmsConfig.setConnectTimeoutMs(1000);
+        // Keep the circuit breakers closed under the injected errors
+        MeterAccessConfig accessConfig = new MeterAccessConfig();
+        accessConfig.setMeterSlidingWindowSize(1000);
+        accessConfig.setMeterMinimumNumberOfCalls(1000);
+        accessConfig.setGatewaySlidingWindowSize(1000);
+        accessConfig.setGatewayMinimumNumberOfCalls(1000);
+        registry = new SimpleMeterRegistry();
+        stageMetrics = new CollectionStageMetrics(registry, new StageMetricsConfig());
+        communication = new MeterCommunicationService(dlmsConfig, registry,
+            new LaneScheduler(new LaneSchedulerConfig(), registry), new MeterAccessGuard(accessConfig, registry),
+            stageMetrics, new MeterHealthScoreboard(new ScoreboardConfig()));
+        jdbc = new RecordingJdbc();
+        content = new byte[2610];
+        new Random(7).nextBytes(content);
+        Files.write(directory.resolve("fw-2.1.bin"), content);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (emulator != null) {
+            emulator.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should transfer one mapped image to several meters in parallel and activate it")
+    void shouldTransferInParallel() throws Exception {
+        startEmulator(4, 128, 0.0);
+        FirmwareUpgradeService service = service();
+        FirmwareImage image = service.image("fw-2.1.bin", null);
+
+        FirmwareJob job = service.run(service.newJob(image, true), image, meters(4));
+
+        assertEquals(FirmwareJob.Status.COMPLETED, job.getStatus());
+        assertEquals("fw-2.1.bin", job.getImageIdentifier());
+        assertEquals(4, job.getCompleted());
+        for (int i = 0; i < 4; i++) {
+            FirmwareTransfer transfer = job.transfers().get(i);
+            assertEquals(FirmwareTransfer.State.COMPLETED, transfer.getState());
+            assertEquals(128, transfer.getBlockSize());
+            assertEquals(21, transfer.getBlockCount());
+            // Every block sent once, eight per session
+            assertEquals(21, transfer.getBlocksSent());
+            assertEquals(0, transfer.getRetransmitted());
+            assertEquals(3, transfer.getSessions());
+            assertArrayEquals(content, emulator.getFleet().image(i));
+            assertEquals(6, emulator.getFleet().imageTransferStatus(i));
+        }
+        assertEquals("COMPLETED", jdbc.checkpoints.get("M0")[5]);
+        assertEquals(21, jdbc.checkpoints.get("M0")[4]);
+        assertEquals(4, registry.get("collector.firmware.transfer").tag("outcome", "completed").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should continue from the last confirmed block after failed sessions and from checkpoints")
+    void shouldResumeFromLastConfirmedBlock() throws Exception {
+        startEmulator(3, 128, 0.3);
+        config.setMaxSessionFailures(20);
+        FirmwareUpgradeService service = service();
+        FirmwareImage image = service.image("fw-2.1.bin", null);
+        // Meter 1 received blocks 0-9 in an earlier job, meter 2 has a checkpoint but lost the transfer
+        initiate(1, image, 10);
+        jdbc.rows.add(checkpoint("M1", image.getSize(), 128, 10));
+        jdbc.rows.add(checkpoint("M2", image.getSize(), 128, 10));
+
+        FirmwareJob job = service.run(service.newJob(image, false), image, meters(3));
+
+        assertEquals(FirmwareJob.Status.COMPLETED, job.getStatus(), String.valueOf(job.transfers().get(0).getError()));
+        assertEquals(2, job.getResumed());
+        FirmwareTransfer first = job.transfers().get(0);
+        FirmwareTransfer resumed = job.transfers().get(1);
+        FirmwareTransfer restarted = job.transfers().get(2);
+        // Failed block transfers are repeated, confirmed ones never are
+        assertEquals(21, first.getBlocksSent());
+        assertTrue(first.getSessions() > 3, "sessions " + first.getSessions());
+        assertEquals(11, resumed.getBlocksSent());
+        assertEquals(21, restarted.getBlocksSent());
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(content, emulator.getFleet().image(i));
+            assertEquals(3, emulator.getFleet().imageTransferStatus(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse block sizes beyond the negotiated PDU and images outside the directory")
+    void shouldRefuseOversizedBlocksAndForeignFiles() throws Exception {
+        startEmulator(1, 2000, 0.0);
+        FirmwareUpgradeService service = service();
+        FirmwareImage image = service.image("fw-2.1.bin", "FW-2.1");
+        assertSame(image, service.image("fw-2.1.bin", "FW-2.1"));
+
+        FirmwareJob job = service.run(service.newJob(image, false), image, meters(1));
+
+        assertEquals(FirmwareJob.Status.COMPLETED_WITH_FAILURES, job.getStatus());
+        FirmwareTransfer transfer = job.transfers().get(0);
+        assertEquals(FirmwareTransfer.State.FAILED, transfer.getState());
+        assertTrue(transfer.getError().contains("does not fit the negotiated PDU size of 1024"), transfer.getError());
+        assertEquals(1, transfer.getSessions());
+        assertNull(emulator.getFleet().image(0));
+
+        Files.write(directory.getParent().resolve("outside.bin"), content);
+        assertThrows(IllegalArgumentException.class, () -> service.image("../outside.bin", null));
+        assertThrows(IllegalArgumentException.class, () -> service.image("missing.bin", null));
+    }
+
+    private void startEmulator(int meters, int imageBlockSize, double errorRate) throws Exception {
+        MeterEmulatorConfig emulatorConfig = new MeterEmulatorConfig();
+        emulatorConfig.setHost("127.0.0.1");
+        emulatorConfig.setBasePort(0);
+        emulatorConfig.setPorts(meters);
+        emulatorConfig.setMetersPerPort(1);
+        emulatorConfig.setIoThreads(1);
+        emulatorConfig.setImageBlockSize(imageBlockSize);
+        emulatorConfig.setErrorRate(errorRate);
+        emulator = new MeterEmulator(emulatorConfig);
+        emulator.start();
+    }
+
+    private FirmwareUpgradeService service() {
+        return new FirmwareUpgradeService(config, communication, new MeterService(jdbc, stageMetrics), null, jdbc, registry);
+    }
+
+    /** Initiate the image on a meter and send its first blocks, retrying what the emulator fails */
+    private void initiate(int meter, FirmwareImage image, int blocks) {
+        MeterTransaction.Result result = communication.communicate(CommandLane.FIRMWARE, "127.0.0.1",
+            emulator.getPorts().get(meter), protocol -> {
+                ImageTransferClient client = new ImageTransferClient(protocol);
+                byte[] block = new byte[128];
+                MeterTransaction.Result done = new MeterTransaction.Result();
+                for (int attempt = 0; attempt < 20; attempt++) {
+                    try {
+                        client.initiate(image.getIdentifier(), image.getSize());
+                        break;
+                    } catch (IOException e) {
+                        // Injected error, try again
+                    }
+                }
+                for (int number = 0; number < blocks; ) {
+                    int length = image.block(number, 128, block);
+                    try {
+                        client.transferBlock(number, block, length);
+                        number++;
+                    } catch (IOException e) {
+                        // Injected error, try again
+                    }
+                }
+                done.setSuccess(true);
+                return done;
+            }).join();
+        assertTrue(result.isSuccess(), result.getError());
+    }
+
+    private List<Meter> meters(int count) {
+        List<Meter> meters = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Meter meter = new Meter();
+            meter.setMeterSerialNumber("M" + i);
+            meter.setIpAddress("127.0.0.1");
+            meter.setPort(emulator.getPorts().get(i));
+            meters.add(meter);
+        }
+        return meters;
+    }
+
+    private static Map<String, Object> checkpoint(String serial, long imageSize, int blockSize, int nextBlock) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("meter_serial_number", serial);
+        row.put("image_size", imageSize);
+        row.put("block_size", blockSize);
+        row.put("next_block", nextBlock);
+        return row;
+    }
+
+    /** Keeps the latest checkpoint per meter and answers the checkpoint query with preset rows */
+    private static class RecordingJdbc extends JdbcTemplate {
+        private final Map<String, Object[]> checkpoints = Collections.synchronizedMap(new HashMap<>());
+        private final List<Map<String, Object>> rows = new ArrayList<>();
+
+        @Override
+        public int update(String sql, Object... args) {
+            checkpoints.put((String) args[0], args);
+            return 1;
+        }
+
+        @Override
+        public List<Map<String, Object>> queryForList(String sql, Object... args) {
+            return rows;
+        }
+    }
+}
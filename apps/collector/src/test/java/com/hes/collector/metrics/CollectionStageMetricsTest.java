@@ -0,0 +1,158 @@
+package com.hes.collector.metrics;
+
+import com.hes.collector.config.DlmsConfig;
+import com.hes.collector.config.StageMetricsConfig;
+import com.hes.collector.dlms.AxdrCodec;
+import com.hes.collector.dlms.CosemApdu;
+import com.hes.collector.dlms.CosemAssociation;
+import com.hes.collector.dlms.CosemObject;
+import com.hes.collector.dlms.DataAccessResult;
+import com.hes.collector.dlms.DataObject;
+import com.hes.collector.dlms.DlmsConnection;
+import com.hes.collector.model.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Collection Stage Metrics Tests")
+class CollectionStageMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private StageMetricsConfig config;
+    private CollectionStageMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        config = new StageMetricsConfig();
+        metrics = new CollectionStageMetrics(registry, config);
+    }
+
+    @Test
+    @DisplayName("Should tag stages with the model and firmware of identified meters")
+    void shouldTagIdentifiedMeters() {
+        metrics.identify(meter("MTR001", "LNT", 3, "2.1.0", "10.0.0.1", 4059));
+
+        metrics.forEndpoint("10.0.0.1", 4059).record(CollectionStage.TCP_CONNECT, 2_000_000, true);
+        metrics.forSerial("MTR001").record(CollectionStage.DB_WRITE, 5_000_000, true);
+        metrics.forSerial("MTR001").record(CollectionStage.DB_WRITE, 7_000_000, false);
+        metrics.forEndpoint("10.0.0.2", 4059).record(CollectionStage.TCP_CONNECT, 1_000_000, false);
+
+        Timer connect = timer("tcp_connect", "success", "LNT-3", "2.1.0");
+        assertEquals(1, connect.count());
+        assertEquals(2.0, connect.totalTime(TimeUnit.MILLISECONDS), 1e-9);
+        assertEquals(1, timer("db_write", "success", "LNT-3", "2.1.0").count());
+        assertEquals(1, timer("db_write", "failure", "LNT-3", "2.1.0").count());
+        assertEquals(1, timer("tcp_connect", "failure", CollectionStageMetrics.UNKNOWN,
+            CollectionStageMetrics.UNKNOWN).count());
+    }
+
+    @Test
+    @DisplayName("Should record meters behind a shared address by serial number")
+    void shouldKeyByMeterBehindSharedAddress() {
+        metrics.identify(meter("MTR010", "LNT", 3, "2.1.0", "10.0.0.9", 4059));
+        metrics.identify(meter("MTR011", "SEC", 1, "1.4", "10.0.0.9", 4059));
+        metrics.identify(meter("MTR012", "LNT", 3, "2.1.0", "10.0.0.8", 4059));
+
+        // Neither meter owns the shared address, so it records as unknown rather than the last identified
+        metrics.forEndpoint("10.0.0.9", 4059).record(CollectionStage.TCP_CONNECT, 1_000_000, true);
+        metrics.forSerial("MTR011", "10.0.0.9", 4059).record(CollectionStage.TCP_CONNECT, 1_000_000, true);
+        // Not identified by serial, so its own address decides
+        metrics.forSerial("MTR099", "10.0.0.8", 4059).record(CollectionStage.TCP_CONNECT, 1_000_000, true);
+
+        metrics.identify(meter("MTR010", "LNT", 3, "2.2.0", "10.0.0.9", 4059));
+        metrics.forSerial("MTR010", "10.0.0.9", 4059).record(CollectionStage.TCP_CONNECT, 1_000_000, true);
+
+        assertEquals(1, timer("tcp_connect", "success", CollectionStageMetrics.UNKNOWN,
+            CollectionStageMetrics.UNKNOWN).count());
+        assertEquals(1, timer("tcp_connect", "success", "SEC-1", "1.4").count());
+        assertEquals(1, timer("tcp_connect", "success", "LNT-3", "2.1.0").count());
+        assertEquals(1, timer("tcp_connect", "success", "LNT-3", "2.2.0").count());
+    }
+
+    @Test
+    @DisplayName("Should fold model and firmware pairs beyond the limit into other")
+    void shouldCapTagCombinations() {
+        config.setMaxTagCombinations(2);
+        metrics = new CollectionStageMetrics(registry, config);
+
+        metrics.forMeter("A", "1").record(CollectionStage.GET, 1000, true);
+        metrics.forMeter("B", "1").record(CollectionStage.GET, 1000, true);
+        metrics.forMeter("C", "1").record(CollectionStage.GET, 1000, true);
+        metrics.forMeter("D", "2").record(CollectionStage.GET, 1000, true);
+        metrics.forMeter("A", "1").record(CollectionStage.GET, 1000, true);
+
+        assertEquals(2, timer("get", "success", "A", "1").count());
+        assertEquals(1, timer("get", "success", "B", "1").count());
+        assertEquals(2, timer("get", "success", CollectionStageMetrics.OTHER, CollectionStageMetrics.OTHER).count());
+        assertEquals(3, registry.get(CollectionStageMetrics.METRIC).timers().size());
+    }
+
+    @Test
+    @DisplayName("Should time GET, decode and SET of an association separately")
+    void shouldTimeAssociationStages() throws Exception {
+        StageRecorder recorder = metrics.forMeter("LNT-3", "2.1.0");
+        CosemAssociation association = new CosemAssociation(new CannedMeter(), null, new DlmsConfig(), recorder);
+
+        assertTrue(association.associate());
+        assertTrue(association.get(CosemObject.StandardObjects.ACTIVE_POWER_IMPORT).isSuccess());
+        assertFalse(association.set(CosemObject.StandardObjects.RELAY_CONTROL, DataObject.newBoolean(true))
+            .isSuccess());
+
+        assertEquals(1, timer("get", "success", "LNT-3", "2.1.0").count());
+        assertEquals(1, timer("decode", "success", "LNT-3", "2.1.0").count());
+        assertEquals(1, timer("set", "failure", "LNT-3", "2.1.0").count());
+    }
+
+    private Timer timer(String stage, String outcome, String model, String firmware) {
+        return registry.get(CollectionStageMetrics.METRIC)
+            .tag("stage", stage)
+            .tag("outcome", outcome)
+            .tag("model", model)
+            .tag("firmware", firmware)
+            .timer();
+    }
+
+    private static Meter meter(String serial, String manufacturer, Integer type, String firmware,
+                               String ipAddress, Integer port) {
+        Meter meter = new Meter();
+        meter.setSerialNumber(serial);
+        meter.setManufacturerName(manufacturer);
+        meter.setMeterType(type);
+        meter.setFirmwareVersion(firmware);
+        meter.setIpAddress(ipAddress);
+        meter.setPort(port);
+        return meter;
+    }
+
+    /** Accepts the association, answers GET with a value and denies SET */
+    private static class CannedMeter implements DlmsConnection {
+        @Override
+        public boolean establish() {
+            return true;
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public byte[] send(byte[] data) {
+            int service = data[0] & 0xFF;
+            if (service == CosemApdu.AARQ) {
+                return CosemApdu.aare(CosemApdu.ACCEPTED, 0, 1024);
+            }
+            int invokeId = CosemApdu.parseAttributeRequest(data).getInvokeId();
+            if (service == CosemApdu.GET_REQUEST) {
+                return CosemApdu.getResponse(invokeId, AxdrCodec.encode(DataObject.newUnsigned(1234)));
+            }
+            return CosemApdu.setResponse(invokeId, DataAccessResult.READ_WRITE_DENIED);
+        }
+    }
+}
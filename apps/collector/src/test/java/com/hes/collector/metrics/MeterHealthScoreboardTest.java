@@ -0,0 +1,102 @@
+package com.hes.collector.metrics;
+
+import com.hes.collector.config.ScoreboardConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Meter Health Scoreboard Tests")
+class MeterHealthScoreboardTest {
+    private static final long T0 = 1_700_000_000_000L;
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private ScoreboardConfig config;
+    private MeterHealthScoreboard scoreboard;
+
+    @BeforeEach
+    void setUp() {
+        config = new ScoreboardConfig();
+        config.setHalfLifeMinutes(60);
+        config.setStripes(4);
+        scoreboard = new MeterHealthScoreboard(config);
+    }
+
+    @Test
+    @DisplayName("Should track median round trip time, consecutive failures and the last error")
+    void shouldTrackMeterStats() {
+        for (int i = 0; i < 9; i++) {
+            scoreboard.record("10.0.0.1:4059", true, ms(100 + i * 10), null, T0 + i);
+        }
+        scoreboard.record("10.0.0.1:4059", false, ms(5000), "Read timed out", T0 + 10);
+        scoreboard.record("10.0.0.1:4059", false, ms(5000), "Connection refused", T0 + 11);
+
+        MeterHealth health = scoreboard.get("10.0.0.1:4059");
+        assertEquals(11, health.getTotalCalls());
+        assertEquals(9.0 / 11, health.getSuccessRate(), 1e-6);
+        assertEquals(140, health.getMedianRttMs(), 140 * 0.13);
+        assertEquals(2, health.getConsecutiveFailures());
+        assertEquals("Connection refused", health.getLastError());
+        assertNull(scoreboard.get("10.0.0.2:4059"));
+
+        scoreboard.record("10.0.0.1:4059", true, ms(120), null, T0 + 12);
+        assertEquals(0, scoreboard.get("10.0.0.1:4059").getConsecutiveFailures());
+    }
+
+    @Test
+    @DisplayName("Should decay old calls by the half-life")
+    void shouldDecayOldCalls() {
+        scoreboard.record("m", false, 0, "down", T0);
+        scoreboard.record("m", true, ms(100), null, T0 + HOUR);
+        // The failure weighs half as much as the success one half-life later
+        assertEquals(2.0 / 3, scoreboard.get("m").getSuccessRate(), 1e-6);
+
+        // Weights are rescaled after many half-lives without losing the ratio
+        for (int day = 1; day <= 5; day++) {
+            scoreboard.record("m", day % 2 == 0, ms(100), "down", T0 + day * 24 * HOUR);
+        }
+        scoreboard.record("m", true, ms(100), null, T0 + 5 * 24 * HOUR + HOUR);
+        assertEquals(1.0 / 1.5, scoreboard.get("m").getSuccessRate(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("Should report the worst meters and fleet histograms within capacity")
+    void shouldReportWorstMeters() {
+        config.setMaxMeters(4);
+        scoreboard = new MeterHealthScoreboard(config);
+        for (int m = 0; m < 5; m++) {
+            for (int i = 0; i < 4; i++) {
+                scoreboard.record("meter-" + m, i < m, ms(40 + 300 * m), "timeout", T0 + i);
+            }
+        }
+
+        assertEquals(4, scoreboard.size());
+        assertNull(scoreboard.get("meter-4"));
+        List<MeterHealth> worst = scoreboard.worst(2);
+        assertEquals(2, worst.size());
+        assertEquals("meter-0", worst.get(0).getMeter());
+        assertEquals("meter-1", worst.get(1).getMeter());
+        assertTrue(scoreboard.worst(0).isEmpty());
+
+        Map<String, Object> summary = scoreboard.summary();
+        assertEquals(4, summary.get("meters"));
+        assertEquals(4L, summary.get("failingMeters"));
+        @SuppressWarnings("unchecked")
+        Map<String, Long> rates = (Map<String, Long>) summary.get("successRateHistogram");
+        assertEquals(1L, rates.get("le_10%"));
+        assertEquals(1L, rates.get("le_30%"));
+        @SuppressWarnings("unchecked")
+        Map<String, Long> rtt = (Map<String, Long>) summary.get("medianRttHistogram");
+        // meter-0 never succeeded and has no round trip time
+        assertEquals(3L, rtt.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
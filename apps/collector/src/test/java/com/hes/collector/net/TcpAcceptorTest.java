@@ -0,0 +1,101 @@
+package com.hes.collector.net;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TCP Acceptor Tests")
+class TcpAcceptorTest {
+
+    @Test
+    @DisplayName("Should hand kept connections round robin to the workers with their port index")
+    void shouldDispatchRoundRobin() throws Exception {
+        List<RecordingWorker> workers = List.of(new RecordingWorker(0), new RecordingWorker(1));
+        AtomicInteger offered = new AtomicInteger();
+        // Every third connection is turned away
+        TcpAcceptor acceptor = new TcpAcceptor("test", workers, channel -> offered.incrementAndGet() % 3 != 0);
+        List<Socket> sockets = new ArrayList<>();
+        try {
+            acceptor.start("127.0.0.1", List.of(0, 0));
+            List<Integer> ports = acceptor.getPorts();
+            assertEquals(2, ports.size());
+            assertNotEquals(ports.get(0), ports.get(1));
+
+            int[] portIndexes = {0, 1, 1, 0, 1};
+            for (int portIndex : portIndexes) {
+                sockets.add(new Socket("127.0.0.1", ports.get(portIndex)));
+                // Accept in connect order so the filter sees a known sequence
+                assertTrue(waitFor(offered, sockets.size()));
+            }
+
+            // Kept: connections 1, 2, 4, 5 on ports 0, 1, 0, 1
+            assertEquals(0, poll(workers.get(0)));
+            assertEquals(1, poll(workers.get(1)));
+            assertEquals(0, poll(workers.get(0)));
+            assertEquals(1, poll(workers.get(1)));
+            assertEquals(-1, sockets.get(2).getInputStream().read());
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            acceptor.stop();
+        }
+        for (RecordingWorker worker : workers) {
+            assertFalse(worker.isRunning());
+        }
+    }
+
+    private static boolean waitFor(AtomicInteger counter, int value) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (counter.get() < value) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private static int poll(RecordingWorker worker) throws InterruptedException {
+        Integer portIndex = worker.portIndexes.poll(5, TimeUnit.SECONDS);
+        assertNotNull(portIndex);
+        return portIndex;
+    }
+
+    /** Records the port index of each connection and closes it */
+    private static final class RecordingWorker extends TcpAcceptor.IoWorker {
+        private final BlockingQueue<Integer> portIndexes = new LinkedBlockingQueue<>();
+
+        RecordingWorker(int index) throws IOException {
+            super("test-io-" + index);
+        }
+
+        @Override
+        protected void run() {
+            try {
+                while (isRunning()) {
+                    selector.select(100);
+                    TcpAcceptor.Accepted accepted;
+                    while ((accepted = nextAccepted()) != null) {
+                        portIndexes.add(accepted.getPortIndex());
+                        TcpAcceptor.closeQuietly(accepted.getChannel());
+                    }
+                }
+            } catch (IOException e) {
+                // Test ends with the worker
+            } finally {
+                TcpAcceptor.closeQuietly(selector);
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.hes.collector.push;
+
+import com.hes.collector.config.PushListenerConfig;
+import com.hes.collector.dlms.AxdrCodec;
+import com.hes.collector.dlms.CosemApdu;
+import com.hes.collector.dlms.DataObject;
+import com.hes.collector.dlms.HdlcFrame;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import com.hes.collector.service.MeterService;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Push Listener Tests")
+class PushListenerTest {
+    private static final LocalDateTime METER_TIME = LocalDateTime.of(2024, 3, 1, 10, 15, 0);
+    private static final LocalDateTime RECEIVED = LocalDateTime.of(2024, 3, 1, 10, 15, 2);
+
+    @Test
+    @DisplayName("Should reassemble DataNotifications from wrapper and HDLC streams")
+    void shouldReassembleFrames() {
+        byte[] eswf = eswfPush("MTR001", 0, 9);
+        byte[] wrapped = wrapper(eswf);
+        PushSession session = new PushSession();
+        List<byte[]> apdus = new ArrayList<>();
+        session.receive(ByteBuffer.wrap(wrapped, 0, 5), apdus);
+        assertTrue(apdus.isEmpty());
+        session.receive(ByteBuffer.wrap(wrapped, 5, wrapped.length - 5), apdus);
+        assertEquals(1, apdus.size());
+        CosemApdu.DataNotification notification = CosemApdu.parseDataNotification(apdus.get(0));
+        assertEquals(7, notification.getInvokeId());
+        assertEquals(METER_TIME, notification.getDateTime());
+
+        byte[] event = eventPush("MTR002", 201);
+        byte[] frames = concat(hdlc(event), hdlc(eswf));
+        frames[frames.length - 3] ^= 0x01;
+        session = new PushSession();
+        apdus.clear();
+        session.receive(ByteBuffer.wrap(frames), apdus);
+        assertEquals(1, apdus.size());
+        assertArrayEquals(event, apdus.get(0));
+        assertEquals(1, session.getMalformedFrames());
+    }
+
+    @Test
+    @DisplayName("Should classify ESWF, event and profile pushes by the shape of their body")
+    void shouldClassifyPushes() {
+        PushNotification eswf = classify(eswfPush("MTR001", 0, 9));
+        assertEquals(PushNotification.Kind.ESWF, eswf.getKind());
+        assertEquals("MTR001", eswf.getMeterSerialNumber());
+        String bits = eswf.getEswfBits();
+        assertEquals(PushNotification.ESWF_BITS, bits.length());
+        assertEquals('1', bits.charAt(0));
+        assertEquals('1', bits.charAt(9));
+        assertEquals(2, bits.chars().filter(c -> c == '1').count());
+
+        PushNotification event = classify(eventPush("MTR002", 201));
+        assertEquals(PushNotification.Kind.EVENT, event.getKind());
+        assertEquals(201, event.getEventCode());
+        assertEquals(METER_TIME.minusMinutes(1), event.getEventTime());
+
+        PushNotification profile = classify(profilePush("MTR003"));
+        assertEquals(PushNotification.Kind.PROFILE, profile.getKind());
+        assertEquals(METER_TIME, profile.getTime());
+
+        byte[] anonymous = CosemApdu.dataNotification(1, null, AxdrCodec.encode(
+            DataObject.newStructure(Arrays.asList(DataObject.newUnsigned(5), DataObject.newUnsigned(6)))));
+        assertNull(classify(anonymous));
+    }
+
+    @Test
+    @DisplayName("Should write pushes received over TCP, alarms apart from profiles")
+    void shouldWritePushesReceivedOverTcp() throws Exception {
+        PushListenerConfig config = new PushListenerConfig();
+        config.setPort(0);
+        config.setHost("127.0.0.1");
+        config.setIoThreads(1);
+        config.setFlushIntervalMs(60000);
+        RecordingJdbc jdbc = new RecordingJdbc();
+        PushWriter writer = new PushWriter(jdbc, config);
+        PushListener listener = new PushListener(config, writer, new PushSourceFilter(config, meters()));
+        writer.start();
+        listener.start();
+        try {
+            try (Socket wrapperMeter = new Socket("127.0.0.1", listener.getPort());
+                 Socket hdlcMeter = new Socket("127.0.0.1", listener.getPort())) {
+                OutputStream out = wrapperMeter.getOutputStream();
+                out.write(concat(wrapper(eswfPush("MTR001", 3)), wrapper(profilePush("MTR001"))));
+                out.flush();
+                hdlcMeter.getOutputStream().write(hdlc(eventPush("MTR002", 101)));
+                hdlcMeter.getOutputStream().flush();
+
+                long deadline = System.currentTimeMillis() + 5000;
+                while (jdbc.rows(PushWriter.EVENT_SQL) + jdbc.rows(PushWriter.ESWF_SQL) < 2
+                    && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+            }
+            // Alarms are written at once, profiles wait for their batch or the flush interval
+            assertEquals(1, jdbc.rows(PushWriter.ESWF_SQL));
+            assertEquals(1, jdbc.rows(PushWriter.EVENT_SQL));
+            assertEquals(0, jdbc.rows(PushWriter.PROFILE_SQL));
+            assertEquals(3, listener.getReceived());
+        } finally {
+            listener.stop();
+            writer.stop();
+        }
+        assertEquals(1, jdbc.rows(PushWriter.PROFILE_SQL));
+        assertEquals(3, writer.getWritten());
+        assertEquals(0, writer.getDropped());
+    }
+
+    @Test
+    @DisplayName("Should allow configured addresses, CIDR ranges and registered meters only")
+    void shouldFilterSources() throws Exception {
+        PushListenerConfig config = new PushListenerConfig();
+        config.setAllowedSources(Arrays.asList("10.20.0.0/16", "192.168.1.7", "fd00::/8"));
+        PushSourceFilter filter = new PushSourceFilter(config, meters("172.16.4.9", "not-an-ip"));
+
+        assertTrue(filter.allows(InetAddress.getByName("10.20.255.1")));
+        assertFalse(filter.allows(InetAddress.getByName("10.21.0.1")));
+        assertTrue(filter.allows(InetAddress.getByName("192.168.1.7")));
+        assertFalse(filter.allows(InetAddress.getByName("192.168.1.8")));
+        assertTrue(filter.allows(InetAddress.getByName("fd12::1")));
+        assertTrue(filter.allows(InetAddress.getByName("172.16.4.9")));
+        assertFalse(filter.allows(InetAddress.getByName("127.0.0.1")));
+
+        config.setAllowRegisteredMeters(false);
+        assertFalse(filter.allows(InetAddress.getByName("172.16.4.9")));
+
+        config.setAllowedSources(Collections.singletonList("10.0.0.0/33"));
+        assertThrows(IllegalArgumentException.class, () -> new PushSourceFilter(config, meters()));
+        config.setAllowedSources(Collections.singletonList("meters.example.com"));
+        assertThrows(IllegalArgumentException.class, () -> new PushSourceFilter(config, meters()));
+    }
+
+    @Test
+    @DisplayName("Should close connections from sources that are not allowed")
+    void shouldRejectUnknownSources() throws Exception {
+        PushListenerConfig config = new PushListenerConfig();
+        config.setPort(0);
+        config.setIoThreads(1);
+        config.setAllowedSources(Collections.singletonList("10.0.0.0/8"));
+        RecordingJdbc jdbc = new RecordingJdbc();
+        PushWriter writer = new PushWriter(jdbc, config);
+        PushListener listener = new PushListener(config, writer, new PushSourceFilter(config, meters()));
+        listener.start();
+        try (Socket meter = new Socket("127.0.0.1", listener.getPort())) {
+            meter.setSoTimeout(5000);
+            OutputStream out = meter.getOutputStream();
+            out.write(wrapper(eswfPush("MTR001", 3)));
+            out.flush();
+            InputStream in = meter.getInputStream();
+            assertEquals(-1, in.read());
+        } catch (SocketException e) {
+            // Reset instead of an orderly close, equally refused
+        } finally {
+            listener.stop();
+        }
+        assertEquals(1, listener.getRejected());
+        assertEquals(0, listener.getReceived());
+        writer.flush();
+        assertEquals(0, writer.getWritten());
+    }
+
+    /** Meter registry answering with fixed addresses */
+    private static MeterService meters(String... ipAddresses) {
+        return new MeterService(null, null) {
+            @Override
+            public List<String> getMeterIpAddresses() {
+                return Arrays.asList(ipAddresses);
+            }
+        };
+    }
+
+    private static PushNotification classify(byte[] apdu) {
+        return PushNotification.classify(CosemApdu.parseDataNotification(apdu), RECEIVED);
+    }
+
+    private static byte[] eswfPush(String serial, int... bits) {
+        byte[] value = new byte[16];
+        for (int bit : bits) {
+            value[bit / 8] |= (byte) (0x80 >>> (bit % 8));
+        }
+        return push(serial, DataObject.newBitString(value));
+    }
+
+    private static byte[] eventPush(String serial, int code) {
+        return push(serial, DataObject.newUnsigned(code), DataObject.newDateTime(METER_TIME.minusMinutes(1)));
+    }
+
+    private static byte[] profilePush(String serial) {
+        return push(serial, DataObject.newDateTime(METER_TIME), DataObject.newUnsigned(2300),
+            DataObject.newUnsigned(1510));
+    }
+
+    private static byte[] push(String serial, DataObject... values) {
+        List<DataObject> body = new ArrayList<>();
+        body.add(DataObject.newOctetString(serial));
+        body.addAll(Arrays.asList(values));
+        return CosemApdu.dataNotification(7, METER_TIME, AxdrCodec.encode(DataObject.newStructure(body)));
+    }
+
+    private static byte[] wrapper(byte[] apdu) {
+        return ByteBuffer.allocate(8 + apdu.length).putShort((short) 1).putShort((short) 1).putShort((short) 102)
+            .putShort((short) apdu.length).put(apdu).array();
+    }
+
+    private static byte[] hdlc(byte[] apdu) {
+        return HdlcFrame.encode(HdlcFrame.clientAddress(102), HdlcFrame.serverAddress(1, 17), 0x13,
+            HdlcFrame.withLlc(true, apdu));
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] out = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, out, first.length, second.length);
+        return out;
+    }
+
+    /** Counts batched rows by statement */
+    private static class RecordingJdbc extends JdbcTemplate {
+        private final Map<String, Integer> rows = new ConcurrentHashMap<>();
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            rows.merge(sql, batchArgs.size(), Integer::sum);
+            return new int[batchArgs.size()];
+        }
+
+        int rows(String sql) {
+            return rows.getOrDefault(sql, 0);
+        }
+    }
+}
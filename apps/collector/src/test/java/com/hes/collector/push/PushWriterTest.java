@@ -0,0 +1,106 @@
+package com.hes.collector.push;
+
+import com.hes.collector.config.PushListenerConfig;
+import com.hes.collector.dlms.AxdrCodec;
+import com.hes.collector.dlms.CosemApdu;
+import com.hes.collector.dlms.DataObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Push Writer Tests")
+class PushWriterTest {
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 3, 1, 10, 15, 0);
+
+    private PushListenerConfig config;
+    private FailingJdbc jdbc;
+    private PushWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        config = new PushListenerConfig();
+        config.setBatchSize(8);
+        config.setWriteRetryDelayMs(0);
+        jdbc = new FailingJdbc();
+        writer = new PushWriter(jdbc, config);
+    }
+
+    @Test
+    @DisplayName("Should split a batch that fails on one row and write all the others")
+    void shouldIsolateBadRows() {
+        for (int i = 0; i < 8; i++) {
+            writer.offer(event(i == 5 ? "BAD" : "MTR00" + i));
+        }
+
+        writer.flush();
+
+        assertEquals(7, writer.getWritten());
+        assertEquals(1, writer.getFailed());
+        assertEquals(7, jdbc.serials.size());
+        assertFalse(jdbc.serials.contains("BAD"));
+        // The batch of 8 and the halves leading to the bad row, not one statement per row
+        assertTrue(jdbc.attempts <= 8, "attempts " + jdbc.attempts);
+    }
+
+    @Test
+    @DisplayName("Should retry a batch after a transient failure and give up after writeRetries")
+    void shouldRetryTransientFailures() {
+        config.setWriteRetries(2);
+        jdbc.transientFailures = 2;
+        writer.offer(event("MTR001"));
+        writer.offer(event("MTR002"));
+
+        writer.flush();
+
+        assertEquals(2, writer.getWritten());
+        assertEquals(0, writer.getFailed());
+        assertEquals(3, jdbc.attempts);
+
+        jdbc.transientFailures = 3;
+        writer.offer(event("MTR003"));
+        writer.flush();
+        assertEquals(2, writer.getWritten());
+        assertEquals(1, writer.getFailed());
+    }
+
+    private static PushNotification event(String serial) {
+        byte[] apdu = CosemApdu.dataNotification(7, TIME, AxdrCodec.encode(DataObject.newStructure(Arrays.asList(
+            DataObject.newOctetString(serial), DataObject.newUnsigned(101), DataObject.newDateTime(TIME)))));
+        return PushNotification.classify(CosemApdu.parseDataNotification(apdu), TIME.plusSeconds(2));
+    }
+
+    /** Refuses whole batches holding a BAD row, or the next batches with a transient error */
+    private static class FailingJdbc extends JdbcTemplate {
+        private final List<String> serials = new ArrayList<>();
+        private int transientFailures;
+        private int attempts;
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            attempts++;
+            if (transientFailures > 0) {
+                transientFailures--;
+                throw new TransientDataAccessResourceException("connection reset");
+            }
+            for (Object[] row : batchArgs) {
+                if ("BAD".equals(row[0])) {
+                    throw new DataIntegrityViolationException("violates foreign key constraint");
+                }
+            }
+            for (Object[] row : batchArgs) {
+                serials.add((String) row[0]);
+            }
+            return new int[batchArgs.size()];
+        }
+    }
+}
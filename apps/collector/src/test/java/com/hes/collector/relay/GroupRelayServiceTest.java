@@ -0,0 +1,240 @@
+package com.hes.collector.relay;
+
+import com.hes.collector.config.DlmsConfig;
+import com.hes.collector.config.GroupRelayConfig;
+import com.hes.collector.config.LaneSchedulerConfig;
+import com.hes.collector.config.MeterAccessConfig;
+import com.hes.collector.config.MeterEmulatorConfig;
+import com.hes.collector.config.ScoreboardConfig;
+import com.hes.collector.config.StageMetricsConfig;
+import com.hes.collector.emulator.MeterEmulator;
+import com.hes.collector.metrics.CollectionStageMetrics;
+import com.hes.collector.metrics.MeterHealthScoreboard;
+import com.hes.collector.model.Meter;
+import com.hes.collector.resilience.MeterAccessGuard;
+import com.hes.collector.scheduling.LaneScheduler;
+import com.hes.collector.service.MeterCommunicationService;
+import com.hes.collector.service.MeterService;
+import com.hes.common.entity.MeterGroup;
+import com.hes.common.repository.MeterGroupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Group Relay Service Tests")
+class GroupRelayServiceTest {
+    private MeterEmulator emulator;
+    private GroupRelayConfig config;
+    private SimpleMeterRegistry registry;
+    private MeterAccessGuard guard;
+    private CollectionStageMetrics stageMetrics;
+    private MeterCommunicationService communication;
+    private RecordingJdbc jdbc;
+
+    @BeforeEach
+    void setUp() {
+        config = new GroupRelayConfig();
+        config.setVerifyDelayMs(0);
+        config.setWaveTimeoutMs(5000);
+        DlmsConfig dlmsConfig = new DlmsConfig();
+        dlmsConfig.setUseHdlc(false);
+        dlmsConfig.setReadTimeoutMs(2000);
+        dlmsConfig.setConnectTimeoutMs(1000);
+        registry = new SimpleMeterRegistry();
+        guard = new MeterAccessGuard(new MeterAccessConfig(), registry);
+        stageMetrics = new CollectionStageMetrics(registry, new StageMetricsConfig());
+        communication = new MeterCommunicationService(dlmsConfig, registry,
+            new LaneScheduler(new LaneSchedulerConfig(), registry), guard,
+            stageMetrics, new MeterHealthScoreboard(new ScoreboardConfig()));
+        jdbc = new RecordingJdbc();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (emulator != null) {
+            emulator.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should disconnect a group in paced waves and confirm it by read-back")
+    void shouldDisconnectGroupInWaves() throws Exception {
+        startEmulator(6);
+        config.setWaveSize(2);
+        config.setCommandsPerSecond(20);
+        List<Meter> meters = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            meters.add(meter("M" + i, emulator.getPorts().get(i)));
+        }
+        GroupRelayService service = service(new MeterService(jdbc, stageMetrics));
+
+        GroupRelayJob job = service.run(service.newJob(UUID.randomUUID(), "feeder-7",
+            GroupRelayJob.Operation.DISCONNECT), meters);
+
+        assertEquals(GroupRelayJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3, job.getWaves());
+        assertEquals(6, job.getCommands());
+        assertEquals(6, job.getConfirmed());
+        assertEquals(0, job.getFailed());
+        assertTrue(job.getSloMet());
+        for (int i = 0; i < 6; i++) {
+            assertFalse(emulator.getFleet().isConnected(i));
+        }
+        assertEquals(6, jdbc.rows.size());
+        assertEquals("DISCONNECTED", jdbc.rows.get(0)[0]);
+        assertSame(job, service.getJob(job.getTransactionId()));
+    }
+
+    @Test
+    @DisplayName("Should start waves no faster than the command rate")
+    void shouldPaceWaves() {
+        long[] now = {1_000_000_000L};
+        GroupRelayService.Pacer pacer = new GroupRelayService.Pacer(20, () -> now[0]);
+
+        // Three waves of two at 20 commands/s: the last one starts 200 ms after the first
+        assertEquals(0, pacer.reserve(2));
+        assertEquals(100_000_000L, pacer.reserve(2));
+        now[0] += 150_000_000L;
+        assertEquals(50_000_000L, pacer.reserve(2));
+        // A wave that comes late starts at once and does not make up for lost time
+        now[0] += 1_000_000_000L;
+        assertEquals(0, pacer.reserve(1));
+        assertEquals(50_000_000L, pacer.reserve(1));
+    }
+
+    @Test
+    @DisplayName("Should stop the job when a wave mostly fails and retry nothing past it")
+    void shouldAbortOnFailingWave() throws Exception {
+        startEmulator(1);
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        config.setWaveSize(2);
+        config.setAbortMinWaveSize(2);
+        config.setCommandsPerSecond(1000);
+        List<Meter> meters = new ArrayList<>();
+        meters.add(meter("UP", emulator.getPorts().get(0)));
+        for (int i = 0; i < 5; i++) {
+            meters.add(meter("DOWN" + i, closedPort));
+        }
+        GroupRelayService service = service(new MeterService(jdbc, stageMetrics));
+
+        GroupRelayJob job = service.run(service.newJob(UUID.randomUUID(), "feeder-9",
+            GroupRelayJob.Operation.DISCONNECT), meters);
+
+        // The first wave has one reachable meter and one that refuses; the second has two failures
+        assertEquals(GroupRelayJob.Status.ABORTED, job.getStatus());
+        assertEquals(2, job.getWaves());
+        assertEquals(1, job.getConfirmed());
+        assertEquals(2, job.getSkipped());
+        assertEquals(5, job.getFailed());
+        assertEquals(0, job.getRetried());
+        assertFalse(job.getSloMet());
+        assertTrue(job.getFailures().get("DOWN0").startsWith("Relay command failed"));
+        assertTrue(job.getFailures().get("DOWN4").startsWith("Skipped"));
+        assertFalse(emulator.getFleet().isConnected(0));
+    }
+
+    @Test
+    @DisplayName("Should resolve groups by name and allow one job per group")
+    void shouldRunOneJobPerGroup() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MeterService meters = new MeterService(jdbc, stageMetrics) {
+            @Override
+            public List<Meter> getMetersByGroup(UUID groupId) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Collections.emptyList();
+            }
+        };
+        GroupRelayService service = service(meters);
+
+        GroupRelayJob job = service.start("feeder-7", GroupRelayJob.Operation.DISCONNECT);
+        assertEquals("feeder-7", job.getGroupName());
+        assertEquals(GroupRelayJob.Status.RUNNING, job.getStatus());
+        assertThrows(IllegalStateException.class,
+            () -> service.start(job.getGroupId().toString(), GroupRelayJob.Operation.CONNECT));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.start("feeder-8", GroupRelayJob.Operation.CONNECT));
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(GroupRelayJob.Status.COMPLETED, job.getStatus());
+        assertEquals(1, service.getJobs().size());
+        assertFalse(service.cancel(job.getTransactionId()));
+    }
+
+    private void startEmulator(int meters) throws Exception {
+        MeterEmulatorConfig emulatorConfig = new MeterEmulatorConfig();
+        emulatorConfig.setHost("127.0.0.1");
+        emulatorConfig.setBasePort(0);
+        emulatorConfig.setPorts(meters);
+        emulatorConfig.setMetersPerPort(1);
+        emulatorConfig.setIoThreads(1);
+        emulator = new MeterEmulator(emulatorConfig);
+        emulator.start();
+    }
+
+    private GroupRelayService service(MeterService meterService) {
+        return new GroupRelayService(config, communication, meterService, groups(), guard, jdbc, registry);
+    }
+
+    /** Repository holding a single group named feeder-7 */
+    private static MeterGroupRepository groups() {
+        MeterGroup group = new MeterGroup();
+        group.setId(UUID.randomUUID());
+        group.setName("feeder-7");
+        return (MeterGroupRepository) Proxy.newProxyInstance(GroupRelayServiceTest.class.getClassLoader(),
+            new Class<?>[] {MeterGroupRepository.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "findById":
+                        return Optional.of(group).filter(g -> g.getId().equals(args[0]));
+                    case "findByName":
+                        return Optional.of(group).filter(g -> g.getName().equals(args[0]));
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    private static Meter meter(String serial, int port) {
+        Meter meter = new Meter();
+        meter.setMeterSerialNumber(serial);
+        meter.setIpAddress("127.0.0.1");
+        meter.setPort(port);
+        return meter;
+    }
+
+    /** Records meter status updates */
+    private static class RecordingJdbc extends JdbcTemplate {
+        private final List<Object[]> rows = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            rows.addAll(batchArgs);
+            return new int[batchArgs.size()];
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.hes.collector.replication;
+
+import com.hes.collector.config.OracleReplicationConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Oracle Replication Service Tests")
+class OracleReplicationServiceTest {
+
+    private static final Comparator<ReplicatedReading> KEYSET = Comparator
+        .comparingLong(ReplicatedReading::getIngestXid)
+        .thenComparing(ReplicatedReading::getHesTimestamp)
+        .thenComparing(ReplicatedReading::getMeterId)
+        .thenComparing(ReplicatedReading::getReadingType);
+
+    private InMemoryTail tail;
+    private RecordingSink sink;
+    private OracleReplicationConfig config;
+    private OracleReplicationService service;
+
+    @BeforeEach
+    void setUp() {
+        tail = new InMemoryTail();
+        sink = new RecordingSink();
+        config = new OracleReplicationConfig();
+        config.setBatchSize(2);
+        config.setCatchUpBatchSize(5);
+        service = new OracleReplicationService(tail, sink, config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should ship rows in keyset order and checkpoint after each batch")
+    void shouldShipInKeysetOrder() throws Exception {
+        Instant t = Instant.parse("2024-01-01T00:00:00Z");
+        UUID a = new UUID(0, 1);
+        UUID b = new UUID(0, 2);
+        // One transaction writing three rows
+        tail.add(100, b, t, "VOLTAGE_L1");
+        tail.add(100, a, t, "VOLTAGE_L1");
+        tail.add(100, a, t, "CURRENT_L1");
+
+        assertEquals(2, service.replicateOnce());
+        assertEquals(1, service.replicateOnce());
+        assertEquals(0, service.replicateOnce());
+
+        assertEquals(List.of("CURRENT_L1@" + a, "VOLTAGE_L1@" + a, "VOLTAGE_L1@" + b), sink.shipped());
+        ReplicationCheckpoint stored = tail.checkpoints.get(config.getCheckpointName());
+        assertEquals(b, stored.getMeterId());
+        assertEquals(3, tail.rowsShipped);
+    }
+
+    @Test
+    @DisplayName("Should resume from the stored checkpoint")
+    void shouldResumeFromCheckpoint() throws Exception {
+        Instant t = Instant.parse("2024-01-01T00:00:00Z");
+        UUID meter = new UUID(0, 1);
+        tail.add(100, meter, t, "FREQUENCY");
+        tail.add(101, meter, t.plusSeconds(30), "FREQUENCY");
+        tail.checkpoints.put(config.getCheckpointName(), new ReplicationCheckpoint(100, t, meter, "FREQUENCY"));
+
+        assertEquals(1, service.replicateOnce());
+        assertEquals(101, service.getCheckpoint().getIngestXid());
+        assertEquals(t.plusSeconds(30), service.getCheckpoint().getHesTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should switch to larger batches while a backlog exists")
+    void shouldCatchUpOnBacklog() throws Exception {
+        // Readings from last year, written to Postgres a minute ago
+        Instant t = Instant.now().minusSeconds(365 * 86400L);
+        Instant ingestedAt = Instant.now().minusSeconds(60);
+        for (int i = 0; i < 7; i++) {
+            tail.add(100 + i, ingestedAt, new UUID(0, i), t.plusSeconds(i), "ACTIVE_POWER_IMPORT");
+        }
+
+        assertEquals(2, service.replicateOnce());
+        assertTrue(service.isCatchingUp());
+        // Lag is measured from ingest, not from the readings' own timestamps
+        assertTrue(service.getLagMillis() >= 60000, "lag " + service.getLagMillis());
+        assertTrue(service.getLagMillis() < 3600000, "lag " + service.getLagMillis());
+
+        assertEquals(5, service.replicateOnce());
+        assertEquals(0, service.replicateOnce());
+        assertFalse(service.isCatchingUp());
+        assertEquals(0, service.getLagMillis());
+    }
+
+    @Test
+    @DisplayName("Should keep the checkpoint and re-ship the batch after an Oracle failure")
+    void shouldRetryFailedBatch() throws Exception {
+        Instant t = Instant.parse("2024-01-01T00:00:00Z");
+        tail.add(100, new UUID(0, 1), t, "POWER_FACTOR");
+        sink.failNext = true;
+
+        assertThrows(IllegalStateException.class, () -> service.replicateOnce());
+        assertNull(tail.checkpoints.get(config.getCheckpointName()));
+
+        assertEquals(1, service.replicateOnce());
+        assertEquals(1, sink.shipped().size());
+    }
+
+    @Test
+    @DisplayName("Should hold back rows of transactions that may still be running")
+    void shouldWaitForOpenTransactions() throws Exception {
+        Instant t = Instant.parse("2024-01-01T00:00:00Z");
+        tail.add(100, new UUID(0, 1), t, "VOLTAGE_L2");
+        tail.add(102, new UUID(0, 1), t.plusSeconds(60), "VOLTAGE_L2");
+        // Transaction 101 is still open, so 102 may not be the last write before it
+        tail.oldestRunning = 101;
+
+        assertEquals(1, service.replicateOnce());
+        assertEquals(0, service.replicateOnce());
+
+        tail.add(101, new UUID(0, 2), t.plusSeconds(30), "VOLTAGE_L2");
+        tail.oldestRunning = Long.MAX_VALUE;
+        assertEquals(2, service.replicateOnce());
+        assertEquals(List.of("VOLTAGE_L2@" + new UUID(0, 1), "VOLTAGE_L2@" + new UUID(0, 2),
+            "VOLTAGE_L2@" + new UUID(0, 1)), sink.shipped());
+    }
+
+    @Test
+    @DisplayName("Should ship late, backfilled and re-read rows behind the checkpoint's event time")
+    void shouldShipLateRows() throws Exception {
+        Instant t = Instant.parse("2024-06-01T00:00:00Z");
+        UUID meter = new UUID(0, 1);
+        tail.add(100, meter, t, "ACTIVE_ENERGY_IMPORT");
+        assertEquals(1, service.replicateOnce());
+
+        // A backfill of last month and an upsert of the row already shipped, both written later
+        tail.add(105, meter, t.minusSeconds(30 * 86400L), "ACTIVE_ENERGY_IMPORT");
+        tail.add(106, meter, t, "ACTIVE_ENERGY_IMPORT");
+
+        assertEquals(2, service.replicateOnce());
+        assertEquals(0, service.replicateOnce());
+        assertEquals(3, sink.shipped().size());
+        assertEquals(106, tail.checkpoints.get(config.getCheckpointName()).getIngestXid());
+    }
+
+    private static class InMemoryTail implements ReadingTail {
+        private final List<ReplicatedReading> rows = new ArrayList<>();
+        private final Map<String, ReplicationCheckpoint> checkpoints = new HashMap<>();
+        private int rowsShipped;
+        /** Oldest transaction still running; rows it or later transactions wrote are not visible yet */
+        private long oldestRunning = Long.MAX_VALUE;
+
+        void add(long xid, UUID meterId, Instant hesTimestamp, String readingType) {
+            add(xid, Instant.now(), meterId, hesTimestamp, readingType);
+        }
+
+        /** An upsert of an existing key replaces the row with the new transaction's version */
+        void add(long xid, Instant ingestedAt, UUID meterId, Instant hesTimestamp, String readingType) {
+            rows.removeIf(r -> r.getMeterId().equals(meterId) && r.getHesTimestamp().equals(hesTimestamp)
+                && r.getReadingType().equals(readingType));
+            rows.add(new ReplicatedReading(xid, ingestedAt, meterId, hesTimestamp, readingType, 1.0, 192, "V"));
+            rows.sort(KEYSET);
+        }
+
+        @Override
+        public List<ReplicatedReading> fetchAfter(ReplicationCheckpoint checkpoint, int limit) {
+            ReplicatedReading after = new ReplicatedReading(checkpoint.getIngestXid(), null, checkpoint.getMeterId(),
+                checkpoint.getHesTimestamp(), checkpoint.getReadingType(), 0, null, null);
+            return rows.stream()
+                .filter(r -> KEYSET.compare(r, after) > 0 && r.getIngestXid() < oldestRunning)
+                .limit(limit)
+                .collect(Collectors.toList());
+        }
+
+        @Override
+        public ReplicationCheckpoint loadCheckpoint(String name) {
+            return checkpoints.get(name);
+        }
+
+        @Override
+        public void saveCheckpoint(String name, ReplicationCheckpoint checkpoint, int shipped) {
+            checkpoints.put(name, checkpoint);
+            rowsShipped += shipped;
+        }
+    }
+
+    private static class RecordingSink implements ReadingSink {
+        private final List<ReplicatedReading> written = new ArrayList<>();
+        private boolean failNext;
+
+        @Override
+        public void write(List<ReplicatedReading> readings) {
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("ORA-03113: end-of-file on communication channel");
+            }
+            written.addAll(readings);
+        }
+
+        List<String> shipped() {
+            return written.stream()
+                .map(r -> r.getReadingType() + "@" + r.getMeterId())
+                .collect(Collectors.toList());
+        }
+    }
+}
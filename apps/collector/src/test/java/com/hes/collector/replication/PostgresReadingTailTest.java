@@ -0,0 +1,86 @@
+package com.hes.collector.replication;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Postgres Reading Tail Tests")
+class PostgresReadingTailTest {
+    private static final Instant CREATED = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant REWRITTEN = Instant.parse("2024-03-01T12:00:00Z");
+
+    @Test
+    @DisplayName("Should take the ingest time from the write stamp, not the first insert")
+    void shouldReadIngestTimeOfLastWrite() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("ingest_xid", 812L);
+        row.put("ingested_at", Timestamp.from(REWRITTEN));
+        row.put("created_at", Timestamp.from(CREATED));
+        row.put("meter_id", new UUID(0, 7));
+        row.put("hes_timestamp", Timestamp.from(CREATED));
+        row.put("reading_type", "VOLTAGE_L1");
+        row.put("value", 231.5);
+        row.put("quality", 192);
+        row.put("unit", "V");
+        OneRowJdbc jdbc = new OneRowJdbc(row);
+
+        List<ReplicatedReading> readings = new PostgresReadingTail(jdbc).fetchAfter(ReplicationCheckpoint.START, 10);
+
+        assertEquals(1, readings.size());
+        assertEquals(REWRITTEN, readings.get(0).getIngestedAt());
+        assertEquals(812L, readings.get(0).getIngestXid());
+        assertTrue(jdbc.sql.contains("COALESCE(ingested_at, created_at) AS ingested_at"), jdbc.sql);
+    }
+
+    /** Maps one row through the tail's row mapper and records the statement */
+    private static class OneRowJdbc extends JdbcTemplate {
+        private final Map<String, Object> row;
+        private String sql;
+
+        OneRowJdbc(Map<String, Object> row) {
+            this.row = row;
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            this.sql = sql;
+            ResultSet rs = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {ResultSet.class}, (proxy, method, methodArgs) -> {
+                    Object value = row.get((String) methodArgs[0]);
+                    switch (method.getName()) {
+                        case "getLong":
+                            return ((Number) value).longValue();
+                        case "getDouble":
+                            return ((Number) value).doubleValue();
+                        case "getTimestamp":
+                        case "getString":
+                        case "getObject":
+                            return value;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+            List<T> rows = new ArrayList<>();
+            try {
+                rows.add(rowMapper.mapRow(rs, 0));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return rows;
+        }
+    }
+}
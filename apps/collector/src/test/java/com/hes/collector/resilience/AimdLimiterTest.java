@@ -0,0 +1,98 @@
+package com.hes.collector.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AIMD Limiter Tests")
+class AimdLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(5000);
+
+    @Test
+    @DisplayName("Should grow the limit additively on fast successful sessions")
+    void shouldGrowLimitOnFastSuccess() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 1000, 0.5);
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, true);
+        }
+
+        assertTrue(limiter.getLimit() > 2);
+        assertTrue(limiter.getLimit() <= 10);
+    }
+
+    @Test
+    @DisplayName("Should cut the limit multiplicatively on errors and slow sessions")
+    void shouldShrinkLimitOnErrorOrLatency() {
+        AimdLimiter limiter = new AimdLimiter(8, 1, 10, 1000, 0.5);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(FAST, false);
+        assertEquals(4, limiter.getLimit());
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(SLOW, true);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should never drop below the minimum limit")
+    void shouldRespectMinimumLimit() {
+        AimdLimiter limiter = new AimdLimiter(4, 2, 10, 1000, 0.5);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, false);
+        }
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should refuse a slot when the limit is reached")
+    void shouldRefuseWhenAtLimit() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 1000, 0.5);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(FAST, true);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should refuse slots until in-flight sessions drop below a shrunk limit")
+    void shouldRefuseUntilBelowShrunkLimit() {
+        AimdLimiter limiter = new AimdLimiter(4, 1, 10, 1000, 0.5);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        limiter.release(FAST, false);
+        assertEquals(2, limiter.getLimit());
+        assertFalse(limiter.tryAcquire());
+        limiter.release(FAST, true);
+        assertFalse(limiter.tryAcquire());
+        limiter.release(FAST, true);
+
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid bounds")
+    void shouldRejectInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimiter(1, 0, 10, 1000, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimiter(1, 5, 2, 1000, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimiter(1, 1, 2, 1000, 1.5));
+    }
+}
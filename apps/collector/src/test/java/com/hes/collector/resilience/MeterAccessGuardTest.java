@@ -0,0 +1,160 @@
+package com.hes.collector.resilience;
+
+import com.hes.collector.config.MeterAccessConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Meter Access Guard Tests")
+class MeterAccessGuardTest {
+
+    private MeterAccessConfig config;
+    private MeterAccessGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        config = new MeterAccessConfig();
+        config.setPermitTimeoutMs(10);
+        config.setMeterSlidingWindowSize(4);
+        config.setMeterMinimumNumberOfCalls(4);
+        guard = new MeterAccessGuard(config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should open the circuit only for the failing meter")
+    void shouldIsolateFailingMeter() {
+        for (int i = 0; i < 4; i++) {
+            MeterAccessGuard.Permit permit = guard.acquire("10.0.0.1", 4059);
+            assertTrue(permit.isGranted());
+            permit.release(true, false);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, guard.getMeterCircuitState("10.0.0.1", 4059));
+        MeterAccessGuard.Permit blocked = guard.acquire("10.0.0.1", 4059);
+        assertFalse(blocked.isGranted());
+        assertTrue(blocked.getDenialReason().contains("Circuit open"));
+
+        MeterAccessGuard.Permit neighbour = guard.acquire("10.0.0.1", 4060);
+        assertTrue(neighbour.isGranted());
+        neighbour.release(true, true);
+        assertEquals(CircuitBreaker.State.CLOSED, guard.getGatewayCircuitState("10.0.0.1"));
+    }
+
+    @Test
+    @DisplayName("Should allow one session per meter at a time")
+    void shouldLimitSessionsPerMeter() {
+        MeterAccessGuard.Permit first = guard.acquire("10.0.0.2", 4059);
+        assertTrue(first.isGranted());
+
+        MeterAccessGuard.Permit second = guard.acquire("10.0.0.2", 4059);
+        assertFalse(second.isGranted());
+        assertTrue(second.getDenialReason().contains("busy"));
+
+        first.release(true, true);
+        MeterAccessGuard.Permit third = guard.acquire("10.0.0.2", 4059);
+        assertTrue(third.isGranted());
+        third.release(true, true);
+    }
+
+    @Test
+    @DisplayName("Should cap concurrent sessions behind one gateway")
+    void shouldLimitSessionsPerGateway() {
+        config.setGatewayInitialLimit(2);
+        guard = new MeterAccessGuard(config, new SimpleMeterRegistry());
+
+        MeterAccessGuard.Permit a = guard.acquire("10.0.0.3", 1);
+        MeterAccessGuard.Permit b = guard.acquire("10.0.0.3", 2);
+        MeterAccessGuard.Permit c = guard.acquire("10.0.0.3", 3);
+
+        assertTrue(a.isGranted());
+        assertTrue(b.isGranted());
+        assertFalse(c.isGranted());
+        assertTrue(c.getDenialReason().contains("session limit"));
+
+        a.release(true, true);
+        b.release(true, true);
+        assertTrue(guard.acquire("10.0.0.3", 3).isGranted());
+    }
+
+    @Test
+    @DisplayName("Should refuse busy meters at once, as retryable, without keeping their session permit")
+    void shouldRefuseBusyWithoutWaitingOrLeaking() {
+        config.setPermitTimeoutMs(5000);
+        config.setGatewayInitialLimit(1);
+        guard = new MeterAccessGuard(config, new SimpleMeterRegistry());
+        MeterAccessGuard.Permit holder = guard.acquire("10.0.0.5", 1);
+        assertTrue(holder.isGranted());
+
+        long start = System.nanoTime();
+        MeterAccessGuard.Permit meterBusy = guard.acquire("10.0.0.5", 1);
+        MeterAccessGuard.Permit gatewayBusy = guard.acquire("10.0.0.5", 2);
+        assertTrue(System.nanoTime() - start < 1_000_000_000L, "acquire waited for the busy meter");
+
+        assertFalse(meterBusy.isGranted());
+        assertTrue(meterBusy.isRetryable());
+        assertFalse(gatewayBusy.isGranted());
+        assertTrue(gatewayBusy.isRetryable());
+
+        // The gateway refusal gave back meter 2's session permit
+        holder.release(true, true);
+        MeterAccessGuard.Permit second = guard.acquire("10.0.0.5", 2);
+        assertTrue(second.isGranted(), second.getDenialReason());
+        second.release(true, true);
+    }
+
+    @Test
+    @DisplayName("Should not mark open circuit refusals as retryable")
+    void shouldNotRetryOpenCircuit() {
+        for (int i = 0; i < 4; i++) {
+            guard.acquire("10.0.0.6", 4059).release(true, false);
+        }
+
+        MeterAccessGuard.Permit blocked = guard.acquire("10.0.0.6", 4059);
+        assertFalse(blocked.isGranted());
+        assertFalse(blocked.isRetryable());
+    }
+
+    @Test
+    @DisplayName("Should shrink the gateway limit after failed sessions")
+    void shouldAdaptGatewayLimit() {
+        config.setGatewayInitialLimit(8);
+        guard = new MeterAccessGuard(config, new SimpleMeterRegistry());
+
+        MeterAccessGuard.Permit permit = guard.acquire("10.0.0.4", 4059);
+        permit.release(false, false);
+
+        assertTrue(guard.getGatewayLimit("10.0.0.4") < 8);
+    }
+
+    @Test
+    @DisplayName("Should evict idle meters and gateways but keep busy ones and open circuits")
+    void shouldEvictIdleEntries() {
+        MeterAccessGuard.Permit idle = guard.acquire("10.0.1.1", 4059);
+        idle.release(false, false);
+        assertTrue(guard.getGatewayLimit("10.0.1.1") < config.getGatewayInitialLimit());
+        MeterAccessGuard.Permit busy = guard.acquire("10.0.1.2", 4059);
+        for (int i = 0; i < 4; i++) {
+            guard.acquire("10.0.1.3", 4059).release(true, false);
+        }
+
+        assertEquals(0, guard.evictIdle(System.nanoTime()));
+        long later = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getIdleEvictionMs());
+        // Meter and gateway 10.0.1.1, and gateway 10.0.1.3 whose own circuit stayed closed
+        assertEquals(3, guard.evictIdle(later));
+
+        assertEquals(config.getGatewayInitialLimit(), guard.getGatewayLimit("10.0.1.1"));
+        assertEquals(CircuitBreaker.State.OPEN, guard.getMeterCircuitState("10.0.1.3", 4059));
+        assertFalse(guard.acquire("10.0.1.2", 4059).isGranted());
+
+        // The refused acquire above used 10.0.1.2 again, so it is idle only a full period later
+        busy.release(true, true);
+        assertEquals(2, guard.evictIdle(later + TimeUnit.MILLISECONDS.toNanos(config.getIdleEvictionMs())));
+        assertTrue(guard.acquire("10.0.1.2", 4059).isGranted());
+    }
+}
@@ -0,0 +1,176 @@
+package com.hes.collector.scheduling;
+
+import com.hes.collector.config.LaneSchedulerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Lane Scheduler Tests")
+class LaneSchedulerTest {
+
+    private MeterRegistry registry;
+    private LaneSchedulerConfig config;
+    private LaneScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        config = new LaneSchedulerConfig();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should complete submitted work with its result")
+    void shouldCompleteSubmittedWork() throws Exception {
+        scheduler = new LaneScheduler(config, registry);
+
+        CompletableFuture<String> future = scheduler.submit(CommandLane.ODR, () -> "done");
+
+        assertEquals("done", future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should serve urgent work ahead of a queued bulk backlog")
+    void shouldServeUrgentBeforeBulkBacklog() throws Exception {
+        config.setWorkerThreads(1);
+        scheduler = new LaneScheduler(config, registry);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        CompletableFuture<Void> blocker = scheduler.submit(CommandLane.BULK, () -> {
+            await(release);
+            return null;
+        });
+        List<CompletableFuture<Boolean>> bulk = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String name = "bulk-" + i;
+            bulk.add(scheduler.submit(CommandLane.BULK, () -> order.add(name)));
+        }
+        CompletableFuture<Boolean> urgent = scheduler.submit(CommandLane.URGENT, () -> order.add("urgent"));
+
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        urgent.get(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(bulk.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals("urgent", order.get(0));
+        assertEquals(6, order.size());
+    }
+
+    @Test
+    @DisplayName("Should not exceed the lane concurrency limit")
+    void shouldRespectLaneConcurrencyLimit() throws Exception {
+        config.setWorkerThreads(6);
+        config.setBulkMaxConcurrency(2);
+        scheduler = new LaneScheduler(config, registry);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            futures.add(scheduler.submit(CommandLane.BULK, () -> {
+                int now = running.incrementAndGet();
+                peak.accumulateAndGet(now, Math::max);
+                sleep(20);
+                return running.decrementAndGet();
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertTrue(peak.get() <= 2, "peak concurrency was " + peak.get());
+    }
+
+    @Test
+    @DisplayName("Should reject work when the lane queue is full")
+    void shouldRejectWhenLaneIsFull() throws Exception {
+        config.setWorkerThreads(1);
+        config.setOdrQueueCapacity(1);
+        scheduler = new LaneScheduler(config, registry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> blocker = scheduler.submit(CommandLane.ODR, () -> {
+            await(release);
+            return null;
+        });
+        waitUntilStarted(CommandLane.ODR);
+        CompletableFuture<String> queued = scheduler.submit(CommandLane.ODR, () -> "queued");
+        CompletableFuture<String> rejected = scheduler.submit(CommandLane.ODR, () -> "rejected");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertEquals(1.0, registry.get("collector.lane.rejected").tag("lane", "odr").counter().count());
+
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should expose queue depth and wait time per lane")
+    void shouldExposeLaneMetrics() throws Exception {
+        config.setWorkerThreads(1);
+        scheduler = new LaneScheduler(config, registry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> blocker = scheduler.submit(CommandLane.BULK, () -> {
+            await(release);
+            return null;
+        });
+        waitUntilStarted(CommandLane.BULK);
+        CompletableFuture<Integer> queued = scheduler.submit(CommandLane.BULK, () -> 1);
+
+        assertEquals(1.0, registry.get("collector.lane.queue.depth").tag("lane", "bulk").gauge().value());
+        assertEquals(1, scheduler.getActiveCount(CommandLane.BULK));
+
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, registry.get("collector.lane.wait").tag("lane", "bulk").timer().count());
+        assertEquals(0, scheduler.getQueueDepth(CommandLane.BULK));
+    }
+
+    private void waitUntilStarted(CommandLane lane) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.getActiveCount(lane) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
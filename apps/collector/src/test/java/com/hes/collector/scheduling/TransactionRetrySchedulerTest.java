@@ -0,0 +1,127 @@
+package com.hes.collector.scheduling;
+
+import com.hes.collector.config.TransactionRetryConfig;
+import com.hes.collector.model.MeterTransaction;
+import com.hes.collector.service.MeterTransactionManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Transaction Retry Scheduler Tests")
+class TransactionRetrySchedulerTest {
+
+    private MeterTransactionManager transactionManager;
+    private TransactionRetryConfig config;
+    private TransactionRetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = new MeterTransactionManager();
+        config = new TransactionRetryConfig();
+        config.setBaseDelayMs(10);
+        config.setMaxDelayMs(80);
+        config.setJitter(0.5);
+        config.setCollectionWindowMs(100);
+        scheduler = new TransactionRetryScheduler(transactionManager, config, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should grow the backoff exponentially up to the cap")
+    void shouldGrowBackoffExponentially() {
+        config.setJitter(0);
+
+        assertEquals(10, scheduler.computeBackoffMs(1));
+        assertEquals(20, scheduler.computeBackoffMs(2));
+        assertEquals(40, scheduler.computeBackoffMs(3));
+        assertEquals(80, scheduler.computeBackoffMs(4));
+        assertEquals(80, scheduler.computeBackoffMs(10));
+    }
+
+    @Test
+    @DisplayName("Should keep jittered backoff within the configured fraction")
+    void shouldBoundJitter() {
+        for (int i = 0; i < 200; i++) {
+            long delay = scheduler.computeBackoffMs(3);
+            assertTrue(delay >= 20 && delay <= 40, "delay out of range: " + delay);
+        }
+    }
+
+    @Test
+    @DisplayName("Should align due times to the next collection window")
+    void shouldAlignToCollectionWindow() {
+        assertEquals(100, scheduler.alignToWindow(1));
+        assertEquals(100, scheduler.alignToWindow(100));
+        assertEquals(200, scheduler.alignToWindow(101));
+    }
+
+    @Test
+    @DisplayName("Should re-dispatch a failed transaction after the backoff")
+    void shouldRedispatchFailedTransaction() throws Exception {
+        MeterTransaction transaction = transactionManager.createTransaction("MTR001", MeterTransaction.TransactionType.CONNECT);
+        CountDownLatch dispatched = new CountDownLatch(1);
+
+        boolean scheduled = scheduler.scheduleRetry(transaction.getTransactionId(), CommandLane.URGENT,
+            "timeout", dispatched::countDown);
+
+        assertTrue(scheduled);
+        assertEquals(MeterTransaction.TransactionStatus.RETRY, transaction.getStatus());
+        assertEquals(1, transaction.getRetryCount());
+        assertTrue(dispatched.await(2, TimeUnit.SECONDS));
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Should fire retries for the same meter together in one window")
+    void shouldBatchRetriesPerMeter() throws Exception {
+        MeterTransaction first = transactionManager.createTransaction("MTR002", MeterTransaction.TransactionType.PING);
+        MeterTransaction second = transactionManager.createTransaction("MTR002", MeterTransaction.TransactionType.READ);
+        CountDownLatch dispatched = new CountDownLatch(2);
+        AtomicLong firstAt = new AtomicLong();
+        AtomicLong secondAt = new AtomicLong();
+
+        scheduler.scheduleRetry(first.getTransactionId(), CommandLane.BULK, "timeout", () -> {
+            firstAt.set(System.currentTimeMillis());
+            dispatched.countDown();
+        });
+        scheduler.scheduleRetry(second.getTransactionId(), CommandLane.BULK, "timeout", () -> {
+            secondAt.set(System.currentTimeMillis());
+            dispatched.countDown();
+        });
+
+        assertTrue(dispatched.await(2, TimeUnit.SECONDS));
+        assertTrue(Math.abs(firstAt.get() - secondAt.get()) < 20);
+    }
+
+    @Test
+    @DisplayName("Should dead-letter a transaction once its retries are exhausted")
+    void shouldDeadLetterExhaustedTransaction() {
+        MeterTransaction transaction = transactionManager.createTransaction("MTR003", MeterTransaction.TransactionType.DISCONNECT);
+        transaction.setRetryCount(MeterTransaction.MAX_RETRIES);
+
+        boolean scheduled = scheduler.scheduleRetry(transaction.getTransactionId(), CommandLane.URGENT,
+            "no response", () -> fail("should not re-dispatch"));
+
+        assertFalse(scheduled);
+        assertEquals(MeterTransaction.TransactionStatus.FAILED, transaction.getStatus());
+        assertNull(transactionManager.getTransaction(transaction.getTransactionId()));
+
+        List<TransactionRetryScheduler.DeadLetter> deadLetters = scheduler.getDeadLetters();
+        assertEquals(1, deadLetters.size());
+        assertEquals("MTR003", deadLetters.get(0).getMeterSerialNumber());
+        assertEquals("no response", deadLetters.get(0).getLastError());
+    }
+}
@@ -0,0 +1,116 @@
+package com.hes.collector.serialization;
+
+import com.hes.collector.model.MeterReading;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Meter Reading Codec Tests")
+class MeterReadingCodecTest {
+
+    @Test
+    @DisplayName("Should round-trip a fully populated reading")
+    void shouldRoundTripFullReading() {
+        MeterReading reading = MeterReading.createDefaultReading("MTR000001");
+
+        byte[] encoded = MeterReadingCodec.encode(reading);
+
+        assertEquals(reading, MeterReadingCodec.decode(encoded));
+    }
+
+    @Test
+    @DisplayName("Should round-trip edge values exactly")
+    void shouldRoundTripEdgeValues() {
+        MeterReading reading = new MeterReading();
+        reading.setMeterSerialNumber("MTR-ÄÖ-電表");
+        reading.setTimestamp(Instant.ofEpochSecond(1_700_000_000L, 123_456_789));
+        reading.setCaptureTime(Instant.ofEpochSecond(-86_400L, 999_999_999));
+        reading.setCollectionTime(Instant.ofEpochSecond(1_700_000_030L, 0));
+        reading.setActiveEnergyImport(new BigDecimal("12345.6789"));
+        reading.setActiveEnergyExport(new BigDecimal("-0.001"));
+        reading.setMaximumDemand(new BigDecimal(new BigInteger("123456789012345678901234567890"), 4));
+        reading.setFrequency(new BigDecimal("5E+3"));
+        reading.setActivePower(-0.0);
+        reading.setVoltageL1(BigDecimal.ZERO);
+        reading.setL1VoltageVrn(Double.NaN);
+        reading.setL2VoltageVyn(Double.MIN_VALUE);
+        reading.setCumEnergyWhImport(Double.MAX_VALUE);
+
+        MeterReading decoded = MeterReadingCodec.decode(MeterReadingCodec.encode(reading));
+
+        assertEquals(reading, decoded);
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(decoded.getActivePower()));
+        assertEquals(-3, decoded.getFrequency().scale());
+    }
+
+    @Test
+    @DisplayName("Should encode a typical reading much smaller than JSON")
+    void shouldBeCompact() {
+        MeterReading reading = MeterReading.builder()
+            .meterSerialNumber("MTR000042")
+            .timestamp(Instant.parse("2024-01-01T00:00:30Z"))
+            .captureTime(Instant.parse("2024-01-01T00:00:30Z"))
+            .l1VoltageVrn(231.4)
+            .l1CurrentIr(5.2)
+            .frequencyDouble(50.0)
+            .isValid(true)
+            .build();
+
+        byte[] encoded = MeterReadingCodec.encode(reading);
+
+        // version + bitmap + serial + two instants + three doubles; the JSON form is well over 1 KB
+        assertTrue(encoded.length <= 64, "encoded length " + encoded.length);
+    }
+
+    @Test
+    @DisplayName("Should round-trip a columnar batch with sparse columns")
+    void shouldRoundTripBatch() {
+        List<MeterReading> readings = new ArrayList<>();
+        Instant base = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 0; i < 100; i++) {
+            MeterReading reading = MeterReading.builder()
+                .meterSerialNumber("MTR" + (i % 10))
+                .timestamp(base.plusSeconds(30L * i))
+                .readingType("INSTANTANEOUS")
+                .l1VoltageVrn(230 + i * 0.1)
+                .isValid(i % 3 == 0)
+                .build();
+            if (i % 7 == 0) {
+                reading.setNotes("note " + i);
+                reading.setActiveEnergyImport(BigDecimal.valueOf(i, 2));
+            }
+            readings.add(reading);
+        }
+
+        byte[] encoded = MeterReadingBatchCodec.encode(readings);
+
+        assertEquals(readings, MeterReadingBatchCodec.decode(encoded));
+        int rowEncoded = readings.stream().mapToInt(r -> MeterReadingCodec.encode(r).length).sum();
+        assertTrue(encoded.length < rowEncoded, "batch " + encoded.length + " vs rows " + rowEncoded);
+        assertEquals(Collections.emptyList(), MeterReadingBatchCodec.decode(MeterReadingBatchCodec.encode(Collections.emptyList())));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown versions and truncated data")
+    void shouldRejectMalformedData() {
+        byte[] encoded = MeterReadingCodec.encode(MeterReading.createDefaultReading("MTR000001"));
+        byte[] wrongVersion = encoded.clone();
+        wrongVersion[0] = 99;
+
+        assertThrows(IllegalArgumentException.class, () -> MeterReadingCodec.decode(wrongVersion));
+        assertThrows(IllegalArgumentException.class, () -> MeterReadingCodec.decode(Arrays.copyOf(encoded, encoded.length - 3)));
+        assertThrows(SerializationException.class,
+            () -> new MeterReadingDeserializer().deserialize("meter-readings", new byte[] {1, (byte) 0x80}));
+        assertNull(new MeterReadingDeserializer().deserialize("meter-readings", null));
+    }
+}
@@ -0,0 +1,149 @@
+package com.hes.collector.service;
+
+import com.hes.collector.archive.BlockLoadColumn;
+import com.hes.collector.archive.BlockLoadSeries;
+import com.hes.collector.config.ArchiveConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Block Load Archive Service Tests")
+class BlockLoadArchiveServiceTest {
+    private static final YearMonth MONTH = YearMonth.of(2024, 1);
+    private static final Instant BASE = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    private ArchiveConfig config;
+    private RecordingJdbc jdbc;
+    private RecordingTransactions transactions;
+    private BlockLoadArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        config = new ArchiveConfig();
+        config.setDirectory(dir.toString());
+        config.setDeleteAfterArchive(true);
+        jdbc = new RecordingJdbc();
+        transactions = new RecordingTransactions();
+        service = new BlockLoadArchiveService(jdbc, config, transactions);
+    }
+
+    @Test
+    @DisplayName("Should archive and delete a month in one repeatable read transaction")
+    void shouldArchiveAndDeleteInOneSnapshot() throws IOException {
+        jdbc.deleted = 150;
+
+        Path target = service.archiveMonth(MONTH);
+
+        assertEquals(TransactionDefinition.ISOLATION_REPEATABLE_READ, transactions.isolation);
+        assertEquals(List.of("commit"), transactions.outcomes);
+        assertTrue(jdbc.deleteSql.startsWith("DELETE FROM block_load_profiles"));
+        BlockLoadSeries series = service.readArchived(MONTH, "MTR2", EnumSet.of(BlockLoadColumn.VOLTAGE_VRN));
+        assertEquals(100, series.size());
+        assertTrue(Files.exists(target));
+    }
+
+    @Test
+    @DisplayName("Should roll back when the delete would remove rows the archive does not hold")
+    void shouldRollBackOnCountMismatch() {
+        // A row written to the month after the archive snapshot
+        jdbc.deleted = 151;
+
+        IOException error = assertThrows(IOException.class, () -> service.archiveMonth(MONTH));
+
+        assertTrue(error.getMessage().contains("would remove 151"), error.getMessage());
+        assertEquals(List.of("rollback"), transactions.outcomes);
+    }
+
+    /** Two meters with 50 and 100 rows, and a DELETE reporting a preset row count */
+    private static class RecordingJdbc extends JdbcTemplate {
+        private int deleted;
+        private String deleteSql;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            return (List<T>) List.of("MTR1", "MTR2");
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler handler, Object... args) {
+            int rows = "MTR1".equals(args[0]) ? 50 : 100;
+            for (int i = 0; i < rows; i++) {
+                Timestamp captureTime = Timestamp.from(BASE.plusSeconds(i * 900L));
+                try {
+                    handler.processRow(row(captureTime, 230 + i % 3));
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            deleteSql = sql;
+            return deleted;
+        }
+
+        private static ResultSet row(Timestamp captureTime, double value) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+                (proxy, method, methodArgs) -> {
+                    switch (method.getName()) {
+                        case "getTimestamp":
+                            return captureTime;
+                        case "getDouble":
+                            return value;
+                        case "wasNull":
+                            return false;
+                        default:
+                            return null;
+                    }
+                });
+        }
+    }
+
+    private static class RecordingTransactions implements PlatformTransactionManager {
+        private final List<String> outcomes = new ArrayList<>();
+        private int isolation;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            isolation = definition.getIsolationLevel();
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            outcomes.add("commit");
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            outcomes.add("rollback");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.hes.collector.service;
+
+import com.hes.collector.config.CosemCatalogConfig;
+import com.hes.collector.dlms.CosemObject;
+import com.hes.collector.dlms.ObisCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("COSEM Object Catalog Tests")
+class CosemObjectCatalogTest {
+
+    private InMemoryObisCodes table;
+    private CosemCatalogConfig config;
+    private CosemObjectCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        table = new InMemoryObisCodes();
+        config = new CosemCatalogConfig();
+        config.setReadPlan(Arrays.asList("VOLTAGE_L2", "clock", "1.0.31.7.0.255", "UNKNOWN"));
+        catalog = new CosemObjectCatalog(table, config);
+    }
+
+    @Test
+    @DisplayName("Should resolve built-in objects without database rows")
+    void shouldResolveBuiltIns() {
+        catalog.load();
+
+        assertSame(CosemObject.StandardObjects.CLOCK, catalog.resolve("clock"));
+        assertSame(CosemObject.StandardObjects.RELAY_CONTROL, catalog.resolve("0.0.96.3.10.255"));
+        assertSame(CosemObject.StandardObjects.VOLTAGE_L1, catalog.find(ObisCode.parse("1.0.32.7.0.255")));
+        assertNull(catalog.resolve("1.0.99.1.0.255"));
+        assertNull(catalog.resolve("1.0.x"));
+        assertEquals(Arrays.asList(CosemObject.StandardObjects.CLOCK, CosemObject.StandardObjects.CURRENT_L1),
+            catalog.getReadPlan());
+    }
+
+    @Test
+    @DisplayName("Should index table rows by OBIS code and name")
+    void shouldIndexTableRows() {
+        table.add("1.0.52.7.0.255", 3, "VOLTAGE_L2", 2, "READ_ONLY");
+        table.add("1.0.99.1.0.255", 7, null, 2, "AUTHENTICATED_READ_ONLY");
+        table.add("0.0.1.0.0.255", 8, null, 2, "READ_ONLY");
+        table.add("bogus", 3, "BOGUS", 2, "READ_ONLY");
+        catalog.load();
+
+        CosemObject voltage = catalog.resolve("voltage_l2");
+        assertNotNull(voltage);
+        assertSame(voltage, catalog.resolve("1.0.52.7.0.255"));
+        assertEquals(7, catalog.resolve("1.0.99.1.0.255").getClassId());
+        assertEquals(CosemObject.AccessLevel.AUTHENTICATED_READ_ONLY,
+            catalog.resolve("1.0.99.1.0.255").getAccessLevel());
+        assertNull(catalog.resolve("BOGUS"));
+
+        CosemObject clock = catalog.resolve("CLOCK");
+        assertNotSame(CosemObject.StandardObjects.CLOCK, clock);
+        assertEquals(CosemObject.AccessLevel.READ_ONLY, clock.getAccessLevel());
+        assertEquals(Arrays.asList(voltage, clock, CosemObject.StandardObjects.CURRENT_L1), catalog.getReadPlan());
+    }
+
+    @Test
+    @DisplayName("Should reload only when the table changes and keep the index on failure")
+    void shouldReloadOnChange() {
+        catalog.load();
+        catalog.refreshIfChanged();
+        assertEquals(1, table.loads);
+
+        table.add("1.0.14.7.0.255", 3, "FREQUENCY", 2, "READ_ONLY");
+        catalog.refreshIfChanged();
+        assertEquals(2, table.loads);
+        assertNotNull(catalog.resolve("FREQUENCY"));
+
+        table.failing = true;
+        table.add("1.0.13.7.0.255", 3, "POWER_FACTOR", 2, "READ_ONLY");
+        catalog.refreshIfChanged();
+        assertNotNull(catalog.resolve("FREQUENCY"));
+        assertNull(catalog.resolve("POWER_FACTOR"));
+
+        table.failing = false;
+        catalog.refreshIfChanged();
+        assertNotNull(catalog.resolve("POWER_FACTOR"));
+    }
+
+    /** Stands in for obis_codes; the fingerprint is the row count, like COUNT(*) on an insert-only table */
+    private static class InMemoryObisCodes extends JdbcTemplate {
+        private final List<Map<String, Object>> rows = new ArrayList<>();
+        private boolean failing;
+        private int loads;
+
+        void add(String logicalName, int classId, String objectName, int attributeId, String accessLevel) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("logical_name", logicalName);
+            row.put("class_id", classId);
+            row.put("object_name", objectName);
+            row.put("attribute_id", attributeId);
+            row.put("access_level", accessLevel);
+            rows.add(row);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType) {
+            if (failing) {
+                throw new IllegalStateException("connection refused");
+            }
+            return (T) (rows.size() + ":");
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper) {
+            loads++;
+            List<T> result = new ArrayList<>();
+            try {
+                for (int i = 0; i < rows.size(); i++) {
+                    result.add(rowMapper.mapRow(resultSet(rows.get(i)), i));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return result;
+        }
+
+        private static ResultSet resultSet(Map<String, Object> row) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object value = row.get((String) args[0]);
+                    if (method.getName().equals("getInt")) {
+                        return value == null ? 0 : (Integer) value;
+                    }
+                    return value;
+                });
+        }
+    }
+}
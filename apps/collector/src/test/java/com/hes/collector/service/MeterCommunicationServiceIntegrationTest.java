@@ -1,9 +1,20 @@
 package com.hes.collector.service;
 
 import com.hes.collector.config.DlmsConfig;
+import com.hes.collector.config.LaneSchedulerConfig;
+import com.hes.collector.config.MeterAccessConfig;
+import com.hes.collector.config.MeterEmulatorConfig;
+import com.hes.collector.config.ScoreboardConfig;
+import com.hes.collector.config.StageMetricsConfig;
 import com.hes.collector.dlms.CosemObject;
 import com.hes.collector.dlms.DataObject;
+import com.hes.collector.emulator.MeterEmulator;
+import com.hes.collector.metrics.CollectionStageMetrics;
+import com.hes.collector.metrics.MeterHealthScoreboard;
 import com.hes.collector.model.MeterTransaction;
+import com.hes.collector.resilience.MeterAccessGuard;
+import com.hes.collector.scheduling.CommandLane;
+import com.hes.collector.scheduling.LaneScheduler;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +23,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.springframework.test.context.TestPropertySource;
 import static org.junit.jupiter.api.Assertions.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 @DisplayName("Meter Communication Service Integration Tests")
@@ -39,7 +51,11 @@ class MeterCommunicationServiceIntegrationTest {
         config.setUseHighLevelSecurity(false);
         
         meterRegistry = new SimpleMeterRegistry();
-        service = new MeterCommunicationService(config, meterRegistry);
+        service = new MeterCommunicationService(config, meterRegistry,
+            new LaneScheduler(new LaneSchedulerConfig(), meterRegistry),
+            new MeterAccessGuard(new MeterAccessConfig(), meterRegistry),
+            new CollectionStageMetrics(meterRegistry, new StageMetricsConfig()),
+            new MeterHealthScoreboard(new ScoreboardConfig()));
     }
 
     @Test
@@ -241,4 +257,66 @@ class MeterCommunicationServiceIntegrationTest {
         MeterTransaction.Result result = future.get(5, TimeUnit.SECONDS);
         assertFalse(result.isSuccess());
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should requeue a session for a busy meter instead of holding a lane worker")
+    void shouldRequeueSessionsForBusyMeters() throws Exception {
+        MeterEmulatorConfig emulatorConfig = new MeterEmulatorConfig();
+        emulatorConfig.setHost("127.0.0.1");
+        emulatorConfig.setBasePort(0);
+        emulatorConfig.setPorts(2);
+        emulatorConfig.setMetersPerPort(1);
+        emulatorConfig.setIoThreads(1);
+        MeterEmulator emulator = new MeterEmulator(emulatorConfig);
+        emulator.start();
+        LaneSchedulerConfig laneConfig = new LaneSchedulerConfig();
+        laneConfig.setWorkerThreads(2);
+        LaneScheduler scheduler = new LaneScheduler(laneConfig, meterRegistry);
+        service = new MeterCommunicationService(config, meterRegistry, scheduler,
+            new MeterAccessGuard(new MeterAccessConfig(), meterRegistry),
+            new CollectionStageMetrics(meterRegistry, new StageMetricsConfig()),
+            new MeterHealthScoreboard(new ScoreboardConfig()));
+        try {
+            int busyPort = emulator.getPorts().get(0);
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch finish = new CountDownLatch(1);
+            CompletableFuture<MeterTransaction.Result> holder = service.communicate(CommandLane.BULK, "127.0.0.1",
+                busyPort, protocol -> {
+                    started.countDown();
+                    await(finish);
+                    return succeeded();
+                });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<MeterTransaction.Result> waiting = service.communicate(CommandLane.BULK, "127.0.0.1",
+                busyPort, protocol -> succeeded());
+            // The second worker is not parked on the busy meter and serves the other one
+            MeterTransaction.Result other = service.communicate(CommandLane.BULK, "127.0.0.1",
+                emulator.getPorts().get(1), protocol -> succeeded()).get(2, TimeUnit.SECONDS);
+            assertTrue(other.isSuccess(), other.getError());
+            assertFalse(waiting.isDone());
+
+            finish.countDown();
+            assertTrue(holder.get(5, TimeUnit.SECONDS).isSuccess());
+            MeterTransaction.Result retried = waiting.get(5, TimeUnit.SECONDS);
+            assertTrue(retried.isSuccess(), retried.getError());
+        } finally {
+            scheduler.shutdown();
+            emulator.stop();
+        }
+    }
+
+    private static MeterTransaction.Result succeeded() {
+        MeterTransaction.Result result = new MeterTransaction.Result();
+        result.setSuccess(true);
+        return result;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.hes.collector.service;
+
+import com.hes.collector.config.ReadingPublisherConfig;
+import com.hes.collector.config.StageMetricsConfig;
+import com.hes.collector.metrics.CollectionStageMetrics;
+import com.hes.collector.model.MeterReading;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Reading Publisher Tests")
+class ReadingPublisherTest {
+
+    @Test
+    @DisplayName("Should queue readings while send blocks and drop them once the queue is full")
+    void shouldNotBlockCallerOnSend() throws Exception {
+        BlockingTemplate template = new BlockingTemplate();
+        ReadingPublisherConfig config = new ReadingPublisherConfig();
+        config.setQueueCapacity(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReadingPublisher publisher = new ReadingPublisher(template, config, registry,
+            new CollectionStageMetrics(registry, new StageMetricsConfig()));
+        try {
+            CompletableFuture<SendResult<String, MeterReading>> first = publisher.publish(reading("MTR1"));
+            assertTrue(template.entered.await(5, TimeUnit.SECONDS));
+
+            // The sender thread is stuck in send(); these return at once
+            CompletableFuture<SendResult<String, MeterReading>> second = publisher.publish(reading("MTR2"));
+            CompletableFuture<SendResult<String, MeterReading>> third = publisher.publish(reading("MTR1"));
+            CompletableFuture<SendResult<String, MeterReading>> dropped = publisher.publish(reading("MTR3"));
+            assertEquals(2, publisher.getQueued());
+            assertTrue(dropped.isDone());
+            assertNull(dropped.get());
+            assertEquals(1.0, registry.counter("collector.kafka.dropped").count());
+            assertFalse(first.isDone());
+
+            template.release.countDown();
+            CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("MTR1", "MTR2", "MTR1"), template.keys);
+            assertEquals(3.0, registry.counter("collector.kafka.published").count());
+        } finally {
+            template.release.countDown();
+            publisher.stop();
+        }
+    }
+
+    private static MeterReading reading(String serial) {
+        return MeterReading.builder()
+            .meterSerialNumber(serial)
+            .readingType("INSTANTANEOUS")
+            .build();
+    }
+
+    /** Blocks the first send, as the producer does while its buffer is full */
+    private static class BlockingTemplate extends KafkaTemplate<String, MeterReading> {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<String> keys = new CopyOnWriteArrayList<>();
+
+        BlockingTemplate() {
+            super(new DefaultKafkaProducerFactory<>(Collections.emptyMap()));
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, MeterReading>> send(String topic, String key, MeterReading data) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            keys.add(key);
+            return CompletableFuture.completedFuture(new SendResult<>(null, null));
+        }
+    }
+}
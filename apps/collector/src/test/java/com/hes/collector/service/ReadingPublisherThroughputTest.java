@@ -0,0 +1,143 @@
+package com.hes.collector.service;
+
+import com.hes.collector.config.KafkaConfig;
+import com.hes.collector.config.ReadingPublisherConfig;
+import com.hes.collector.config.StageMetricsConfig;
+import com.hes.collector.metrics.CollectionStageMetrics;
+import com.hes.collector.model.MeterReading;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.test.EmbeddedKafkaZKBroker;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Publishing throughput against an embedded broker for each compression codec.
+ * Run with -Dbenchmarks=true; results are logged, not asserted.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("Reading Publisher Throughput Benchmark")
+class ReadingPublisherThroughputTest {
+
+    private static final String TOPIC = "meter-readings-bench";
+    private static final int PARTITIONS = 12;
+    private static final int METERS = 1000;
+    private static final int READINGS = 200_000;
+
+    private static EmbeddedKafkaZKBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaZKBroker(1, true, PARTITIONS, TOPIC);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    @DisplayName("Should publish readings in meter order for each compression codec")
+    void shouldMeasureThroughputPerCodec() throws Exception {
+        List<MeterReading> readings = generateReadings();
+        for (String codec : new String[] {"none", "lz4", "zstd"}) {
+            runAndReport(codec, 20, readings);
+        }
+        runAndReport("lz4", 0, readings);
+    }
+
+    private void runAndReport(String codec, int lingerMs, List<MeterReading> readings) throws Exception {
+        ReadingPublisherConfig config = new ReadingPublisherConfig();
+        config.setTopic(TOPIC);
+        config.setCompressionType(codec);
+        config.setLingerMs(lingerMs);
+        config.setQueueCapacity(readings.size());
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        kafkaProperties.setBootstrapServers(Collections.singletonList(broker.getBrokersAsString()));
+
+        ProducerFactory<String, MeterReading> producerFactory = new KafkaConfig().producerFactory(kafkaProperties, config);
+        KafkaTemplate<String, MeterReading> template = new KafkaTemplate<>(producerFactory);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReadingPublisher publisher = new ReadingPublisher(template, config, registry,
+            new CollectionStageMetrics(registry, new StageMetricsConfig()));
+        try {
+            // Warm up metadata and the serializer before timing
+            publisher.publish(readings.get(0)).get(30, TimeUnit.SECONDS);
+
+            List<CompletableFuture<SendResult<String, MeterReading>>> sends = new ArrayList<>(readings.size());
+            long start = System.nanoTime();
+            for (MeterReading reading : readings) {
+                sends.add(publisher.publish(reading));
+            }
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertSameMeterSamePartition(readings, sends);
+            log.info("codec={} linger={}ms: {} readings in {}s = {} readings/s", codec, lingerMs, readings.size(),
+                String.format("%.2f", seconds), Math.round(readings.size() / seconds));
+        } finally {
+            publisher.stop();
+            ((DefaultKafkaProducerFactory<String, MeterReading>) producerFactory).destroy();
+        }
+    }
+
+    private void assertSameMeterSamePartition(List<MeterReading> readings,
+                                              List<CompletableFuture<SendResult<String, MeterReading>>> sends) throws Exception {
+        Map<String, Integer> partitionByMeter = new HashMap<>();
+        Map<String, Long> lastOffsetByMeter = new HashMap<>();
+        for (int i = 0; i < readings.size(); i++) {
+            String meter = readings.get(i).getMeterSerialNumber();
+            SendResult<String, MeterReading> result = sends.get(i).get();
+            assertNotNull(result, "reading was not published");
+            int partition = result.getRecordMetadata().partition();
+            long offset = result.getRecordMetadata().offset();
+            Integer previous = partitionByMeter.putIfAbsent(meter, partition);
+            assertTrue(previous == null || previous == partition, "meter " + meter + " spread across partitions");
+            Long lastOffset = lastOffsetByMeter.put(meter, offset);
+            assertTrue(lastOffset == null || lastOffset < offset, "meter " + meter + " published out of order");
+        }
+    }
+
+    private List<MeterReading> generateReadings() {
+        List<MeterReading> readings = new ArrayList<>(READINGS);
+        Instant base = Instant.now();
+        for (int i = 0; i < READINGS; i++) {
+            readings.add(MeterReading.builder()
+                .meterSerialNumber(String.format("MTR%06d", i % METERS))
+                .timestamp(base.plusSeconds(i / METERS * 30L))
+                .captureTime(base.plusSeconds(i / METERS * 30L))
+                .l1VoltageVrn(230 + (i % 7) * 0.5)
+                .l2VoltageVyn(231 + (i % 5) * 0.5)
+                .l3VoltageVbn(229 + (i % 3) * 0.5)
+                .l1CurrentIr(5 + (i % 11) * 0.1)
+                .frequencyDouble(50.0)
+                .activePower(1000 + i % 500)
+                .cumEnergyWhImport(100000 + i)
+                .readingType("INSTANTANEOUS")
+                .source("SIMULATOR")
+                .build());
+        }
+        return readings;
+    }
+}
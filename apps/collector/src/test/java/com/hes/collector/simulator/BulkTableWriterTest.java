@@ -0,0 +1,120 @@
+package com.hes.collector.simulator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Bulk Table Writer Tests")
+class BulkTableWriterTest {
+
+    private static final String[] COLUMNS = {"meter_serial_number", "capture_time", "value"};
+    private static final Instant AT = Instant.parse("2024-06-01T00:15:00Z");
+
+    @Test
+    @DisplayName("Should COPY escaped text rows each time flushRows rows are buffered")
+    void shouldCopyInTextFormat() throws Exception {
+        RecordingCopyManager copy = new RecordingCopyManager();
+        BulkTableWriter writer = new BulkTableWriter("events", COLUMNS, null, copy, 2);
+
+        writer.add("M\t1", AT, 1.5);
+        assertTrue(copy.copies.isEmpty());
+        writer.add("M\\2\n", null, 7);
+        writer.add("M3", AT, null);
+        writer.flush();
+        writer.flush();
+
+        assertEquals(List.of("COPY events (meter_serial_number, capture_time, value) FROM STDIN"), copy.statements());
+        assertEquals(List.of(
+            "M\\t1\t2024-06-01T00:15:00Z\t1.5\nM\\\\2\\n\t\\N\t7\n",
+            "M3\t2024-06-01T00:15:00Z\t\\N\n"), copy.copies);
+        assertEquals(3, writer.getWrittenRows());
+    }
+
+    @Test
+    @DisplayName("Should fall back to JDBC batches with timestamps when there is no COPY")
+    void shouldInsertBatches() throws Exception {
+        List<String> sql = new ArrayList<>();
+        List<Object[]> inserted = new ArrayList<>();
+        BulkTableWriter writer = new BulkTableWriter("events", COLUMNS, connection(sql, inserted), null, 10);
+
+        writer.add("M1", AT, 1.5);
+        writer.add("M2", null, 2);
+        assertTrue(inserted.isEmpty());
+        writer.flush();
+
+        assertEquals(List.of("INSERT INTO events (meter_serial_number, capture_time, value) VALUES (?, ?, ?)"), sql);
+        assertEquals(2, inserted.size());
+        assertEquals(Timestamp.from(AT), inserted.get(0)[1]);
+        assertNull(inserted.get(1)[1]);
+        assertEquals(2, writer.getWrittenRows());
+        assertThrows(IllegalArgumentException.class, () -> writer.add("M3", AT));
+    }
+
+    private static Connection connection(List<String> sql, List<Object[]> inserted) {
+        return (Connection) Proxy.newProxyInstance(BulkTableWriterTest.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                if (!method.getName().equals("prepareStatement")) {
+                    return null;
+                }
+                sql.add((String) args[0]);
+                Object[] row = new Object[COLUMNS.length];
+                List<Object[]> batch = new ArrayList<>();
+                return Proxy.newProxyInstance(BulkTableWriterTest.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class}, (statement, call, values) -> {
+                        switch (call.getName()) {
+                            case "setObject":
+                                row[(Integer) values[0] - 1] = values[1];
+                                return null;
+                            case "addBatch":
+                                batch.add(row.clone());
+                                return null;
+                            case "executeBatch":
+                                inserted.addAll(batch);
+                                return new int[batch.size()];
+                            default:
+                                return null;
+                        }
+                    });
+            });
+    }
+
+    /** Keeps the text of every COPY instead of sending it */
+    private static class RecordingCopyManager extends CopyManager {
+        private final List<String> sql = new ArrayList<>();
+        private final List<String> copies = new ArrayList<>();
+
+        RecordingCopyManager() throws SQLException {
+            super((BaseConnection) Proxy.newProxyInstance(BulkTableWriterTest.class.getClassLoader(),
+                new Class<?>[] {BaseConnection.class}, (proxy, method, args) -> null));
+        }
+
+        @Override
+        public long copyIn(String statement, Reader from) throws IOException {
+            StringWriter text = new StringWriter();
+            from.transferTo(text);
+            sql.add(statement);
+            copies.add(text.toString());
+            return 0;
+        }
+
+        List<String> statements() {
+            return sql.stream().distinct().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.hes.collector.simulator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Fleet Load Model Tests")
+class FleetLoadModelTest {
+
+    private static final long START = 1_717_200_000_000L; // 2024-06-01T00:00Z
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    @DisplayName("Should never decrease cumulative registers")
+    void shouldKeepRegistersMonotonic() {
+        FleetLoadModel model = fleet(200, 7);
+        double[] previous = new double[200 * FleetLoadModel.Register.values().length];
+        for (long t = START; t <= START + 2 * 1440 * MINUTE; t += 15 * MINUTE) {
+            model.advance(t);
+            int k = 0;
+            for (int i = 0; i < 200; i++) {
+                for (FleetLoadModel.Register register : FleetLoadModel.Register.values()) {
+                    double value = model.getRegister(i, register);
+                    assertTrue(value >= previous[k], register + " of meter " + i + " went backwards");
+                    previous[k++] = value;
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reproduce the same values for the same seed")
+    void shouldBeDeterministic() {
+        FleetLoadModel a = fleet(50, 11);
+        FleetLoadModel b = fleet(50, 11);
+        FleetLoadModel c = fleet(50, 12);
+        for (long t = START; t <= START + 6 * 60 * MINUTE; t += 30_000L) {
+            a.advance(t);
+            b.advance(t);
+            c.advance(t);
+        }
+        boolean differs = false;
+        for (int i = 0; i < 50; i++) {
+            assertEquals(a.getActivePowerImport(i), b.getActivePowerImport(i));
+            assertEquals(a.getVoltage(i, 2), b.getVoltage(i, 2));
+            assertEquals(a.getRegister(i, FleetLoadModel.Register.WH_IMPORT),
+                b.getRegister(i, FleetLoadModel.Register.WH_IMPORT));
+            differs |= a.getActivePowerImport(i) != c.getActivePowerImport(i);
+        }
+        assertTrue(differs);
+    }
+
+    @Test
+    @DisplayName("Should keep power quantities physically consistent")
+    void shouldKeepPowerConsistent() {
+        FleetLoadModel model = fleet(100, 3);
+        model.advance(START + 19 * 60 * MINUTE);
+        for (int i = 0; i < 100; i++) {
+            double p = model.getActivePowerImport(i) + model.getActivePowerExport(i);
+            double q = model.getReactivePower(i);
+            assertEquals(Math.sqrt(p * p + q * q), model.getApparentPower(i), 1e-6);
+            assertEquals(p / model.getApparentPower(i), model.getPowerFactor(i), 1e-6);
+            assertFalse(model.getActivePowerImport(i) > 0 && model.getActivePowerExport(i) > 0);
+            for (int phase = 0; phase < 3; phase++) {
+                assertTrue(model.getVoltage(i, phase) > 200 && model.getVoltage(i, phase) < 260);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should move the reactive registers of all four quadrants")
+    void shouldFillAllReactiveQuadrants() {
+        FleetLoadModel model = fleet(200, 11);
+        model.advance(START);
+        FleetLoadModel.Register[] quadrants = {
+            FleetLoadModel.Register.VARH_Q1, FleetLoadModel.Register.VARH_Q2,
+            FleetLoadModel.Register.VARH_Q3, FleetLoadModel.Register.VARH_Q4
+        };
+        double[] start = new double[quadrants.length];
+        for (int q = 0; q < quadrants.length; q++) {
+            for (int i = 0; i < 200; i++) {
+                start[q] += model.getRegister(i, quadrants[q]);
+            }
+        }
+        for (long t = START; t <= START + 1440 * MINUTE; t += MINUTE) {
+            model.advance(t);
+        }
+        for (int q = 0; q < quadrants.length; q++) {
+            double total = 0;
+            for (int i = 0; i < 200; i++) {
+                total += model.getRegister(i, quadrants[q]);
+            }
+            assertTrue(total > start[q], quadrants[q] + " did not move");
+        }
+    }
+
+    @Test
+    @DisplayName("Should integrate block energy and track maximum demand")
+    void shouldIntegrateBlockEnergy() {
+        FleetLoadModel model = fleet(1, 5);
+        model.advance(START);
+        double start = model.getRegister(0, FleetLoadModel.Register.WH_IMPORT);
+        for (long t = START + 30_000L; t <= START + 15 * MINUTE; t += 30_000L) {
+            model.advance(t);
+        }
+        double block = model.getBlockEnergy(0, FleetLoadModel.Register.WH_IMPORT);
+        assertEquals(model.getRegister(0, FleetLoadModel.Register.WH_IMPORT) - start, block, 1e-9);
+        assertTrue(block > 0);
+
+        assertTrue(model.closeBlock(0, START + 15 * MINUTE));
+        assertFalse(model.closeBlock(0, START + 15 * MINUTE + 30_000L));
+        assertEquals(block * 4, model.getDayMaxDemand(0), 1e-6);
+        assertEquals(0, model.getBlockEnergy(0, FleetLoadModel.Register.WH_IMPORT));
+    }
+
+    private static FleetLoadModel fleet(int meters, long seed) {
+        FleetLoadModel model = new FleetLoadModel(seed, ZoneOffset.UTC, 0.2);
+        for (int i = 0; i < meters; i++) {
+            model.addMeter();
+        }
+        return model;
+    }
+}
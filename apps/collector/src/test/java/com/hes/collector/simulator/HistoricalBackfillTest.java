@@ -0,0 +1,215 @@
+package com.hes.collector.simulator;
+
+import com.hes.collector.config.SimulatorConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Historical Backfill Tests")
+class HistoricalBackfillTest {
+
+    private static final Instant TO = Instant.parse("2024-06-03T00:00:00Z");
+
+    private SimulatorConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new SimulatorConfig();
+        config.setSeed(17);
+        config.setBackfillFlushRows(100);
+        // Enough events and alarms that every slice draws some
+        config.setBackfillEventsPerMeterDay(20);
+        config.setBackfillAlarmsPerMeterDay(10);
+    }
+
+    @Test
+    @DisplayName("Should write the same rows whatever the number of threads")
+    void shouldNotDependOnThreads() {
+        config.setBackfillThreads(1);
+        RecordingJdbc single = new RecordingJdbc();
+        BackfillReport singleReport = new HistoricalBackfill(single, config).run(7, 2, TO);
+
+        config.setBackfillThreads(3);
+        RecordingJdbc parallel = new RecordingJdbc();
+        BackfillReport parallelReport = new HistoricalBackfill(parallel, config).run(7, 2, TO);
+
+        assertEquals(BackfillReport.Status.COMPLETED, singleReport.getStatus(), singleReport.getError());
+        assertEquals(BackfillReport.Status.COMPLETED, parallelReport.getStatus(), parallelReport.getError());
+        assertEquals(1, singleReport.getThreads());
+        assertEquals(3, parallelReport.getThreads());
+        assertEquals(singleReport.getRowsByTable(), parallelReport.getRowsByTable());
+        assertFalse(single.rows("events").isEmpty());
+        assertFalse(single.rows("eswf_alarms").isEmpty());
+        for (String table : single.tables()) {
+            assertEquals(single.rows(table), parallel.rows(table), table);
+        }
+    }
+
+    @Test
+    @DisplayName("Should create the meters and report rows per table")
+    void shouldReportRowsPerTable() {
+        config.setBackfillThreads(2);
+        RecordingJdbc jdbc = new RecordingJdbc();
+
+        BackfillReport report = new HistoricalBackfill(jdbc, config).run(3, 1, Instant.parse("2024-06-01T00:07:00Z"));
+
+        assertEquals(BackfillReport.Status.COMPLETED, report.getStatus(), report.getError());
+        assertEquals("JDBC_BATCH", report.getBulkPath());
+        assertEquals(Instant.parse("2024-06-01T00:00:00Z"), report.getTo());
+        assertEquals(List.of("BF00000000", "BF00000001", "BF00000002"), jdbc.meters);
+        // One instantaneous row per quarter hour including both ends, one block per closed quarter
+        assertEquals(3 * 97L, report.getRowsByTable().get("instantaneous_profiles"));
+        assertEquals(3 * 96L, report.getRowsByTable().get("block_load_profiles"));
+        assertEquals(3 * 97, jdbc.rows("instantaneous_profiles").size());
+        long total = report.getRowsByTable().values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(total, report.getTotalRows());
+        assertTrue(report.getRowsPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("Should fail the run when a slice fails")
+    void shouldReportFailedSlice() {
+        RecordingJdbc jdbc = new RecordingJdbc();
+        jdbc.failingTable = "events";
+
+        BackfillReport report = new HistoricalBackfill(jdbc, config).run(4, 1, TO);
+
+        assertEquals(BackfillReport.Status.FAILED, report.getStatus());
+        assertTrue(report.getError().contains("events"), report.getError());
+    }
+
+    @Test
+    @DisplayName("Should refuse a second run while one is in progress")
+    void shouldGuardConcurrentRuns() throws Exception {
+        RecordingJdbc jdbc = new RecordingJdbc();
+        jdbc.entered = new CountDownLatch(1);
+        jdbc.release = new CountDownLatch(1);
+        HistoricalBackfill backfill = new HistoricalBackfill(jdbc, config);
+
+        CompletableFuture<BackfillReport> first = CompletableFuture.supplyAsync(() -> backfill.run(2, 1, TO));
+        assertTrue(jdbc.entered.await(5, TimeUnit.SECONDS));
+        assertThrows(IllegalStateException.class, () -> backfill.run(2, 1, TO));
+        assertThrows(IllegalStateException.class, () -> backfill.start(2, 1));
+        assertThrows(IllegalArgumentException.class, () -> new HistoricalBackfill(jdbc, config).run(0, 1, TO));
+        jdbc.release.countDown();
+
+        BackfillReport report = first.get(30, TimeUnit.SECONDS);
+        assertEquals(BackfillReport.Status.COMPLETED, report.getStatus(), report.getError());
+        assertSame(report, backfill.getLastReport());
+        assertEquals(BackfillReport.Status.COMPLETED, backfill.run(1, 1, TO).getStatus());
+    }
+
+    /** Runs the slices on a fake connection that records every batched row per table */
+    private static class RecordingJdbc extends JdbcTemplate {
+        private final Map<String, List<String>> rows = Collections.synchronizedMap(new TreeMap<>());
+        private final List<String> meters = Collections.synchronizedList(new ArrayList<>());
+        private volatile String failingTable;
+        private CountDownLatch entered;
+        private CountDownLatch release;
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (entered != null) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for (Object[] args : batchArgs) {
+                meters.add((String) args[0]);
+            }
+            return new int[batchArgs.size()];
+        }
+
+        @Override
+        public <T> T execute(ConnectionCallback<T> action) {
+            try {
+                return action.doInConnection(connection());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+
+        List<String> rows(String table) {
+            List<String> tableRows = rows.getOrDefault(table, Collections.emptyList());
+            synchronized (tableRows) {
+                return tableRows.stream().sorted().collect(Collectors.toList());
+            }
+        }
+
+        List<String> tables() {
+            synchronized (rows) {
+                return new ArrayList<>(rows.keySet());
+            }
+        }
+
+        private Connection connection() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isWrapperFor":
+                            return false;
+                        case "prepareStatement":
+                            return statement((String) args[0]);
+                        default:
+                            return null;
+                    }
+                });
+        }
+
+        private PreparedStatement statement(String sql) {
+            String table = sql.substring("INSERT INTO ".length(), sql.indexOf(' ', "INSERT INTO ".length()));
+            List<String> tableRows = rows.computeIfAbsent(table, t -> Collections.synchronizedList(new ArrayList<>()));
+            List<Object> values = new ArrayList<>();
+            List<String> batch = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setObject":
+                            int index = (Integer) args[0] - 1;
+                            while (values.size() <= index) {
+                                values.add(null);
+                            }
+                            values.set(index, args[1]);
+                            return null;
+                        case "addBatch":
+                            batch.add(Arrays.toString(values.toArray()));
+                            values.clear();
+                            return null;
+                        case "executeBatch":
+                            if (table.equals(failingTable)) {
+                                throw new SQLException("insert into " + table + " refused");
+                            }
+                            tableRows.addAll(batch);
+                            int[] counts = new int[batch.size()];
+                            batch.clear();
+                            return counts;
+                        default:
+                            return null;
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,179 @@
+-- Rollup benchmark: raw meter_readings aggregation against the V15 continuous rollups
+--
+-- Loads one year of synthetic readings for 10,000 meters into a scratch schema, builds the
+-- same 15m/1h/1d rollups as migration V15, then times the queries the rollup router issues.
+-- At the defaults (one reading per meter per hour) that is about 87.6 million rows; expect
+-- the load and refresh to take a while and roughly 10 GB of disk before compression.
+--
+-- Usage:
+--   psql -d hes -f database/benchmarks/rollup_benchmark.sql
+--   psql -d hes -v meters=1000 -v days=90 -f database/benchmarks/rollup_benchmark.sql
+--
+-- Requires TimescaleDB 2.9+ (hierarchical continuous aggregates). Drop the schema afterwards:
+--   DROP SCHEMA rollup_bench CASCADE;
+
+\if :{?meters}
+\else
+\set meters 10000
+\endif
+\if :{?days}
+\else
+\set days 365
+\endif
+\if :{?step}
+\else
+\set step '1 hour'
+\endif
+
+\set ON_ERROR_STOP on
+\timing on
+
+DROP SCHEMA IF EXISTS rollup_bench CASCADE;
+CREATE SCHEMA rollup_bench;
+SET search_path = rollup_bench, public;
+-- Day boundaries in UTC so the ranges below line up with the rollup buckets
+SET timezone = 'UTC';
+SELECT set_config('rollup_bench.days', :'days', false), set_config('rollup_bench.step', :'step', false);
+
+-- Same shape as public.meter_readings but without the foreign key to meters
+CREATE TABLE meter_readings (
+    meter_id UUID NOT NULL,
+    hes_timestamp TIMESTAMPTZ NOT NULL,
+    reading_type VARCHAR(50) NOT NULL,
+    value DOUBLE PRECISION NOT NULL,
+    quality INTEGER NOT NULL DEFAULT 192,
+    PRIMARY KEY (meter_id, hes_timestamp, reading_type)
+);
+SELECT create_hypertable('meter_readings', 'hes_timestamp', chunk_time_interval => INTERVAL '7 days');
+
+CREATE TABLE bench_meters AS
+SELECT n, md5('bench-meter-' || n)::uuid AS meter_id
+FROM generate_series(1, :meters) AS n;
+
+-- Daily load curve with per-meter scale and noise; loaded one week per statement
+-- so each insert touches a single chunk.
+DO $$
+DECLARE
+    start_ts TIMESTAMPTZ := date_trunc('day', now()) - make_interval(days => current_setting('rollup_bench.days')::int);
+    end_ts TIMESTAMPTZ := date_trunc('day', now());
+    step INTERVAL := current_setting('rollup_bench.step')::interval;
+    week_start TIMESTAMPTZ;
+BEGIN
+    week_start := start_ts;
+    WHILE week_start < end_ts LOOP
+        INSERT INTO meter_readings (meter_id, hes_timestamp, reading_type, value)
+        SELECT m.meter_id, ts, 'ACTIVE_POWER_IMPORT',
+               (500 + (m.n % 50) * 40)
+                 * (1.2 + sin(2 * pi() * extract(hour FROM ts) / 24))
+                 + random() * 100
+        FROM bench_meters m
+        CROSS JOIN generate_series(week_start,
+                                   least(week_start + INTERVAL '7 days', end_ts) - INTERVAL '1 microsecond',
+                                   step) AS ts;
+        COMMIT;
+        week_start := week_start + INTERVAL '7 days';
+    END LOOP;
+END $$;
+
+ANALYZE meter_readings;
+
+CREATE MATERIALIZED VIEW meter_readings_15m
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT meter_id, reading_type,
+       time_bucket(INTERVAL '15 minutes', hes_timestamp) AS bucket,
+       SUM(value) AS value_sum, COUNT(*) AS value_count, MIN(value) AS value_min, MAX(value) AS value_max
+FROM meter_readings
+GROUP BY meter_id, reading_type, time_bucket(INTERVAL '15 minutes', hes_timestamp)
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW meter_readings_1h
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT meter_id, reading_type,
+       time_bucket(INTERVAL '1 hour', bucket) AS bucket,
+       SUM(value_sum) AS value_sum, SUM(value_count) AS value_count, MIN(value_min) AS value_min, MAX(value_max) AS value_max
+FROM meter_readings_15m
+GROUP BY meter_id, reading_type, time_bucket(INTERVAL '1 hour', bucket)
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW meter_readings_1d
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT meter_id, reading_type,
+       time_bucket(INTERVAL '1 day', bucket) AS bucket,
+       SUM(value_sum) AS value_sum, SUM(value_count) AS value_count, MIN(value_min) AS value_min, MAX(value_max) AS value_max
+FROM meter_readings_1h
+GROUP BY meter_id, reading_type, time_bucket(INTERVAL '1 day', bucket)
+WITH NO DATA;
+
+CREATE INDEX ON meter_readings_15m (meter_id, reading_type, bucket DESC);
+CREATE INDEX ON meter_readings_1h (meter_id, reading_type, bucket DESC);
+CREATE INDEX ON meter_readings_1d (meter_id, reading_type, bucket DESC);
+
+CALL refresh_continuous_aggregate('meter_readings_15m', NULL, date_trunc('day', now()));
+CALL refresh_continuous_aggregate('meter_readings_1h', NULL, date_trunc('day', now()));
+CALL refresh_continuous_aggregate('meter_readings_1d', NULL, date_trunc('day', now()));
+
+SELECT relation, pg_size_pretty(total) AS size
+FROM (
+    SELECT 'meter_readings' AS relation, hypertable_size('meter_readings'::regclass) AS total
+    UNION ALL SELECT 'meter_readings_15m', hypertable_size(format('%I.%I', materialization_hypertable_schema, materialization_hypertable_name)::regclass)
+        FROM timescaledb_information.continuous_aggregates WHERE view_schema = 'rollup_bench' AND view_name = 'meter_readings_15m'
+    UNION ALL SELECT 'meter_readings_1h', hypertable_size(format('%I.%I', materialization_hypertable_schema, materialization_hypertable_name)::regclass)
+        FROM timescaledb_information.continuous_aggregates WHERE view_schema = 'rollup_bench' AND view_name = 'meter_readings_1h'
+    UNION ALL SELECT 'meter_readings_1d', hypertable_size(format('%I.%I', materialization_hypertable_schema, materialization_hypertable_name)::regclass)
+        FROM timescaledb_information.continuous_aggregates WHERE view_schema = 'rollup_bench' AND view_name = 'meter_readings_1d'
+) sizes;
+
+SELECT meter_id AS bench_meter FROM bench_meters WHERE n = 42 \gset
+SELECT date_trunc('day', now()) AS bench_to,
+       date_trunc('day', now()) - make_interval(days => :days) AS bench_year_from,
+       date_trunc('day', now()) - INTERVAL '30 days' AS bench_month_from \gset
+
+-- Each pair runs the same question twice: raw hypertable (what the old query did) and the
+-- rollup the router picks. Run the script twice to compare warm-cache numbers.
+
+\echo '== One meter, one year, daily buckets: raw vs meter_readings_1d'
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT time_bucket(INTERVAL '1 day', hes_timestamp) AS bucket, AVG(value), MIN(value), MAX(value), COUNT(*)
+FROM meter_readings
+WHERE meter_id = :'bench_meter' AND reading_type = 'ACTIVE_POWER_IMPORT'
+  AND hes_timestamp >= :'bench_year_from' AND hes_timestamp < :'bench_to'
+GROUP BY 1 ORDER BY 1 DESC;
+
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT time_bucket(INTERVAL '1 day', bucket) AS b, SUM(value_sum) / SUM(value_count), MIN(value_min), MAX(value_max), SUM(value_count)
+FROM meter_readings_1d
+WHERE meter_id = :'bench_meter' AND reading_type = 'ACTIVE_POWER_IMPORT'
+  AND bucket >= :'bench_year_from' AND bucket < :'bench_to'
+GROUP BY 1 ORDER BY 1 DESC;
+
+\echo '== One meter, one month, hourly buckets: raw vs meter_readings_1h'
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT time_bucket(INTERVAL '1 hour', hes_timestamp) AS bucket, AVG(value), MIN(value), MAX(value), COUNT(*)
+FROM meter_readings
+WHERE meter_id = :'bench_meter' AND reading_type = 'ACTIVE_POWER_IMPORT'
+  AND hes_timestamp >= :'bench_month_from' AND hes_timestamp < :'bench_to'
+GROUP BY 1 ORDER BY 1 DESC;
+
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT time_bucket(INTERVAL '1 hour', bucket) AS b, SUM(value_sum) / SUM(value_count), MIN(value_min), MAX(value_max), SUM(value_count)
+FROM meter_readings_1h
+WHERE meter_id = :'bench_meter' AND reading_type = 'ACTIVE_POWER_IMPORT'
+  AND bucket >= :'bench_month_from' AND bucket < :'bench_to'
+GROUP BY 1 ORDER BY 1 DESC;
+
+\echo '== Whole fleet, one year, weekly buckets: raw vs meter_readings_1d'
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT time_bucket(INTERVAL '7 days', hes_timestamp) AS bucket, AVG(value), MIN(value), MAX(value), COUNT(*)
+FROM meter_readings
+WHERE reading_type = 'ACTIVE_POWER_IMPORT'
+  AND hes_timestamp >= :'bench_year_from' AND hes_timestamp < :'bench_to'
+GROUP BY 1 ORDER BY 1 DESC;
+
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT time_bucket(INTERVAL '7 days', bucket) AS b, SUM(value_sum) / SUM(value_count), MIN(value_min), MAX(value_max), SUM(value_count)
+FROM meter_readings_1d
+WHERE reading_type = 'ACTIVE_POWER_IMPORT'
+  AND bucket >= :'bench_year_from' AND bucket < :'bench_to'
+GROUP BY 1 ORDER BY 1 DESC;
+
+RESET search_path;
@@ -19,7 +19,8 @@ CREATE INDEX idx_meter_readings_meter_id ON meter_readings (meter_id);
 CREATE INDEX idx_meter_readings_reading_type ON meter_readings (reading_type);
 
 -- Oracle version
-CREATE SEQUENCE meter_reading_seq START WITH 1 INCREMENT BY 1;
+-- INCREMENT BY must match OracleMeterReading's allocationSize
+CREATE SEQUENCE meter_reading_seq START WITH 1 INCREMENT BY 50 CACHE 1000;
 
 CREATE TABLE meter_readings (
     id NUMBER DEFAULT meter_reading_seq.NEXTVAL PRIMARY KEY,
@@ -0,0 +1,19 @@
+-- Migration V14: Add replication checkpoints
+-- Stores how far each downstream replication stream (e.g. Oracle) has read meter_readings.
+-- The position is the keyset (hes_timestamp, meter_id, reading_type) of the last row shipped.
+
+CREATE TABLE replication_checkpoints (
+    name VARCHAR(100) PRIMARY KEY,
+    last_hes_timestamp TIMESTAMPTZ NOT NULL,
+    last_meter_id UUID NOT NULL,
+    last_reading_type VARCHAR(50) NOT NULL,
+    rows_replicated BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Keyset index for tailing meter_readings in replication order
+CREATE INDEX IF NOT EXISTS idx_readings_replication_order
+    ON meter_readings (hes_timestamp, meter_id, reading_type);
+
+COMMENT ON TABLE replication_checkpoints IS 'Last meter_readings row shipped by each replication stream';
+COMMENT ON COLUMN replication_checkpoints.rows_replicated IS 'Total rows shipped by the stream since it was created';
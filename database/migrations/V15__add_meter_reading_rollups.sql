@@ -0,0 +1,73 @@
+-- Migration V15: Continuous rollups of meter_readings at 15 minutes, 1 hour and 1 day
+-- Each rollup keeps SUM/COUNT/MIN/MAX rather than AVG so buckets can be merged exactly
+-- when a query asks for a coarser bucket: avg = SUM(value_sum) / SUM(value_count).
+-- The hourly rollup is built on the 15 minute one and the daily on the hourly
+-- (hierarchical continuous aggregates, TimescaleDB 2.9 or later).
+-- materialized_only = false lets queries see rows that have not been materialized yet.
+
+CREATE MATERIALIZED VIEW meter_readings_15m
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT
+    meter_id,
+    reading_type,
+    time_bucket(INTERVAL '15 minutes', hes_timestamp) AS bucket,
+    SUM(value) AS value_sum,
+    COUNT(*) AS value_count,
+    MIN(value) AS value_min,
+    MAX(value) AS value_max
+FROM meter_readings
+GROUP BY meter_id, reading_type, time_bucket(INTERVAL '15 minutes', hes_timestamp)
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW meter_readings_1h
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT
+    meter_id,
+    reading_type,
+    time_bucket(INTERVAL '1 hour', bucket) AS bucket,
+    SUM(value_sum) AS value_sum,
+    SUM(value_count) AS value_count,
+    MIN(value_min) AS value_min,
+    MAX(value_max) AS value_max
+FROM meter_readings_15m
+GROUP BY meter_id, reading_type, time_bucket(INTERVAL '1 hour', bucket)
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW meter_readings_1d
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT
+    meter_id,
+    reading_type,
+    time_bucket(INTERVAL '1 day', bucket) AS bucket,
+    SUM(value_sum) AS value_sum,
+    SUM(value_count) AS value_count,
+    MIN(value_min) AS value_min,
+    MAX(value_max) AS value_max
+FROM meter_readings_1h
+GROUP BY meter_id, reading_type, time_bucket(INTERVAL '1 day', bucket)
+WITH NO DATA;
+
+-- Per-series lookups: one meter and reading type over a time range
+CREATE INDEX idx_readings_15m_series ON meter_readings_15m (meter_id, reading_type, bucket DESC);
+CREATE INDEX idx_readings_1h_series ON meter_readings_1h (meter_id, reading_type, bucket DESC);
+CREATE INDEX idx_readings_1d_series ON meter_readings_1d (meter_id, reading_type, bucket DESC);
+
+-- Refresh windows overlap the previous run so late readings are folded in
+SELECT add_continuous_aggregate_policy('meter_readings_15m',
+    start_offset => INTERVAL '3 days',
+    end_offset => INTERVAL '15 minutes',
+    schedule_interval => INTERVAL '5 minutes');
+
+SELECT add_continuous_aggregate_policy('meter_readings_1h',
+    start_offset => INTERVAL '7 days',
+    end_offset => INTERVAL '1 hour',
+    schedule_interval => INTERVAL '30 minutes');
+
+SELECT add_continuous_aggregate_policy('meter_readings_1d',
+    start_offset => INTERVAL '35 days',
+    end_offset => INTERVAL '1 day',
+    schedule_interval => INTERVAL '1 hour');
+
+COMMENT ON MATERIALIZED VIEW meter_readings_15m IS '15 minute rollup of meter_readings (sum, count, min, max)';
+COMMENT ON MATERIALIZED VIEW meter_readings_1h IS 'Hourly rollup of meter_readings built on meter_readings_15m';
+COMMENT ON MATERIALIZED VIEW meter_readings_1d IS 'Daily rollup of meter_readings built on meter_readings_1h';
@@ -0,0 +1,45 @@
+-- Migration V16: Make obis_codes the collector's COSEM object catalog
+-- The collector loads this table into an in-memory OBIS index at startup and reloads it when
+-- the row count or the latest updated_at changes, so updated_at is maintained by a trigger.
+
+ALTER TABLE obis_codes
+    ADD COLUMN IF NOT EXISTS object_name VARCHAR(50) UNIQUE,
+    ADD COLUMN IF NOT EXISTS attribute_id SMALLINT NOT NULL DEFAULT 2,
+    ADD COLUMN IF NOT EXISTS access_level VARCHAR(32) NOT NULL DEFAULT 'READ_ONLY';
+
+-- Function to update updated_at timestamp
+CREATE OR REPLACE FUNCTION update_obis_codes_updated_at()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Trigger to automatically update updated_at
+CREATE TRIGGER obis_codes_updated_at_trigger
+    BEFORE UPDATE ON obis_codes
+    FOR EACH ROW
+    EXECUTE FUNCTION update_obis_codes_updated_at();
+
+-- Objects the collector previously hard-coded, plus the common instantaneous registers
+INSERT INTO obis_codes (logical_name, class_id, object_name, attribute_id, access_level, description) VALUES
+('0.0.1.0.0.255', 8, 'CLOCK', 2, 'READ_WRITE', 'Clock'),
+('0.0.40.0.0.255', 15, 'ASSOCIATION_LN', 2, 'READ_ONLY', 'Current association'),
+('0.0.96.3.10.255', 70, 'RELAY_CONTROL', 3, 'READ_WRITE', 'Disconnect control'),
+('1.0.1.7.0.255', 3, 'ACTIVE_POWER_IMPORT', 2, 'READ_ONLY', 'Active power import'),
+('1.0.2.7.0.255', 3, 'ACTIVE_POWER_EXPORT', 2, 'READ_ONLY', 'Active power export'),
+('1.0.31.7.0.255', 3, 'CURRENT_L1', 2, 'READ_ONLY', 'Current L1'),
+('1.0.51.7.0.255', 3, 'CURRENT_L2', 2, 'READ_ONLY', 'Current L2'),
+('1.0.71.7.0.255', 3, 'CURRENT_L3', 2, 'READ_ONLY', 'Current L3'),
+('1.0.32.7.0.255', 3, 'VOLTAGE_L1', 2, 'READ_ONLY', 'Voltage L1'),
+('1.0.52.7.0.255', 3, 'VOLTAGE_L2', 2, 'READ_ONLY', 'Voltage L2'),
+('1.0.72.7.0.255', 3, 'VOLTAGE_L3', 2, 'READ_ONLY', 'Voltage L3'),
+('1.0.13.7.0.255', 3, 'POWER_FACTOR', 2, 'READ_ONLY', 'Three phase power factor'),
+('1.0.14.7.0.255', 3, 'FREQUENCY', 2, 'READ_ONLY', 'Supply frequency'),
+('1.0.1.8.0.255', 3, 'ENERGY_IMPORT', 2, 'READ_ONLY', 'Cumulative active energy import'),
+('1.0.2.8.0.255', 3, 'ENERGY_EXPORT', 2, 'READ_ONLY', 'Cumulative active energy export')
+ON CONFLICT (logical_name) DO NOTHING;
+
+COMMENT ON COLUMN obis_codes.object_name IS 'Symbolic name accepted by the DLMS command API, e.g. CLOCK';
+COMMENT ON COLUMN obis_codes.attribute_id IS 'Attribute read or written by default, usually 2 (value)';
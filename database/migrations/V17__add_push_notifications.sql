@@ -0,0 +1,20 @@
+-- Migration V17: DataNotification pushes received by the collector's push listener
+-- ESWF and event pushes go straight into eswf_alarms and events; every other push (periodic
+-- profiles, instantaneous snapshots) is kept here with its notification body in A-XDR, so it
+-- can be decoded again with the push setup's object list.
+
+CREATE TABLE push_notifications (
+    meter_serial_number VARCHAR(100) NOT NULL,
+    received_at TIMESTAMPTZ NOT NULL,
+    meter_time TIMESTAMPTZ,
+    invoke_id BIGINT NOT NULL,
+    payload BYTEA NOT NULL
+);
+
+SELECT create_hypertable('push_notifications', 'received_at');
+
+CREATE INDEX idx_push_notifications_meter_time ON push_notifications (meter_serial_number, received_at DESC);
+
+COMMENT ON TABLE push_notifications IS 'DataNotification pushes other than ESWF and events, body in A-XDR';
+COMMENT ON COLUMN push_notifications.meter_time IS 'Date-time of the notification as set by the meter, if any';
+COMMENT ON COLUMN push_notifications.invoke_id IS 'Long-invoke-id-and-priority of the notification';
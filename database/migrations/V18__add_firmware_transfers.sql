@@ -0,0 +1,23 @@
+-- Migration V18: Checkpoints of firmware image transfers
+-- The collector writes one row per meter and image after every transfer session; a job started
+-- later with the same image continues an unfinished transfer from next_block, provided the meter
+-- still has the transfer in progress.
+
+CREATE TABLE firmware_transfers (
+    meter_serial_number VARCHAR(100) NOT NULL,
+    image_identifier VARCHAR(100) NOT NULL,
+    image_size BIGINT NOT NULL,
+    block_size INTEGER NOT NULL,
+    next_block INTEGER NOT NULL,
+    state VARCHAR(20) NOT NULL,
+    job_id UUID,
+    error TEXT,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (meter_serial_number, image_identifier)
+);
+
+CREATE INDEX idx_firmware_transfers_image_state ON firmware_transfers (image_identifier, state);
+
+COMMENT ON TABLE firmware_transfers IS 'Progress of firmware image transfers, one row per meter and image';
+COMMENT ON COLUMN firmware_transfers.block_size IS 'image_block_size of the meter';
+COMMENT ON COLUMN firmware_transfers.next_block IS 'First block not confirmed by the meter';
@@ -0,0 +1,29 @@
+-- Migration V19: Tail meter_readings for replication in ingest order
+-- hes_timestamp is event time, so late, backfilled and re-read rows landed behind a checkpoint on it
+-- and were never shipped. Every insert and update now stamps the row with the id of the writing
+-- transaction. The replication tail reads by (ingest_xid, hes_timestamp, meter_id, reading_type)
+-- and only up to the oldest transaction still running, which can no longer be overtaken.
+
+-- Existing rows read as 0 and are shipped first, from the stream's existing keyset position
+ALTER TABLE meter_readings ADD COLUMN IF NOT EXISTS ingest_xid BIGINT NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION stamp_meter_readings_ingest_xid()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.ingest_xid = pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER stamp_meter_readings_ingest_xid
+    BEFORE INSERT OR UPDATE ON meter_readings
+    FOR EACH ROW EXECUTE FUNCTION stamp_meter_readings_ingest_xid();
+
+DROP INDEX IF EXISTS idx_readings_replication_order;
+CREATE INDEX IF NOT EXISTS idx_readings_ingest_order
+    ON meter_readings (ingest_xid, hes_timestamp, meter_id, reading_type);
+
+ALTER TABLE replication_checkpoints ADD COLUMN IF NOT EXISTS last_ingest_xid BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN meter_readings.ingest_xid IS 'Transaction that last inserted or updated the row, for replication';
+COMMENT ON COLUMN replication_checkpoints.last_ingest_xid IS 'ingest_xid of the last meter_readings row shipped';
@@ -0,0 +1,19 @@
+-- Migration V20: Stamp meter_readings with the time of the last write
+-- The replication ingest lag was measured from created_at, which an upsert of an existing row keeps,
+-- so re-read and corrected rows looked as old as their first insert. The ingest_xid trigger now also
+-- stamps ingested_at on every insert and update. clock_timestamp() is the time of the write itself;
+-- the row commits at most one transaction later.
+
+-- Rows written before this migration have no stamp; the tail falls back to created_at for them
+ALTER TABLE meter_readings ADD COLUMN IF NOT EXISTS ingested_at TIMESTAMPTZ;
+
+CREATE OR REPLACE FUNCTION stamp_meter_readings_ingest_xid()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.ingest_xid = pg_current_xact_id()::text::bigint;
+    NEW.ingested_at = clock_timestamp();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON COLUMN meter_readings.ingested_at IS 'Time of the last insert or update of the row, for the replication lag';
@@ -0,0 +1,7 @@
+-- Oracle: switch METER_READING_SEQ to pooled allocation.
+-- OracleMeterReading uses allocationSize = 50, so Hibernate reserves 50 ids per NEXTVAL
+-- instead of one round trip per row. The replication writer calls NEXTVAL inline in its
+-- MERGE, which only ever uses the returned value itself, so both can share the sequence.
+-- CACHE keeps the sequence values in the SGA so NEXTVAL does not touch the data dictionary.
+
+ALTER SEQUENCE METER_READING_SEQ INCREMENT BY 50 CACHE 1000;
@@ -0,0 +1,377 @@
+package com.hes.common.cache;
+
+import com.hes.common.entity.MeterReading;
+import com.hes.common.entity.MeterReading.ReadingType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-process latest value per (meter, reading type), kept in primitive arrays.
+ * <p>
+ * Meters are mapped to dense slots by an open-addressing table over the two halves of the UUID.
+ * Slots are grouped into segments of 4096 meters; a segment holds, per reading type, a timestamp,
+ * value, quality and unit code column that is only allocated once that type is written for the
+ * segment. A populated entry costs 18 bytes, so 1M meters with 20 types is about 360 MB against
+ * several GB for the same data as entities. Reads are optimistic and lock-free unless they race a
+ * writer on the same segment.
+ * <p>
+ * Entries never move backwards in time; a reading with the same timestamp replaces the entry, as
+ * the upsert it mirrors does. A reading the store cannot encode (quality outside 0..255,
+ * more than 255 distinct units, null value) clears the entry so callers fall back to the database.
+ */
+@Slf4j
+@Component
+public class LatestReadingStore {
+    static final int SEGMENT_SHIFT = 12;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int BYTES_PER_ENTRY = Long.BYTES + Double.BYTES + 2;
+
+    private final int maxMeters;
+    private final int typeCount = ReadingType.values().length;
+    private final Segment[] segments;
+
+    private final StampedLock indexLock = new StampedLock();
+    private long[] keyHi;
+    private long[] keyLo;
+    /** slot + 1, 0 marks a free bucket */
+    private int[] slots;
+    private int meterCount;
+
+    /** Only taken to add a unit */
+    private final Object unitLock = new Object();
+    private final Map<String, Byte> unitCodes = new ConcurrentHashMap<>();
+    /** unit code to string, code 0 is a null unit */
+    private volatile String[] units = {null};
+
+    public LatestReadingStore(@Value("${hes.latest-readings.max-meters:1048576}") int maxMeters) {
+        this.maxMeters = maxMeters;
+        this.segments = new Segment[(maxMeters + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT];
+        int capacity = 1024;
+        this.keyHi = new long[capacity];
+        this.keyLo = new long[capacity];
+        this.slots = new int[capacity];
+    }
+
+    /**
+     * Apply a persisted reading. Returns false when it was not newer than the stored entry
+     * or the store is full.
+     */
+    public boolean update(MeterReading reading) {
+        if (reading.getMeterId() == null || reading.getReadingType() == null || reading.getHesTimestamp() == null) {
+            return false;
+        }
+        Integer quality = reading.getQuality();
+        Double value = reading.getValue();
+        int unit = unitCode(reading.getUnit());
+        boolean encodable = value != null && quality != null && quality >= 0 && quality <= 255 && unit >= 0;
+
+        int slot = slotFor(reading.getMeterId(), true);
+        if (slot < 0) {
+            return false;
+        }
+        Segment segment = segments[slot >>> SEGMENT_SHIFT];
+        int type = reading.getReadingType().ordinal();
+        int index = slot & SEGMENT_MASK;
+        long timestamp = reading.getHesTimestamp().toEpochMilli();
+
+        long stamp = segment.lock.writeLock();
+        try {
+            long[] timestamps = segment.timestamps[type];
+            if (timestamps == null) {
+                if (!encodable) {
+                    return false;
+                }
+                segment.allocate(type);
+                timestamps = segment.timestamps[type];
+            } else if (timestamps[index] != EMPTY && timestamps[index] > timestamp) {
+                return false;
+            }
+            if (!encodable) {
+                timestamps[index] = EMPTY;
+                return false;
+            }
+            timestamps[index] = timestamp;
+            segment.values[type][index] = value;
+            segment.qualities[type][index] = (byte) quality.intValue();
+            segment.units[type][index] = (byte) unit;
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Drop the entry for the meter and type, so the next lookup goes to the database.
+     */
+    public void invalidate(UUID meterId, ReadingType readingType) {
+        int slot = slotFor(meterId, false);
+        if (slot < 0) {
+            return;
+        }
+        Segment segment = segments[slot >>> SEGMENT_SHIFT];
+        int type = readingType.ordinal();
+        long stamp = segment.lock.writeLock();
+        try {
+            if (segment.timestamps[type] != null) {
+                segment.timestamps[type][slot & SEGMENT_MASK] = EMPTY;
+            }
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    public int updateAll(Collection<MeterReading> readings) {
+        int applied = 0;
+        for (MeterReading reading : readings) {
+            if (update(reading)) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Latest reading for the meter and type, or null when the store has no entry for it.
+     * Only meterId, readingType, hesTimestamp, value, quality and unit are populated.
+     */
+    public MeterReading get(UUID meterId, ReadingType readingType) {
+        int slot = slotFor(meterId, false);
+        if (slot < 0) {
+            return null;
+        }
+        Segment segment = segments[slot >>> SEGMENT_SHIFT];
+        int type = readingType.ordinal();
+        int index = slot & SEGMENT_MASK;
+
+        long timestamp = EMPTY;
+        double value = 0;
+        int quality = 0;
+        int unit = 0;
+        long stamp = segment.lock.tryOptimisticRead();
+        long[] timestamps = segment.timestamps[type];
+        double[] values = segment.values[type];
+        byte[] qualities = segment.qualities[type];
+        byte[] unitColumn = segment.units[type];
+        if (timestamps != null && values != null && qualities != null && unitColumn != null) {
+            timestamp = timestamps[index];
+            value = values[index];
+            quality = qualities[index] & 0xFF;
+            unit = unitColumn[index] & 0xFF;
+        }
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+            try {
+                if (segment.timestamps[type] == null) {
+                    return null;
+                }
+                timestamp = segment.timestamps[type][index];
+                value = segment.values[type][index];
+                quality = segment.qualities[type][index] & 0xFF;
+                unit = segment.units[type][index] & 0xFF;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        if (timestamp == EMPTY) {
+            return null;
+        }
+
+        MeterReading reading = new MeterReading();
+        reading.setMeterId(meterId);
+        reading.setReadingType(readingType);
+        reading.setHesTimestamp(Instant.ofEpochMilli(timestamp));
+        reading.setValue(value);
+        reading.setQuality(quality);
+        reading.setUnit(units[unit]);
+        return reading;
+    }
+
+    public int getMeterCount() {
+        long stamp = indexLock.readLock();
+        try {
+            return meterCount;
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Bytes held by allocated entry columns, excluding the meter index.
+     */
+    public long getAllocatedBytes() {
+        long columns = 0;
+        for (Segment segment : segments) {
+            if (segment != null) {
+                long stamp = segment.lock.readLock();
+                try {
+                    for (long[] column : segment.timestamps) {
+                        if (column != null) {
+                            columns++;
+                        }
+                    }
+                } finally {
+                    segment.lock.unlockRead(stamp);
+                }
+            }
+        }
+        return columns * SEGMENT_SIZE * BYTES_PER_ENTRY;
+    }
+
+    private int slotFor(UUID meterId, boolean create) {
+        long hi = meterId.getMostSignificantBits();
+        long lo = meterId.getLeastSignificantBits();
+
+        long stamp = indexLock.tryOptimisticRead();
+        int slot = -1;
+        if (stamp != 0) {
+            // grow() replaces the three arrays one after the other; a mixed set cannot be probed
+            long[] hiKeys = keyHi;
+            long[] loKeys = keyLo;
+            int[] slotTable = slots;
+            if (hiKeys.length == slotTable.length && loKeys.length == slotTable.length) {
+                slot = find(hiKeys, loKeys, slotTable, hi, lo);
+            } else {
+                stamp = 0;
+            }
+        }
+        if (!indexLock.validate(stamp)) {
+            stamp = indexLock.readLock();
+            try {
+                slot = find(keyHi, keyLo, slots, hi, lo);
+            } finally {
+                indexLock.unlockRead(stamp);
+            }
+        }
+        if (slot >= 0 || !create) {
+            return slot;
+        }
+
+        stamp = indexLock.writeLock();
+        try {
+            slot = find(keyHi, keyLo, slots, hi, lo);
+            if (slot >= 0) {
+                return slot;
+            }
+            if (meterCount >= maxMeters) {
+                log.warn("Latest reading store is full at {} meters, not caching {}", maxMeters, meterId);
+                return -1;
+            }
+            if ((meterCount + 1) * 2 > slots.length) {
+                grow();
+            }
+            slot = meterCount++;
+            insert(keyHi, keyLo, slots, hi, lo, slot);
+            int segmentIndex = slot >>> SEGMENT_SHIFT;
+            if (segments[segmentIndex] == null) {
+                segments[segmentIndex] = new Segment(typeCount);
+            }
+            return slot;
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+    }
+
+    private void grow() {
+        int capacity = slots.length * 2;
+        long[] newHi = new long[capacity];
+        long[] newLo = new long[capacity];
+        int[] newSlots = new int[capacity];
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != 0) {
+                insert(newHi, newLo, newSlots, keyHi[i], keyLo[i], slots[i] - 1);
+            }
+        }
+        keyHi = newHi;
+        keyLo = newLo;
+        slots = newSlots;
+    }
+
+    private static int find(long[] hiKeys, long[] loKeys, int[] slotTable, long hi, long lo) {
+        int mask = slotTable.length - 1;
+        for (int i = bucket(hi, lo, mask); ; i = (i + 1) & mask) {
+            int slot = slotTable[i];
+            if (slot == 0) {
+                return -1;
+            }
+            if (hiKeys[i] == hi && loKeys[i] == lo) {
+                return slot - 1;
+            }
+        }
+    }
+
+    private static void insert(long[] hiKeys, long[] loKeys, int[] slotTable, long hi, long lo, int slot) {
+        int mask = slotTable.length - 1;
+        int i = bucket(hi, lo, mask);
+        while (slotTable[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        hiKeys[i] = hi;
+        loKeys[i] = lo;
+        slotTable[i] = slot + 1;
+    }
+
+    private static int bucket(long hi, long lo, int mask) {
+        long h = (hi ^ Long.rotateLeft(lo, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Returns the unit code, or -1 when the unit table is full.
+     */
+    private int unitCode(String unit) {
+        if (unit == null) {
+            return 0;
+        }
+        Byte code = unitCodes.computeIfAbsent(unit, this::addUnit);
+        return code == null ? -1 : code & 0xFF;
+    }
+
+    /** Code for a new unit, or null when the table is full; two new units may be added at once */
+    private Byte addUnit(String unit) {
+        synchronized (unitLock) {
+            String[] current = units;
+            if (current.length > 255) {
+                return null;
+            }
+            String[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = unit;
+            units = next;
+            return (byte) current.length;
+        }
+    }
+
+    private static final class Segment {
+        final StampedLock lock = new StampedLock();
+        final long[][] timestamps;
+        final double[][] values;
+        final byte[][] qualities;
+        final byte[][] units;
+
+        Segment(int typeCount) {
+            timestamps = new long[typeCount][];
+            values = new double[typeCount][];
+            qualities = new byte[typeCount][];
+            units = new byte[typeCount][];
+        }
+
+        void allocate(int type) {
+            long[] column = new long[SEGMENT_SIZE];
+            Arrays.fill(column, EMPTY);
+            values[type] = new double[SEGMENT_SIZE];
+            qualities[type] = new byte[SEGMENT_SIZE];
+            units[type] = new byte[SEGMENT_SIZE];
+            timestamps[type] = column;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.hes.common.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Thresholds for the streaming VEE stage on the reading write path.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "hes.vee")
+public class VeeConfig {
+    private boolean enabled = true;
+    /** Smoothing factor of the running mean and variance used by the spike check */
+    private double spikeAlpha = 0.1;
+    /** Standard deviations from the running mean before a value counts as a spike */
+    private double spikeSigma = 6.0;
+    /** Smallest deviation, relative to the running mean, that can be a spike */
+    private double spikeMinRelative = 0.2;
+    /** Readings needed before the spike check trusts the running statistics */
+    private int warmupReadings = 8;
+    /** Identical consecutive readings before a non-cumulative series counts as flat-lined */
+    private int flatLineReadings = 12;
+    /** A gap starts when the time since the last reading exceeds this multiple of the interval */
+    private double gapTolerance = 1.5;
+    /** Longest gap, in intervals, that is filled with estimates; longer gaps are only flagged */
+    private int maxEstimatedIntervals = 96;
+    /** Time-of-day slots in the load profile of power series; 0 disables profile estimation */
+    private int profileSlots = 24;
+    /** Smoothing factor of each profile slot */
+    private double profileAlpha = 0.2;
+    /** Consecutive rejected readings after which the series is re-seeded from the new level */
+    private int reseedAfterRejects = 3;
+}
@@ -84,7 +84,9 @@ public class MeterReading {
         CURRENT_L2,
         CURRENT_L3,
         POWER_FACTOR,
-        FREQUENCY
+        FREQUENCY,
+        ACTIVE_ENERGY_IMPORT,
+        ACTIVE_ENERGY_EXPORT
     }
 
     public enum ReadingSource {
@@ -113,6 +115,7 @@ public class MeterReading {
     public enum Unit {
         KW("kW"),
         KVAR("kVAr"),
+        KWH("kWh"),
         V("V"),
         A("A"),
         HZ("Hz"),
@@ -12,7 +12,7 @@ public class OracleMeterReading {
     
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meter_reading_seq")
-    @SequenceGenerator(name = "meter_reading_seq", sequenceName = "METER_READING_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "meter_reading_seq", sequenceName = "METER_READING_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(name = "METER_ID", nullable = false)
@@ -0,0 +1,24 @@
+package com.hes.common.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a bulk upsert. {@code unchanged} counts conflicting rows whose values already
+ * matched, and {@code duplicates} rows dropped because a later row in the same call had the same key.
+ * {@code flagged} counts submitted readings that carry VEE flags and {@code estimated} the gap
+ * estimates written alongside them; estimates are counted in the other totals like any row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpsertResult {
+    private int submitted;
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int duplicates;
+    private int flagged;
+    private int estimated;
+}
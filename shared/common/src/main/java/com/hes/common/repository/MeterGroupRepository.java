@@ -4,8 +4,10 @@ import com.hes.common.entity.MeterGroup;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface MeterGroupRepository extends JpaRepository<MeterGroup, UUID> {
+    Optional<MeterGroup> findByName(String name);
 } 
\ No newline at end of file
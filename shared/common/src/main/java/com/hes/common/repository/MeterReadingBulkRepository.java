@@ -0,0 +1,18 @@
+package com.hes.common.repository;
+
+import com.hes.common.entity.MeterReading;
+
+import java.util.List;
+
+/**
+ * Set-based writes for meter readings, used when re-reads after a gap deliver thousands of rows at once.
+ */
+public interface MeterReadingBulkRepository {
+
+    /**
+     * Insert or update the readings keyed by (meter_id, hes_timestamp, reading_type). Rows are
+     * bound as column arrays and merged with one statement per chunk, in the caller's transaction.
+     * When the same key appears more than once, the last occurrence wins.
+     */
+    BulkUpsertResult bulkUpsert(List<MeterReading> readings);
+}
@@ -0,0 +1,252 @@
+package com.hes.common.repository;
+
+import com.hes.common.cache.LatestReadingStore;
+import com.hes.common.entity.MeterReading;
+import com.hes.common.vee.VeeEngine;
+import com.hes.common.vee.VeeResult;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bulk upsert through {@code unnest} over column arrays. Each chunk is a single INSERT ... ON CONFLICT
+ * whose RETURNING clause tells inserts ({@code xmax = 0}) from updates. Conflicting rows are only
+ * rewritten when a value actually changed, which keeps audit rows and dead tuples down on re-reads
+ * that mostly return data we already have.
+ * Readings pass through the {@link VeeEngine} first, so they are stored with their validation
+ * status and flags together with the estimates for any gap they close. An estimate never replaces
+ * a reading that was actually collected, while a late actual reading does replace an estimate.
+ * A reading without a verdict ({@code UNVALIDATED}, such as a late re-read the VEE stage passes
+ * through) keeps the validation status and flags already stored for its row.
+ * Written readings reach the {@link LatestReadingStore}, and the VEE series state moves on, once
+ * the transaction commits.
+ */
+@Slf4j
+public class MeterReadingBulkRepositoryImpl implements MeterReadingBulkRepository {
+
+    static final int CHUNK_SIZE = 5000;
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO meter_readings (meter_id, hes_timestamp, rtc_timestamp, reading_type, value, quality, unit,
+            communication_status, source, capture_period, validation_status, validation_flags, retry_count,
+            original_value, scaling_factor, meter_program_id, channel_id)
+        SELECT meter_id, hes_timestamp, rtc_timestamp, reading_type, value, quality, unit,
+            communication_status, COALESCE(source, 'NORMAL_READ'), capture_period,
+            COALESCE(validation_status, 'UNVALIDATED'), CAST(validation_flags AS int4[]), COALESCE(retry_count, 0),
+            original_value, scaling_factor, meter_program_id, channel_id
+        FROM unnest(
+            CAST(? AS uuid[]), CAST(? AS timestamptz[]), CAST(? AS timestamptz[]), CAST(? AS varchar[]),
+            CAST(? AS float8[]), CAST(? AS int4[]), CAST(? AS varchar[]), CAST(? AS varchar[]),
+            CAST(? AS varchar[]), CAST(? AS int4[]), CAST(? AS varchar[]), CAST(? AS text[]), CAST(? AS int4[]),
+            CAST(? AS float8[]), CAST(? AS int4[]), CAST(? AS varchar[]), CAST(? AS varchar[]))
+        AS input(meter_id, hes_timestamp, rtc_timestamp, reading_type, value, quality, unit,
+                 communication_status, source, capture_period, validation_status, validation_flags, retry_count,
+                 original_value, scaling_factor, meter_program_id, channel_id)
+        ON CONFLICT (meter_id, hes_timestamp, reading_type) DO UPDATE
+        SET value = EXCLUDED.value,
+            quality = EXCLUDED.quality,
+            rtc_timestamp = EXCLUDED.rtc_timestamp,
+            communication_status = EXCLUDED.communication_status,
+            retry_count = EXCLUDED.retry_count,
+            source = EXCLUDED.source,
+            validation_status = CASE WHEN EXCLUDED.validation_status = 'UNVALIDATED'
+                AND meter_readings.source <> 'ESTIMATED'
+                THEN meter_readings.validation_status ELSE EXCLUDED.validation_status END,
+            validation_flags = CASE WHEN EXCLUDED.validation_status = 'UNVALIDATED'
+                AND meter_readings.source <> 'ESTIMATED'
+                THEN meter_readings.validation_flags ELSE EXCLUDED.validation_flags END
+        WHERE ((meter_readings.value, meter_readings.quality, meter_readings.rtc_timestamp,
+                meter_readings.communication_status, meter_readings.retry_count, meter_readings.source)
+              IS DISTINCT FROM
+               (EXCLUDED.value, EXCLUDED.quality, EXCLUDED.rtc_timestamp,
+                EXCLUDED.communication_status, EXCLUDED.retry_count, EXCLUDED.source)
+            OR (EXCLUDED.validation_status <> 'UNVALIDATED'
+                AND (meter_readings.validation_status, meter_readings.validation_flags)
+                  IS DISTINCT FROM (EXCLUDED.validation_status, EXCLUDED.validation_flags)))
+          AND (EXCLUDED.source <> 'ESTIMATED' OR meter_readings.source = 'ESTIMATED')
+        RETURNING (xmax = 0) AS inserted
+        """;
+
+    private final LatestReadingStore latestReadingStore;
+    private final VeeEngine veeEngine;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public MeterReadingBulkRepositoryImpl(LatestReadingStore latestReadingStore, VeeEngine veeEngine) {
+        this.latestReadingStore = latestReadingStore;
+        this.veeEngine = veeEngine;
+    }
+
+    @Override
+    @Transactional
+    public BulkUpsertResult bulkUpsert(List<MeterReading> readings) {
+        BulkUpsertResult result = new BulkUpsertResult();
+        result.setSubmitted(readings.size());
+        if (readings.isEmpty()) {
+            return result;
+        }
+
+        List<MeterReading> deduplicated = deduplicate(readings);
+        result.setDuplicates(readings.size() - deduplicated.size());
+        VeeResult vee = veeEngine.process(deduplicated);
+        result.setFlagged(vee.getFlagged());
+        result.setEstimated(vee.getEstimated());
+        List<MeterReading> unique = vee.getReadings();
+
+        long start = System.nanoTime();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+                for (int from = 0; from < unique.size(); from += CHUNK_SIZE) {
+                    List<MeterReading> chunk = unique.subList(from, Math.min(from + CHUNK_SIZE, unique.size()));
+                    bind(connection, statement, chunk);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            if (rs.getBoolean(1)) {
+                                result.setInserted(result.getInserted() + 1);
+                            } else {
+                                result.setUpdated(result.getUpdated() + 1);
+                            }
+                        }
+                    }
+                }
+            }
+        });
+        result.setUnchanged(unique.size() - result.getInserted() - result.getUpdated());
+        publishAfterCommit(unique, vee);
+
+        log.debug("Bulk upserted {} readings in {} ms: {}", readings.size(),
+            (System.nanoTime() - start) / 1_000_000, result);
+        return result;
+    }
+
+    private void publishAfterCommit(List<MeterReading> readings, VeeResult vee) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            veeEngine.commit(vee);
+            latestReadingStore.updateAll(readings);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                veeEngine.commit(vee);
+                latestReadingStore.updateAll(readings);
+            }
+        });
+    }
+
+    /**
+     * A single INSERT ... ON CONFLICT cannot touch the same row twice, so keep the last reading per key.
+     */
+    static List<MeterReading> deduplicate(List<MeterReading> readings) {
+        Map<List<Object>, MeterReading> byKey = new LinkedHashMap<>(readings.size() * 2);
+        for (MeterReading reading : readings) {
+            Objects.requireNonNull(reading.getMeterId(), "meterId");
+            Objects.requireNonNull(reading.getHesTimestamp(), "hesTimestamp");
+            Objects.requireNonNull(reading.getReadingType(), "readingType");
+            byKey.put(List.of(reading.getMeterId(), reading.getHesTimestamp(), reading.getReadingType()), reading);
+        }
+        return byKey.size() == readings.size() ? readings : new ArrayList<>(byKey.values());
+    }
+
+    private static void bind(Connection connection, PreparedStatement statement,
+                             List<MeterReading> chunk) throws SQLException {
+        int n = chunk.size();
+        Object[] meterIds = new Object[n];
+        String[] hesTimestamps = new String[n];
+        String[] rtcTimestamps = new String[n];
+        String[] readingTypes = new String[n];
+        Double[] values = new Double[n];
+        Integer[] qualities = new Integer[n];
+        String[] units = new String[n];
+        String[] communicationStatuses = new String[n];
+        String[] sources = new String[n];
+        Integer[] capturePeriods = new Integer[n];
+        String[] validationStatuses = new String[n];
+        String[] validationFlags = new String[n];
+        Integer[] retryCounts = new Integer[n];
+        Double[] originalValues = new Double[n];
+        Integer[] scalingFactors = new Integer[n];
+        String[] programIds = new String[n];
+        String[] channelIds = new String[n];
+
+        for (int i = 0; i < n; i++) {
+            MeterReading r = chunk.get(i);
+            meterIds[i] = r.getMeterId();
+            hesTimestamps[i] = iso(r.getHesTimestamp());
+            rtcTimestamps[i] = iso(r.getRtcTimestamp());
+            readingTypes[i] = name(r.getReadingType());
+            values[i] = r.getValue();
+            qualities[i] = r.getQuality();
+            units[i] = r.getUnit();
+            communicationStatuses[i] = name(r.getCommunicationStatus());
+            sources[i] = name(r.getSource());
+            capturePeriods[i] = r.getCapturePeriod();
+            validationStatuses[i] = name(r.getValidationStatus());
+            validationFlags[i] = flags(r.getValidationFlags());
+            retryCounts[i] = r.getRetryCount();
+            originalValues[i] = r.getOriginalValue();
+            scalingFactors[i] = r.getScalingFactor();
+            programIds[i] = r.getMeterProgramId();
+            channelIds[i] = r.getChannelId();
+        }
+
+        int p = 1;
+        statement.setArray(p++, connection.createArrayOf("uuid", meterIds));
+        statement.setArray(p++, connection.createArrayOf("text", hesTimestamps));
+        statement.setArray(p++, connection.createArrayOf("text", rtcTimestamps));
+        statement.setArray(p++, connection.createArrayOf("varchar", readingTypes));
+        statement.setArray(p++, connection.createArrayOf("float8", values));
+        statement.setArray(p++, connection.createArrayOf("int4", qualities));
+        statement.setArray(p++, connection.createArrayOf("varchar", units));
+        statement.setArray(p++, connection.createArrayOf("varchar", communicationStatuses));
+        statement.setArray(p++, connection.createArrayOf("varchar", sources));
+        statement.setArray(p++, connection.createArrayOf("int4", capturePeriods));
+        statement.setArray(p++, connection.createArrayOf("varchar", validationStatuses));
+        statement.setArray(p++, connection.createArrayOf("text", validationFlags));
+        statement.setArray(p++, connection.createArrayOf("int4", retryCounts));
+        statement.setArray(p++, connection.createArrayOf("float8", originalValues));
+        statement.setArray(p++, connection.createArrayOf("int4", scalingFactors));
+        statement.setArray(p++, connection.createArrayOf("varchar", programIds));
+        statement.setArray(p, connection.createArrayOf("varchar", channelIds));
+    }
+
+    /** ISO-8601 with a Z offset, so the server parses it independently of the session time zone */
+    private static String iso(Instant instant) {
+        return instant != null ? instant.toString() : null;
+    }
+
+    /** Array literal such as {@code {3,5}}; a two-dimensional bind would not survive {@code unnest} */
+    private static String flags(Integer[] codes) {
+        if (codes == null) {
+            return null;
+        }
+        StringBuilder literal = new StringBuilder(2 + codes.length * 2).append('{');
+        for (int i = 0; i < codes.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append(codes[i]);
+        }
+        return literal.append('}').toString();
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+}
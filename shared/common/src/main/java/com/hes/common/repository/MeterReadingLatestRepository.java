@@ -0,0 +1,24 @@
+package com.hes.common.repository;
+
+import com.hes.common.entity.MeterReading;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Latest reading lookups served from the in-process {@link com.hes.common.cache.LatestReadingStore}.
+ * The JPA saves are overridden here too, so a reading saved as an entity drops the store's entry
+ * instead of leaving it stale.
+ */
+public interface MeterReadingLatestRepository {
+
+    <S extends MeterReading> S save(S reading);
+
+    <S extends MeterReading> List<S> saveAll(Iterable<S> readings);
+
+    /**
+     * Latest reading of the given type for each meter that has one, in the order of {@code meterIds}.
+     * Meters missing from the store are loaded from the database and cached.
+     */
+    List<MeterReading> findLatestReadings(List<UUID> meterIds, String readingType);
+}
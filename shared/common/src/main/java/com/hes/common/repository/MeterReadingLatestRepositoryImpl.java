@@ -0,0 +1,138 @@
+package com.hes.common.repository;
+
+import com.hes.common.cache.LatestReadingStore;
+import com.hes.common.entity.MeterReading;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Answers from the latest reading store and runs {@code DISTINCT ON} only for meters it has not seen.
+ * save and saveAll write through the entity manager as SimpleJpaRepository does, then drop the
+ * store entries of the saved readings once the transaction commits.
+ */
+@Slf4j
+public class MeterReadingLatestRepositoryImpl implements MeterReadingLatestRepository {
+
+    private static final String LATEST_QUERY = """
+        SELECT DISTINCT ON (meter_id) *
+        FROM meter_readings
+        WHERE meter_id IN (:meterIds)
+        AND reading_type = :readingType
+        ORDER BY meter_id, hes_timestamp DESC
+        """;
+
+    private final LatestReadingStore store;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public MeterReadingLatestRepositoryImpl(LatestReadingStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<MeterReading> findLatestReadings(List<UUID> meterIds, String readingType) {
+        MeterReading.ReadingType type = MeterReading.ReadingType.valueOf(readingType);
+        MeterReading[] found = new MeterReading[meterIds.size()];
+        List<UUID> cold = new ArrayList<>();
+        for (int i = 0; i < found.length; i++) {
+            found[i] = store.get(meterIds.get(i), type);
+            if (found[i] == null) {
+                cold.add(meterIds.get(i));
+            }
+        }
+
+        if (!cold.isEmpty()) {
+            log.debug("Latest {} readings: {} cached, loading {} from the database",
+                readingType, found.length - cold.size(), cold.size());
+            Map<UUID, MeterReading> loaded = new HashMap<>();
+            for (MeterReading reading : loadLatest(cold, readingType)) {
+                store.update(reading);
+                loaded.put(reading.getMeterId(), reading);
+            }
+            for (int i = 0; i < found.length; i++) {
+                if (found[i] == null) {
+                    found[i] = loaded.get(meterIds.get(i));
+                }
+            }
+        }
+
+        List<MeterReading> result = new ArrayList<>(found.length);
+        for (MeterReading reading : found) {
+            if (reading != null) {
+                result.add(reading);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public <S extends MeterReading> S save(S reading) {
+        S saved = persist(reading);
+        invalidateAfterCommit(List.of(saved));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public <S extends MeterReading> List<S> saveAll(Iterable<S> readings) {
+        List<S> saved = new ArrayList<>();
+        for (S reading : readings) {
+            saved.add(persist(reading));
+        }
+        invalidateAfterCommit(saved);
+        return saved;
+    }
+
+    private <S extends MeterReading> S persist(S reading) {
+        if (reading.getMeterId() == null) {
+            entityManager.persist(reading);
+            return reading;
+        }
+        return entityManager.merge(reading);
+    }
+
+    /**
+     * The saved value may be older than the entry or move the row's timestamp, so the entry is dropped
+     * rather than updated and the next lookup reads the database.
+     */
+    private void invalidateAfterCommit(List<? extends MeterReading> readings) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(readings);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(readings);
+            }
+        });
+    }
+
+    private void invalidate(List<? extends MeterReading> readings) {
+        for (MeterReading reading : readings) {
+            if (reading.getMeterId() != null && reading.getReadingType() != null) {
+                store.invalidate(reading.getMeterId(), reading.getReadingType());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MeterReading> loadLatest(List<UUID> meterIds, String readingType) {
+        return entityManager.createNativeQuery(LATEST_QUERY, MeterReading.class)
+            .setParameter("meterIds", meterIds)
+            .setParameter("readingType", readingType)
+            .getResultList();
+    }
+}
@@ -0,0 +1,27 @@
+package com.hes.common.repository;
+
+import com.hes.common.rollup.AggregatedReading;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Aggregated reading queries served from the continuous rollups where possible.
+ */
+public interface MeterReadingRollupRepository {
+
+    Duration DEFAULT_BUCKET = Duration.ofMinutes(30);
+
+    /**
+     * Buckets of {@code bucket} width over [from, to), newest first.
+     */
+    List<AggregatedReading> findAggregatedReadings(UUID meterId, String readingType,
+                                                   Instant from, Instant to, Duration bucket);
+
+    default List<AggregatedReading> findAggregatedReadings(UUID meterId, String readingType,
+                                                           Instant from, Instant to) {
+        return findAggregatedReadings(meterId, readingType, from, to, DEFAULT_BUCKET);
+    }
+}
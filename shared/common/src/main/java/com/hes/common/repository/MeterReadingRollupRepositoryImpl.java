@@ -0,0 +1,101 @@
+package com.hes.common.repository;
+
+import com.hes.common.rollup.AggregatedReading;
+import com.hes.common.rollup.RollupGranularity;
+import com.hes.common.rollup.RollupQueryRouter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Routes aggregated reading queries to the coarsest rollup that answers them exactly.
+ * Rollups store sums and counts, so averages over merged buckets are weighted correctly.
+ */
+@Slf4j
+public class MeterReadingRollupRepositoryImpl implements MeterReadingRollupRepository {
+
+    /** Formatted with the granularity's relation and time column */
+    private static final String RAW_QUERY = """
+        SELECT time_bucket(CAST(:width AS INTERVAL), %2$s) AS bucket,
+        AVG(value) AS avg_value,
+        MIN(value) AS min_value,
+        MAX(value) AS max_value,
+        COUNT(*) AS reading_count
+        FROM %1$s
+        WHERE meter_id = :meterId
+        AND reading_type = :readingType
+        AND %2$s >= :from
+        AND %2$s < :to
+        GROUP BY 1
+        ORDER BY 1 DESC
+        """;
+
+    private static final String ROLLUP_QUERY = """
+        SELECT time_bucket(CAST(:width AS INTERVAL), %2$s) AS rollup_bucket,
+        SUM(value_sum) / SUM(value_count) AS avg_value,
+        MIN(value_min) AS min_value,
+        MAX(value_max) AS max_value,
+        SUM(value_count) AS reading_count
+        FROM %1$s
+        WHERE meter_id = :meterId
+        AND reading_type = :readingType
+        AND %2$s >= :from
+        AND %2$s < :to
+        GROUP BY 1
+        ORDER BY 1 DESC
+        """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AggregatedReading> findAggregatedReadings(UUID meterId, String readingType,
+                                                          Instant from, Instant to, Duration bucket) {
+        RollupGranularity granularity = RollupQueryRouter.route(from, to, bucket);
+        log.debug("Aggregating {} {} from {} to {} in {} buckets using {}",
+            meterId, readingType, from, to, bucket, granularity.getRelation());
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(sql(granularity))
+            .setParameter("width", bucket.getSeconds() + " seconds")
+            .setParameter("meterId", meterId)
+            .setParameter("readingType", readingType)
+            .setParameter("from", from)
+            .setParameter("to", to)
+            .getResultList();
+
+        List<AggregatedReading> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new AggregatedReading(
+                toInstant(row[0]),
+                ((Number) row[1]).doubleValue(),
+                ((Number) row[2]).doubleValue(),
+                ((Number) row[3]).doubleValue(),
+                ((Number) row[4]).longValue()));
+        }
+        return result;
+    }
+
+    static String sql(RollupGranularity granularity) {
+        String template = granularity == RollupGranularity.RAW ? RAW_QUERY : ROLLUP_QUERY;
+        return String.format(template, granularity.getRelation(), granularity.getTimeColumn());
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof Instant instant) {
+            return instant;
+        }
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant();
+        }
+        return ((Timestamp) value).toInstant();
+    }
+}
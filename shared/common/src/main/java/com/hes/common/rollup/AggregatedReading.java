@@ -0,0 +1,21 @@
+package com.hes.common.rollup;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One bucket of aggregated readings for a meter and reading type.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregatedReading {
+    private Instant bucket;
+    private double avgValue;
+    private double minValue;
+    private double maxValue;
+    private long readingCount;
+}
@@ -0,0 +1,51 @@
+package com.hes.common.rollup;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Levels at which meter readings can be aggregated. Every level except {@link #RAW} is a
+ * TimescaleDB continuous aggregate holding sum, count, min and max per bucket (migration V15).
+ */
+public enum RollupGranularity {
+    RAW("meter_readings", "hes_timestamp", Duration.ZERO),
+    FIFTEEN_MINUTES("meter_readings_15m", "bucket", Duration.ofMinutes(15)),
+    HOURLY("meter_readings_1h", "bucket", Duration.ofHours(1)),
+    DAILY("meter_readings_1d", "bucket", Duration.ofDays(1));
+
+    private final String relation;
+    private final String timeColumn;
+    private final Duration width;
+
+    RollupGranularity(String relation, String timeColumn, Duration width) {
+        this.relation = relation;
+        this.timeColumn = timeColumn;
+        this.width = width;
+    }
+
+    public String getRelation() {
+        return relation;
+    }
+
+    public String getTimeColumn() {
+        return timeColumn;
+    }
+
+    public Duration getWidth() {
+        return width;
+    }
+
+    /**
+     * True when whole rollup buckets reproduce the requested buckets exactly: the requested
+     * bucket is a multiple of this width and both ends of the range sit on a bucket boundary.
+     */
+    public boolean canServe(Instant from, Instant to, Duration bucket) {
+        if (this == RAW) {
+            return true;
+        }
+        long widthMillis = width.toMillis();
+        return bucket.toMillis() % widthMillis == 0
+            && Math.floorMod(from.toEpochMilli(), widthMillis) == 0
+            && Math.floorMod(to.toEpochMilli(), widthMillis) == 0;
+    }
+}
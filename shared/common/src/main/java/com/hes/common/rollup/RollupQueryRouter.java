@@ -0,0 +1,32 @@
+package com.hes.common.rollup;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Picks the relation an aggregated readings query should run against: the coarsest rollup
+ * that can answer it exactly, falling back to finer rollups and finally the raw hypertable.
+ */
+public final class RollupQueryRouter {
+    private static final RollupGranularity[] COARSEST_FIRST = {
+        RollupGranularity.DAILY, RollupGranularity.HOURLY, RollupGranularity.FIFTEEN_MINUTES
+    };
+
+    private RollupQueryRouter() {
+    }
+
+    public static RollupGranularity route(Instant from, Instant to, Duration bucket) {
+        if (bucket == null || bucket.isZero() || bucket.isNegative()) {
+            throw new IllegalArgumentException("Bucket must be a positive duration: " + bucket);
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Invalid range: " + from + " to " + to);
+        }
+        for (RollupGranularity granularity : COARSEST_FIRST) {
+            if (granularity.canServe(from, to, bucket)) {
+                return granularity;
+            }
+        }
+        return RollupGranularity.RAW;
+    }
+}
@@ -0,0 +1,29 @@
+package com.hes.common.vee;
+
+/**
+ * Codes written to {@code meter_readings.validation_flags}.
+ */
+public enum ValidationFlag {
+    /** Value jumped far outside the recent spread of the series */
+    SPIKE(1),
+    /** Same value repeated for longer than a live channel plausibly stays constant */
+    FLAT_LINE(2),
+    /** One or more intervals before this reading are missing */
+    GAP(3),
+    /** Cumulative register went backwards */
+    REGISTER_ROLLBACK(4),
+    /** Estimated by interpolating between the readings either side of a gap */
+    LINEAR_ESTIMATE(5),
+    /** Estimated from the time-of-day load profile of the series */
+    PROFILE_ESTIMATE(6);
+
+    private final int code;
+
+    ValidationFlag(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+}
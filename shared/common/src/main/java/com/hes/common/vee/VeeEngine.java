@@ -0,0 +1,392 @@
+package com.hes.common.vee;
+
+import com.hes.common.config.VeeConfig;
+import com.hes.common.entity.MeterReading;
+import com.hes.common.entity.MeterReading.CommunicationStatus;
+import com.hes.common.entity.MeterReading.ReadingSource;
+import com.hes.common.entity.MeterReading.ReadingType;
+import com.hes.common.entity.MeterReading.ValidationStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming validation, estimation and editing of meter readings.
+ * <p>
+ * Each (meter, reading type) series keeps a fixed amount of state: the last timestamp and value,
+ * an exponentially weighted mean and variance, the learned interval and a few counters, about
+ * 70 bytes, plus a small time-of-day profile for power series. Every reading is checked against
+ * that state once, as it is written, so validation never needs a second pass over the database:
+ * <ul>
+ *   <li>spike: deviation beyond {@code spikeSigma} standard deviations from the running mean, or
+ *       from the time-of-day profile where one is trained (for cumulative registers, on the
+ *       consumption per interval)</li>
+ *   <li>flat line: the same non-zero value repeated {@code flatLineReadings} times</li>
+ *   <li>gap: more time since the last reading than {@code gapTolerance} intervals</li>
+ *   <li>register rollback: a cumulative register below its last accepted value</li>
+ * </ul>
+ * Gaps up to {@code maxEstimatedIntervals} are filled with estimated readings, shaped by the
+ * time-of-day profile once it is trained and interpolated linearly otherwise. A series that keeps
+ * getting rejected is re-seeded from the new level, so a meter exchange or a genuine step change
+ * is only flagged for a few readings.
+ * <p>
+ * Readings at or before the newest timestamp already seen for their series (re-reads, backfill)
+ * are passed through without validation, so they keep the verdict already stored for them;
+ * manual readings update the state but keep their status.
+ * <p>
+ * A pass works on copies of the series state, which {@link #commit(VeeResult)} installs once the
+ * readings are stored. A batch that is rolled back leaves the state where it was, so the same
+ * readings sent again are validated again rather than counted as late.
+ */
+@Slf4j
+@Component
+public class VeeEngine {
+    private static final int TYPE_COUNT = ReadingType.values().length;
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final long EMPTY = Long.MIN_VALUE;
+    /** OPC "uncertain" quality, used for estimated values */
+    static final int ESTIMATED_QUALITY = 64;
+
+    private static final Set<ReadingType> CUMULATIVE = EnumSet.of(
+        ReadingType.ACTIVE_ENERGY_IMPORT, ReadingType.ACTIVE_ENERGY_EXPORT);
+    private static final Set<ReadingType> PROFILED = EnumSet.of(
+        ReadingType.ACTIVE_POWER_IMPORT, ReadingType.ACTIVE_POWER_EXPORT,
+        ReadingType.REACTIVE_POWER_IMPORT, ReadingType.REACTIVE_POWER_EXPORT);
+
+    private static final int REJECTING = bit(ValidationFlag.SPIKE) | bit(ValidationFlag.REGISTER_ROLLBACK);
+    private static final int INVALIDATING = REJECTING | bit(ValidationFlag.FLAT_LINE);
+
+    private static final Comparator<MeterReading> SERIES_ORDER = Comparator
+        .comparing(MeterReading::getMeterId)
+        .thenComparing(MeterReading::getReadingType)
+        .thenComparing(MeterReading::getHesTimestamp);
+
+    private final VeeConfig config;
+    private final ConcurrentHashMap<UUID, Series[]> meters = new ConcurrentHashMap<>();
+
+    public VeeEngine(VeeConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Validate the readings in place and generate estimates for the gaps they close. Readings
+     * are visited in time order per series regardless of their order in the list. The series
+     * state only moves on when the result is passed to {@link #commit(VeeResult)}.
+     */
+    public VeeResult process(List<MeterReading> readings) {
+        VeeResult result = new VeeResult();
+        result.getReadings().addAll(readings);
+        if (!config.isEnabled() || readings.isEmpty()) {
+            return result;
+        }
+
+        List<MeterReading> ordered = new ArrayList<>(readings.size());
+        for (MeterReading reading : readings) {
+            if (reading.getMeterId() != null && reading.getReadingType() != null
+                    && reading.getHesTimestamp() != null && reading.getValue() != null) {
+                ordered.add(reading);
+            }
+        }
+        ordered.sort(SERIES_ORDER);
+
+        List<MeterReading> estimates = new ArrayList<>();
+        for (MeterReading reading : ordered) {
+            Series[] working = result.pending.computeIfAbsent(reading.getMeterId(), id -> new Series[TYPE_COUNT]);
+            int type = reading.getReadingType().ordinal();
+            Series series = working[type];
+            if (series == null) {
+                series = committed(reading.getMeterId(), type);
+                if (series == null) {
+                    series = new Series(PROFILED.contains(reading.getReadingType()) ? config.getProfileSlots() : 0);
+                }
+                working[type] = series;
+            }
+            apply(series, reading, estimates, result);
+        }
+
+        result.getReadings().addAll(estimates);
+        result.setEstimated(estimates.size());
+        if (result.getFlagged() > 0 || !estimates.isEmpty()) {
+            log.debug("VEE pass over {} readings: {} flagged, {} estimated, {} late", readings.size(),
+                result.getFlagged(), estimates.size(), result.getLate());
+        }
+        return result;
+    }
+
+    /**
+     * Install the series state of a pass whose readings were stored. A series another pass has
+     * already moved further is left alone.
+     */
+    public void commit(VeeResult result) {
+        result.pending.forEach((meterId, working) -> {
+            Series[] meter = meters.computeIfAbsent(meterId, id -> new Series[TYPE_COUNT]);
+            synchronized (meter) {
+                for (int type = 0; type < TYPE_COUNT; type++) {
+                    Series series = working[type];
+                    if (series != null && (meter[type] == null || series.lastTimestamp >= meter[type].lastTimestamp)) {
+                        meter[type] = series;
+                    }
+                }
+            }
+        });
+        result.pending.clear();
+    }
+
+    /**
+     * Drop the state of a meter, e.g. after it was exchanged.
+     */
+    public void reset(UUID meterId) {
+        meters.remove(meterId);
+    }
+
+    public int getTrackedMeters() {
+        return meters.size();
+    }
+
+    /** Copy of the committed state of a series, null when there is none */
+    private Series committed(UUID meterId, int type) {
+        Series[] meter = meters.get(meterId);
+        if (meter == null) {
+            return null;
+        }
+        synchronized (meter) {
+            return meter[type] != null ? meter[type].copy() : null;
+        }
+    }
+
+    private void apply(Series series, MeterReading reading, List<MeterReading> estimates, VeeResult result) {
+        long t = reading.getHesTimestamp().toEpochMilli();
+        double v = reading.getValue();
+        if (series.lastTimestamp != EMPTY && t <= series.lastTimestamp) {
+            result.setLate(result.getLate() + 1);
+            return;
+        }
+
+        boolean first = series.lastTimestamp == EMPTY;
+        boolean cumulative = CUMULATIVE.contains(reading.getReadingType());
+        long delta = first ? 0 : t - series.lastTimestamp;
+        long interval = reading.getCapturePeriod() != null && reading.getCapturePeriod() > 0
+            ? reading.getCapturePeriod() * 60_000L : series.interval;
+
+        int flags = 0;
+        long missing = 0;
+        if (!first && interval > 0 && delta > interval * config.getGapTolerance()) {
+            missing = Math.round((double) delta / interval) - 1;
+            if (missing > 0) {
+                flags |= bit(ValidationFlag.GAP);
+            }
+        }
+
+        double observed = v;
+        if (cumulative) {
+            if (!first && v < series.lastValue) {
+                flags |= bit(ValidationFlag.REGISTER_ROLLBACK);
+            }
+            observed = first ? Double.NaN : (v - series.lastValue) / (missing + 1);
+        }
+        if (!Double.isNaN(observed) && series.samples >= config.getWarmupReadings()
+                && (flags & bit(ValidationFlag.REGISTER_ROLLBACK)) == 0) {
+            double expected = series.expected(t);
+            double deviation = Math.abs(observed - expected);
+            double threshold = Math.max(config.getSpikeSigma() * Math.sqrt(series.variance),
+                config.getSpikeMinRelative() * Math.abs(expected));
+            if (threshold > 0 && deviation > threshold) {
+                flags |= bit(ValidationFlag.SPIKE);
+            }
+        }
+        if (!cumulative) {
+            series.flatRun = !first && v == series.lastValue && v != 0 ? series.flatRun + 1 : 0;
+            if (series.flatRun + 1 >= config.getFlatLineReadings()) {
+                flags |= bit(ValidationFlag.FLAT_LINE);
+            }
+        }
+
+        boolean trusted = reading.getSource() == ReadingSource.MANUAL_READ
+            || reading.getValidationStatus() == ValidationStatus.MANUALLY_VALIDATED;
+        if (trusted) {
+            flags &= ~INVALIDATING;
+        } else {
+            reading.setValidationStatus((flags & INVALIDATING) != 0 ? ValidationStatus.INVALID : ValidationStatus.VALID);
+            reading.setValidationFlags(codes(flags));
+        }
+        result.setValidated(result.getValidated() + 1);
+        if (flags != 0) {
+            result.setFlagged(result.getFlagged() + 1);
+        }
+
+        if ((flags & REJECTING) != 0) {
+            series.lastTimestamp = t;
+            if (++series.rejects >= config.getReseedAfterRejects()) {
+                series.reseed(v);
+            }
+            return;
+        }
+
+        if (missing > 0 && missing <= config.getMaxEstimatedIntervals()) {
+            estimate(series, reading, interval, (int) missing, estimates);
+        }
+        if (!first && (missing == 0 || series.interval == 0)) {
+            series.interval = delta;
+        }
+        if (!Double.isNaN(observed)) {
+            series.accept(observed, config.getSpikeAlpha(), config.getWarmupReadings());
+        }
+        if (series.profile != null && (flags & bit(ValidationFlag.FLAT_LINE)) == 0) {
+            int slot = slot(t, series.profile.length);
+            float current = series.profile[slot];
+            series.profile[slot] = Float.isNaN(current) ? (float) v
+                : (float) (current + config.getProfileAlpha() * (v - current));
+        }
+        series.lastTimestamp = t;
+        series.lastValue = v;
+        series.rejects = 0;
+    }
+
+    private void estimate(Series series, MeterReading reading, long interval, int missing, List<MeterReading> out) {
+        long t0 = series.lastTimestamp;
+        double v0 = series.lastValue;
+        long t1 = reading.getHesTimestamp().toEpochMilli();
+        double v1 = reading.getValue();
+        float[] profile = series.profile;
+        float p0 = profile != null ? profile[slot(t0, profile.length)] : Float.NaN;
+        float p1 = profile != null ? profile[slot(t1, profile.length)] : Float.NaN;
+
+        for (int k = 1; k <= missing; k++) {
+            long ts = t0 + k * interval;
+            double fraction = (double) (ts - t0) / (t1 - t0);
+            double value = v0 + (v1 - v0) * fraction;
+            ValidationFlag method = ValidationFlag.LINEAR_ESTIMATE;
+            float pk = profile != null ? profile[slot(ts, profile.length)] : Float.NaN;
+            if (!Float.isNaN(p0) && !Float.isNaN(p1) && !Float.isNaN(pk)) {
+                value += pk - (p0 + (p1 - p0) * fraction);
+                if (v0 >= 0 && v1 >= 0) {
+                    value = Math.max(0, value);
+                }
+                method = ValidationFlag.PROFILE_ESTIMATE;
+            }
+            out.add(estimated(reading, ts, value, method));
+        }
+    }
+
+    private static MeterReading estimated(MeterReading template, long timestamp, double value, ValidationFlag method) {
+        MeterReading reading = new MeterReading();
+        reading.setMeterId(template.getMeterId());
+        reading.setHesTimestamp(Instant.ofEpochMilli(timestamp));
+        reading.setRtcTimestamp(reading.getHesTimestamp());
+        reading.setReadingType(template.getReadingType());
+        reading.setValue(value);
+        reading.setQuality(ESTIMATED_QUALITY);
+        reading.setUnit(template.getUnit());
+        reading.setCommunicationStatus(CommunicationStatus.PARTIAL);
+        reading.setCapturePeriod(template.getCapturePeriod());
+        reading.setMeterProgramId(template.getMeterProgramId());
+        reading.setChannelId(template.getChannelId());
+        reading.setSource(ReadingSource.ESTIMATED);
+        reading.setValidationStatus(ValidationStatus.ESTIMATED);
+        reading.setValidationFlags(new Integer[] {method.getCode()});
+        return reading;
+    }
+
+    private static int slot(long timestamp, int slots) {
+        return (int) (Math.floorMod(timestamp, DAY_MILLIS) * slots / DAY_MILLIS);
+    }
+
+    private static int bit(ValidationFlag flag) {
+        return 1 << flag.ordinal();
+    }
+
+    private static Integer[] codes(int flags) {
+        if (flags == 0) {
+            return null;
+        }
+        Integer[] codes = new Integer[Integer.bitCount(flags)];
+        int i = 0;
+        for (ValidationFlag flag : ValidationFlag.values()) {
+            if ((flags & bit(flag)) != 0) {
+                codes[i++] = flag.getCode();
+            }
+        }
+        return codes;
+    }
+
+    /** Per-series state; committed state is guarded by the meter's state array */
+    static final class Series {
+        long lastTimestamp = EMPTY;
+        double lastValue;
+        double mean;
+        double variance;
+        long interval;
+        int samples;
+        int flatRun;
+        int rejects;
+        final float[] profile;
+
+        Series(int profileSlots) {
+            if (profileSlots > 0) {
+                profile = new float[profileSlots];
+                Arrays.fill(profile, Float.NaN);
+            } else {
+                profile = null;
+            }
+        }
+
+        private Series(float[] profile) {
+            this.profile = profile;
+        }
+
+        Series copy() {
+            Series copy = new Series(profile != null ? profile.clone() : null);
+            copy.lastTimestamp = lastTimestamp;
+            copy.lastValue = lastValue;
+            copy.mean = mean;
+            copy.variance = variance;
+            copy.interval = interval;
+            copy.samples = samples;
+            copy.flatRun = flatRun;
+            copy.rejects = rejects;
+            return copy;
+        }
+
+        /** Profile value for the time of day once that slot is trained, else the running mean */
+        double expected(long timestamp) {
+            if (profile != null) {
+                float slot = profile[slot(timestamp, profile.length)];
+                if (!Float.isNaN(slot)) {
+                    return slot;
+                }
+            }
+            return mean;
+        }
+
+        void accept(double x, double alpha, int warmup) {
+            if (samples == 0) {
+                mean = x;
+                variance = 0;
+            } else {
+                double diff = x - mean;
+                double increment = alpha * diff;
+                mean += increment;
+                variance = (1 - alpha) * (variance + diff * increment);
+            }
+            if (samples < warmup) {
+                samples++;
+            }
+        }
+
+        void reseed(double value) {
+            lastValue = value;
+            samples = 0;
+            flatRun = 0;
+            rejects = 0;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.hes.common.vee;
+
+import com.hes.common.entity.MeterReading;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Output of one VEE pass: the input readings, now carrying a validation status, followed by
+ * the estimates generated for gaps. {@code late} counts readings at or before the newest
+ * timestamp already seen for their series; they are passed through unvalidated. The series
+ * state this pass arrived at is kept until the readings are stored and the result committed.
+ */
+@Data
+public class VeeResult {
+    private List<MeterReading> readings = new ArrayList<>();
+    private int validated;
+    private int flagged;
+    private int estimated;
+    private int late;
+
+    /** Series state after this pass, installed by {@link VeeEngine#commit(VeeResult)} */
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    final Map<UUID, VeeEngine.Series[]> pending = new HashMap<>();
+}
@@ -0,0 +1,123 @@
+package com.hes.common.cache;
+
+import com.hes.common.entity.MeterReading;
+import com.hes.common.entity.MeterReading.ReadingType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Latest Reading Store Tests")
+class LatestReadingStoreTest {
+    private static final Instant START = Instant.parse("2026-01-05T00:00:00Z");
+
+    @Test
+    @DisplayName("Should keep the newest reading per meter and type")
+    void shouldKeepNewestReading() {
+        LatestReadingStore store = new LatestReadingStore(16);
+        UUID meterId = UUID.randomUUID();
+
+        assertTrue(store.update(reading(meterId, ReadingType.VOLTAGE_L1, 60, 231.5, "V")));
+        assertFalse(store.update(reading(meterId, ReadingType.VOLTAGE_L1, 0, 229.0, "V")));
+        assertTrue(store.update(reading(meterId, ReadingType.CURRENT_L1, 0, 5.0, "A")));
+
+        MeterReading latest = store.get(meterId, ReadingType.VOLTAGE_L1);
+        assertEquals(START.plusSeconds(60), latest.getHesTimestamp());
+        assertEquals(231.5, latest.getValue());
+        assertEquals(192, latest.getQuality());
+        assertEquals("V", latest.getUnit());
+        assertEquals("A", store.get(meterId, ReadingType.CURRENT_L1).getUnit());
+        assertNull(store.get(meterId, ReadingType.VOLTAGE_L2));
+        assertNull(store.get(UUID.randomUUID(), ReadingType.VOLTAGE_L1));
+        assertEquals(1, store.getMeterCount());
+    }
+
+    @Test
+    @DisplayName("Should clear the entry for a reading it cannot encode and refuse meters beyond its capacity")
+    void shouldClearUnencodableAndCapMeters() {
+        LatestReadingStore store = new LatestReadingStore(2);
+        UUID meterId = UUID.randomUUID();
+        store.update(reading(meterId, ReadingType.VOLTAGE_L1, 0, 230.0, "V"));
+
+        MeterReading unencodable = reading(meterId, ReadingType.VOLTAGE_L1, 60, 231.0, "V");
+        unencodable.setQuality(300);
+        assertFalse(store.update(unencodable));
+        assertNull(store.get(meterId, ReadingType.VOLTAGE_L1));
+
+        assertTrue(store.update(reading(UUID.randomUUID(), ReadingType.VOLTAGE_L1, 0, 230.0, "V")));
+        assertFalse(store.update(reading(UUID.randomUUID(), ReadingType.VOLTAGE_L1, 0, 230.0, "V")));
+        assertEquals(2, store.getMeterCount());
+    }
+
+    @Test
+    @DisplayName("Should find every meter while the index grows under concurrent reads")
+    void shouldReadWhileIndexGrows() throws Exception {
+        LatestReadingStore store = new LatestReadingStore(100_000);
+        List<UUID> known = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            UUID meterId = UUID.randomUUID();
+            known.add(meterId);
+            store.update(reading(meterId, ReadingType.VOLTAGE_L1, 0, i, "V"));
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch ready = new CountDownLatch(4);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            results.add(readers.submit(() -> {
+                ready.countDown();
+                long reads = 0;
+                while (writing.get()) {
+                    for (int i = 0; i < known.size(); i++) {
+                        MeterReading latest = store.get(known.get(i), ReadingType.VOLTAGE_L1);
+                        assertNotNull(latest, "meter " + i + " lost during growth");
+                        assertEquals(i, latest.getValue());
+                        reads++;
+                    }
+                }
+                return reads;
+            }));
+        }
+        assertTrue(ready.await(5, TimeUnit.SECONDS));
+        // Index capacity starts at 1024 buckets and doubles at half load, so this grows it seven times
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            UUID meterId = UUID.randomUUID();
+            added.add(meterId);
+            store.update(reading(meterId, ReadingType.VOLTAGE_L1, 0, -1, "V"));
+        }
+        writing.set(false);
+
+        for (Future<Long> result : results) {
+            assertTrue(result.get(10, TimeUnit.SECONDS) > 0);
+        }
+        readers.shutdown();
+        assertEquals(50_064, store.getMeterCount());
+        for (UUID meterId : added) {
+            assertNotNull(store.get(meterId, ReadingType.VOLTAGE_L1));
+        }
+    }
+
+    private static MeterReading reading(UUID meterId, ReadingType type, long offsetSeconds, double value, String unit) {
+        MeterReading reading = new MeterReading();
+        reading.setMeterId(meterId);
+        reading.setReadingType(type);
+        reading.setHesTimestamp(START.plusSeconds(offsetSeconds));
+        reading.setValue(value);
+        reading.setQuality(192);
+        reading.setUnit(unit);
+        return reading;
+    }
+}
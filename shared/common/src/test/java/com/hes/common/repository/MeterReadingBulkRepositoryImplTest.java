@@ -0,0 +1,224 @@
+package com.hes.common.repository;
+
+import com.hes.common.cache.LatestReadingStore;
+import com.hes.common.config.VeeConfig;
+import com.hes.common.entity.MeterReading;
+import com.hes.common.entity.MeterReading.ReadingType;
+import com.hes.common.vee.VeeEngine;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.jdbc.Work;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Meter Reading Bulk Repository Tests")
+class MeterReadingBulkRepositoryImplTest {
+    private static final Instant START = Instant.parse("2026-01-05T00:00:00Z");
+    /** Parameter indexes of the hes_timestamp, value and validation_status arrays in the upsert */
+    private static final int HES_TIMESTAMP = 2;
+    private static final int VALUE = 5;
+    private static final int VALIDATION_STATUS = 11;
+
+    private VeeEngine veeEngine;
+    private LatestReadingStore latestReadingStore;
+    private MeterReadingBulkRepositoryImpl repository;
+    private final List<Map<Integer, Object[]>> statements = new ArrayList<>();
+    /** RETURNING rows of the next statements, true for an insert; all inserts when empty */
+    private final Deque<boolean[]> returned = new ArrayDeque<>();
+    private UUID meterId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        veeEngine = new VeeEngine(new VeeConfig());
+        latestReadingStore = new LatestReadingStore(16);
+        repository = new MeterReadingBulkRepositoryImpl(latestReadingStore, veeEngine);
+        Field field = MeterReadingBulkRepositoryImpl.class.getDeclaredField("entityManager");
+        field.setAccessible(true);
+        field.set(repository, entityManager());
+        meterId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the last reading per key and count the dropped repeats")
+    void shouldDeduplicateLastWins() {
+        BulkUpsertResult result = repository.bulkUpsert(List.of(
+            reading(0, 230), reading(1, 231), reading(0, 232), reading(0, 233)));
+
+        assertEquals(4, result.getSubmitted());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(1, statements.size());
+        assertArrayEquals(new Object[] {233.0, 231.0}, statements.get(0).get(VALUE));
+        assertArrayEquals(new Object[] {START.toString(), START.plusSeconds(900).toString()},
+            statements.get(0).get(HES_TIMESTAMP));
+    }
+
+    @Test
+    @DisplayName("Should upsert in chunks and tell inserts, updates and unchanged rows apart")
+    void shouldChunkAndCount() {
+        int n = MeterReadingBulkRepositoryImpl.CHUNK_SIZE + 3;
+        List<MeterReading> readings = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            readings.add(reading(i, 230));
+        }
+        // First chunk: all new rows; second chunk: one update, one unchanged row left out of RETURNING
+        boolean[] first = new boolean[MeterReadingBulkRepositoryImpl.CHUNK_SIZE];
+        Arrays.fill(first, true);
+        returned.add(first);
+        returned.add(new boolean[] {true, false});
+
+        BulkUpsertResult result = repository.bulkUpsert(readings);
+
+        assertEquals(2, statements.size());
+        assertEquals(MeterReadingBulkRepositoryImpl.CHUNK_SIZE, statements.get(0).get(1).length);
+        assertEquals(3, statements.get(1).get(1).length);
+        assertEquals(n, result.getSubmitted());
+        assertEquals(MeterReadingBulkRepositoryImpl.CHUNK_SIZE + 1, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getUnchanged());
+        assertEquals(0, result.getDuplicates());
+    }
+
+    @Test
+    @DisplayName("Should not touch the database for an empty batch and reject readings without a key")
+    void shouldHandleEmptyAndIncompleteBatches() {
+        BulkUpsertResult result = repository.bulkUpsert(List.of());
+        assertEquals(0, result.getSubmitted());
+        assertTrue(statements.isEmpty());
+
+        MeterReading incomplete = reading(0, 230);
+        incomplete.setReadingType(null);
+        assertThrows(NullPointerException.class, () -> repository.bulkUpsert(List.of(reading(1, 230), incomplete)));
+    }
+
+    @Test
+    @DisplayName("Should send re-reads without a verdict so the upsert keeps the stored one")
+    void shouldSendRereadsUnvalidated() {
+        repository.bulkUpsert(List.of(reading(0, 230), reading(1, 231)));
+        assertArrayEquals(new Object[] {"VALID", "VALID"}, statements.get(0).get(VALIDATION_STATUS));
+
+        BulkUpsertResult result = repository.bulkUpsert(List.of(reading(1, 231)));
+
+        assertEquals(0, result.getFlagged());
+        assertArrayEquals(new Object[] {"UNVALIDATED"}, statements.get(1).get(VALIDATION_STATUS));
+    }
+
+    @Test
+    @DisplayName("Should move the VEE state and latest readings only after the transaction commits")
+    void shouldApplyStateAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        repository.bulkUpsert(List.of(reading(0, 230), reading(1, 231)));
+
+        assertNull(latestReadingStore.get(meterId, ReadingType.VOLTAGE_L1));
+        assertEquals(0, veeEngine.getTrackedMeters());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+
+        assertEquals(START.plusSeconds(900), latestReadingStore.get(meterId, ReadingType.VOLTAGE_L1).getHesTimestamp());
+        assertEquals(1, veeEngine.getTrackedMeters());
+        assertEquals(1, veeEngine.process(List.of(reading(1, 231))).getLate());
+    }
+
+    private MeterReading reading(int interval, double value) {
+        MeterReading reading = new MeterReading();
+        reading.setMeterId(meterId);
+        reading.setReadingType(ReadingType.VOLTAGE_L1);
+        reading.setHesTimestamp(START.plusSeconds(interval * 900L));
+        reading.setValue(value);
+        reading.setQuality(192);
+        reading.setCapturePeriod(15);
+        return reading;
+    }
+
+    /** Runs Session.doWork against a connection that records the bound arrays of each statement */
+    private EntityManager entityManager() {
+        Connection connection = proxy(Connection.class, (method, args) -> {
+            switch (method) {
+                case "prepareStatement":
+                    return statement();
+                case "createArrayOf":
+                    Object[] elements = (Object[]) args[1];
+                    return proxy(Array.class, (arrayMethod, arrayArgs) -> elements);
+                default:
+                    return null;
+            }
+        });
+        Session session = proxy(Session.class, (method, args) -> {
+            if (method.equals("doWork")) {
+                ((Work) args[0]).execute(connection);
+            }
+            return null;
+        });
+        return proxy(EntityManager.class, (method, args) -> method.equals("unwrap") ? session : null);
+    }
+
+    private PreparedStatement statement() {
+        Map<Integer, Object[]> bound = new HashMap<>();
+        return proxy(PreparedStatement.class, (method, args) -> {
+            switch (method) {
+                case "setArray":
+                    bound.put((Integer) args[0], (Object[]) ((Array) args[1]).getArray());
+                    return null;
+                case "executeQuery":
+                    statements.add(new HashMap<>(bound));
+                    boolean[] rows = returned.isEmpty() ? allInserted(bound.get(1).length) : returned.poll();
+                    int[] row = {-1};
+                    return proxy(ResultSet.class, (resultMethod, resultArgs) -> {
+                        if (resultMethod.equals("next")) {
+                            return ++row[0] < rows.length;
+                        }
+                        return resultMethod.equals("getBoolean") ? rows[row[0]] : null;
+                    });
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static boolean[] allInserted(int rows) {
+        boolean[] inserted = new boolean[rows];
+        Arrays.fill(inserted, true);
+        return inserted;
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+}
@@ -0,0 +1,141 @@
+package com.hes.common.repository;
+
+import com.hes.common.cache.LatestReadingStore;
+import com.hes.common.entity.MeterReading;
+import com.hes.common.entity.MeterReading.ReadingType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Meter Reading Latest Repository Tests")
+class MeterReadingLatestRepositoryImplTest {
+    private static final Instant START = Instant.parse("2026-03-02T00:00:00Z");
+
+    private LatestReadingStore store;
+    private MeterReadingLatestRepositoryImpl repository;
+    /** Latest row per meter as the database holds it */
+    private final Map<UUID, MeterReading> table = new HashMap<>();
+    private int queries;
+    private UUID meterId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new LatestReadingStore(16);
+        repository = new MeterReadingLatestRepositoryImpl(store);
+        Field field = MeterReadingLatestRepositoryImpl.class.getDeclaredField("entityManager");
+        field.setAccessible(true);
+        field.set(repository, entityManager());
+        meterId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should read the value saved through save() instead of the cached one")
+    void shouldReadValueSavedThroughSave() {
+        repository.save(reading(0, 230.0));
+        assertEquals(230.0, latest().getValue());
+        assertEquals(1, queries);
+        // Served from the store now
+        assertEquals(230.0, latest().getValue());
+        assertEquals(1, queries);
+
+        // A correction of the same interval, which the store would otherwise keep serving
+        repository.save(reading(0, 228.5));
+
+        assertEquals(228.5, latest().getValue());
+        assertEquals(2, queries);
+    }
+
+    @Test
+    @DisplayName("Should keep serving the cached value until saveAll commits")
+    void shouldInvalidateAfterCommit() {
+        store.update(reading(0, 230.0));
+        TransactionSynchronizationManager.initSynchronization();
+
+        repository.saveAll(List.of(reading(900, 231.0)));
+        assertEquals(230.0, latest().getValue());
+        assertEquals(0, queries);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+
+        assertEquals(231.0, latest().getValue());
+        assertEquals(START.plusSeconds(900), latest().getHesTimestamp());
+    }
+
+    private MeterReading latest() {
+        List<MeterReading> found = repository.findLatestReadings(List.of(meterId), ReadingType.VOLTAGE_L1.name());
+        assertEquals(1, found.size());
+        return found.get(0);
+    }
+
+    private MeterReading reading(int seconds, double value) {
+        MeterReading reading = new MeterReading();
+        reading.setMeterId(meterId);
+        reading.setReadingType(ReadingType.VOLTAGE_L1);
+        reading.setHesTimestamp(START.plusSeconds(seconds));
+        reading.setValue(value);
+        reading.setQuality(192);
+        reading.setUnit("V");
+        return reading;
+    }
+
+    /** merge stores a copy in {@link #table}; the native query answers from it */
+    private EntityManager entityManager() {
+        Query query = (Query) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Query.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("setParameter")) {
+                    return proxy;
+                }
+                if (method.getName().equals("getResultList")) {
+                    queries++;
+                    return new ArrayList<>(table.values());
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        return (EntityManager) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {EntityManager.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "merge": {
+                        MeterReading reading = (MeterReading) args[0];
+                        MeterReading row = new MeterReading();
+                        row.setMeterId(reading.getMeterId());
+                        row.setReadingType(reading.getReadingType());
+                        row.setHesTimestamp(reading.getHesTimestamp());
+                        row.setValue(reading.getValue());
+                        row.setQuality(reading.getQuality());
+                        row.setUnit(reading.getUnit());
+                        table.put(row.getMeterId(), row);
+                        return row;
+                    }
+                    case "createNativeQuery":
+                        return query;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
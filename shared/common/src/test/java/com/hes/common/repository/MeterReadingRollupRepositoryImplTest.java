@@ -0,0 +1,27 @@
+package com.hes.common.repository;
+
+import com.hes.common.rollup.RollupGranularity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Meter Reading Rollup Repository Tests")
+class MeterReadingRollupRepositoryImplTest {
+
+    @Test
+    @DisplayName("Should query each granularity's relation on its own time column")
+    void shouldUseRelationAndTimeColumn() {
+        String raw = MeterReadingRollupRepositoryImpl.sql(RollupGranularity.RAW);
+        assertTrue(raw.contains("FROM meter_readings\n"), raw);
+        assertTrue(raw.contains("time_bucket(CAST(:width AS INTERVAL), hes_timestamp)"), raw);
+        assertTrue(raw.contains("AND hes_timestamp >= :from"), raw);
+        assertTrue(raw.contains("AND hes_timestamp < :to"), raw);
+
+        String hourly = MeterReadingRollupRepositoryImpl.sql(RollupGranularity.HOURLY);
+        assertTrue(hourly.contains("FROM meter_readings_1h\n"), hourly);
+        assertTrue(hourly.contains("SUM(value_sum) / SUM(value_count)"), hourly);
+        assertTrue(hourly.contains("AND bucket >= :from"), hourly);
+        assertFalse(hourly.contains("hes_timestamp"), hourly);
+    }
+}
@@ -0,0 +1,69 @@
+package com.hes.common.rollup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Rollup Query Router Tests")
+class RollupQueryRouterTest {
+    private static final Instant DAY = Instant.parse("2026-03-01T00:00:00Z");
+
+    @Test
+    @DisplayName("Should pick the coarsest rollup whose width divides the bucket")
+    void shouldPickCoarsestDividingRollup() {
+        Instant week = DAY.plus(Duration.ofDays(7));
+        assertEquals(RollupGranularity.DAILY, route(DAY, week, Duration.ofDays(1)));
+        assertEquals(RollupGranularity.DAILY, route(DAY, week, Duration.ofDays(7)));
+        assertEquals(RollupGranularity.HOURLY, route(DAY, week, Duration.ofHours(6)));
+        assertEquals(RollupGranularity.HOURLY, route(DAY, week, Duration.ofHours(36)));
+        assertEquals(RollupGranularity.FIFTEEN_MINUTES, route(DAY, week, Duration.ofMinutes(30)));
+        assertEquals(RollupGranularity.FIFTEEN_MINUTES, route(DAY, week, Duration.ofMinutes(45)));
+    }
+
+    @Test
+    @DisplayName("Should step down to a finer rollup when an end of the range is not aligned")
+    void shouldStepDownAtRangeBoundaries() {
+        Duration day = Duration.ofDays(1);
+        assertEquals(RollupGranularity.DAILY, route(DAY, DAY.plus(day), day));
+        // Either end one hour off a day boundary
+        assertEquals(RollupGranularity.HOURLY, route(DAY.plus(Duration.ofHours(1)), DAY.plus(day), day));
+        assertEquals(RollupGranularity.HOURLY, route(DAY, DAY.plus(Duration.ofHours(23)), day));
+        // A quarter hour off an hour boundary
+        assertEquals(RollupGranularity.FIFTEEN_MINUTES,
+            route(DAY.plus(Duration.ofMinutes(15)), DAY.plus(day), Duration.ofHours(1)));
+        assertEquals(RollupGranularity.FIFTEEN_MINUTES,
+            route(DAY, DAY.plus(Duration.ofMinutes(105)), Duration.ofHours(1)));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the raw hypertable when no rollup reproduces the buckets")
+    void shouldFallBackToRaw() {
+        Instant to = DAY.plus(Duration.ofDays(1));
+        assertEquals(RollupGranularity.RAW, route(DAY, to, Duration.ofMinutes(5)));
+        assertEquals(RollupGranularity.RAW, route(DAY, to, Duration.ofMinutes(20)));
+        assertEquals(RollupGranularity.RAW, route(DAY.plusMillis(1), to, Duration.ofDays(1)));
+        assertEquals(RollupGranularity.RAW, route(DAY, to.minusSeconds(1), Duration.ofDays(1)));
+        assertEquals(RollupGranularity.RAW, route(DAY.plus(Duration.ofMinutes(10)), to, Duration.ofHours(1)));
+        assertTrue(RollupGranularity.RAW.canServe(DAY.plusMillis(7), to, Duration.ofSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("Should reject empty ranges and non-positive buckets")
+    void shouldRejectInvalidQueries() {
+        Instant to = DAY.plus(Duration.ofDays(1));
+        assertThrows(IllegalArgumentException.class, () -> route(DAY, to, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> route(DAY, to, Duration.ofHours(-1)));
+        assertThrows(IllegalArgumentException.class, () -> route(DAY, to, null));
+        assertThrows(IllegalArgumentException.class, () -> route(DAY, DAY, Duration.ofHours(1)));
+        assertThrows(IllegalArgumentException.class, () -> route(to, DAY, Duration.ofHours(1)));
+        assertThrows(IllegalArgumentException.class, () -> route(null, to, Duration.ofHours(1)));
+    }
+
+    private static RollupGranularity route(Instant from, Instant to, Duration bucket) {
+        return RollupQueryRouter.route(from, to, bucket);
+    }
+}
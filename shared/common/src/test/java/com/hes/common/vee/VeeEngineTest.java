@@ -0,0 +1,160 @@
+package com.hes.common.vee;
+
+import com.hes.common.config.VeeConfig;
+import com.hes.common.entity.MeterReading;
+import com.hes.common.entity.MeterReading.ReadingSource;
+import com.hes.common.entity.MeterReading.ReadingType;
+import com.hes.common.entity.MeterReading.ValidationStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("VEE Engine Tests")
+class VeeEngineTest {
+    private static final Instant START = Instant.parse("2026-01-05T00:00:00Z");
+    private static final long INTERVAL_MS = 15 * 60_000L;
+
+    private VeeEngine engine;
+    private UUID meterId;
+
+    @BeforeEach
+    void setUp() {
+        engine = new VeeEngine(new VeeConfig());
+        meterId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should flag a spike once the series is warmed up and keep the mean from following it")
+    void shouldFlagSpike() {
+        List<MeterReading> readings = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            readings.add(reading(ReadingType.VOLTAGE_L1, i, 230 + (i % 2)));
+        }
+        MeterReading spike = reading(ReadingType.VOLTAGE_L1, 10, 400);
+        MeterReading normal = reading(ReadingType.VOLTAGE_L1, 11, 231);
+        readings.add(spike);
+        readings.add(normal);
+
+        VeeResult result = engine.process(readings);
+
+        assertEquals(ValidationStatus.INVALID, spike.getValidationStatus());
+        assertArrayEquals(new Integer[] {ValidationFlag.SPIKE.getCode()}, spike.getValidationFlags());
+        assertEquals(ValidationStatus.VALID, normal.getValidationStatus());
+        assertNull(normal.getValidationFlags());
+        assertEquals(1, result.getFlagged());
+        assertEquals(12, result.getValidated());
+    }
+
+    @Test
+    @DisplayName("Should flag a gap and fill it with linear estimates")
+    void shouldEstimateGap() {
+        List<MeterReading> readings = new ArrayList<>();
+        readings.add(reading(ReadingType.ACTIVE_ENERGY_IMPORT, 0, 1000));
+        readings.add(reading(ReadingType.ACTIVE_ENERGY_IMPORT, 1, 1010));
+        MeterReading afterGap = reading(ReadingType.ACTIVE_ENERGY_IMPORT, 4, 1040);
+        readings.add(afterGap);
+
+        VeeResult result = engine.process(readings);
+
+        assertEquals(ValidationStatus.VALID, afterGap.getValidationStatus());
+        assertArrayEquals(new Integer[] {ValidationFlag.GAP.getCode()}, afterGap.getValidationFlags());
+        assertEquals(2, result.getEstimated());
+        assertEquals(5, result.getReadings().size());
+        MeterReading first = result.getReadings().get(3);
+        MeterReading second = result.getReadings().get(4);
+        assertEquals(timestamp(2), first.getHesTimestamp());
+        assertEquals(1020, first.getValue(), 1e-9);
+        assertEquals(timestamp(3), second.getHesTimestamp());
+        assertEquals(1030, second.getValue(), 1e-9);
+        assertEquals(ReadingSource.ESTIMATED, first.getSource());
+        assertEquals(ValidationStatus.ESTIMATED, first.getValidationStatus());
+        assertArrayEquals(new Integer[] {ValidationFlag.LINEAR_ESTIMATE.getCode()}, first.getValidationFlags());
+    }
+
+    @Test
+    @DisplayName("Should pass re-reads through without a verdict so the stored one is kept")
+    void shouldPassLateReadingsThrough() {
+        engine.commit(engine.process(List.of(
+            reading(ReadingType.VOLTAGE_L1, 0, 230), reading(ReadingType.VOLTAGE_L1, 1, 231))));
+
+        MeterReading reread = reading(ReadingType.VOLTAGE_L1, 1, 231);
+        MeterReading backfilled = reading(ReadingType.VOLTAGE_L1, -3, 229);
+        VeeResult result = engine.process(List.of(reread, backfilled));
+
+        assertEquals(2, result.getLate());
+        assertEquals(0, result.getValidated());
+        assertEquals(0, result.getEstimated());
+        // UNVALIDATED tells the upsert to keep the validation status and flags already stored
+        assertEquals(ValidationStatus.UNVALIDATED, reread.getValidationStatus());
+        assertNull(reread.getValidationFlags());
+        assertEquals(ValidationStatus.UNVALIDATED, backfilled.getValidationStatus());
+    }
+
+    @Test
+    @DisplayName("Should move the series state only when the pass is committed")
+    void shouldAdvanceStateOnCommit() {
+        List<MeterReading> batch = List.of(
+            reading(ReadingType.ACTIVE_ENERGY_IMPORT, 0, 1000), reading(ReadingType.ACTIVE_ENERGY_IMPORT, 1, 1010));
+
+        // Not committed, e.g. the transaction rolled back: the same readings are validated again
+        engine.process(batch);
+        VeeResult retried = engine.process(copies(batch));
+        assertEquals(0, retried.getLate());
+        assertEquals(2, retried.getValidated());
+        assertEquals(0, engine.getTrackedMeters());
+
+        engine.commit(retried);
+        assertEquals(1, engine.getTrackedMeters());
+        VeeResult again = engine.process(copies(batch));
+        assertEquals(2, again.getLate());
+
+        // A gap is measured from the last committed reading
+        VeeResult next = engine.process(List.of(reading(ReadingType.ACTIVE_ENERGY_IMPORT, 3, 1030)));
+        assertEquals(1, next.getEstimated());
+        assertEquals(timestamp(2), next.getReadings().get(1).getHesTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should keep the newer state when an older pass commits after a newer one")
+    void shouldNotRewindCommittedState() {
+        VeeResult older = engine.process(List.of(reading(ReadingType.VOLTAGE_L1, 0, 230)));
+        VeeResult newer = engine.process(List.of(
+            reading(ReadingType.VOLTAGE_L1, 0, 230), reading(ReadingType.VOLTAGE_L1, 1, 231)));
+
+        engine.commit(newer);
+        engine.commit(older);
+
+        assertEquals(1, engine.process(List.of(reading(ReadingType.VOLTAGE_L1, 1, 231))).getLate());
+    }
+
+    private MeterReading reading(ReadingType type, int interval, double value) {
+        MeterReading reading = new MeterReading();
+        reading.setMeterId(meterId);
+        reading.setReadingType(type);
+        reading.setHesTimestamp(timestamp(interval));
+        reading.setValue(value);
+        reading.setCapturePeriod(15);
+        return reading;
+    }
+
+    private List<MeterReading> copies(List<MeterReading> readings) {
+        List<MeterReading> copies = new ArrayList<>();
+        for (MeterReading original : readings) {
+            copies.add(reading(original.getReadingType(),
+                (int) ((original.getHesTimestamp().toEpochMilli() - START.toEpochMilli()) / INTERVAL_MS),
+                original.getValue()));
+        }
+        return copies;
+    }
+
+    private static Instant timestamp(int interval) {
+        return START.plusMillis(interval * INTERVAL_MS);
+    }
+}